@@ -0,0 +1,155 @@
+package metriques;
+
+import jdk.incubator.vector.FloatVector;
+import jdk.incubator.vector.VectorOperators;
+import jdk.incubator.vector.VectorSpecies;
+
+/**
+ * Noyaux de distances avec la Java Vector API (incubateur du JDK 17) : un point par voie SIMD.
+ * Les coordonnées étant rangées point par point, chaque sous-bloc est d'abord transposé
+ * (une colonne par composante) dans un tampon propre au thread, puis traité par vecteurs entiers ;
+ * les derniers points qui ne remplissent pas un vecteur passent par les noyaux scalaires.
+ * (Les chargements « gather » à pas fixe sont lents, voire instables, sur le JDK 17.)
+ *
+ * Compilation : javac --add-modules jdk.incubator.vector -cp bin -d bin src-simd/metriques/*.java
+ * Exécution   : java --add-modules jdk.incubator.vector -cp bin ...
+ * Chargée par réflexion depuis NoyauxDistances, qui revient aux noyaux scalaires si elle est absente.
+ */
+final class NoyauxVectoriels implements NoyauxDistances {
+
+    private static final VectorSpecies<Float> ESPECE = FloatVector.SPECIES_PREFERRED;
+    private static final int VOIES = ESPECE.length();
+
+    // Points transposés à la fois (multiple du nombre de voies)
+    private static final int SOUS_BLOC = 1024;
+
+    // Une colonne par composante (4 au plus : L, a, b, C)
+    private static final ThreadLocal<float[][]> COLONNES = ThreadLocal.withInitial(() -> new float[4][SOUS_BLOC]);
+
+    @Override
+    public void euclidienne(float[] coordonnees, int dimension, int debut, int nombre,
+                            float[] requete, int offsetRequete, float[] sortie, boolean racine) {
+        if (dimension != 2 && dimension != 3) {
+            NoyauxScalaires.euclidienne(coordonnees, dimension, debut, nombre, requete, offsetRequete, sortie, 0, racine);
+            return;
+        }
+        // Composantes absentes (dimension 2) : colonne et requête nulles
+        float q0 = requete[offsetRequete], q1 = requete[offsetRequete + 1];
+        float q2 = dimension == 3 ? requete[offsetRequete + 2] : 0;
+        float[][] colonnes = COLONNES.get();
+        int k = 0;
+        while (nombre - k >= VOIES) {
+            int taille = Math.min(SOUS_BLOC, (nombre - k) / VOIES * VOIES);
+            transposer(coordonnees, dimension, debut + k, taille, colonnes);
+            for (int j = 0; j < taille; j += VOIES) {
+                FloatVector ecart0 = FloatVector.fromArray(ESPECE, colonnes[0], j).sub(q0);
+                FloatVector ecart1 = FloatVector.fromArray(ESPECE, colonnes[1], j).sub(q1);
+                FloatVector ecart2 = FloatVector.fromArray(ESPECE, colonnes[2], j).sub(q2);
+                FloatVector somme = ecart0.mul(ecart0).add(ecart1.mul(ecart1)).add(ecart2.mul(ecart2));
+                if (racine) {
+                    somme = somme.lanewise(VectorOperators.SQRT);
+                }
+                somme.intoArray(sortie, k + j);
+            }
+            k += taille;
+        }
+        NoyauxScalaires.euclidienne(coordonnees, dimension, debut + k, nombre - k, requete, offsetRequete,
+                sortie, k, racine);
+    }
+
+    @Override
+    public void redmean(float[] coordonnees, int debut, int nombre, float[] requete, int offsetRequete, float[] sortie) {
+        float r2 = requete[offsetRequete], g2 = requete[offsetRequete + 1], b2 = requete[offsetRequete + 2];
+        float[][] colonnes = COLONNES.get();
+        int k = 0;
+        while (nombre - k >= VOIES) {
+            int taille = Math.min(SOUS_BLOC, (nombre - k) / VOIES * VOIES);
+            transposer(coordonnees, 3, debut + k, taille, colonnes);
+            for (int j = 0; j < taille; j += VOIES) {
+                FloatVector r1 = FloatVector.fromArray(ESPECE, colonnes[0], j);
+                FloatVector deltaR = r1.sub(r2);
+                FloatVector deltaG = FloatVector.fromArray(ESPECE, colonnes[1], j).sub(g2);
+                FloatVector deltaB = FloatVector.fromArray(ESPECE, colonnes[2], j).sub(b2);
+                FloatVector rBar = r1.add(r2).mul(0.5f);
+                FloatVector poidsR = rBar.mul(1 / 256f).add(2f);
+                FloatVector poidsB = rBar.neg().add(255f).mul(1 / 256f).add(2f);
+                deltaR.mul(deltaR).mul(poidsR)
+                        .add(deltaG.mul(deltaG).mul(4f))
+                        .add(deltaB.mul(deltaB).mul(poidsB))
+                        .lanewise(VectorOperators.SQRT)
+                        .intoArray(sortie, k + j);
+            }
+            k += taille;
+        }
+        NoyauxScalaires.redmean(coordonnees, debut + k, nombre - k, requete, offsetRequete, sortie, k);
+    }
+
+    @Override
+    public void cie94(float[] coordonnees, int debut, int nombre, float[] requete, int offsetRequete, float[] sortie) {
+        float L2 = requete[offsetRequete], a2 = requete[offsetRequete + 1];
+        float b2 = requete[offsetRequete + 2], C2 = requete[offsetRequete + 3];
+        float[][] colonnes = COLONNES.get();
+        int k = 0;
+        while (nombre - k >= VOIES) {
+            int taille = Math.min(SOUS_BLOC, (nombre - k) / VOIES * VOIES);
+            transposer(coordonnees, 4, debut + k, taille, colonnes);
+            for (int j = 0; j < taille; j += VOIES) {
+                FloatVector deltaL = FloatVector.fromArray(ESPECE, colonnes[0], j).sub(L2);
+                FloatVector deltaA = FloatVector.fromArray(ESPECE, colonnes[1], j).sub(a2);
+                FloatVector deltaB = FloatVector.fromArray(ESPECE, colonnes[2], j).sub(b2);
+                FloatVector C1 = FloatVector.fromArray(ESPECE, colonnes[3], j);
+                FloatVector deltaC = C1.sub(C2);
+
+                FloatVector deltaH2 = deltaA.mul(deltaA).add(deltaB.mul(deltaB)).sub(deltaC.mul(deltaC)).max(0f);
+                FloatVector SC = C1.mul(0.045f).add(1f);
+                FloatVector SH = C1.mul(0.015f).add(1f);
+                FloatVector terme2 = deltaC.div(SC);
+
+                deltaL.mul(deltaL)
+                        .add(terme2.mul(terme2))
+                        .add(deltaH2.div(SH.mul(SH)))
+                        .lanewise(VectorOperators.SQRT)
+                        .intoArray(sortie, k + j);
+            }
+            k += taille;
+        }
+        NoyauxScalaires.cie94(coordonnees, debut + k, nombre - k, requete, offsetRequete, sortie, k);
+    }
+
+    /**
+     * Recopie les points [debut, debut+taille) en colonnes : colonnes[d][j] = composante d du point debut+j.
+     * En dimension 2, la troisième colonne est remise à zéro.
+     */
+    private static void transposer(float[] coordonnees, int dimension, int debut, int taille, float[][] colonnes) {
+        float[] c0 = colonnes[0], c1 = colonnes[1], c2 = colonnes[2], c3 = colonnes[3];
+        int base = debut * dimension;
+        switch (dimension) {
+            case 2:
+                for (int j = 0; j < taille; j++, base += 2) {
+                    c0[j] = coordonnees[base];
+                    c1[j] = coordonnees[base + 1];
+                    c2[j] = 0;
+                }
+                break;
+            case 3:
+                for (int j = 0; j < taille; j++, base += 3) {
+                    c0[j] = coordonnees[base];
+                    c1[j] = coordonnees[base + 1];
+                    c2[j] = coordonnees[base + 2];
+                }
+                break;
+            default:
+                for (int j = 0; j < taille; j++, base += 4) {
+                    c0[j] = coordonnees[base];
+                    c1[j] = coordonnees[base + 1];
+                    c2[j] = coordonnees[base + 2];
+                    c3[j] = coordonnees[base + 3];
+                }
+        }
+    }
+
+    @Override
+    public String getNom() {
+        return "Vector API (" + VOIES + " voies)";
+    }
+}
@@ -1,9 +1,10 @@
 import clustering.ClusteringManager;
 import clustering.ClusteringManager.*;
 import clustering.algorithmes.AlgorithmeClustering;
+import clustering.algorithmes.OPTICS;
 import filtres.*;
 import outils.OutilsImage;
-import outils.PixelData;
+import outils.DonneesPixels;
 import validation.DaviesBouldinIndex;
 import validation.SilhouetteScore;
 import visualisation.VisualisationBiomes;
@@ -126,6 +127,8 @@ public class MainConsole {
 
         try {
             imageOriginale = OutilsImage.convertionCheminEnBufferedImage(imageChoisie.getAbsolutePath());
+            // L'image filtrée précédente portait sur une autre image
+            imageFiltree = null;
             nomPlanete = imageChoisie.getName().replaceAll("\\.[^.]+$", "");
 
             System.out.println("\nImage chargée avec succès!");
@@ -149,36 +152,52 @@ public class MainConsole {
         System.out.println("\n=== APPLICATION DE FILTRE ===");
         System.out.println("1. Flou Gaussien");
         System.out.println("2. Flou Moyenne");
-
-        int typeFiltre = lireEntier("Type de filtre: ", 1, 2);
-        int taille = lireEntier("Taille du filtre (3-15, impair): ", 3, 15);
-
-        // Vérifier que la taille est impaire
-        if (taille % 2 == 0) {
-            taille++;
-            System.out.println("Taille ajustée à " + taille + " (doit être impaire)");
+        System.out.println("3. Flou Gaussien récursif (coût indépendant de sigma)");
+        System.out.println("4. Filtre bilatéral (lisse en préservant les frontières)");
+        System.out.println("5. Flou Gaussien puis Moyenne (en une seule passe)");
+
+        int typeFiltre = lireEntier("Type de filtre: ", 1, 5);
+        int taille = 3;
+        if (typeFiltre <= 2 || typeFiltre == 5) {
+            taille = lireEntier("Taille du filtre (3-15, impair): ", 3, 15);
+
+            // Vérifier que la taille est impaire
+            if (taille % 2 == 0) {
+                taille++;
+                System.out.println("Taille ajustée à " + taille + " (doit être impaire)");
+            }
         }
 
         try {
-            Filtre filtre;
+            FiltreFlou filtre;
 
             if (typeFiltre == 1) {
                 double sigma = lireDouble("Sigma (0.5-5.0): ", 0.5, 5.0);
                 filtre = new FiltreFlouGaussien(taille, sigma);
-            } else {
+            } else if (typeFiltre == 2) {
                 filtre = new FiltreFlouMoyenne(taille);
+            } else if (typeFiltre == 3) {
+                double sigma = lireDouble("Sigma (0.5-50.0): ", 0.5, 50.0);
+                filtre = new FiltreFlouGaussienRecursif(sigma);
+            } else if (typeFiltre == 4) {
+                // En dessous, la grille bilatérale devient trop grande pour les images du projet
+                double sigmaSpatial = lireDouble("Sigma spatial en pixels (4.0-50.0): ", 4.0, 50.0);
+                double sigmaCouleur = lireDouble("Sigma couleur en niveaux (8.0-128.0): ", 8.0, 128.0);
+                filtre = new FiltreBilateral(sigmaSpatial, sigmaCouleur);
+            } else {
+                double sigma = lireDouble("Sigma (0.5-5.0): ", 0.5, 5.0);
+                filtre = new ChaineFiltres(new FiltreFlouGaussien(taille, sigma), new FiltreFlouMoyenne(taille));
             }
 
-            // Créer le dossier temporaire
-            Files.createDirectories(Paths.get("./temp"));
-
-            String cheminTemp = "./temp/" + nomPlanete + "_filtree.jpg";
-
             System.out.println("Application du filtre en cours...");
             long debut = System.currentTimeMillis();
 
-            filtre.appliquerFiltre("./exoplanètes/" + nomPlanete + ".jpg", cheminTemp);
-            imageFiltree = OutilsImage.convertionCheminEnBufferedImage(cheminTemp);
+            // Filtrage en mémoire (l'image filtrée n'est écrite qu'à l'export), dans le tampon
+            // de l'image filtrée précédente s'il a la bonne taille
+            BufferedImage destination = imageFiltree != null
+                    && imageFiltree.getWidth() == imageOriginale.getWidth()
+                    && imageFiltree.getHeight() == imageOriginale.getHeight() ? imageFiltree : null;
+            imageFiltree = filtre.appliquerFiltre(imageOriginale, destination);
 
             long duree = System.currentTimeMillis() - debut;
 
@@ -186,7 +205,7 @@ public class MainConsole {
             System.out.println("Type: " + filtre.getNomFiltre());
             System.out.println("Temps d'exécution: " + duree + " ms");
 
-        } catch (IOException e) {
+        } catch (IllegalArgumentException e) {
             System.err.println("Erreur lors de l'application du filtre: " + e.getMessage());
         }
     }
@@ -207,7 +226,8 @@ public class MainConsole {
         System.out.println("1. K-Means (recommandé pour les biomes)");
         System.out.println("2. DBSCAN Standard");
         System.out.println("3. DBSCAN Optimisé (plus rapide que le standard mais toujours lent)");
-        int algoChoice = lireEntier("Votre choix: ", 1, 3);
+        System.out.println("4. OPTICS (compare plusieurs epsilon en un seul calcul)");
+        int algoChoice = lireEntier("Votre choix: ", 1, 4);
 
         // Choix de la métrique
         System.out.println("\nMétrique de couleur:");
@@ -218,10 +238,21 @@ public class MainConsole {
         int metricChoice = lireEntier("Votre choix: ", 1, 4);
 
         // Paramètres selon l'algorithme
-        AlgorithmeClustering algorithme;
+        AlgorithmeClustering algorithme = null;
+        OPTICS optics = null;
+        double[] valeursEps = null;
         if (algoChoice == 1) {
             int k = lireEntier("Nombre de biomes (2-15): ", 2, 15);
             algorithme = Algorithmes.kmeans(k);
+        } else if (algoChoice == 4) {
+            double epsMax = lireDouble("Epsilon maximal (5-100): ", 5.0, 100.0);
+            int minPts = lireEntier("MinPts (10-200): ", 10, 200);
+            int nbValeurs = lireEntier("Nombre de valeurs d'epsilon à comparer (2-20): ", 2, 20);
+            optics = Algorithmes.optics(epsMax, minPts);
+            valeursEps = new double[nbValeurs];
+            for (int i = 0; i < nbValeurs; i++) {
+                valeursEps[i] = epsMax * (i + 1) / nbValeurs;
+            }
         } else {
             double eps = lireDouble("Epsilon (5-100): ", 5.0, 100.0);
             int minPts = lireEntier("MinPts (10-200): ", 10, 200);
@@ -251,7 +282,12 @@ public class MainConsole {
 
         long debut = System.currentTimeMillis();
 
-        resultatBiomes = manager.clusteriserImage(imageFiltree, algorithme, type);
+        if (optics != null) {
+            // Un seul ordre OPTICS, puis une extraction par epsilon
+            resultatBiomes = choisirResultatBalayage(manager.balayerEps(imageFiltree, optics, type, valeursEps), valeursEps);
+        } else {
+            resultatBiomes = manager.clusteriserImage(imageFiltree, algorithme, type);
+        }
         etiquettesBiomes = visuBiomes.etiquerBiomes(resultatBiomes);
 
         long duree = System.currentTimeMillis() - debut;
@@ -285,13 +321,31 @@ public class MainConsole {
         // Lister les biomes
         System.out.println("\nBiomes détectés:");
         for (int i = 0; i < resultatBiomes.nombreClusters; i++) {
-            int nbPixels = resultatBiomes.getPixelsCluster(i).length;
-            double pourcentage = (nbPixels * 100.0) / resultatBiomes.pixels.length;
+            int nbPixels = resultatBiomes.getTailleCluster(i);
+            double pourcentage = (nbPixels * 100.0) / resultatBiomes.donnees.taille();
             System.out.printf("  %d. %s - %d pixels (%.1f%%)\n",
                     i, etiquettesBiomes[i], nbPixels, pourcentage);
         }
     }
 
+    /**
+     * Affiche le résultat de chaque epsilon d'un balayage OPTICS et demande lequel garder.
+     */
+    private static ResultatClustering choisirResultatBalayage(List<ResultatClustering> resultats, double[] valeursEps) {
+        System.out.println("\nRésultats par epsilon:");
+        for (int i = 0; i < resultats.size(); i++) {
+            ResultatClustering resultat = resultats.get(i);
+            int bruit = 0;
+            for (int affectation : resultat.affectations) {
+                if (affectation < 0) bruit++;
+            }
+            System.out.printf("  %d. eps=%.1f - %d clusters, bruit %.1f%%\n", i + 1, valeursEps[i],
+                    resultat.nombreClusters, (bruit * 100.0) / resultat.affectations.length);
+        }
+        int choix = lireEntier("Epsilon à conserver: ", 1, resultats.size());
+        return resultats.get(choix - 1);
+    }
+
     /**
      * 4. Détecter les écosystèmes
      */
@@ -312,7 +366,8 @@ public class MainConsole {
         System.out.println("1. DBSCAN Optimisé (recommandé)");
         System.out.println("2. K-Means");
         System.out.println("3. DBSCAN Standard");
-        int algoChoice = lireEntier("Votre choix: ", 1, 3);
+        System.out.println("4. Composantes connexes (temps linéaire)");
+        int algoChoice = lireEntier("Votre choix: ", 1, 4);
 
         // Paramètres
         AlgorithmeClustering algorithme;
@@ -322,9 +377,13 @@ public class MainConsole {
         } else {
             double eps = lireDouble("Epsilon (distance en pixels, 10-200): ", 10.0, 200.0);
             int minPts = lireEntier("MinPts (5-100): ", 5, 100);
-            algorithme = algoChoice == 1 ?
-                    Algorithmes.dbscanOpti(eps, minPts) :
-                    Algorithmes.dbscan(eps, minPts);
+            if (algoChoice == 1) {
+                algorithme = Algorithmes.dbscanOpti(eps, minPts);
+            } else if (algoChoice == 4) {
+                algorithme = Algorithmes.composantesConnexes(eps, minPts);
+            } else {
+                algorithme = Algorithmes.dbscan(eps, minPts);
+            }
         }
 
         // Réinitialiser la liste si nécessaire
@@ -351,8 +410,8 @@ public class MainConsole {
             int totalEco = 0;
 
             for (int i = 0; i < resultatBiomes.nombreClusters; i++) {
-                PixelData[] pixels = resultatBiomes.getPixelsCluster(i);
-                if (pixels.length < 100) {
+                DonneesPixels pixels = resultatBiomes.getDonneesCluster(i);
+                if (pixels.taille() < 100) {
                     System.out.println("Biome " + i + " (" + etiquettesBiomes[i] + ") trop petit, ignoré");
                     continue;
                 }
@@ -369,11 +428,11 @@ public class MainConsole {
      * Analyser un biome spécifique
      */
     private static int analyserBiome(int biomeId, AlgorithmeClustering algorithme) {
-        PixelData[] pixels = resultatBiomes.getPixelsCluster(biomeId);
+        DonneesPixels pixels = resultatBiomes.getDonneesCluster(biomeId);
         System.out.println("\nAnalyse du biome " + biomeId + " (" + etiquettesBiomes[biomeId] + ")...");
-        System.out.println("Nombre de pixels: " + pixels.length);
+        System.out.println("Nombre de pixels: " + pixels.taille());
 
-        if (pixels.length < 100) {
+        if (pixels.taille() < 100) {
             System.out.println("Biome trop petit pour l'analyse!");
             return 0;
         }
@@ -417,6 +476,11 @@ public class MainConsole {
 
             System.out.println("\nExport en cours...");
 
+            // L'image filtrée n'existe qu'en mémoire jusqu'ici
+            if (imageFiltree != null) {
+                OutilsImage.sauverImage(imageFiltree, dossierExport + "/image_filtree.jpg");
+            }
+
             // Exporter les biomes
             System.out.println("- Export des biomes...");
             visuBiomes.sauvegarderTousBiomes(imageFiltree, resultatBiomes,
@@ -438,7 +502,7 @@ public class MainConsole {
 
                 for (int i = 0; i < resultatsEcosystemes.size(); i++) {
                     if (resultatsEcosystemes.get(i) != null) {
-                        PixelData[] pixels = resultatBiomes.getPixelsCluster(i);
+                        DonneesPixels pixels = resultatBiomes.getDonneesCluster(i);
                         visuEcosystemes.sauvegarderEcosystemesBiome(
                                 imageFiltree, pixels, resultatsEcosystemes.get(i),
                                 dossierEco, etiquettesBiomes[i], i);
@@ -475,28 +539,19 @@ public class MainConsole {
         chargerImage();
         if (imageOriginale == null) return;
 
-        // 2. Appliquer le filtre
-        try {
-            System.out.println("\nApplication du filtre gaussien 5x5...");
-            Filtre filtre = new FiltreFlouGaussien(5, 1.5);
-            Files.createDirectories(Paths.get("./temp"));
-            String cheminTemp = "./temp/" + nomPlanete + "_filtree.jpg";
-            filtre.appliquerFiltre("./exoplanètes/" + nomPlanete + ".jpg", cheminTemp);
-            imageFiltree = OutilsImage.convertionCheminEnBufferedImage(cheminTemp);
-            System.out.println("Filtre appliqué!");
-        } catch (IOException e) {
-            System.err.println("Erreur: " + e.getMessage());
-            return;
-        }
-
-        // 3. Détecter les biomes
+        // 2 et 3. Filtrer et détecter les biomes : le filtre et la conversion CIE94 sont faits
+        // en une passe par bandes, sans image filtrée intermédiaire
         int nbBiomes = lireEntier("Nombre de biomes à détecter (5-8 recommandé): ", 2, 15);
-        System.out.println("\nDétection des biomes avec CIE94...");
+        System.out.println("\nFiltre gaussien 5x5 et détection des biomes avec CIE94...");
         resultatBiomes = manager.clusteriserImage(
-                imageFiltree,
+                imageOriginale,
+                new ChaineFiltres(new FiltreFlouGaussien(5, 1.5)),
                 Algorithmes.kmeans(nbBiomes),
                 TypeClustering.BIOMES_CIE94
         );
+        // Image filtrée (export, visualisations) reconstruite à partir des pixels filtrés du résultat
+        imageFiltree = OutilsImage.creerImageRGB(resultatBiomes.donnees.getColonneRGB().clone(),
+                imageOriginale.getWidth(), imageOriginale.getHeight());
         etiquettesBiomes = visuBiomes.etiquerBiomes(resultatBiomes);
         System.out.println("Biomes détectés: " + resultatBiomes.nombreClusters);
 
@@ -509,8 +564,8 @@ public class MainConsole {
 
         int totalEco = 0;
         for (int i = 0; i < resultatBiomes.nombreClusters; i++) {
-            PixelData[] pixels = resultatBiomes.getPixelsCluster(i);
-            if (pixels.length >= 100) {
+            DonneesPixels pixels = resultatBiomes.getDonneesCluster(i);
+            if (pixels.taille() >= 100) {
                 ResultatClustering eco = manager.clusteriserSousEnsemble(
                         pixels,
                         Algorithmes.dbscanOpti(50.0, 30),
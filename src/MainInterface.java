@@ -3,7 +3,7 @@ import clustering.ClusteringManager.*;
 import clustering.algorithmes.AlgorithmeClustering;
 import filtres.*;
 import outils.OutilsImage;
-import outils.PixelData;
+import outils.DonneesPixels;
 import validation.DaviesBouldinIndex;
 import validation.SilhouetteScore;
 import visualisation.VisualisationBiomes;
@@ -49,6 +49,9 @@ public class MainInterface extends JFrame {
     // Composants réutilisables
     private final Map<String, JComponent> components = new HashMap<>();
 
+    // Nombre de valeurs d'epsilon comparées par un balayage OPTICS
+    private static final int NB_EPS_BALAYAGE = 5;
+
     public MainInterface() {
         super("Analyseur d'Exoplanètes");
         initializeUI();
@@ -133,9 +136,11 @@ public class MainInterface extends JFrame {
     private void createFiltrePanel(JPanel panel) {
         // Configuration
         Object[][] filtreConfig = {
-                {"Type de filtre:", createCombo("Flou Gaussien", "Flou Moyenne")},
+                {"Type de filtre:", createCombo("Flou Gaussien", "Flou Moyenne", "Flou Gaussien récursif",
+                        "Bilatéral (préserve les frontières)", "Gaussien puis moyenne")},
                 {"Taille:", createSpinner(5, 3, 15, 2)},
-                {"Sigma:", createSpinner(1.5, 0.5, 5.0, 0.5)}
+                {"Sigma:", createSpinner(1.5, 0.5, 50.0, 0.5)},
+                {"Sigma couleur:", createSpinner(20.0, 8.0, 128.0, 1.0)}
         };
 
         JPanel config = createConfigPanel("Configuration du Filtre", filtreConfig);
@@ -156,7 +161,7 @@ public class MainInterface extends JFrame {
     private void createBiomesPanel(JPanel panel) {
         // Configuration
         JSpinner spinnerBiomes = createSpinner(6, 2, 15, 1);
-        JComboBox<String> algoCombo = createCombo("K-Means", "DBSCAN", "DBSCAN Optimisé");  // AJOUT
+        JComboBox<String> algoCombo = createCombo("K-Means", "DBSCAN", "DBSCAN Optimisé", "OPTICS (plusieurs epsilon)");
         JComboBox<String> metricCombo = createCombo("CIELAB", "CIE94", "Euclidienne", "Redmean");
 
         // Paramètres DBSCAN pour biomes
@@ -251,7 +256,7 @@ public class MainInterface extends JFrame {
 
     private void createEcosystemesPanel(JPanel panel) {
         // Configuration avec sélection d'algorithme
-        JComboBox<String> algoCombo = createCombo("DBSCAN Optimisé", "K-Means", "DBSCAN");
+        JComboBox<String> algoCombo = createCombo("DBSCAN Optimisé", "K-Means", "DBSCAN", "Composantes connexes");
         JSpinner spinnerK = createSpinner(3, 2, 10, 1);
         JSpinner spinnerEps = createSpinner(50.0, 10.0, 200.0, 10.0);
         JSpinner spinnerMinPts = createSpinner(30, 5, 100, 5);
@@ -366,10 +371,12 @@ public class MainInterface extends JFrame {
             File file = chooser.getSelectedFile();
             cheminImageCourante = file.getAbsolutePath();
 
-            executeAsync(() -> {
-                imageOriginale = OutilsImage.convertionCheminEnBufferedImage(cheminImageCourante);
-                return imageOriginale;
-            }, img -> {
+            String chemin = cheminImageCourante;
+            executeAsync(() -> OutilsImage.convertionCheminEnBufferedImage(chemin), img -> {
+                imageOriginale = img;
+                // L'image filtrée précédente portait sur une autre image
+                imageFiltree = null;
+                ((JButton)components.get("btnDetectBiomes")).setEnabled(false);
                 ((JTextField)components.get("fieldPath")).setText(file.getName());
                 afficherImage(img, (JLabel)components.get("imageOriginale"));
 
@@ -387,20 +394,28 @@ public class MainInterface extends JFrame {
     }
 
     private void appliquerFiltre(Object e) {
+        JComboBox combo = (JComboBox)components.get("typedefiltre");
+        JSpinner size = (JSpinner)components.get("taille");
+        JSpinner sigma = (JSpinner)components.get("sigma");
+        JSpinner sigmaCouleur = (JSpinner)components.get("sigmacouleur");
+
+        FiltreFlou filtre;
+        switch (combo.getSelectedIndex()) {
+            case 0: filtre = new FiltreFlouGaussien((Integer)size.getValue(), (Double)sigma.getValue()); break;
+            case 1: filtre = new FiltreFlouMoyenne((Integer)size.getValue()); break;
+            case 2: filtre = new FiltreFlouGaussienRecursif((Double)sigma.getValue()); break;
+            // Sigma spatial d'au moins 4 pixels : en dessous, la grille bilatérale devient trop grande
+            case 3: filtre = new FiltreBilateral(Math.max(4.0, (Double)sigma.getValue()),
+                    (Double)sigmaCouleur.getValue()); break;
+            default: filtre = new ChaineFiltres(new FiltreFlouGaussien((Integer)size.getValue(), (Double)sigma.getValue()),
+                    new FiltreFlouMoyenne((Integer)size.getValue())); break;
+        }
+        // Les champs ne sont lus que sur l'EDT : la tâche travaille sur une copie de la référence
+        BufferedImage source = imageOriginale;
         executeAsync(() -> {
-            JComboBox combo = (JComboBox)components.get("typedefiltre");
-            JSpinner size = (JSpinner)components.get("taille");
-            JSpinner sigma = (JSpinner)components.get("sigma");
-
-            Filtre filtre = combo.getSelectedIndex() == 0 ?
-                    new FiltreFlouGaussien((Integer)size.getValue(), (Double)sigma.getValue()) :
-                    new FiltreFlouMoyenne((Integer)size.getValue());
-
-            String temp = "./temp/filtered.jpg";
-            Files.createDirectories(Paths.get("./temp"));
-            filtre.appliquerFiltre(cheminImageCourante, temp);
-
-            return OutilsImage.convertionCheminEnBufferedImage(temp);
+            // Filtrage en mémoire dans une nouvelle image : la précédente reste affichée et utilisée
+            // par les vues des biomes tant que le filtrage n'est pas terminé
+            return filtre.appliquerFiltre(source);
         }, img -> {
             imageFiltree = img;
             JPanel comp = (JPanel)components.get("comparison");
@@ -430,7 +445,27 @@ public class MainInterface extends JFrame {
     }
 
     private void detecterBiomes(int algoIndex, int nbBiomes, double eps, int minPts, int metricIndex) {
+        // OPTICS : epsilon sert de maximum, on compare NB_EPS_BALAYAGE valeurs jusqu'à lui
+        double[] valeursEps = new double[NB_EPS_BALAYAGE];
+        for (int i = 0; i < NB_EPS_BALAYAGE; i++) {
+            valeursEps[i] = eps * (i + 1) / NB_EPS_BALAYAGE;
+        }
+
+        BufferedImage image = imageFiltree;
         executeAsync(() -> {
+            // Choisir la métrique
+            TypeClustering type;
+            switch (metricIndex) {
+                case 0: type = TypeClustering.BIOMES_CIELAB; break;
+                case 1: type = TypeClustering.BIOMES_CIE94; break;
+                case 2: type = TypeClustering.BIOMES_EUCLIDIENNE; break;
+                default: type = TypeClustering.BIOMES_REDMEAN; break;
+            }
+
+            if (algoIndex == 3) { // OPTICS : un seul ordre, puis une extraction par epsilon
+                return manager.balayerEps(image, Algorithmes.optics(eps, minPts), type, valeursEps);
+            }
+
             // Créer l'algorithme selon le choix
             AlgorithmeClustering algorithm;
             if (algoIndex == 0) { // K-Means
@@ -441,17 +476,10 @@ public class MainInterface extends JFrame {
                 algorithm = Algorithmes.dbscanOpti(eps, minPts);
             }
 
-            // Choisir la métrique
-            TypeClustering type;
-            switch (metricIndex) {
-                case 0: type = TypeClustering.BIOMES_CIELAB; break;
-                case 1: type = TypeClustering.BIOMES_CIE94; break;
-                case 2: type = TypeClustering.BIOMES_EUCLIDIENNE; break;
-                default: type = TypeClustering.BIOMES_REDMEAN; break;
-            }
-
-            return manager.clusteriserImage(imageFiltree, algorithm, type);
-        }, result -> {
+            return Collections.singletonList(manager.clusteriserImage(image, algorithm, type));
+        }, resultats -> {
+            ResultatClustering result = resultats.size() == 1 ?
+                    resultats.get(0) : choisirResultatBalayage(resultats, valeursEps);
             resultatBiomes = result;
             etiquettesBiomes = visuBiomes.etiquerBiomes(result);
 
@@ -481,6 +509,26 @@ public class MainInterface extends JFrame {
         }, "Détection biomes");
     }
 
+    /**
+     * Propose le résultat de chaque epsilon d'un balayage OPTICS (le dernier par défaut).
+     */
+    private ResultatClustering choisirResultatBalayage(List<ResultatClustering> resultats, double[] valeursEps) {
+        String[] choix = new String[resultats.size()];
+        for (int i = 0; i < choix.length; i++) {
+            ResultatClustering resultat = resultats.get(i);
+            int bruit = 0;
+            for (int affectation : resultat.affectations) {
+                if (affectation < 0) bruit++;
+            }
+            choix[i] = String.format("eps=%.1f : %d biomes, bruit %.1f%%", valeursEps[i],
+                    resultat.nombreClusters, (bruit * 100.0) / resultat.affectations.length);
+        }
+        Object selection = JOptionPane.showInputDialog(this, "Epsilon à conserver :", "Balayage OPTICS",
+                JOptionPane.QUESTION_MESSAGE, null, choix, choix[choix.length - 1]);
+        int index = Arrays.asList(choix).indexOf(selection);
+        return resultats.get(index >= 0 ? index : choix.length - 1);
+    }
+
     private void afficherBiome(Object e) {
         JComboBox combo = (JComboBox)components.get("comboBiome");
         if (combo.getSelectedItem() == null) return;
@@ -512,8 +560,8 @@ public class MainInterface extends JFrame {
                 }
 
                 for (int i = 0; i < resultatBiomes.nombreClusters; i++) {
-                    PixelData[] pixels = resultatBiomes.getPixelsCluster(i);
-                    if (pixels.length < 50) continue;
+                    DonneesPixels pixels = resultatBiomes.getDonneesCluster(i);
+                    if (pixels.taille() < 50) continue;
 
                     AlgorithmeClustering algorithm = createEcoAlgorithm(algoIndex, k, eps, minPts);
                     ResultatClustering eco = manager.clusteriserSousEnsemble(
@@ -523,8 +571,8 @@ public class MainInterface extends JFrame {
                 return null; // Indique qu'on a analysé tous les biomes
             } else if (biomeSelectionne >= 0) {
                 // Analyser UN SEUL biome
-                PixelData[] pixels = resultatBiomes.getPixelsCluster(biomeSelectionne);
-                if (pixels.length < 50) {
+                DonneesPixels pixels = resultatBiomes.getDonneesCluster(biomeSelectionne);
+                if (pixels.taille() < 50) {
                     throw new RuntimeException("Biome trop petit pour l'analyse");
                 }
 
@@ -592,9 +640,9 @@ public class MainInterface extends JFrame {
         stats.removeAll();
 
         // Stats globales du biome
-        PixelData[] pixelsBiome = resultatBiomes.getPixelsCluster(biomeIndex);
+        DonneesPixels pixelsBiome = resultatBiomes.getDonneesCluster(biomeIndex);
         stats.add(createStatsPanel("Biome " + biomeIndex + ": " + etiquettesBiomes[biomeIndex],
-                "Pixels du biome: " + pixelsBiome.length,
+                "Pixels du biome: " + pixelsBiome.taille(),
                 "Écosystèmes détectés: " + ecosystemes.nombreClusters,
                 "Algorithme: " + ecosystemes.algorithme,
                 "Temps: " + ecosystemes.dureeMs + " ms"
@@ -612,13 +660,13 @@ public class MainInterface extends JFrame {
             for (int j = 0; j < ecosystemes.affectations.length; j++) {
                 if (ecosystemes.affectations[j] == i) {
                     nbPixels++;
-                    sumX += pixelsBiome[j].getX();
-                    sumY += pixelsBiome[j].getY();
+                    sumX += pixelsBiome.getX(j);
+                    sumY += pixelsBiome.getY(j);
                 }
             }
 
             if (nbPixels > 0) {
-                double pourcentage = (nbPixels * 100.0) / pixelsBiome.length;
+                double pourcentage = (nbPixels * 100.0) / pixelsBiome.taille();
                 JPanel ecoPanel = new JPanel(new GridLayout(2, 1));
                 ecoPanel.setBorder(BorderFactory.createEtchedBorder());
                 ecoPanel.add(new JLabel("Écosystème " + i));
@@ -637,6 +685,7 @@ public class MainInterface extends JFrame {
         switch (index) {
             case 0: return Algorithmes.dbscanOpti(eps, minPts);
             case 1: return Algorithmes.kmeans(k);
+            case 3: return Algorithmes.composantesConnexes(eps, minPts);
             default: return Algorithmes.dbscan(eps, minPts);
         }
     }
@@ -650,6 +699,11 @@ public class MainInterface extends JFrame {
                 String nom = new File(cheminImageCourante).getName().replaceAll("\\.[^.]+$", "");
                 String dir = chooser.getSelectedFile().getAbsolutePath() + "/" + nom;
 
+                // L'image filtrée n'existe qu'en mémoire jusqu'ici
+                if (imageFiltree != null) {
+                    OutilsImage.sauverImage(imageFiltree, dir + "/image_filtree.jpg");
+                }
+
                 if (!type.equals("ecosystemes") && resultatBiomes != null) {
                     visuBiomes.sauvegarderTousBiomes(imageFiltree, resultatBiomes, dir, nom);
                 }
@@ -660,7 +714,7 @@ public class MainInterface extends JFrame {
 
                     for (int i = 0; i < resultatsEcosystemes.size(); i++) {
                         if (resultatsEcosystemes.get(i) != null) {
-                            PixelData[] pixels = resultatBiomes.getPixelsCluster(i);
+                            DonneesPixels pixels = resultatBiomes.getDonneesCluster(i);
                             visuEcosystemes.sauvegarderEcosystemesBiome(
                                     imageFiltree, pixels, resultatsEcosystemes.get(i),
                                     ecoDir, etiquettesBiomes[i], i);
@@ -695,7 +749,7 @@ public class MainInterface extends JFrame {
     }
 
     private void afficherEcosystemesBiome(int biome, ResultatClustering eco) {
-        PixelData[] pixels = resultatBiomes.getPixelsCluster(biome);
+        DonneesPixels pixels = resultatBiomes.getDonneesCluster(biome);
         BufferedImage fond = visuBiomes.creerFondClair(imageFiltree);
         BufferedImage img = visuEcosystemes.creerImageEcosystemesSurFondClair(fond, pixels, eco);
 
@@ -1,35 +1,62 @@
 package clustering;
 
 import clustering.algorithmes.*;
+import clustering.centroides.InitialisationKMeansParallele;
+import clustering.centroides.InitialisationKMeansPlusPlus;
+import filtres.ChaineFiltres;
+import filtres.Filtre;
+import index.FabriqueIndex;
 import metriques.MetriqueDistance;
+import metriques.MetriqueVectorielle;
 import metriques.couleur.MetriqueCouleur;
 import metriques.position.MetriquePositionEuclidienne;
 import normeCouleurs.*;
+import outils.DonneesPixels;
+import outils.HistogrammeCouleurs;
 import outils.PixelData;
+import outils.EcritureBandes;
+import outils.SourceTuiles;
 import java.awt.image.BufferedImage;
 import java.awt.Color;
+import java.io.IOException;
 import java.util.*;
 
 /**
  * Gestionnaire principal pour effectuer le clustering sur des images.
- * Version spécialisée pour PixelData uniquement.
+ * Les pixels sont manipulés sous forme de DonneesPixels (colonnes primitives).
  */
 public class ClusteringManager {
 
+    // Pour les biomes, clusteriser les couleurs distinctes pondérées plutôt que chaque pixel
+    private boolean dedoublonnerCouleurs = true;
+
+    /**
+     * Active ou non le clustering des biomes sur les couleurs dédoublonnées.
+     */
+    public void setDedoublonnerCouleurs(boolean dedoublonnerCouleurs) {
+        this.dedoublonnerCouleurs = dedoublonnerCouleurs;
+    }
+
     /**
      * Effectue un clustering sur une image selon le type de données voulu.
      */
     public ResultatClustering clusteriserImage(BufferedImage image, AlgorithmeClustering algorithme, TypeClustering type) {
         // Extraire les données de l'image
-        PixelData[] pixels = extrairePixels(image);
+        DonneesPixels pixels = DonneesPixels.depuisImage(image);
+
+        // Les biomes ne dépendent que de la couleur : on travaille sur l'histogramme si possible
+        if (dedoublonnerCouleurs && type != TypeClustering.ECOSYSTEMES_POSITION && algorithme.supportePoids()) {
+            return clusteriserCouleursUniques(pixels, algorithme, type);
+        }
 
         // Choisir la métrique appropriée
         MetriqueDistance metrique = obtenirMetrique(type);
 
-        // Exécuter le clustering
-        long debut = System.currentTimeMillis();
+        // Exécuter le clustering (conversion des pixels dans l'espace de la métrique comprise)
+        long debut = System.nanoTime();
+        preparerCaracteristiques(pixels, metrique);
         int[] affectations = algorithme.executer(pixels, metrique);
-        long duree = System.currentTimeMillis() - debut;
+        long duree = System.nanoTime() - debut;
 
         // Construire et retourner le résultat
         return new ResultatClustering(
@@ -37,49 +64,207 @@ public class ClusteringManager {
                 algorithme.getNombreClusters(),
                 algorithme.getNom(),
                 metrique.getNom(),
-                duree,
-                pixels
+                pixels,
+                statistiques(algorithme, duree)
         );
     }
 
+    /**
+     * Filtre l'image en mémoire (prétraitement) puis effectue le clustering sur l'image filtrée.
+     * Avec une ChaineFiltres, le filtrage et la conversion dans l'espace de la métrique sont faits
+     * en une passe par bandes, sans construire l'image filtrée.
+     */
+    public ResultatClustering clusteriserImage(BufferedImage image, Filtre filtre, AlgorithmeClustering algorithme,
+                                               TypeClustering type) {
+        if (!(filtre instanceof ChaineFiltres)) {
+            return clusteriserImage(filtre.appliquerFiltre(image), algorithme, type);
+        }
+        ChaineFiltres chaine = (ChaineFiltres) filtre;
+        if (dedoublonnerCouleurs && type != TypeClustering.ECOSYSTEMES_POSITION && algorithme.supportePoids()) {
+            // Seules les couleurs distinctes seront converties : pas de caractéristiques par pixel
+            return clusteriserCouleursUniques(chaine.extraireDonnees(image, null), algorithme, type);
+        }
+        MetriqueDistance metrique = obtenirMetrique(type);
+        MetriqueVectorielle vectorielle = metrique instanceof MetriqueVectorielle ? (MetriqueVectorielle) metrique : null;
+        return clusteriserSousEnsemble(chaine.extraireDonnees(image, vectorielle), algorithme, type);
+    }
+
     /**
      * Effectue un clustering sur un sous-ensemble de pixels (utile pour les écosystèmes).
      */
-    public ResultatClustering clusteriserSousEnsemble(PixelData[] pixels, AlgorithmeClustering algorithme, TypeClustering type) {
+    public ResultatClustering clusteriserSousEnsemble(DonneesPixels pixels, AlgorithmeClustering algorithme, TypeClustering type) {
         MetriqueDistance metrique = obtenirMetrique(type);
 
-        long debut = System.currentTimeMillis();
+        long debut = System.nanoTime();
+        preparerCaracteristiques(pixels, metrique);
         int[] affectations = algorithme.executer(pixels, metrique);
-        long duree = System.currentTimeMillis() - debut;
+        long duree = System.nanoTime() - debut;
 
         return new ResultatClustering(
                 affectations,
                 algorithme.getNombreClusters(),
                 algorithme.getNom(),
                 metrique.getNom(),
-                duree,
-                pixels
+                pixels,
+                statistiques(algorithme, duree)
         );
     }
 
     /**
-     * Extrait tous les pixels d'une image sous forme de PixelData.
+     * Effectue un clustering de couleurs sur l'histogramme (couleur, effectif) des pixels :
+     * l'algorithme ne voit que les couleurs distinctes, pondérées par leur nombre de pixels,
+     * puis les affectations sont étendues à chaque pixel.
      */
-    private PixelData[] extrairePixels(BufferedImage image) {
-        int width = image.getWidth();
-        int height = image.getHeight();
-        PixelData[] pixels = new PixelData[width * height];
+    public ResultatClustering clusteriserCouleursUniques(DonneesPixels pixels, AlgorithmeClustering algorithme, TypeClustering type) {
+        if (type == TypeClustering.ECOSYSTEMES_POSITION) {
+            throw new IllegalArgumentException("Le dédoublonnage ne s'applique qu'aux métriques de couleur");
+        }
+        if (!algorithme.supportePoids()) {
+            throw new IllegalArgumentException(algorithme.getNom() + " ne gère pas les données pondérées");
+        }
+        MetriqueDistance metrique = obtenirMetrique(type);
+
+        long debut = System.nanoTime();
+        HistogrammeCouleurs histogramme = new HistogrammeCouleurs(pixels);
+        DonneesPixels couleurs = histogramme.getCouleursUniques();
+        preparerCaracteristiques(couleurs, metrique); // une conversion par couleur distincte
+        int[] affectationsCouleurs = algorithme.executer(couleurs, metrique);
+        int[] affectations = histogramme.etendreAffectations(affectationsCouleurs);
+        long duree = System.nanoTime() - debut;
+
+        return new ResultatClustering(
+                affectations,
+                algorithme.getNombreClusters(),
+                algorithme.getNom() + " [" + histogramme.getNombreCouleurs() + " couleurs uniques]",
+                metrique.getNom(),
+                pixels,
+                statistiques(algorithme, duree)
+        );
+    }
+
+    /**
+     * Balayage de eps avec OPTICS : l'ordre d'atteignabilité est calculé une seule fois (rayon optics.getEpsMax()),
+     * puis chaque valeur de eps n'est qu'une extraction en O(n), équivalente à un DBSCAN complet.
+     * Comme clusteriserImage, les biomes sont calculés sur les couleurs dédoublonnées si c'est activé.
+     * La durée et les statistiques de chaque résultat sont celles de son extraction (l'ordre est partagé,
+     * ses statistiques restent disponibles par optics.getStatistiques()).
+     *
+     * @param valeursEps Valeurs de eps à essayer (au plus epsMax)
+     * @return Un résultat par valeur de eps, dans le même ordre
+     */
+    public List<ResultatClustering> balayerEps(BufferedImage image, OPTICS optics, TypeClustering type,
+                                               double... valeursEps) {
+        return balayerEps(DonneesPixels.depuisImage(image), optics, type, valeursEps);
+    }
+
+    /**
+     * Balayage de eps avec OPTICS sur un jeu de pixels (ex: les pixels d'un biome pour les écosystèmes).
+     */
+    public List<ResultatClustering> balayerEps(DonneesPixels pixels, OPTICS optics, TypeClustering type,
+                                               double... valeursEps) {
+        MetriqueDistance metrique = obtenirMetrique(type);
+        HistogrammeCouleurs histogramme = null;
+        DonneesPixels donnees = pixels;
+        if (dedoublonnerCouleurs && type != TypeClustering.ECOSYSTEMES_POSITION) {
+            histogramme = new HistogrammeCouleurs(pixels);
+            donnees = histogramme.getCouleursUniques();
+        }
 
-        int index = 0;
-        for (int y = 0; y < height; y++) {
-            for (int x = 0; x < width; x++) {
-                Color couleur = new Color(image.getRGB(x, y));
-                pixels[index] = new PixelData(x, y, couleur, index);
-                index++;
+        preparerCaracteristiques(donnees, metrique);
+        optics.calculerOrdre(donnees, metrique);
+
+        List<ResultatClustering> resultats = new ArrayList<>();
+        for (double eps : valeursEps) {
+            long debut = System.nanoTime();
+            int[] affectations = optics.extraire(eps);
+            if (histogramme != null) {
+                affectations = histogramme.etendreAffectations(affectations);
             }
+            long duree = System.nanoTime() - debut;
+
+            StatistiquesExecution statistiques = new StatistiquesExecution();
+            statistiques.ajouterDuree(StatistiquesExecution.Phase.EXPANSION, duree);
+            statistiques.ajouterPointsVisites(donnees.taille());
+            statistiques.setDureeTotale(duree);
+
+            String nom = "OPTICS (eps=" + eps + ", minPts=" + optics.getMinPts() + ")";
+            if (histogramme != null) {
+                nom += " [" + histogramme.getNombreCouleurs() + " couleurs uniques]";
+            }
+            resultats.add(new ResultatClustering(affectations, optics.getNombreClusters(), nom,
+                    metrique.getNom(), pixels, statistiques));
+        }
+        return resultats;
+    }
+
+    /**
+     * Détection des biomes sur une image lue par tuiles (mosaïques plus grandes que la mémoire) :
+     * les centroïdes sont appris par mini-lots, puis l'image est étiquetée tuile par tuile.
+     *
+     * @param sortie Reçoit les étiquettes de chaque tuile (écriture sur disque, visualisation...)
+     * @return Les centroïdes des biomes
+     */
+    public DonneesPixels clusteriserParTuiles(SourceTuiles source, KMeansMiniLots algorithme, TypeClustering type,
+                                              KMeansMiniLots.ConsommateurEtiquettes sortie) throws IOException {
+        MetriqueDistance metrique = obtenirMetrique(type);
+        DonneesPixels centroides = algorithme.apprendre(source, metrique);
+        algorithme.etiqueter(source, metrique, sortie);
+        return centroides;
+    }
+
+    /**
+     * Étiquette une image lue par tuiles avec des centroïdes déjà appris (KMeansMiniLots.apprendre) et écrit
+     * la carte des étiquettes sur disque au fur et à mesure (PGM : niveau de gris = numéro du biome).
+     *
+     * @param supplementaire Consommateur appelé en plus pour chaque tuile (visualisation...), ou null
+     */
+    public void etiqueterParTuiles(SourceTuiles source, KMeansMiniLots algorithme, TypeClustering type,
+                                   String cheminEtiquettes,
+                                   KMeansMiniLots.ConsommateurEtiquettes supplementaire) throws IOException {
+        MetriqueDistance metrique = obtenirMetrique(type);
+        try (EcritureBandes carte = EcritureBandes.niveaux(cheminEtiquettes, source.getLargeur(), source.getHauteur(),
+                source.getTailleTuile(), Math.max(1, algorithme.getNombreClusters() - 1))) {
+            KMeansMiniLots.ConsommateurEtiquettes sortie = (tuile, etiquettes) ->
+                    ecrireTuile(carte, tuile, etiquettes);
+            algorithme.etiqueter(source, metrique, supplementaire == null ? sortie : sortie.puis(supplementaire));
         }
+    }
 
-        return pixels;
+    /**
+     * Écrit les valeurs d'une tuile lue par SourceTuiles.lireTuile (rectangle parcouru ligne par ligne).
+     */
+    public static void ecrireTuile(EcritureBandes sortie, DonneesPixels tuile, int[] valeurs) throws IOException {
+        int x0 = tuile.getX(0);
+        int y0 = tuile.getY(0);
+        int largeur = tuile.getX(tuile.taille() - 1) - x0 + 1;
+        sortie.ecrireRegion(x0, y0, largeur, tuile.taille() / largeur, valeurs);
+    }
+
+    /**
+     * Version de compatibilité sur un tableau de PixelData.
+     */
+    public ResultatClustering clusteriserSousEnsemble(PixelData[] pixels, AlgorithmeClustering algorithme, TypeClustering type) {
+        return clusteriserSousEnsemble(DonneesPixels.depuisPixels(pixels), algorithme, type);
+    }
+
+    /**
+     * Statistiques de la dernière exécution de l'algorithme, complétées par la durée de bout en bout.
+     */
+    private static StatistiquesExecution statistiques(AlgorithmeClustering algorithme, long dureeNanos) {
+        StatistiquesExecution statistiques = algorithme.getStatistiques();
+        statistiques.setDureeTotale(dureeNanos);
+        return statistiques;
+    }
+
+    /**
+     * Étape d'extraction des caractéristiques : chaque pixel est converti une seule fois
+     * dans l'espace natif de la métrique (RGB, Lab, Lab + chroma, position),
+     * les algorithmes et indices de validation travaillent ensuite sur ces coordonnées.
+     */
+    private void preparerCaracteristiques(DonneesPixels pixels, MetriqueDistance metrique) {
+        if (metrique instanceof MetriqueVectorielle) {
+            ((MetriqueVectorielle) metrique).preparer(pixels);
+        }
     }
 
     /**
@@ -115,6 +300,41 @@ public class ClusteringManager {
             return new KMeans(k, 100);
         }
 
+        /**
+         * K-Means initialisé par k-means++ (graine fixée : résultats reproductibles).
+         */
+        public static AlgorithmeClustering kmeansPlusPlus(int k, long graine) {
+            return new KMeans(k, 100, new InitialisationKMeansPlusPlus(), graine);
+        }
+
+        /**
+         * K-Means initialisé par k-means|| (version parallèle de k-means++, pour les gros jeux).
+         */
+        public static AlgorithmeClustering kmeansParallele(int k, long graine) {
+            return new KMeans(k, 100, new InitialisationKMeansParallele(), graine);
+        }
+
+        /**
+         * K-Means de Hamerly (bornes sur les distances), initialisé par k-means++.
+         */
+        public static AlgorithmeClustering kmeansHamerly(int k, long graine) {
+            return new KMeansHamerly(k, 100, new InitialisationKMeansPlusPlus(), graine);
+        }
+
+        /**
+         * K-Means d'Elkan (une borne par centroïde), initialisé par k-means++.
+         */
+        public static AlgorithmeClustering kmeansElkan(int k, long graine) {
+            return new KMeansElkan(k, 100, new InitialisationKMeansPlusPlus(), graine);
+        }
+
+        /**
+         * K-Means par mini-lots de 1024 pixels (coût par itération constant, adapté aux très grandes images).
+         */
+        public static KMeansMiniLots kmeansMiniLots(int k, long graine) {
+            return new KMeansMiniLots(k, 1024, 300, new InitialisationKMeansPlusPlus(), graine);
+        }
+
         public static AlgorithmeClustering dbscan(double eps, int minPts) {
             return new DBSCAN(eps, minPts);
         }
@@ -122,6 +342,54 @@ public class ClusteringManager {
         public static AlgorithmeClustering dbscanOpti(double eps, int minPts) {
             return new DBSCANOptimise(eps, minPts);
         }
+
+        /**
+         * OPTICS : un ordre calculé une fois pour epsMax, puis un DBSCAN par eps <= epsMax
+         * (voir ClusteringManager.balayerEps).
+         */
+        public static OPTICS optics(double epsMax, int minPts) {
+            return new OPTICS(epsMax, minPts);
+        }
+
+        /**
+         * DBSCAN parallèle (union-find) : même résultat que dbscan, sur tous les cœurs.
+         */
+        public static AlgorithmeClustering dbscanParallele(double eps, int minPts) {
+            return new DBSCANParallele(eps, minPts);
+        }
+
+        /**
+         * DBSCAN raster pour les écosystèmes (positions uniquement) : masque et sommes préfixes.
+         */
+        public static AlgorithmeClustering dbscanRaster(double eps, int minPts) {
+            return new DBSCANRaster(eps, minPts);
+        }
+
+        /**
+         * DBSCAN ρ-approché sur grille (métriques euclidiennes dans leur espace) : mêmes points cœurs que
+         * DBSCAN, clusters compris entre ceux de DBSCAN(eps) et de DBSCAN(eps·(1 + rho)), en O(n).
+         */
+        public static AlgorithmeClustering dbscanApproche(double eps, int minPts, double rho) {
+            return new DBSCANApproche(eps, minPts, rho);
+        }
+
+        /**
+         * Écosystèmes en temps linéaire (positions uniquement) : transformée en distance du masque du biome,
+         * dilatation de eps/2 et composantes connexes. Équivalent à dbscanOpti pour minPts = 1, à l'arrondi
+         * au pixel près. Pour minPts > 1, le seuil porte sur le poids de chaque composante et non sur la densité
+         * autour de chaque point : les résultats peuvent alors différer nettement de ceux de DBSCAN.
+         */
+        public static AlgorithmeClustering composantesConnexes(double eps, int minPts) {
+            return new ComposantesConnexes(eps, minPts);
+        }
+
+        /**
+         * DBSCAN Optimisé dont les voisins sont cherchés dans un index (ex: ArbreKD::new, ArbreBoules::new,
+         * ArbrePointsVue::new pour les normes non euclidiennes).
+         */
+        public static AlgorithmeClustering dbscanIndex(double eps, int minPts, FabriqueIndex fabriqueIndex) {
+            return new DBSCANOptimise(eps, minPts, fabriqueIndex);
+        }
     }
 
     /**
@@ -144,44 +412,90 @@ public class ClusteringManager {
         public final String algorithme;
         public final String metrique;
         public final long dureeMs;
-        public final PixelData[] pixels;
+        public final DonneesPixels donnees;
+        public final StatistiquesExecution statistiques;
 
         public ResultatClustering(int[] affectations, int nombreClusters, String algorithme,
-                                  String metrique, long dureeMs, PixelData[] pixels) {
+                                  String metrique, long dureeMs, DonneesPixels donnees) {
+            this(affectations, nombreClusters, algorithme, metrique, donnees, dureeSeule(dureeMs));
+        }
+
+        /**
+         * Résultat avec les statistiques de l'exécution (dureeMs est leur durée totale).
+         */
+        public ResultatClustering(int[] affectations, int nombreClusters, String algorithme,
+                                  String metrique, DonneesPixels donnees, StatistiquesExecution statistiques) {
             this.affectations = affectations;
             this.nombreClusters = nombreClusters;
             this.algorithme = algorithme;
             this.metrique = metrique;
-            this.dureeMs = dureeMs;
-            this.pixels = pixels;
+            this.dureeMs = statistiques.getDureeTotale() / 1_000_000;
+            this.donnees = donnees;
+            this.statistiques = statistiques;
+        }
+
+        private static StatistiquesExecution dureeSeule(long dureeMs) {
+            StatistiquesExecution statistiques = new StatistiquesExecution();
+            statistiques.setDureeTotale(dureeMs * 1_000_000);
+            return statistiques;
         }
 
         /**
-         * Extrait les pixels d'un cluster spécifique.
+         * Retourne les positions (dans donnees) des pixels d'un cluster spécifique.
          */
-        public PixelData[] getPixelsCluster(int cluster) {
-            List<PixelData> pixelsCluster = new ArrayList<>();
+        public int[] getIndicesCluster(int cluster) {
+            int count = 0;
+            for (int aff : affectations) {
+                if (aff == cluster) count++;
+            }
+
+            int[] indices = new int[count];
+            int k = 0;
             for (int i = 0; i < affectations.length; i++) {
                 if (affectations[i] == cluster) {
-                    pixelsCluster.add(pixels[i]);
+                    indices[k++] = i;
                 }
             }
-            return pixelsCluster.toArray(new PixelData[0]);
+            return indices;
+        }
+
+        /**
+         * Extrait les pixels d'un cluster spécifique.
+         */
+        public DonneesPixels getDonneesCluster(int cluster) {
+            return donnees.sousEnsemble(getIndicesCluster(cluster));
+        }
+
+        /**
+         * Extrait les pixels d'un cluster spécifique (vue de compatibilité PixelData).
+         */
+        public PixelData[] getPixelsCluster(int cluster) {
+            return getDonneesCluster(cluster).versPixels();
+        }
+
+        /**
+         * Compte le nombre de pixels d'un cluster.
+         */
+        public int getTailleCluster(int cluster) {
+            int count = 0;
+            for (int aff : affectations) {
+                if (aff == cluster) count++;
+            }
+            return count;
         }
 
         /**
          * Calcule la couleur moyenne d'un cluster.
          */
         public Color getCouleurMoyenneCluster(int cluster) {
-            int totalR = 0, totalG = 0, totalB = 0;
+            long totalR = 0, totalG = 0, totalB = 0;
             int count = 0;
 
             for (int i = 0; i < affectations.length; i++) {
                 if (affectations[i] == cluster) {
-                    Color c = pixels[i].getCouleur();
-                    totalR += c.getRed();
-                    totalG += c.getGreen();
-                    totalB += c.getBlue();
+                    totalR += donnees.getRouge(i);
+                    totalG += donnees.getVert(i);
+                    totalB += donnees.getBleu(i);
                     count++;
                 }
             }
@@ -189,9 +503,9 @@ public class ClusteringManager {
             if (count == 0) return Color.BLACK;
 
             return new Color(
-                    totalR / count,
-                    totalG / count,
-                    totalB / count
+                    (int) (totalR / count),
+                    (int) (totalG / count),
+                    (int) (totalB / count)
             );
         }
     }
@@ -1,13 +1,13 @@
 package clustering;
 
 import clustering.ClusteringManager.*;
-import outils.PixelData;
+import outils.DonneesPixels;
 import outils.OutilsImage;
 import java.awt.image.BufferedImage;
 import java.io.IOException;
 
 /**
- * Classe de test pour le Clustering avec PixelData uniquement
+ * Classe de test pour le Clustering sur les DonneesPixels
  */
 public class MainClustering {
 
@@ -52,11 +52,11 @@ public class MainClustering {
         // Pour chaque biome détecté, trouver les écosystèmes
         for (int biome = 0; biome < biomesCIELAB.nombreClusters; biome++) {
             // Extraire les pixels du biome
-            PixelData[] pixelsBiome = biomesCIELAB.getPixelsCluster(biome);
+            DonneesPixels pixelsBiome = biomesCIELAB.getDonneesCluster(biome);
 
-            if (pixelsBiome.length < 100) continue; // Ignorer les petits biomes
+            if (pixelsBiome.taille() < 100) continue; // Ignorer les petits biomes
 
-            System.out.println("Biome " + biome + " (" + pixelsBiome.length + " pixels):");
+            System.out.println("Biome " + biome + " (" + pixelsBiome.taille() + " pixels):");
 
             // Exemple 4: DBSCAN sur les positions pour détecter les écosystèmes
             ResultatClustering ecosystemes = manager.clusteriserSousEnsemble(
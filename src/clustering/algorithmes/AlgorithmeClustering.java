@@ -1,21 +1,53 @@
 package clustering.algorithmes;
 
 import metriques.MetriqueDistance;
+import outils.DonneesPixels;
 import outils.PixelData;
 
 /**
- * Interface pour tous les algorithmes de clustering sur des PixelData
+ * Interface pour tous les algorithmes de clustering sur des pixels.
  */
 public interface AlgorithmeClustering {
 
     /**
      * Effectue le clustering sur les données.
      *
+     * @param donnees Jeu de pixels à clustériser
+     * @param metrique La métrique de distance à utiliser
+     * @return Tableau des affectations de clusters pour chaque donnée
+     */
+    int[] executer(DonneesPixels donnees, MetriqueDistance metrique);
+
+    /**
+     * Version de compatibilité sur un tableau de PixelData.
+     *
      * @param donnees Tableau des PixelData à clustériser
      * @param metrique La métrique de distance à utiliser
      * @return Tableau des affectations de clusters pour chaque donnée
      */
-    int[] executer(PixelData[] donnees, MetriqueDistance metrique);
+    default int[] executer(PixelData[] donnees, MetriqueDistance metrique) {
+        return executer(DonneesPixels.depuisPixels(donnees), metrique);
+    }
+
+    /**
+     * Indique si l'algorithme tient compte des poids des points (DonneesPixels.getPoids).
+     * Seuls ces algorithmes peuvent travailler sur les couleurs dédoublonnées.
+     *
+     * @return true si les poids sont pris en compte
+     */
+    default boolean supportePoids() {
+        return false;
+    }
+
+    /**
+     * Statistiques de la dernière exécution (durées par phase, distances, requêtes...).
+     * Les algorithmes qui ne les renseignent pas retournent des statistiques vides.
+     *
+     * @return Statistiques de la dernière exécution
+     */
+    default StatistiquesExecution getStatistiques() {
+        return new StatistiquesExecution();
+    }
 
     /**
      * Retourne le nombre de clusters trouvés ou créés.
@@ -30,4 +62,4 @@ public interface AlgorithmeClustering {
      * @return Nom de l'algorithme
      */
     String getNom();
-}
\ No newline at end of file
+}
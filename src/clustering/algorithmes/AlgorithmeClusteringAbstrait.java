@@ -1,5 +1,10 @@
 package clustering.algorithmes;
 
+import outils.DonneesPixels;
+import outils.ListeEntiers;
+
+import java.util.List;
+
 /**
  * Classe abstraite qui donne les fonctionnalités communes des algorithmes.
  */
@@ -8,6 +13,9 @@ public abstract class AlgorithmeClusteringAbstrait implements AlgorithmeClusteri
     protected int nombreClusters;
     protected final String nom;
 
+    // Statistiques de la dernière exécution, remplacées au début de chaque executer
+    protected StatistiquesExecution statistiques = new StatistiquesExecution();
+
     public AlgorithmeClusteringAbstrait(String nom) {
         this.nom = nom;
         this.nombreClusters = 0;
@@ -22,4 +30,38 @@ public abstract class AlgorithmeClusteringAbstrait implements AlgorithmeClusteri
     public String getNom() {
         return nom;
     }
+
+    @Override
+    public StatistiquesExecution getStatistiques() {
+        return statistiques;
+    }
+
+    /**
+     * Somme des poids d'une liste de voisins (leur nombre si les données ne sont pas pondérées).
+     * C'est cette valeur qui est comparée à minPts dans DBSCAN.
+     */
+    protected static long poidsVoisins(DonneesPixels donnees, List<Integer> voisins) {
+        if (!donnees.estPondere()) {
+            return voisins.size();
+        }
+        long total = 0;
+        for (int i : voisins) {
+            total += donnees.getPoids(i);
+        }
+        return total;
+    }
+
+    /**
+     * Même calcul sur un tampon de voisins primitif.
+     */
+    static long poidsVoisins(DonneesPixels donnees, ListeEntiers voisins) {
+        if (!donnees.estPondere()) {
+            return voisins.taille();
+        }
+        long total = 0;
+        for (int k = 0; k < voisins.taille(); k++) {
+            total += donnees.getPoids(voisins.get(k));
+        }
+        return total;
+    }
 }
\ No newline at end of file
@@ -0,0 +1,235 @@
+package clustering.algorithmes;
+
+import metriques.MetriqueDistance;
+import metriques.position.MetriquePositionEuclidienne;
+import outils.DonneesPixels;
+
+import java.util.Arrays;
+import java.util.stream.IntStream;
+
+/**
+ * Détection d'écosystèmes en temps linéaire : un écosystème est une tache d'un biome, séparée des autres.
+ *
+ * Le masque des pixels du biome est dilaté d'environ eps/2 : deux pixels à distance au plus eps ont
+ * des disques qui se touchent. La dilatation est exacte grâce à la transformée en distance euclidienne
+ * du masque (algorithme de Felzenszwalb et Huttenlocher, séparable : une passe par colonne puis par ligne),
+ * qui donne aussi le pixel du biome le plus proche de chaque pixel. Les composantes connexes (8-connexité)
+ * du masque dilaté sont étiquetées en deux passes avec une structure union-find : deux pixels voisins
+ * réunissent leurs pixels du biome les plus proches, si ceux-ci sont à distance eps au plus, puis chaque point
+ * prend la racine de son pixel. Les composantes de poids inférieur à minPts sont du bruit.
+ *
+ * Avec minPts = 1, c'est le résultat de DBSCAN sur les positions (liaison simple à eps) : aucune fusion
+ * n'est fausse, seules de rares paires très proches d'un troisième pixel pourraient rester séparées
+ * par l'arrondi au pixel. Avec minPts plus grand, le critère porte sur le poids de la tache et non sur
+ * la densité autour de chaque point : les taches denses sont celles de DBSCAN, mais les points isolés
+ * en bordure ne deviennent pas du bruit et les chaînes clairsemées ne sont pas coupées.
+ * Coût O(largeur × hauteur) du rectangle englobant, sans aucune recherche de voisins.
+ */
+public class ComposantesConnexes extends AlgorithmeClusteringAbstrait {
+
+    private final double eps;
+    private final int minPts;
+
+    // Distance « infinie » de la transformée (aucun pixel du masque sur la ligne ou la colonne)
+    private static final int INFINI = Integer.MAX_VALUE;
+
+    public ComposantesConnexes(double eps, int minPts) {
+        super("Composantes connexes (eps=" + eps + ", minPts=" + minPts + ")");
+        this.eps = eps;
+        this.minPts = minPts;
+    }
+
+    @Override
+    public boolean supportePoids() {
+        return true;
+    }
+
+    @Override
+    public int[] executer(DonneesPixels donnees, MetriqueDistance metrique) {
+        if (!(metrique instanceof MetriquePositionEuclidienne)) {
+            throw new IllegalArgumentException("Les composantes connexes ne s'appliquent qu'aux positions");
+        }
+        statistiques = new StatistiquesExecution();
+        long chrono = System.nanoTime();
+        int n = donnees.taille();
+        int[] clusters = new int[n];
+        if (n == 0) return clusters;
+
+        // Rectangle englobant, élargi du rayon de dilatation
+        int marge = (int) Math.ceil(eps / 2 + 1);
+        int minX = Integer.MAX_VALUE, minY = Integer.MAX_VALUE;
+        int maxX = Integer.MIN_VALUE, maxY = Integer.MIN_VALUE;
+        for (int i = 0; i < n; i++) {
+            minX = Math.min(minX, donnees.getX(i));
+            minY = Math.min(minY, donnees.getY(i));
+            maxX = Math.max(maxX, donnees.getX(i));
+            maxY = Math.max(maxY, donnees.getY(i));
+        }
+        minX -= marge;
+        minY -= marge;
+        int largeur = maxX + marge - minX + 1;
+        int hauteur = maxY + marge - minY + 1;
+        if ((long) largeur * hauteur > Integer.MAX_VALUE) {
+            throw new IllegalArgumentException("Rectangle englobant trop grand pour le masque");
+        }
+
+        // Masque du biome : chaque pixel occupé est un site, représenté par son premier point
+        int taille = largeur * hauteur;
+        int[] representants = new int[taille];
+        Arrays.fill(representants, -1);
+        for (int i = 0; i < n; i++) {
+            int p = (donnees.getY(i) - minY) * largeur + (donnees.getX(i) - minX);
+            if (representants[p] < 0) representants[p] = i;
+        }
+
+        // Transformée en distance euclidienne au carré, avec le site le plus proche de chaque pixel :
+        // colonnes puis lignes (indépendantes, en parallèle)
+        int[] distances = new int[taille];
+        int[] sites = new int[taille];
+        final int l = largeur, h = hauteur;
+        IntStream.range(0, largeur).parallel().forEach(x -> {
+            int[] f = new int[h];
+            int[] d = new int[h];
+            int[] plusProches = new int[h];
+            for (int y = 0; y < h; y++) f[y] = representants[y * l + x] >= 0 ? 0 : INFINI;
+            transformer(f, d, plusProches, h);
+            for (int y = 0; y < h; y++) {
+                distances[y * l + x] = d[y];
+                sites[y * l + x] = plusProches[y] * l + x;
+            }
+        });
+        IntStream.range(0, hauteur).parallel().forEach(y -> {
+            int[] f = Arrays.copyOfRange(distances, y * l, (y + 1) * l);
+            int[] sitesColonnes = Arrays.copyOfRange(sites, y * l, (y + 1) * l);
+            int[] d = new int[l];
+            int[] plusProches = new int[l];
+            transformer(f, d, plusProches, l);
+            for (int x = 0; x < l; x++) {
+                distances[y * l + x] = d[x];
+                sites[y * l + x] = sitesColonnes[plusProches[x]];
+            }
+        });
+
+        chrono = statistiques.terminer(StatistiquesExecution.Phase.INDEX, chrono);
+
+        // Première passe : union des sites de pixels voisins du masque dilaté.
+        // Le seuil dépasse eps/2 d'un pixel pour que le tracé discret du segment entre deux sites à distance eps
+        // reste dans le masque ; deux sites ne sont réunis que s'ils sont réellement à distance eps au plus.
+        double seuil = (eps / 2 + 1) * (eps / 2 + 1);
+        double eps2 = eps * eps;
+        int[] parents = new int[n];
+        for (int i = 0; i < n; i++) parents[i] = i;
+        for (int y = 0; y < hauteur; y++) {
+            for (int x = 0; x < largeur; x++) {
+                int p = y * largeur + x;
+                if (distances[p] > seuil) continue;
+                // Voisins déjà parcourus : ouest, nord-ouest, nord, nord-est
+                if (x > 0) relier(p, p - 1, distances, sites, representants, parents, largeur, seuil, eps2);
+                if (y > 0) {
+                    int q = p - largeur;
+                    if (x > 0) relier(p, q - 1, distances, sites, representants, parents, largeur, seuil, eps2);
+                    relier(p, q, distances, sites, representants, parents, largeur, seuil, eps2);
+                    if (x < largeur - 1) relier(p, q + 1, distances, sites, representants, parents, largeur, seuil, eps2);
+                }
+            }
+        }
+
+        // Seconde passe : composante de chaque point et poids des composantes
+        long[] poids = new long[n];
+        for (int i = 0; i < n; i++) {
+            int p = (donnees.getY(i) - minY) * largeur + (donnees.getX(i) - minX);
+            int composante = trouver(parents, representants[p]);
+            clusters[i] = composante;
+            poids[composante] += donnees.getPoids(i);
+        }
+
+        // Numérotation dans l'ordre du premier point de chaque composante, les petites composantes sont du bruit
+        int[] numeros = new int[n];
+        Arrays.fill(numeros, -2);
+        int clusterActuel = 0;
+        for (int i = 0; i < n; i++) {
+            int composante = clusters[i];
+            if (numeros[composante] == -2) {
+                numeros[composante] = poids[composante] >= minPts ? clusterActuel++ : -1;
+            }
+            clusters[i] = numeros[composante];
+        }
+
+        statistiques.terminer(StatistiquesExecution.Phase.EXPANSION, chrono);
+        statistiques.ajouterPointsVisites((long) largeur * hauteur);
+        this.nombreClusters = clusterActuel;
+        return clusters;
+    }
+
+    /**
+     * Réunit les sites les plus proches de deux pixels voisins s'ils sont tous deux dans le masque
+     * et à distance eps au plus l'un de l'autre.
+     */
+    private static void relier(int p, int q, int[] distances, int[] sites, int[] representants,
+                               int[] parents, int largeur, double seuil, double eps2) {
+        if (distances[q] > seuil) return;
+        int a = sites[p], b = sites[q];
+        if (a == b) return;
+        long dx = a % largeur - b % largeur;
+        long dy = a / largeur - b / largeur;
+        if (dx * dx + dy * dy > eps2) return;
+        int ra = trouver(parents, representants[a]);
+        int rb = trouver(parents, representants[b]);
+        if (ra != rb) {
+            parents[Math.max(ra, rb)] = Math.min(ra, rb);
+        }
+    }
+
+    /**
+     * Transformée en distance au carré sur une ligne (Felzenszwalb et Huttenlocher) :
+     * d[q] = min sur p de (q − p)² + f[p], par l'enveloppe inférieure des paraboles des sites finis,
+     * et plusProches[q] = le p qui réalise ce minimum.
+     */
+    private static void transformer(int[] f, int[] d, int[] plusProches, int n) {
+        int[] sites = new int[n];
+        double[] bornes = new double[n + 1];
+        int k = -1;
+        for (int q = 0; q < n; q++) {
+            if (f[q] == INFINI) continue;
+            double s = Double.NEGATIVE_INFINITY;
+            while (k >= 0) {
+                int p = sites[k];
+                s = ((f[q] + (double) q * q) - (f[p] + (double) p * p)) / (2.0 * (q - p));
+                if (s > bornes[k]) break;
+                k--;
+            }
+            k++;
+            sites[k] = q;
+            bornes[k] = k == 0 ? Double.NEGATIVE_INFINITY : s;
+        }
+        if (k < 0) {
+            Arrays.fill(d, 0, n, INFINI);
+            Arrays.fill(plusProches, 0, n, 0);
+            return;
+        }
+        bornes[k + 1] = Double.POSITIVE_INFINITY;
+
+        int j = 0;
+        for (int q = 0; q < n; q++) {
+            while (bornes[j + 1] < q) j++;
+            long ecart = q - sites[j];
+            d[q] = (int) Math.min(INFINI, ecart * ecart + f[sites[j]]);
+            plusProches[q] = sites[j];
+        }
+    }
+
+    /**
+     * Racine d'un site, avec compression de chemin par « halving ».
+     */
+    private static int trouver(int[] parents, int x) {
+        while (parents[x] != x) {
+            parents[x] = parents[parents[x]];
+            x = parents[x];
+        }
+        return x;
+    }
+
+    // Getters
+    public double getEps() { return eps; }
+    public int getMinPts() { return minPts; }
+}
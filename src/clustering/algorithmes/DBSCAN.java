@@ -1,11 +1,12 @@
 package clustering.algorithmes;
 
 import metriques.MetriqueDistance;
-import outils.PixelData;
+import metriques.MetriqueVectorielle;
+import outils.DonneesPixels;
 import java.util.*;
 
 /**
- * Implémentation de l'algorithme DBSCAN pour PixelData.
+ * Implémentation de l'algorithme DBSCAN sur un jeu de pixels.
  */
 public class DBSCAN extends AlgorithmeClusteringAbstrait {
 
@@ -16,6 +17,10 @@ public class DBSCAN extends AlgorithmeClusteringAbstrait {
     private static final int NON_VISITE = -2;
     private static final int BRUIT = -1;
 
+    // Nombre de distances calculées d'un coup lors d'une recherche de voisins
+    private static final int TAILLE_BLOC = 4096;
+    private float[] tamponDistances;
+
     public DBSCAN(double eps, int minPts) {
         super("DBSCAN (eps=" + eps + ", minPts=" + minPts + ")");
         this.eps = eps;
@@ -23,8 +28,15 @@ public class DBSCAN extends AlgorithmeClusteringAbstrait {
     }
 
     @Override
-    public int[] executer(PixelData[] donnees, MetriqueDistance metrique) {
-        int n = donnees.length;
+    public boolean supportePoids() {
+        return true;
+    }
+
+    @Override
+    public int[] executer(DonneesPixels donnees, MetriqueDistance metrique) {
+        statistiques = new StatistiquesExecution();
+        long chrono = System.nanoTime();
+        int n = donnees.taille();
         int[] clusters = new int[n];
         Arrays.fill(clusters, NON_VISITE);
 
@@ -34,11 +46,12 @@ public class DBSCAN extends AlgorithmeClusteringAbstrait {
             if (clusters[i] != NON_VISITE) {
                 continue;
             }
+            statistiques.ajouterPointsVisites(1);
 
             // Trouver les voisins
             List<Integer> voisins = trouverVoisins(donnees, i, metrique);
 
-            if (voisins.size() < minPts) {
+            if (poidsVoisins(donnees, voisins) < minPts) {
                 clusters[i] = BRUIT;
             } else {
                 expandCluster(donnees, clusters, i, voisins, clusterActuel, metrique);
@@ -47,6 +60,7 @@ public class DBSCAN extends AlgorithmeClusteringAbstrait {
         }
 
         this.nombreClusters = clusterActuel;
+        statistiques.terminer(StatistiquesExecution.Phase.EXPANSION, chrono);
 
         // Convertir les points de bruit en -1
         for (int i = 0; i < n; i++) {
@@ -61,24 +75,47 @@ public class DBSCAN extends AlgorithmeClusteringAbstrait {
     /**
      * Trouve tous les points dans le rayon eps du point donné.
      */
-    private List<Integer> trouverVoisins(PixelData[] donnees, int pointIndex,
+    private List<Integer> trouverVoisins(DonneesPixels donnees, int pointIndex,
                                          MetriqueDistance metrique) {
         List<Integer> voisins = new ArrayList<>();
-        PixelData point = donnees[pointIndex];
+        statistiques.ajouterRequetes(1);
+        statistiques.ajouterDistances(donnees.taille());
+
+        if (metrique instanceof MetriqueVectorielle && ((MetriqueVectorielle) metrique).estPrepare(donnees)) {
+            // Distances par blocs depuis les coordonnées précalculées (le point recherché y est
+            // le second opérande : seule CIE94, non symétrique, peut en être légèrement affectée)
+            MetriqueVectorielle vectorielle = (MetriqueVectorielle) metrique;
+            float[] coordonnees = donnees.getCaracteristiques();
+            int offset = pointIndex * donnees.getDimension();
+            if (tamponDistances == null) tamponDistances = new float[TAILLE_BLOC];
+
+            for (int debut = 0; debut < donnees.taille(); debut += TAILLE_BLOC) {
+                int nombre = Math.min(TAILLE_BLOC, donnees.taille() - debut);
+                vectorielle.distancesBloc(coordonnees, debut, nombre, coordonnees, offset, tamponDistances);
+                for (int k = 0; k < nombre; k++) {
+                    if (tamponDistances[k] <= eps) {
+                        voisins.add(debut + k);
+                    }
+                }
+            }
+            statistiques.noterTailleTampon("voisins", voisins.size());
+            return voisins;
+        }
 
-        for (int i = 0; i < donnees.length; i++) {
-            if (metrique.calculerDistance(point, donnees[i]) <= eps) {
+        for (int i = 0; i < donnees.taille(); i++) {
+            if (metrique.calculerDistance(donnees, pointIndex, donnees, i) <= eps) {
                 voisins.add(i);
             }
         }
 
+        statistiques.noterTailleTampon("voisins", voisins.size());
         return voisins;
     }
 
     /**
      * Étend le cluster en ajoutant tous les points atteignables.
      */
-    private void expandCluster(PixelData[] donnees, int[] clusters, int pointIndex,
+    private void expandCluster(DonneesPixels donnees, int[] clusters, int pointIndex,
                                List<Integer> voisins, int clusterId,
                                MetriqueDistance metrique) {
         clusters[pointIndex] = clusterId;
@@ -88,6 +125,7 @@ public class DBSCAN extends AlgorithmeClusteringAbstrait {
 
         while (!aTraiter.isEmpty()) {
             int voisinIndex = aTraiter.poll();
+            statistiques.ajouterPointsVisites(1);
 
             if (clusters[voisinIndex] == NON_VISITE) {
                 clusters[voisinIndex] = clusterId;
@@ -95,13 +133,14 @@ public class DBSCAN extends AlgorithmeClusteringAbstrait {
                 // Trouver les voisins du voisin
                 List<Integer> voisinsDuVoisin = trouverVoisins(donnees, voisinIndex, metrique);
 
-                if (voisinsDuVoisin.size() >= minPts) {
+                if (poidsVoisins(donnees, voisinsDuVoisin) >= minPts) {
                     for (int nouveauVoisin : voisinsDuVoisin) {
                         if (!voisinsSet.contains(nouveauVoisin)) {
                             aTraiter.add(nouveauVoisin);
                             voisinsSet.add(nouveauVoisin);
                         }
                     }
+                    statistiques.noterTailleTampon("file d'expansion", aTraiter.size());
                 }
             } else if (clusters[voisinIndex] == BRUIT) {
                 clusters[voisinIndex] = clusterId;
@@ -0,0 +1,438 @@
+package clustering.algorithmes;
+
+import metriques.MetriqueDistance;
+import metriques.MetriqueVectorielle;
+import outils.DonneesPixels;
+import outils.ListeEntiers;
+
+import java.util.Arrays;
+import java.util.stream.IntStream;
+
+/**
+ * DBSCAN ρ-approché sur une grille (Gan et Tao), pour les métriques euclidiennes dans leur espace
+ * de caractéristiques (positions, RGB euclidienne, CIELAB) en 2 ou 3 dimensions.
+ *
+ * Les cellules ont pour côté r/√d (r : rayon euclidien de eps, d : dimension), donc deux points
+ * d'une même cellule sont toujours voisins :
+ * 1. Une cellule de poids >= minPts est cœur en entier ; dans les autres, chaque point compte
+ *    ses voisins dans les cellules proches (une cellule entièrement dans la boule est comptée d'un coup).
+ *    Les points cœurs sont exactement ceux de DBSCAN.
+ * 2. Chaque cellule découpe ses points cœurs en sous-cellules de côté r/(√d·m), m = ⌈2/ρ⌉ : la diagonale
+ *    d'une sous-cellule vaut au plus ρ·r/2. Deux cellules proches sont reliées (union-find) si une
+ *    sous-cellule de l'une est à distance au plus r d'une sous-cellule de l'autre. Le test ne dépend que
+ *    des sous-cellules occupées (au plus m^d par cellule), pas du nombre de points, et il est sauté
+ *    quand les deux cellules sont déjà dans le même cluster.
+ * 3. Un point non cœur rejoint le plus petit cluster dont une sous-cellule est à distance au plus r de lui.
+ *
+ * Garantie : deux points cœurs à distance au plus eps sont toujours dans le même cluster, et deux
+ * points cœurs ne sont réunis que par une chaîne de points cœurs à distance au plus eps·(1 + ρ)
+ * (en rayon euclidien). Chaque cluster de DBSCAN(eps) est donc inclus dans un cluster du résultat,
+ * lui-même inclus dans un cluster de DBSCAN(eps·(1 + ρ)) avec les mêmes points cœurs.
+ * Coût O(n) en moyenne à eps, minPts et ρ fixés (grille primitive, aucune liste de voisins).
+ */
+public class DBSCANApproche extends AlgorithmeClusteringAbstrait {
+
+    private final double eps;
+    private final int minPts;
+    private final double rho;
+
+    private static final double RHO_DEFAUT = 0.01;
+
+    public DBSCANApproche(double eps, int minPts) {
+        this(eps, minPts, RHO_DEFAUT);
+    }
+
+    /**
+     * @param rho Facteur d'approximation (> 0) : les clusters sont ceux de DBSCAN à un eps compris
+     *            entre eps et eps·(1 + rho)
+     */
+    public DBSCANApproche(double eps, int minPts, double rho) {
+        super("DBSCAN ρ-approché (eps=" + eps + ", minPts=" + minPts + ", rho=" + rho + ")");
+        if (!(rho > 0)) {
+            throw new IllegalArgumentException("rho doit être strictement positif");
+        }
+        this.eps = eps;
+        this.minPts = minPts;
+        this.rho = rho;
+    }
+
+    @Override
+    public boolean supportePoids() {
+        return true;
+    }
+
+    @Override
+    public int[] executer(DonneesPixels donnees, MetriqueDistance metrique) {
+        if (!(metrique instanceof MetriqueVectorielle) || ((MetriqueVectorielle) metrique).rayonEuclidien(1) < 0) {
+            throw new IllegalArgumentException("DBSCAN ρ-approché ne gère que les métriques euclidiennes dans leur espace");
+        }
+        statistiques = new StatistiquesExecution();
+        MetriqueVectorielle vectorielle = (MetriqueVectorielle) metrique;
+        vectorielle.preparer(donnees);
+        int n = donnees.taille();
+        int d = donnees.getDimension();
+        if (d < 2 || d > 3) {
+            throw new IllegalArgumentException("DBSCAN ρ-approché attend des caractéristiques en 2 ou 3 dimensions");
+        }
+        int[] clusters = new int[n];
+        Arrays.fill(clusters, -1);
+        if (n == 0) {
+            this.nombreClusters = 0;
+            return clusters;
+        }
+
+        long chrono = System.nanoTime();
+        Grille g = new Grille(donnees, vectorielle.rayonEuclidien(eps), (int) Math.ceil(2 / rho));
+        chrono = statistiques.terminer(StatistiquesExecution.Phase.INDEX, chrono);
+        boolean[] estCoeur = g.marquerCoeurs(minPts, statistiques);
+        g.construireSousCellules(estCoeur);
+        int[] parents = g.relierCellules();
+
+        // Numérotation des clusters dans l'ordre de leur premier point cœur
+        int[] numeros = new int[g.nombreRangs];
+        Arrays.fill(numeros, -1);
+        int clusterActuel = 0;
+        for (int i = 0; i < n; i++) {
+            if (!estCoeur[i]) continue;
+            int racine = trouver(parents, g.rangs[i]);
+            if (numeros[racine] < 0) numeros[racine] = clusterActuel++;
+            clusters[i] = numeros[racine];
+        }
+        for (int r = 0; r < g.nombreRangs; r++) {
+            if (g.nombreSous[r] > 0) numeros[r] = numeros[trouver(parents, r)];
+        }
+
+        // Points non cœurs : le plus petit cluster atteint (en parallèle, les points cœurs ne changent pas)
+        IntStream.range(0, n).parallel().forEach(i -> {
+            if (!estCoeur[i]) clusters[i] = g.clusterBordure(i, numeros);
+        });
+
+        statistiques.terminer(StatistiquesExecution.Phase.EXPANSION, chrono);
+        statistiques.ajouterPointsVisites(n);
+        this.nombreClusters = clusterActuel;
+        return clusters;
+    }
+
+    /**
+     * Grille de cellules de côté r/√d sur les caractéristiques, et sous-cellules des points cœurs.
+     */
+    private static final class Grille {
+
+        final DonneesPixels donnees;
+        final float[] coordonnees;
+        final int dimension;
+        final double rayon2;
+        final double cote;            // côté d'une cellule
+        final double coteSous;        // côté d'une sous-cellule
+        final int m;                  // sous-cellules par côté de cellule
+        final double[] minimums = new double[3];
+
+        final GrilleIndex index;
+        final int[] cellules;         // coordonnées de cellule, dimension valeurs par point
+        final int[] rangs;            // rang de la cellule de chaque point
+        final int nombreRangs;
+        final long[] poidsCellules;
+        final int[] decalages;        // cellules à distance au plus r, dimension valeurs par cellule
+
+        // Sous-cellules occupées par des points cœurs : coordonnées locales (0..m-1), cellule par cellule
+        int[] debutsSous;
+        int[] nombreSous;
+        int[] sous;
+        int[] boitesMin, boitesMax;   // boîte englobante des sous-cellules occupées de chaque cellule
+
+        Grille(DonneesPixels donnees, double rayon, int m) {
+            this.donnees = donnees;
+            this.coordonnees = donnees.getCaracteristiques();
+            this.dimension = donnees.getDimension();
+            this.rayon2 = rayon * rayon;
+            this.cote = rayon / Math.sqrt(dimension);
+            this.m = m;
+            this.coteSous = cote / m;
+            int n = donnees.taille();
+
+            Arrays.fill(minimums, Double.MAX_VALUE);
+            for (int i = 0; i < n; i++) {
+                for (int k = 0; k < dimension; k++) {
+                    minimums[k] = Math.min(minimums[k], coordonnees[i * dimension + k]);
+                }
+            }
+
+            // Cellule de chaque point, puis index de grille (points rangés par cellule)
+            cellules = new int[n * dimension];
+            int[][] axes = new int[3][];
+            for (int k = 0; k < dimension; k++) axes[k] = new int[n];
+            for (int i = 0; i < n; i++) {
+                for (int k = 0; k < dimension; k++) {
+                    int c = (int) ((coordonnees[i * dimension + k] - minimums[k]) / cote);
+                    cellules[i * dimension + k] = c;
+                    axes[k][i] = c;
+                }
+            }
+            index = new GrilleIndex(axes[0], axes[1], axes[2]);
+
+            rangs = new int[n];
+            for (int i = 0; i < n; i++) rangs[i] = rangCellule(i, 0, 0, 0);
+            nombreRangs = index.getNombreRangs();
+            poidsCellules = new long[nombreRangs];
+            for (int i = 0; i < n; i++) poidsCellules[rangs[i]] += donnees.getPoids(i);
+
+            // Cellules dont la distance minimale à la cellule centrale est au plus r : Σ max(0, |δ| − 1)² <= d
+            ListeEntiers liste = new ListeEntiers();
+            int portee = 1 + (int) Math.sqrt(dimension);
+            int cotes = 2 * portee + 1;
+            int total = dimension == 2 ? cotes * cotes : cotes * cotes * cotes;
+            for (int code = 0; code < total; code++) {
+                int reste = code, somme = 0;
+                int[] delta = new int[3];
+                for (int k = 0; k < dimension; k++) {
+                    delta[k] = reste % cotes - portee;
+                    reste /= cotes;
+                    int ecart = Math.max(0, Math.abs(delta[k]) - 1);
+                    somme += ecart * ecart;
+                }
+                if (somme > dimension) continue;
+                for (int k = 0; k < dimension; k++) liste.ajouter(delta[k]);
+            }
+            decalages = liste.versTableau();
+        }
+
+        /**
+         * Rang de la cellule du point i décalée de (dx, dy, dz), ou -1 si elle est vide.
+         */
+        int rangCellule(int i, int dx, int dy, int dz) {
+            int base = i * dimension;
+            return index.rang(cellules[base] + dx, cellules[base + 1] + dy,
+                    dimension == 3 ? cellules[base + 2] + dz : 0);
+        }
+
+        private int rangVoisin(int i, int d) {
+            return rangCellule(i, decalages[d], decalages[d + 1], dimension == 3 ? decalages[d + 2] : 0);
+        }
+
+        /**
+         * Phase 1 : points cœurs (en parallèle, cellule par cellule).
+         */
+        boolean[] marquerCoeurs(int minPts, StatistiquesExecution statistiques) {
+            boolean[] estCoeur = new boolean[donnees.taille()];
+            int[] points = index.getPoints();
+            IntStream.range(0, nombreRangs).parallel().forEach(r -> {
+                int debut = index.debut(r), fin = index.fin(r);
+                if (debut == fin) return;
+                if (poidsCellules[r] >= minPts) {
+                    for (int p = debut; p < fin; p++) estCoeur[points[p]] = true;
+                    return;
+                }
+                long[] distances = new long[1];
+                for (int p = debut; p < fin; p++) {
+                    estCoeur[points[p]] = poidsVoisinage(points[p], minPts, distances) >= minPts;
+                }
+                statistiques.ajouterRequetes(fin - debut);
+                statistiques.ajouterDistances(distances[0]);
+            });
+            return estCoeur;
+        }
+
+        /**
+         * Poids du voisinage de i (arrêté dès que minPts est atteint) ; distances[0] compte les distances calculées.
+         */
+        private long poidsVoisinage(int i, int minPts, long[] distances) {
+            int[] points = index.getPoints();
+            long poids = 0;
+            for (int d = 0; d < decalages.length && poids < minPts; d += dimension) {
+                int r = rangVoisin(i, d);
+                if (r < 0 || index.debut(r) == index.fin(r)) continue;
+
+                // Cellule entière dans la boule, ou entièrement dehors
+                double proche = 0, loin = 0;
+                for (int k = 0; k < dimension; k++) {
+                    double x = coordonnees[i * dimension + k];
+                    double bas = minimums[k] + (cellules[i * dimension + k] + decalages[d + k]) * cote;
+                    double ecartProche = Math.max(0, Math.max(bas - x, x - bas - cote));
+                    double ecartLoin = Math.max(Math.abs(x - bas), Math.abs(bas + cote - x));
+                    proche += ecartProche * ecartProche;
+                    loin += ecartLoin * ecartLoin;
+                }
+                if (proche > rayon2) continue;
+                if (loin <= rayon2) {
+                    poids += poidsCellules[r];
+                    continue;
+                }
+                for (int p = index.debut(r); p < index.fin(r); p++) {
+                    if (distance2(i, points[p]) <= rayon2) poids += donnees.getPoids(points[p]);
+                }
+                distances[0] += index.fin(r) - index.debut(r);
+            }
+            return poids;
+        }
+
+        private double distance2(int a, int b) {
+            double somme = 0;
+            for (int k = 0; k < dimension; k++) {
+                double ecart = coordonnees[a * dimension + k] - coordonnees[b * dimension + k];
+                somme += ecart * ecart;
+            }
+            return somme;
+        }
+
+        /**
+         * Coordonnée locale (0..m-1) du point i dans sa cellule selon l'axe k.
+         */
+        private int sousCoordonnee(int i, int k) {
+            double local = coordonnees[i * dimension + k] - minimums[k] - cellules[i * dimension + k] * cote;
+            return Math.min(m - 1, Math.max(0, (int) (local / coteSous)));
+        }
+
+        /**
+         * Phase 2a : sous-cellules distinctes occupées par les points cœurs de chaque cellule.
+         */
+        void construireSousCellules(boolean[] estCoeur) {
+            int[] points = index.getPoints();
+            debutsSous = new int[nombreRangs + 1];
+            for (int r = 0; r < nombreRangs; r++) {
+                int coeurs = 0;
+                for (int p = index.debut(r); p < index.fin(r); p++) {
+                    if (estCoeur[points[p]]) coeurs++;
+                }
+                debutsSous[r + 1] = debutsSous[r] + coeurs;
+            }
+            nombreSous = new int[nombreRangs];
+            sous = new int[debutsSous[nombreRangs] * dimension];
+            boitesMin = new int[nombreRangs * dimension];
+            boitesMax = new int[nombreRangs * dimension];
+            long mm = m;
+            IntStream.range(0, nombreRangs).parallel().forEach(r -> {
+                int nombre = debutsSous[r + 1] - debutsSous[r];
+                if (nombre == 0) return;
+                long[] codes = new long[nombre];
+                int c = 0;
+                for (int p = index.debut(r); p < index.fin(r); p++) {
+                    int i = points[p];
+                    if (!estCoeur[i]) continue;
+                    long code = 0;
+                    for (int k = dimension - 1; k >= 0; k--) code = code * mm + sousCoordonnee(i, k);
+                    codes[c++] = code;
+                }
+                Arrays.sort(codes);
+                int distincts = 0;
+                for (int a = 0; a < nombre; a++) {
+                    if (a > 0 && codes[a] == codes[a - 1]) continue;
+                    long code = codes[a];
+                    int base = (debutsSous[r] + distincts) * dimension;
+                    for (int k = 0; k < dimension; k++) {
+                        sous[base + k] = (int) (code % mm);
+                        code /= mm;
+                    }
+                    distincts++;
+                }
+                nombreSous[r] = distincts;
+                for (int k = 0; k < dimension; k++) {
+                    int min = m, max = -1;
+                    for (int a = debutsSous[r]; a < debutsSous[r] + distincts; a++) {
+                        min = Math.min(min, sous[a * dimension + k]);
+                        max = Math.max(max, sous[a * dimension + k]);
+                    }
+                    boitesMin[r * dimension + k] = min;
+                    boitesMax[r * dimension + k] = max;
+                }
+            });
+        }
+
+        /**
+         * Phase 2b : union des cellules proches dont deux sous-cellules sont à distance au plus r.
+         * Retourne les parents de l'union-find sur les rangs de cellule (racine : plus petit rang).
+         */
+        int[] relierCellules() {
+            int[] parents = new int[nombreRangs];
+            for (int r = 0; r < nombreRangs; r++) parents[r] = r;
+            int[] points = index.getPoints();
+            long seuil = (long) m * m * dimension;
+            for (int r = 0; r < nombreRangs; r++) {
+                if (nombreSous[r] == 0) continue;
+                int representant = points[index.debut(r)];
+                for (int d = 0; d < decalages.length; d += dimension) {
+                    int voisin = rangVoisin(representant, d);
+                    if (voisin <= r || nombreSous[voisin] == 0) continue;
+                    int a = trouver(parents, r), b = trouver(parents, voisin);
+                    if (a == b) continue;
+                    if (sousCellulesProches(r, voisin, d, seuil)) {
+                        parents[Math.max(a, b)] = Math.min(a, b);
+                    }
+                }
+            }
+            return parents;
+        }
+
+        /**
+         * Vrai si une sous-cellule de r est à distance au plus r d'une sous-cellule de la cellule voisine
+         * (décalage d) : en unités de sous-cellule, Σ max(0, |écart| − 1)² <= m²·d. Les sous-cellules de r
+         * trop loin de la boîte englobante de la voisine sont écartées sans parcourir ses sous-cellules.
+         */
+        private boolean sousCellulesProches(int r, int voisin, int d, long seuil) {
+            for (int a = debutsSous[r]; a < debutsSous[r] + nombreSous[r]; a++) {
+                long sommeBoite = 0;
+                for (int k = 0; k < dimension; k++) {
+                    long position = sous[a * dimension + k] - (long) decalages[d + k] * m;
+                    long ecart = Math.max(0, Math.max(boitesMin[voisin * dimension + k] - position,
+                            position - boitesMax[voisin * dimension + k]) - 1);
+                    sommeBoite += ecart * ecart;
+                }
+                if (sommeBoite > seuil) continue;
+                for (int b = debutsSous[voisin]; b < debutsSous[voisin] + nombreSous[voisin]; b++) {
+                    long somme = 0;
+                    for (int k = 0; k < dimension; k++) {
+                        long ecart = Math.abs((long) decalages[d + k] * m + sous[b * dimension + k] - sous[a * dimension + k]);
+                        ecart = Math.max(0, ecart - 1);
+                        somme += ecart * ecart;
+                    }
+                    if (somme <= seuil) return true;
+                }
+            }
+            return false;
+        }
+
+        /**
+         * Phase 3 : plus petit numéro de cluster dont une sous-cellule est à distance au plus r du point i,
+         * ou -1 (bruit).
+         */
+        int clusterBordure(int i, int[] numeros) {
+            int meilleur = -1;
+            for (int d = 0; d < decalages.length; d += dimension) {
+                int r = rangVoisin(i, d);
+                if (r < 0 || nombreSous[r] == 0) continue;
+                int numero = numeros[r];
+                if (meilleur >= 0 && numero >= meilleur) continue;
+                for (int s = debutsSous[r]; s < debutsSous[r] + nombreSous[r]; s++) {
+                    double somme = 0;
+                    for (int k = 0; k < dimension; k++) {
+                        double x = coordonnees[i * dimension + k];
+                        double bas = minimums[k] + (cellules[i * dimension + k] + decalages[d + k]) * cote
+                                + sous[s * dimension + k] * coteSous;
+                        double ecart = Math.max(0, Math.max(bas - x, x - bas - coteSous));
+                        somme += ecart * ecart;
+                    }
+                    if (somme <= rayon2) {
+                        meilleur = numero;
+                        break;
+                    }
+                }
+            }
+            return meilleur;
+        }
+    }
+
+    /**
+     * Racine d'une cellule, avec compression de chemin par « halving ».
+     */
+    private static int trouver(int[] parents, int x) {
+        while (parents[x] != x) {
+            parents[x] = parents[parents[x]];
+            x = parents[x];
+        }
+        return x;
+    }
+
+    // Getters
+    public double getEps() { return eps; }
+    public int getMinPts() { return minPts; }
+    public double getRho() { return rho; }
+}
@@ -1,9 +1,14 @@
 package clustering.algorithmes;
 
+import index.FabriqueIndex;
+import index.IndexVoisins;
 import metriques.MetriqueDistance;
-import outils.PixelData;
-import java.util.*;
-import java.awt.Color;
+import metriques.MetriqueVectorielle;
+import metriques.couleur.MetriqueCouleur;
+import metriques.position.MetriquePositionEuclidienne;
+import outils.DonneesPixels;
+import outils.ListeEntiers;
+import java.util.Arrays;
 
 /**
  * Version améliorée de DBSCANOptimise qui fonctionne pour TOUS les types de métriques :
@@ -11,39 +16,96 @@ import java.awt.Color;
  * - Couleurs (RGB) avec grille 3D
  *
  * Détecte automatiquement le type selon la métrique utilisée.
+ * La grille est un index primitif (GrilleIndex) et les recherches de voisins réutilisent
+ * leurs tampons : aucune allocation par requête.
+ * Avec la distance euclidienne sur les positions, le calcul est confié à DBSCANRaster quand le rectangle
+ * englobant est assez dense (DBSCANRaster.estAdapte) ; sinon la grille creuse, en mémoire O(n), est gardée.
+ * Un index de voisinage (arbre k-d, arbre à boules...) peut remplacer la grille : il ne dépend ni
+ * du nom de la métrique ni de la densité des données.
+ * La grille RGB n'est exacte que pour la distance euclidienne en RGB : pour les autres normes de couleur
+ * (CIELAB, CIE94, Redmean), un index exact est utilisé par défaut (arbre k-d ou arbre de points de vue).
  */
 public class DBSCANOptimise extends AlgorithmeClusteringAbstrait {
 
     private final double eps;
     private final int minPts;
 
+    // Index de voisinage optionnel (remplace la grille)
+    private final FabriqueIndex fabriqueIndex;
+    private IndexVoisins index;
+
     // Grille spatiale (peut être 2D ou 3D selon le cas)
-    private Map<String, List<Integer>> grilleSpatiale;
+    private GrilleIndex grille;
     private int tailleGrille;
 
+    // Décalages (en cellules) des cellules à explorer autour d'un point, 2 ou 3 valeurs par cellule
+    private int[] decalages;
+
     // Type de métrique détecté
     private boolean estMetriqueCouleur;
 
     // Limites pour la grille
     private double minX, minY, minZ, maxX, maxY, maxZ;
 
+    // Tampons réutilisés d'une recherche de voisins à l'autre
+    private final ListeEntiers voisins = new ListeEntiers();
+    private final ListeEntiers aTraiter = new ListeEntiers();
+    private int[] marques; // cluster pour lequel un point a déjà été mis en file
+    private float[] tamponDistances;
+    private int tailleMaxVoisins, tailleMaxFile;
+    private static final int TAILLE_BLOC = 1024;
+
     // États des points
     private static final int NON_VISITE = -2;
     private static final int BRUIT = -1;
 
     public DBSCANOptimise(double eps, int minPts) {
+        this(eps, minPts, null);
+    }
+
+    /**
+     * DBSCAN dont les voisins sont cherchés avec l'index construit par la fabrique (ex: ArbreKD::new).
+     * Si l'index ne convient pas à la métrique, la grille est utilisée.
+     */
+    public DBSCANOptimise(double eps, int minPts, FabriqueIndex fabriqueIndex) {
         super("DBSCAN Optimisé (eps=" + eps + ", minPts=" + minPts + ")");
         this.eps = eps;
         this.minPts = minPts;
         this.tailleGrille = (int) Math.ceil(eps);
+        this.fabriqueIndex = fabriqueIndex;
+    }
+
+    @Override
+    public boolean supportePoids() {
+        return true;
     }
 
     @Override
-    public int[] executer(PixelData[] donnees, MetriqueDistance metrique) {
-        int n = donnees.length;
+    public int[] executer(DonneesPixels donnees, MetriqueDistance metrique) {
+        statistiques = new StatistiquesExecution();
+        long chrono = System.nanoTime();
+        int n = donnees.taille();
         int[] clusters = new int[n];
         Arrays.fill(clusters, NON_VISITE);
 
+        // Index de voisinage demandé, ou imposé par la norme de couleur
+        FabriqueIndex fabrique = fabriqueIndex;
+        if (fabrique == null && metrique instanceof MetriqueCouleur) {
+            fabrique = indexCouleurParDefaut((MetriqueCouleur) metrique);
+        }
+        if (fabrique != null && metrique instanceof MetriqueVectorielle) {
+            try {
+                index = fabrique.construire(donnees, (MetriqueVectorielle) metrique);
+                System.out.println("Index de voisinage: " + index.getNom());
+            } catch (IllegalArgumentException e) {
+                System.out.println(e.getMessage() + " : grille utilisée");
+            }
+        }
+        if (index != null) {
+            statistiques.terminer(StatistiquesExecution.Phase.INDEX, chrono);
+            return etendreClusters(donnees, clusters, metrique);
+        }
+
         // Détecter le type de métrique
         estMetriqueCouleur = metrique.getNom().contains("RGB") ||
                 metrique.getNom().contains("CIE") ||
@@ -52,6 +114,16 @@ public class DBSCANOptimise extends AlgorithmeClusteringAbstrait {
 
         System.out.println("Type détecté: " + (estMetriqueCouleur ? "Couleur RGB" : "Position XY"));
 
+        // Pixels sur la grille entière : moteur raster exact, sans calcul de distance, si son masque
+        // reste proportionné au nombre de points
+        if (metrique instanceof MetriquePositionEuclidienne && DBSCANRaster.estAdapte(donnees)) {
+            DBSCANRaster raster = new DBSCANRaster(eps, minPts);
+            int[] resultat = raster.executer(donnees, metrique);
+            this.nombreClusters = raster.getNombreClusters();
+            this.statistiques = raster.getStatistiques();
+            return resultat;
+        }
+
         // Construire l'index approprié
         if (estMetriqueCouleur) {
             construireGrilleRGB(donnees);
@@ -59,25 +131,61 @@ public class DBSCANOptimise extends AlgorithmeClusteringAbstrait {
             construireGrilleSpatiale(donnees);
         }
 
+        // Coordonnées précalculées recopiées cellule par cellule : distances calculées par blocs
+        if (metrique instanceof MetriqueVectorielle && ((MetriqueVectorielle) metrique).estPrepare(donnees)) {
+            grille.trierCaracteristiques(donnees);
+            tamponDistances = new float[TAILLE_BLOC];
+        }
+        statistiques.terminer(StatistiquesExecution.Phase.INDEX, chrono);
+
+        return etendreClusters(donnees, clusters, metrique);
+    }
+
+    /**
+     * Index à utiliser à la place de la grille RGB, ou null si la grille est exacte pour cette norme
+     * (distance fonction de la distance euclidienne en RGB). Les autres normes ne sont pas bornées par
+     * les cellules RGB : la grille manquerait des voisins ou en parcourrait beaucoup trop.
+     */
+    private static FabriqueIndex indexCouleurParDefaut(MetriqueCouleur metrique) {
+        if (metrique.rayonEuclidien(1) >= 0 && "RGB".equals(metrique.getEspace())) {
+            return null;
+        }
+        return FabriqueIndex.pourMetrique(metrique);
+    }
+
+    /**
+     * Boucle principale de DBSCAN, une fois l'index ou la grille construit.
+     */
+    private int[] etendreClusters(DonneesPixels donnees, int[] clusters, MetriqueDistance metrique) {
+        long chrono = System.nanoTime();
+        int n = donnees.taille();
+        marques = new int[n];
+        Arrays.fill(marques, -1);
+        tailleMaxVoisins = tailleMaxFile = 0;
         int clusterActuel = 0;
 
         for (int i = 0; i < n; i++) {
             if (clusters[i] != NON_VISITE) {
                 continue;
             }
+            statistiques.ajouterPointsVisites(1);
 
             // Trouver les voisins avec la grille appropriée
-            List<Integer> voisins = trouverVoisinsOptimise(donnees, i, metrique);
+            trouverVoisinsOptimise(donnees, i, metrique);
 
-            if (voisins.size() < minPts) {
+            if (poidsVoisins(donnees, voisins) < minPts) {
                 clusters[i] = BRUIT;
             } else {
-                expandCluster(donnees, clusters, i, voisins, clusterActuel, metrique);
+                expandCluster(donnees, clusters, i, clusterActuel, metrique);
+                tailleMaxFile = Math.max(tailleMaxFile, aTraiter.taille());
                 clusterActuel++;
             }
         }
 
         this.nombreClusters = clusterActuel;
+        statistiques.terminer(StatistiquesExecution.Phase.EXPANSION, chrono);
+        statistiques.noterTailleTampon("voisins", tailleMaxVoisins);
+        statistiques.noterTailleTampon("file d'expansion", tailleMaxFile);
 
         // Convertir les points de bruit
         for (int i = 0; i < n; i++) {
@@ -87,7 +195,10 @@ public class DBSCANOptimise extends AlgorithmeClusteringAbstrait {
         }
 
         // Libérer la mémoire
-        grilleSpatiale.clear();
+        index = null;
+        grille = null;
+        marques = null;
+        tamponDistances = null;
 
         return clusters;
     }
@@ -95,26 +206,24 @@ public class DBSCANOptimise extends AlgorithmeClusteringAbstrait {
     /**
      * Construit la grille spatiale 2D pour les positions.
      */
-    private void construireGrilleSpatiale(PixelData[] donnees) {
-        grilleSpatiale = new HashMap<>();
-
+    private void construireGrilleSpatiale(DonneesPixels donnees) {
         // Trouver les limites spatiales
         minX = Double.MAX_VALUE;
         minY = Double.MAX_VALUE;
         maxX = Double.MIN_VALUE;
         maxY = Double.MIN_VALUE;
 
-        for (PixelData pixel : donnees) {
-            minX = Math.min(minX, pixel.getX());
-            minY = Math.min(minY, pixel.getY());
-            maxX = Math.max(maxX, pixel.getX());
-            maxY = Math.max(maxY, pixel.getY());
+        for (int i = 0; i < donnees.taille(); i++) {
+            minX = Math.min(minX, donnees.getX(i));
+            minY = Math.min(minY, donnees.getY(i));
+            maxX = Math.max(maxX, donnees.getX(i));
+            maxY = Math.max(maxY, donnees.getY(i));
         }
 
         // Ajuster la taille de grille selon la densité
         double largeur = maxX - minX + 1;
         double hauteur = maxY - minY + 1;
-        double densite = donnees.length / (largeur * hauteur);
+        double densite = donnees.taille() / (largeur * hauteur);
 
         if (densite > 0.5) {
             tailleGrille = (int) Math.max(1, eps / 2);
@@ -123,19 +232,35 @@ public class DBSCANOptimise extends AlgorithmeClusteringAbstrait {
         }
 
         // Placer chaque point dans la grille
-        for (int i = 0; i < donnees.length; i++) {
-            PixelData pixel = donnees[i];
-            String cle = getCleGrille2D(pixel.getX(), pixel.getY());
-            grilleSpatiale.computeIfAbsent(cle, k -> new ArrayList<>()).add(i);
+        int n = donnees.taille();
+        int[] gx = new int[n];
+        int[] gy = new int[n];
+        for (int i = 0; i < n; i++) {
+            gx[i] = celluleX(donnees.getX(i));
+            gy[i] = celluleY(donnees.getY(i));
+        }
+        grille = new GrilleIndex(gx, gy, null);
+
+        // Cellules voisines retenues (ordre de parcours dx puis dy)
+        int rayonCellules = (int) Math.ceil(eps / tailleGrille);
+        ListeEntiers liste = new ListeEntiers();
+        for (int dx = -rayonCellules; dx <= rayonCellules; dx++) {
+            for (int dy = -rayonCellules; dy <= rayonCellules; dy++) {
+                double distCellule = Math.sqrt(dx * dx + dy * dy) * tailleGrille;
+                if (distCellule > eps + tailleGrille * Math.sqrt(2)) {
+                    continue;
+                }
+                liste.ajouter(dx);
+                liste.ajouter(dy);
+            }
         }
+        decalages = liste.versTableau();
     }
 
     /**
      * Construit la grille 3D pour les couleurs RGB.
      */
-    private void construireGrilleRGB(PixelData[] donnees) {
-        grilleSpatiale = new HashMap<>();
-
+    private void construireGrilleRGB(DonneesPixels donnees) {
         // Pour RGB, les limites sont fixes
         minX = minY = minZ = 0;
         maxX = maxY = maxZ = 255;
@@ -151,151 +276,143 @@ public class DBSCANOptimise extends AlgorithmeClusteringAbstrait {
         }
 
         // Placer chaque point dans la grille RGB
-        for (int i = 0; i < donnees.length; i++) {
-            PixelData pixel = donnees[i];
-            Color c = pixel.getCouleur();
-            String cle = getCleGrille3D(c.getRed(), c.getGreen(), c.getBlue());
-            grilleSpatiale.computeIfAbsent(cle, k -> new ArrayList<>()).add(i);
+        int n = donnees.taille();
+        int[] gr = new int[n];
+        int[] gg = new int[n];
+        int[] gb = new int[n];
+        for (int i = 0; i < n; i++) {
+            gr[i] = donnees.getRouge(i) / tailleGrille;
+            gg[i] = donnees.getVert(i) / tailleGrille;
+            gb[i] = donnees.getBleu(i) / tailleGrille;
         }
+        grille = new GrilleIndex(gr, gg, gb);
 
-        System.out.println("Grille RGB créée: " + grilleSpatiale.size() + " cellules, taille cellule: " + tailleGrille);
+        // Pour RGB, on doit explorer un cube 3D
+        int rayonCellules = (int) Math.ceil(eps / tailleGrille);
+        ListeEntiers liste = new ListeEntiers();
+        for (int dr = -rayonCellules; dr <= rayonCellules; dr++) {
+            for (int dg = -rayonCellules; dg <= rayonCellules; dg++) {
+                for (int db = -rayonCellules; db <= rayonCellules; db++) {
+                    // Vérification rapide avec distance euclidienne RGB
+                    double distCellule = Math.sqrt(dr*dr + dg*dg + db*db) * tailleGrille;
+                    if (distCellule > eps * 2) { // Marge de sécurité (seule la distance euclidienne arrive ici)
+                        continue;
+                    }
+                    liste.ajouter(dr);
+                    liste.ajouter(dg);
+                    liste.ajouter(db);
+                }
+            }
+        }
+        decalages = liste.versTableau();
+
+        System.out.println("Grille RGB créée: " + grille.getNombreCellulesOccupees() + " cellules, taille cellule: " + tailleGrille);
     }
 
     /**
-     * Génère une clé pour la cellule 2D (positions).
+     * Coordonnées de cellule 2D (positions).
      */
-    private String getCleGrille2D(double x, double y) {
-        int gx = (int) ((x - minX) / tailleGrille);
-        int gy = (int) ((y - minY) / tailleGrille);
-        return gx + "," + gy;
+    private int celluleX(double x) {
+        return (int) ((x - minX) / tailleGrille);
     }
 
-    /**
-     * Génère une clé pour la cellule 3D (couleurs RGB).
-     */
-    private String getCleGrille3D(int r, int g, int b) {
-        int gr = r / tailleGrille;
-        int gg = g / tailleGrille;
-        int gb = b / tailleGrille;
-        return gr + "," + gg + "," + gb;
+    private int celluleY(double y) {
+        return (int) ((y - minY) / tailleGrille);
     }
 
     /**
-     * Recherche de voisins optimisée (détecte automatiquement le type).
+     * Recherche de voisins optimisée (détecte automatiquement le type) : remplit le tampon voisins.
      */
-    private List<Integer> trouverVoisinsOptimise(PixelData[] donnees, int pointIndex,
-                                                 MetriqueDistance metrique) {
-        if (estMetriqueCouleur) {
-            return trouverVoisinsRGB(donnees, pointIndex, metrique);
+    private void trouverVoisinsOptimise(DonneesPixels donnees, int pointIndex, MetriqueDistance metrique) {
+        voisins.vider();
+        statistiques.ajouterRequetes(1);
+        if (index != null) {
+            index.chercherDansRayon(donnees.getCaracteristiques(), pointIndex * donnees.getDimension(), eps, voisins);
+        } else if (estMetriqueCouleur) {
+            int gr = donnees.getRouge(pointIndex) / tailleGrille;
+            int gg = donnees.getVert(pointIndex) / tailleGrille;
+            int gb = donnees.getBleu(pointIndex) / tailleGrille;
+            for (int d = 0; d < decalages.length; d += 3) {
+                parcourirCellule(donnees, pointIndex, metrique,
+                        grille.rang(gr + decalages[d], gg + decalages[d + 1], gb + decalages[d + 2]));
+            }
         } else {
-            return trouverVoisinsPosition(donnees, pointIndex, metrique);
+            int gx = celluleX(donnees.getX(pointIndex));
+            int gy = celluleY(donnees.getY(pointIndex));
+            for (int d = 0; d < decalages.length; d += 2) {
+                parcourirCellule(donnees, pointIndex, metrique, grille.rang(gx + decalages[d], gy + decalages[d + 1], 0));
+            }
         }
+        tailleMaxVoisins = Math.max(tailleMaxVoisins, voisins.taille());
     }
 
     /**
-     * Recherche de voisins pour les positions (2D).
+     * Ajoute aux voisins les points de la cellule (rang -1 : cellule vide) à distance au plus eps.
      */
-    private List<Integer> trouverVoisinsPosition(PixelData[] donnees, int pointIndex,
-                                                 MetriqueDistance metrique) {
-        List<Integer> voisins = new ArrayList<>();
-        PixelData pixel = donnees[pointIndex];
-
-        int gx = (int) ((pixel.getX() - minX) / tailleGrille);
-        int gy = (int) ((pixel.getY() - minY) / tailleGrille);
-        int rayonCellules = (int) Math.ceil(eps / tailleGrille);
-
-        for (int dx = -rayonCellules; dx <= rayonCellules; dx++) {
-            for (int dy = -rayonCellules; dy <= rayonCellules; dy++) {
-                double distCellule = Math.sqrt(dx * dx + dy * dy) * tailleGrille;
-                if (distCellule > eps + tailleGrille * Math.sqrt(2)) {
-                    continue;
-                }
-
-                String cle = (gx + dx) + "," + (gy + dy);
-                List<Integer> pointsDansCellule = grilleSpatiale.get(cle);
-
-                if (pointsDansCellule != null) {
-                    for (int i : pointsDansCellule) {
-                        double distance = metrique.calculerDistance(donnees[pointIndex], donnees[i]);
-                        if (distance <= eps) {
-                            voisins.add(i);
-                        }
+    private void parcourirCellule(DonneesPixels donnees, int pointIndex, MetriqueDistance metrique, int rang) {
+        if (rang < 0) return;
+        int[] points = grille.getPoints();
+        int debut = grille.debut(rang);
+        int fin = grille.fin(rang);
+        statistiques.ajouterDistances(fin - debut);
+
+        float[] triees = grille.getCaracteristiquesTriees();
+        if (triees != null) {
+            // Cellule contiguë : distances par blocs (le point recherché est le second opérande)
+            MetriqueVectorielle vectorielle = (MetriqueVectorielle) metrique;
+            int offset = pointIndex * grille.getDimensionCaracteristiques();
+            for (int bloc = debut; bloc < fin; bloc += TAILLE_BLOC) {
+                int nombre = Math.min(TAILLE_BLOC, fin - bloc);
+                vectorielle.distancesBloc(triees, bloc, nombre, donnees.getCaracteristiques(), offset, tamponDistances);
+                for (int k = 0; k < nombre; k++) {
+                    if (tamponDistances[k] <= eps) {
+                        voisins.ajouter(points[bloc + k]);
                     }
                 }
             }
+            return;
         }
 
-        return voisins;
-    }
-
-    /**
-     * Recherche de voisins pour les couleurs RGB (3D).
-     */
-    private List<Integer> trouverVoisinsRGB(PixelData[] donnees, int pointIndex,
-                                            MetriqueDistance metrique) {
-        List<Integer> voisins = new ArrayList<>();
-        PixelData pixel = donnees[pointIndex];
-        Color c = pixel.getCouleur();
-
-        int gr = c.getRed() / tailleGrille;
-        int gg = c.getGreen() / tailleGrille;
-        int gb = c.getBlue() / tailleGrille;
-
-        // Pour RGB, on doit explorer un cube 3D
-        int rayonCellules = (int) Math.ceil(eps / tailleGrille);
-
-        for (int dr = -rayonCellules; dr <= rayonCellules; dr++) {
-            for (int dg = -rayonCellules; dg <= rayonCellules; dg++) {
-                for (int db = -rayonCellules; db <= rayonCellules; db++) {
-                    // Vérification rapide avec distance euclidienne RGB
-                    double distCellule = Math.sqrt(dr*dr + dg*dg + db*db) * tailleGrille;
-                    if (distCellule > eps * 2) { // Marge de sécurité pour les métriques complexes
-                        continue;
-                    }
-
-                    String cle = (gr + dr) + "," + (gg + dg) + "," + (gb + db);
-                    List<Integer> pointsDansCellule = grilleSpatiale.get(cle);
-
-                    if (pointsDansCellule != null) {
-                        for (int i : pointsDansCellule) {
-                            double distance = metrique.calculerDistance(donnees[pointIndex], donnees[i]);
-                            if (distance <= eps) {
-                                voisins.add(i);
-                            }
-                        }
-                    }
-                }
+        for (int p = debut; p < fin; p++) {
+            int i = points[p];
+            double distance = metrique.calculerDistance(donnees, pointIndex, donnees, i);
+            if (distance <= eps) {
+                voisins.ajouter(i);
             }
         }
-
-        return voisins;
     }
 
     /**
-     * Étend le cluster (identique à la version originale).
+     * Étend le cluster (identique à la version originale), à partir des voisins du point.
+     * Un point n'est mis en file qu'une fois par cluster (marques).
      */
-    private void expandCluster(PixelData[] donnees, int[] clusters, int pointIndex,
-                               List<Integer> voisins, int clusterId,
+    private void expandCluster(DonneesPixels donnees, int[] clusters, int pointIndex, int clusterId,
                                MetriqueDistance metrique) {
         clusters[pointIndex] = clusterId;
 
-        List<Integer> aTraiter = new ArrayList<>(voisins);
-        Set<Integer> voisinsSet = new HashSet<>(voisins);
+        aTraiter.vider();
+        for (int k = 0; k < voisins.taille(); k++) {
+            int v = voisins.get(k);
+            aTraiter.ajouter(v);
+            marques[v] = clusterId;
+        }
 
         int index = 0;
-        while (index < aTraiter.size()) {
+        while (index < aTraiter.taille()) {
             int voisinIndex = aTraiter.get(index++);
+            statistiques.ajouterPointsVisites(1);
 
             if (clusters[voisinIndex] == NON_VISITE) {
                 clusters[voisinIndex] = clusterId;
 
-                List<Integer> voisinsDuVoisin = trouverVoisinsOptimise(donnees, voisinIndex, metrique);
+                trouverVoisinsOptimise(donnees, voisinIndex, metrique);
 
-                if (voisinsDuVoisin.size() >= minPts) {
-                    for (int nouveauVoisin : voisinsDuVoisin) {
-                        if (!voisinsSet.contains(nouveauVoisin)) {
-                            aTraiter.add(nouveauVoisin);
-                            voisinsSet.add(nouveauVoisin);
+                if (poidsVoisins(donnees, voisins) >= minPts) {
+                    for (int k = 0; k < voisins.taille(); k++) {
+                        int nouveauVoisin = voisins.get(k);
+                        if (marques[nouveauVoisin] != clusterId) {
+                            aTraiter.ajouter(nouveauVoisin);
+                            marques[nouveauVoisin] = clusterId;
                         }
                     }
                 }
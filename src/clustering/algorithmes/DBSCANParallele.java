@@ -0,0 +1,269 @@
+package clustering.algorithmes;
+
+import metriques.MetriqueDistance;
+import metriques.MetriqueVectorielle;
+import outils.DonneesPixels;
+import outils.ListeEntiers;
+
+import java.util.Arrays;
+import java.util.concurrent.atomic.AtomicIntegerArray;
+import java.util.stream.IntStream;
+
+/**
+ * DBSCAN parallèle : au lieu d'étendre les clusters un par un (parcours en largeur séquentiel),
+ * on procède en trois phases qui utilisent tous les cœurs.
+ * 1. Chaque point est classé cœur ou non (poids de son voisinage >= minPts), en parallèle.
+ * 2. Chaque point cœur est réuni à ses voisins cœurs dans une structure union-find sans verrou
+ *    (un tableau de parents partagé, modifié par compare-and-set).
+ * 3. Chaque point non cœur rejoint le cluster d'un point cœur voisin, s'il en a un (sinon bruit).
+ *
+ * Le résultat est le même que celui de DBSCAN : les clusters sont numérotés dans l'ordre de leur
+ * premier point cœur, et un point de bordure rejoint le cluster de plus petit numéro parmi ceux
+ * qui l'atteignent, comme dans le parcours séquentiel. (Avec une norme non symétrique comme CIE94,
+ * le voisinage ne l'est pas non plus et le résultat séquentiel dépend de l'ordre de parcours :
+ * ici deux points cœurs sont réunis dès que l'un est voisin de l'autre.)
+ * Chaque point est interrogé deux fois (phases 1 et 2, ou 1 et 3), en échange d'un travail
+ * entièrement parallèle.
+ *
+ * Fonctionne avec toute métrique ; pour la distance euclidienne sur les positions, les voisins
+ * sont cherchés dans une grille (GrilleIndex), sinon par balayage complet (distances par blocs).
+ */
+public class DBSCANParallele extends AlgorithmeClusteringAbstrait {
+
+    private final double eps;
+    private final int minPts;
+
+    // Points traités par une tâche (chacune a ses propres tampons)
+    private static final int TAILLE_BLOC = 1024;
+    private static final int TAILLE_TAMPON = 4096;
+
+    public DBSCANParallele(double eps, int minPts) {
+        super("DBSCAN Parallèle (eps=" + eps + ", minPts=" + minPts + ")");
+        this.eps = eps;
+        this.minPts = minPts;
+    }
+
+    @Override
+    public boolean supportePoids() {
+        return true;
+    }
+
+    @Override
+    public int[] executer(DonneesPixels donnees, MetriqueDistance metrique) {
+        statistiques = new StatistiquesExecution();
+        long chrono = System.nanoTime();
+        int n = donnees.taille();
+        Voisinage voisinage = new Voisinage(donnees, metrique);
+        int nbBlocs = (n + TAILLE_BLOC - 1) / TAILLE_BLOC;
+        chrono = statistiques.terminer(StatistiquesExecution.Phase.INDEX, chrono);
+
+        // Phase 1 : points cœurs
+        boolean[] estCoeur = new boolean[n];
+        IntStream.range(0, nbBlocs).parallel().forEach(bloc -> {
+            ListeEntiers voisins = new ListeEntiers();
+            float[] tampon = new float[TAILLE_TAMPON];
+            long distances = 0;
+            int tailleMax = 0;
+            for (int i = bloc * TAILLE_BLOC; i < Math.min(n, (bloc + 1) * TAILLE_BLOC); i++) {
+                distances += voisinage.chercher(i, voisins, tampon);
+                tailleMax = Math.max(tailleMax, voisins.taille());
+                estCoeur[i] = poidsVoisins(donnees, voisins) >= minPts;
+            }
+            noterBloc(Math.min(n, (bloc + 1) * TAILLE_BLOC) - bloc * TAILLE_BLOC, distances, tailleMax);
+        });
+
+        // Phase 2 : union des points cœurs voisins (la racine d'un ensemble est son plus petit indice)
+        AtomicIntegerArray parents = new AtomicIntegerArray(n);
+        for (int i = 0; i < n; i++) parents.set(i, i);
+        IntStream.range(0, nbBlocs).parallel().forEach(bloc -> {
+            ListeEntiers voisins = new ListeEntiers();
+            float[] tampon = new float[TAILLE_TAMPON];
+            long distances = 0;
+            int requetes = 0, tailleMax = 0;
+            for (int i = bloc * TAILLE_BLOC; i < Math.min(n, (bloc + 1) * TAILLE_BLOC); i++) {
+                if (!estCoeur[i]) continue;
+                distances += voisinage.chercher(i, voisins, tampon);
+                requetes++;
+                tailleMax = Math.max(tailleMax, voisins.taille());
+                for (int k = 0; k < voisins.taille(); k++) {
+                    int j = voisins.get(k);
+                    if (j != i && estCoeur[j]) {
+                        unir(parents, i, j);
+                    }
+                }
+            }
+            noterBloc(requetes, distances, tailleMax);
+        });
+
+        // Numérotation des clusters dans l'ordre de leur premier point cœur
+        int[] clusters = new int[n];
+        Arrays.fill(clusters, -1);
+        int clusterActuel = 0;
+        for (int i = 0; i < n; i++) {
+            if (!estCoeur[i]) continue;
+            int racine = trouver(parents, i);
+            clusters[i] = racine == i ? clusterActuel++ : clusters[racine];
+        }
+
+        // Phase 3 : points de bordure (le plus petit numéro de cluster parmi leurs voisins cœurs)
+        IntStream.range(0, nbBlocs).parallel().forEach(bloc -> {
+            ListeEntiers voisins = new ListeEntiers();
+            float[] tampon = new float[TAILLE_TAMPON];
+            long distances = 0;
+            int requetes = 0, tailleMax = 0;
+            for (int i = bloc * TAILLE_BLOC; i < Math.min(n, (bloc + 1) * TAILLE_BLOC); i++) {
+                if (estCoeur[i]) continue;
+                distances += voisinage.chercher(i, voisins, tampon);
+                requetes++;
+                tailleMax = Math.max(tailleMax, voisins.taille());
+                int cluster = -1;
+                for (int k = 0; k < voisins.taille(); k++) {
+                    int j = voisins.get(k);
+                    if (estCoeur[j] && (cluster == -1 || clusters[j] < cluster)) {
+                        cluster = clusters[j];
+                    }
+                }
+                clusters[i] = cluster; // les points cœurs ne sont pas modifiés : pas de conflit
+            }
+            noterBloc(requetes, distances, tailleMax);
+        });
+
+        statistiques.terminer(StatistiquesExecution.Phase.EXPANSION, chrono);
+        statistiques.ajouterPointsVisites(n);
+        this.nombreClusters = clusterActuel;
+        return clusters;
+    }
+
+    /**
+     * Ajoute aux statistiques les compteurs d'un bloc de requêtes.
+     */
+    private void noterBloc(int requetes, long distances, int tailleMaxVoisins) {
+        statistiques.ajouterRequetes(requetes);
+        statistiques.ajouterDistances(distances);
+        statistiques.noterTailleTampon("voisins", tailleMaxVoisins);
+    }
+
+    /**
+     * Racine de l'ensemble de x, avec compression de chemin par « halving » (tolère les accès concurrents).
+     */
+    private static int trouver(AtomicIntegerArray parents, int x) {
+        int parent;
+        while ((parent = parents.get(x)) != x) {
+            int grandParent = parents.get(parent);
+            if (grandParent != parent) {
+                parents.compareAndSet(x, parent, grandParent);
+            }
+            x = parent;
+        }
+        return x;
+    }
+
+    /**
+     * Réunit les ensembles de a et b : la racine de plus grand indice est rattachée à l'autre.
+     * Si une autre tâche a modifié la racine entre-temps, on recommence.
+     */
+    private static void unir(AtomicIntegerArray parents, int a, int b) {
+        while (true) {
+            int racineA = trouver(parents, a);
+            int racineB = trouver(parents, b);
+            if (racineA == racineB) return;
+            int grande = Math.max(racineA, racineB);
+            int petite = Math.min(racineA, racineB);
+            if (parents.compareAndSet(grande, grande, petite)) return;
+        }
+    }
+
+    /**
+     * Recherche des voisins à distance au plus eps, sans état modifiable (partagée entre les tâches).
+     */
+    private final class Voisinage {
+        private final DonneesPixels donnees;
+        private final MetriqueDistance metrique;
+        private final MetriqueVectorielle vectorielle; // null si les coordonnées ne sont pas disponibles
+        private final GrilleIndex grille;             // null hors distance sur les positions
+        private final int tailleCellule;
+        private final int rayonCellules;
+
+        Voisinage(DonneesPixels donnees, MetriqueDistance metrique) {
+            this.donnees = donnees;
+            this.metrique = metrique;
+            this.vectorielle = metrique instanceof MetriqueVectorielle
+                    && ((MetriqueVectorielle) metrique).estPrepare(donnees) ? (MetriqueVectorielle) metrique : null;
+
+            if (vectorielle != null && "XY".equals(vectorielle.getEspace())) {
+                // Cellules de côté eps : les voisins sont dans le carré de cellules de rayon 1
+                tailleCellule = (int) Math.max(1, Math.ceil(eps));
+                rayonCellules = (int) Math.ceil(eps / tailleCellule);
+                int n = donnees.taille();
+                int[] gx = new int[n];
+                int[] gy = new int[n];
+                for (int i = 0; i < n; i++) {
+                    gx[i] = Math.floorDiv(donnees.getX(i), tailleCellule);
+                    gy[i] = Math.floorDiv(donnees.getY(i), tailleCellule);
+                }
+                grille = new GrilleIndex(gx, gy, null);
+                grille.trierCaracteristiques(donnees);
+            } else {
+                grille = null;
+                tailleCellule = rayonCellules = 0;
+            }
+        }
+
+        /**
+         * Remplit voisins (vidé au préalable) avec les indices des points à distance au plus eps de i.
+         *
+         * @return Nombre de distances calculées
+         */
+        int chercher(int i, ListeEntiers voisins, float[] tampon) {
+            voisins.vider();
+            int distances = 0;
+            if (grille != null) {
+                int gx = Math.floorDiv(donnees.getX(i), tailleCellule);
+                int gy = Math.floorDiv(donnees.getY(i), tailleCellule);
+                for (int dx = -rayonCellules; dx <= rayonCellules; dx++) {
+                    for (int dy = -rayonCellules; dy <= rayonCellules; dy++) {
+                        int rang = grille.rang(gx + dx, gy + dy, 0);
+                        if (rang >= 0) {
+                            parcourir(grille.getCaracteristiquesTriees(), grille.getPoints(),
+                                    grille.debut(rang), grille.fin(rang), i, voisins, tampon);
+                            distances += grille.fin(rang) - grille.debut(rang);
+                        }
+                    }
+                }
+            } else if (vectorielle != null) {
+                parcourir(donnees.getCaracteristiques(), null, 0, donnees.taille(), i, voisins, tampon);
+                distances = donnees.taille();
+            } else {
+                for (int j = 0; j < donnees.taille(); j++) {
+                    if (metrique.calculerDistance(donnees, i, donnees, j) <= eps) {
+                        voisins.ajouter(j);
+                    }
+                }
+                distances = donnees.taille();
+            }
+            return distances;
+        }
+
+        /**
+         * Distances par blocs de i aux points [debut, fin) d'un tableau de coordonnées
+         * (points : correspondance position -> indice, null si c'est l'identité).
+         */
+        private void parcourir(float[] coordonnees, int[] points, int debut, int fin, int i,
+                               ListeEntiers voisins, float[] tampon) {
+            int offset = i * donnees.getDimension();
+            for (int bloc = debut; bloc < fin; bloc += tampon.length) {
+                int nombre = Math.min(tampon.length, fin - bloc);
+                vectorielle.distancesBloc(coordonnees, bloc, nombre, donnees.getCaracteristiques(), offset, tampon);
+                for (int k = 0; k < nombre; k++) {
+                    if (tampon[k] <= eps) {
+                        voisins.ajouter(points == null ? bloc + k : points[bloc + k]);
+                    }
+                }
+            }
+        }
+    }
+
+    // Getters
+    public double getEps() { return eps; }
+    public int getMinPts() { return minPts; }
+}
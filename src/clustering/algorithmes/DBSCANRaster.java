@@ -0,0 +1,213 @@
+package clustering.algorithmes;
+
+import metriques.MetriqueDistance;
+import metriques.position.MetriquePositionEuclidienne;
+import outils.DonneesPixels;
+import outils.ListeEntiers;
+
+import java.util.Arrays;
+import java.util.stream.IntStream;
+
+/**
+ * DBSCAN exact pour les positions de pixels (écosystèmes), sans aucun calcul de distance.
+ *
+ * Les points sont des pixels sur une grille entière : le voisinage de rayon eps d'un pixel est
+ * un disque discret, décrit une fois pour toutes par la demi-largeur de chacune de ses lignes.
+ * Les pixels du jeu sont rastérisés dans un masque couvrant leur rectangle englobant ;
+ * avec les sommes préfixes de chaque ligne du masque (poids cumulés), le poids du voisinage
+ * d'un pixel s'obtient en 2·eps+1 soustractions. L'extension des clusters parcourt directement
+ * les lignes du disque dans le masque.
+ *
+ * Coût O(n·eps) pour les points cœurs et O(n_coeurs·eps²) pour l'extension, linéaire en nombre
+ * de pixels à eps fixé. Résultat identique à DBSCAN avec MetriquePositionEuclidienne.
+ */
+public class DBSCANRaster extends AlgorithmeClusteringAbstrait {
+
+    private final double eps;
+    private final int minPts;
+
+    // États des points
+    private static final int NON_VISITE = -2;
+    private static final int BRUIT = -1;
+
+    // Cellules du masque par point au-delà desquelles le masque coûte plus qu'un index creux
+    private static final int CELLULES_PAR_POINT_MAX = 16;
+
+    public DBSCANRaster(double eps, int minPts) {
+        super("DBSCAN Raster (eps=" + eps + ", minPts=" + minPts + ")");
+        this.eps = eps;
+        this.minPts = minPts;
+    }
+
+    /**
+     * Indique si le masque (8 octets par pixel du rectangle englobant) reste proportionné au nombre de points :
+     * un biome clairsemé sur une grande mosaïque rendrait le masque énorme, voire impossible à allouer.
+     */
+    public static boolean estAdapte(DonneesPixels donnees) {
+        int n = donnees.taille();
+        if (n == 0) return true;
+        int minX = Integer.MAX_VALUE, minY = Integer.MAX_VALUE;
+        int maxX = Integer.MIN_VALUE, maxY = Integer.MIN_VALUE;
+        for (int i = 0; i < n; i++) {
+            minX = Math.min(minX, donnees.getX(i));
+            minY = Math.min(minY, donnees.getY(i));
+            maxX = Math.max(maxX, donnees.getX(i));
+            maxY = Math.max(maxY, donnees.getY(i));
+        }
+        long cellules = (long) (maxX - minX + 2) * (maxY - minY + 1);
+        return cellules <= Integer.MAX_VALUE && cellules <= (long) CELLULES_PAR_POINT_MAX * n;
+    }
+
+    @Override
+    public boolean supportePoids() {
+        return true;
+    }
+
+    @Override
+    public int[] executer(DonneesPixels donnees, MetriqueDistance metrique) {
+        if (!(metrique instanceof MetriquePositionEuclidienne)) {
+            throw new IllegalArgumentException("DBSCAN Raster ne gère que la distance euclidienne sur les positions");
+        }
+        statistiques = new StatistiquesExecution();
+        long chrono = System.nanoTime();
+        int n = donnees.taille();
+        int[] clusters = new int[n];
+        if (n == 0) return clusters;
+
+        // Rectangle englobant
+        int minX = Integer.MAX_VALUE, minY = Integer.MAX_VALUE;
+        int maxX = Integer.MIN_VALUE, maxY = Integer.MIN_VALUE;
+        for (int i = 0; i < n; i++) {
+            minX = Math.min(minX, donnees.getX(i));
+            minY = Math.min(minY, donnees.getY(i));
+            maxX = Math.max(maxX, donnees.getX(i));
+            maxY = Math.max(maxY, donnees.getY(i));
+        }
+        int largeur = maxX - minX + 1;
+        int hauteur = maxY - minY + 1;
+        if ((long) (largeur + 1) * hauteur > Integer.MAX_VALUE) {
+            throw new IllegalArgumentException("Rectangle englobant trop grand pour le masque");
+        }
+        if (donnees.getPoidsTotal() > Integer.MAX_VALUE) {
+            throw new IllegalArgumentException("Poids total trop grand pour les sommes préfixes");
+        }
+
+        // Masque : premier point de chaque pixel (-1 si vide), les doublons éventuels sont chaînés
+        int[] tete = new int[largeur * hauteur];
+        int[] suivant = new int[n];
+        Arrays.fill(tete, -1);
+        for (int i = n - 1; i >= 0; i--) {
+            int cellule = (donnees.getY(i) - minY) * largeur + (donnees.getX(i) - minX);
+            suivant[i] = tete[cellule];
+            tete[cellule] = i;
+        }
+
+        // Sommes préfixes des poids sur chaque ligne : prefixes[y * (largeur + 1) + x] = poids des colonnes < x
+        int[] prefixes = new int[(largeur + 1) * hauteur];
+        for (int y = 0; y < hauteur; y++) {
+            int base = y * (largeur + 1);
+            for (int x = 0; x < largeur; x++) {
+                int poids = 0;
+                for (int p = tete[y * largeur + x]; p >= 0; p = suivant[p]) {
+                    poids += donnees.getPoids(p);
+                }
+                prefixes[base + x + 1] = prefixes[base + x] + poids;
+            }
+        }
+
+        // Disque discret : demi-largeur de la ligne dy (dx² + dy² <= eps²)
+        int rayon = (int) Math.floor(eps);
+        int[] demiLargeurs = new int[2 * rayon + 1];
+        for (int dy = -rayon; dy <= rayon; dy++) {
+            int w = (int) Math.floor(Math.sqrt(eps * eps - (double) dy * dy));
+            while (w > 0 && (double) w * w + (double) dy * dy > eps * eps) w--;
+            while ((double) (w + 1) * (w + 1) + (double) dy * dy <= eps * eps) w++;
+            demiLargeurs[dy + rayon] = w;
+        }
+
+        chrono = statistiques.terminer(StatistiquesExecution.Phase.INDEX, chrono);
+
+        // Points cœurs (en parallèle) : poids du disque par différences de sommes préfixes
+        final int x0 = minX, y0 = minY;
+        boolean[] estCoeur = new boolean[n];
+        IntStream.range(0, n).parallel().forEach(i -> {
+            int x = donnees.getX(i) - x0;
+            int y = donnees.getY(i) - y0;
+            long total = 0;
+            for (int dy = -rayon; dy <= rayon; dy++) {
+                int ligne = y + dy;
+                if (ligne < 0 || ligne >= hauteur) continue;
+                int w = demiLargeurs[dy + rayon];
+                int debut = Math.max(0, x - w);
+                int fin = Math.min(largeur - 1, x + w);
+                int base = ligne * (largeur + 1);
+                total += prefixes[base + fin + 1] - prefixes[base + debut];
+            }
+            estCoeur[i] = total >= minPts;
+        });
+        statistiques.ajouterRequetes(n);
+
+        // Extension des clusters dans le même ordre que DBSCAN
+        Arrays.fill(clusters, NON_VISITE);
+        ListeEntiers aTraiter = new ListeEntiers();
+        int clusterActuel = 0;
+
+        for (int i = 0; i < n; i++) {
+            if (clusters[i] != NON_VISITE) {
+                continue;
+            }
+            if (!estCoeur[i]) {
+                clusters[i] = BRUIT;
+                continue;
+            }
+
+            clusters[i] = clusterActuel;
+            aTraiter.vider();
+            aTraiter.ajouter(i);
+
+            for (int k = 0; k < aTraiter.taille(); k++) {
+                int point = aTraiter.get(k);
+                statistiques.ajouterPointsVisites(1);
+                int x = donnees.getX(point) - minX;
+                int y = donnees.getY(point) - minY;
+
+                // Parcours des lignes du disque autour du point cœur
+                for (int dy = -rayon; dy <= rayon; dy++) {
+                    int ligne = y + dy;
+                    if (ligne < 0 || ligne >= hauteur) continue;
+                    int w = demiLargeurs[dy + rayon];
+                    int debut = ligne * largeur + Math.max(0, x - w);
+                    int fin = ligne * largeur + Math.min(largeur - 1, x + w);
+                    for (int cellule = debut; cellule <= fin; cellule++) {
+                        for (int voisin = tete[cellule]; voisin >= 0; voisin = suivant[voisin]) {
+                            if (clusters[voisin] == NON_VISITE || clusters[voisin] == BRUIT) {
+                                clusters[voisin] = clusterActuel;
+                                if (estCoeur[voisin]) {
+                                    aTraiter.ajouter(voisin);
+                                }
+                            }
+                        }
+                    }
+                }
+            }
+            statistiques.noterTailleTampon("file d'expansion", aTraiter.taille());
+            clusterActuel++;
+        }
+
+        statistiques.terminer(StatistiquesExecution.Phase.EXPANSION, chrono);
+        this.nombreClusters = clusterActuel;
+
+        // Convertir les points de bruit
+        for (int i = 0; i < n; i++) {
+            if (clusters[i] == BRUIT) {
+                clusters[i] = -1;
+            }
+        }
+
+        return clusters;
+    }
+
+    // Getters
+    public double getEps() { return eps; }
+    public int getMinPts() { return minPts; }
+}
@@ -0,0 +1,180 @@
+package clustering.algorithmes;
+
+import outils.DonneesPixels;
+
+import java.util.Arrays;
+
+/**
+ * Index de grille primitif en 2 ou 3 dimensions pour les recherches de voisins.
+ *
+ * Chaque point reçoit les coordonnées entières de sa cellule ; la cellule est identifiée par une clé
+ * long compactée ((cz * ny) + cy) * nx + cx. Les indices des points sont ensuite rangés par cellule
+ * (tri par comptage, stable) dans un seul tableau, avec le début de chaque cellule :
+ * les points de la cellule de rang r sont points[debut(r)] .. points[fin(r) - 1], par indice croissant.
+ *
+ * Si la grille est dense (peu de cellules par rapport aux points), la clé sert directement d'indice ;
+ * sinon seules les clés occupées sont conservées, triées, et retrouvées par recherche dichotomique.
+ * Les caractéristiques peuvent être recopiées dans l'ordre de la grille pour que chaque cellule
+ * soit un bloc contigu (voir MetriqueVectorielle.distancesBloc).
+ */
+final class GrilleIndex {
+
+    private final int dimension;
+    private final int minX, minY, minZ;
+    private final long nx, ny, nz;
+
+    private final int[] points;  // indices des points, rangés cellule par cellule
+    private final int[] debuts;  // debuts[r] .. debuts[r + 1] : points de la cellule de rang r
+    private final long[] cles;   // clés occupées triées (grille creuse), null si la grille est dense
+    private final int nombreCellulesOccupees;
+
+    private float[] caracteristiquesTriees;
+    private int dimensionCaracteristiques;
+
+    /**
+     * Construit l'index à partir des coordonnées de cellule de chaque point.
+     *
+     * @param cx Coordonnée de cellule selon x (ou rouge)
+     * @param cy Coordonnée de cellule selon y (ou vert)
+     * @param cz Coordonnée de cellule selon z (ou bleu), null pour une grille 2D
+     */
+    GrilleIndex(int[] cx, int[] cy, int[] cz) {
+        int n = cx.length;
+        this.dimension = cz == null ? 2 : 3;
+
+        int[] bornesX = bornes(cx), bornesY = bornes(cy), bornesZ = cz == null ? new int[]{0, 0} : bornes(cz);
+        minX = bornesX[0];
+        minY = bornesY[0];
+        minZ = bornesZ[0];
+        nx = (long) bornesX[1] - minX + 1;
+        ny = (long) bornesY[1] - minY + 1;
+        nz = (long) bornesZ[1] - minZ + 1;
+
+        long[] clesPoints = new long[n];
+        for (int i = 0; i < n; i++) {
+            clesPoints[i] = cle(cx[i], cy[i], cz == null ? 0 : cz[i]);
+        }
+
+        // Rang de cellule de chaque point
+        int[] rangs = new int[n];
+        int nombreRangs;
+        long nombreCellules = n == 0 ? 0 : nx * ny * nz;
+        if (nombreCellules <= 2L * n + 4096) {
+            cles = null;
+            nombreRangs = (int) nombreCellules;
+            for (int i = 0; i < n; i++) rangs[i] = (int) clesPoints[i];
+        } else {
+            long[] triees = clesPoints.clone();
+            Arrays.sort(triees);
+            int distinctes = 0;
+            for (int i = 0; i < n; i++) {
+                if (i == 0 || triees[i] != triees[i - 1]) triees[distinctes++] = triees[i];
+            }
+            cles = Arrays.copyOf(triees, distinctes);
+            nombreRangs = distinctes;
+            for (int i = 0; i < n; i++) rangs[i] = Arrays.binarySearch(cles, clesPoints[i]);
+        }
+
+        // Tri par comptage des indices selon leur cellule
+        debuts = new int[nombreRangs + 1];
+        for (int i = 0; i < n; i++) debuts[rangs[i] + 1]++;
+        int occupees = 0;
+        for (int r = 0; r < nombreRangs; r++) {
+            if (debuts[r + 1] > 0) occupees++;
+            debuts[r + 1] += debuts[r];
+        }
+        nombreCellulesOccupees = occupees;
+
+        points = new int[n];
+        int[] positions = Arrays.copyOf(debuts, nombreRangs);
+        for (int i = 0; i < n; i++) {
+            points[positions[rangs[i]]++] = i;
+        }
+    }
+
+    private static int[] bornes(int[] valeurs) {
+        int min = Integer.MAX_VALUE, max = Integer.MIN_VALUE;
+        for (int v : valeurs) {
+            if (v < min) min = v;
+            if (v > max) max = v;
+        }
+        return valeurs.length == 0 ? new int[]{0, 0} : new int[]{min, max};
+    }
+
+    private long cle(int x, int y, int z) {
+        return ((long) (z - minZ) * ny + (y - minY)) * nx + (x - minX);
+    }
+
+    /**
+     * Rang de la cellule (x, y, z), ou -1 si elle est hors de la grille ou vide (grille creuse).
+     * En 2D, z est ignoré.
+     */
+    int rang(int x, int y, int z) {
+        if (dimension == 2) z = minZ;
+        if (x < minX || y < minY || z < minZ || x - minX >= nx || y - minY >= ny || z - minZ >= nz) {
+            return -1;
+        }
+        long cle = cle(x, y, z);
+        if (cles == null) return (int) cle;
+        int rang = Arrays.binarySearch(cles, cle);
+        return rang >= 0 ? rang : -1;
+    }
+
+    /**
+     * Position du premier point de la cellule de rang donné dans getPoints().
+     */
+    int debut(int rang) {
+        return debuts[rang];
+    }
+
+    /**
+     * Position qui suit le dernier point de la cellule de rang donné.
+     */
+    int fin(int rang) {
+        return debuts[rang + 1];
+    }
+
+    /**
+     * Indices des points rangés par cellule (ne pas modifier).
+     */
+    int[] getPoints() {
+        return points;
+    }
+
+    /**
+     * Nombre de rangs : toutes les cellules (grille dense) ou les cellules occupées (grille creuse).
+     */
+    int getNombreRangs() {
+        return debuts.length - 1;
+    }
+
+    int getNombreCellulesOccupees() {
+        return nombreCellulesOccupees;
+    }
+
+    /**
+     * Recopie les caractéristiques des points dans l'ordre de la grille :
+     * celles du point getPoints()[p] se trouvent à la position p.
+     */
+    void trierCaracteristiques(DonneesPixels donnees) {
+        int dim = donnees.getDimension();
+        float[] source = donnees.getCaracteristiques();
+        float[] triees = new float[points.length * dim];
+        for (int p = 0; p < points.length; p++) {
+            System.arraycopy(source, points[p] * dim, triees, p * dim, dim);
+        }
+        caracteristiquesTriees = triees;
+        dimensionCaracteristiques = dim;
+    }
+
+    /**
+     * Caractéristiques dans l'ordre de la grille, null si trierCaracteristiques n'a pas été appelé.
+     */
+    float[] getCaracteristiquesTriees() {
+        return caracteristiquesTriees;
+    }
+
+    int getDimensionCaracteristiques() {
+        return dimensionCaracteristiques;
+    }
+}
@@ -1,149 +1,362 @@
 package clustering.algorithmes;
 
-import outils.PixelData;
+import clustering.centroides.InitialisationAleatoire;
+import clustering.centroides.InitialisationCentroides;
+import outils.DonneesPixels;
 import metriques.MetriqueDistance;
-import java.awt.Color;
+import metriques.MetriqueVectorielle;
 import java.util.Random;
 import java.util.Arrays;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveTask;
 
 /**
- * Implémentation de K-Means pour PixelData.
+ * Implémentation de K-Means sur un jeu de pixels.
+ *
+ * Chaque itération de Lloyd est parallélisée avec le pool fork/join : les points sont découpés
+ * en blocs, chaque tâche affecte ses points ET cumule les sommes de son bloc dans son propre
+ * accumulateur (aucune synchronisation), puis les accumulateurs sont fusionnés deux à deux.
+ *
+ * Les points sont d'abord convertis dans l'espace natif de la métrique (voir MetriqueVectorielle) ;
+ * les centroïdes sont des moyennes en double précision dans cet espace (ex: moyennes L, a, b en CIELAB).
+ * L'affectation calcule les distances par blocs (un centroïde contre tout un bloc de points,
+ * voir MetriqueVectorielle.distancesBloc), en simple précision.
  */
 public class KMeans extends AlgorithmeClusteringAbstrait {
 
-    private final int nbClusters;
-    private final int maxIterations;
-    private final Random random;
+    // Nombre de points traités par une tâche : fixe, pour que le regroupement des sommes
+    // (et donc le résultat au dernier bit près) ne dépende pas du nombre de cœurs
+    private static final int TAILLE_BLOC = 4096;
+
+    protected final int nbClusters;
+    protected final int maxIterations;
+    protected final InitialisationCentroides initialisation;
+    protected final Random random;
+    protected int nombreIterations;
+    protected long nombreDistances;
 
     public KMeans(int nbClusters, int maxIterations) {
-        super("K-Means (K=" + nbClusters + ")");
+        this("K-Means (K=" + nbClusters + ")", nbClusters, maxIterations,
+                new InitialisationAleatoire(), new Random());
+    }
+
+    /**
+     * K-Means avec une stratégie d'initialisation et une graine fixée (résultats reproductibles).
+     */
+    public KMeans(int nbClusters, int maxIterations, InitialisationCentroides initialisation, long graine) {
+        this("K-Means (K=" + nbClusters + ", init " + initialisation.getNom() + ")", nbClusters, maxIterations,
+                initialisation, new Random(graine));
+    }
+
+    /**
+     * Constructeur commun, utilisé aussi par les variantes accélérées.
+     */
+    protected KMeans(String nom, int nbClusters, int maxIterations,
+                     InitialisationCentroides initialisation, Random random) {
+        super(nom);
         this.nbClusters = nbClusters;
         this.maxIterations = maxIterations;
-        this.random = new Random();
+        this.initialisation = initialisation;
+        this.random = random;
     }
 
     @Override
-    public int[] executer(PixelData[] donnees, MetriqueDistance metrique) {
-        int n = donnees.length;
+    public boolean supportePoids() {
+        return true;
+    }
+
+    @Override
+    public int[] executer(DonneesPixels donnees, MetriqueDistance metrique) {
+        statistiques = new StatistiquesExecution();
+        int n = donnees.taille();
         if (n == 0) return new int[0];
 
+        // Conversion des points dans l'espace de la métrique (une seule fois)
+        MetriqueVectorielle vectorielle = MetriqueVectorielle.adapter(metrique);
+        vectorielle.preparer(donnees);
+
         // Initialisation
+        long chrono = System.nanoTime();
         int[] affectations = new int[n];
-        PixelData[] centroides = initialiserCentroides(donnees);
+        Arrays.fill(affectations, -1);
+        double[][] centres = initialiserCentroides(donnees, vectorielle);
+        chrono = statistiques.terminer(StatistiquesExecution.Phase.INITIALISATION, chrono);
 
         // Boucle principale
+        nombreIterations = 0;
+        nombreDistances = 0;
         for (int iteration = 0; iteration < maxIterations; iteration++) {
-            int[] nouvellesAffectations = new int[n];
+            nombreIterations++;
 
-            // Étape 1 : Affecter chaque point au centroïde le plus proche
-            for (int i = 0; i < donnees.length; i++) {
-                nouvellesAffectations[i] = trouverCentroideLePlusProche(donnees[i], centroides, metrique);
-            }
+            // Étape 1 : affecter chaque point au centroïde le plus proche et cumuler les sommes, en une passe
+            Accumulateur total = ForkJoinPool.commonPool().invoke(
+                    new TacheLloyd(donnees, vectorielle, versFlottants(centres), affectations, 0, n));
+            nombreDistances += total.distances;
 
             // Vérifier la convergence
-            if (Arrays.equals(affectations, nouvellesAffectations)) {
+            if (total.changements == 0) {
                 break;
             }
-            affectations = nouvellesAffectations;
 
-            // Étape 2 : Mettre à jour les centroïdes
-            centroides = mettreAJourCentroides(donnees, affectations);
+            // Étape 2 : les nouveaux centroïdes sont les moyennes cumulées
+            centres = total.centres(donnees, vectorielle);
         }
 
+        statistiques.terminer(StatistiquesExecution.Phase.ITERATIONS, chrono);
+        noterIterations(n);
         this.nombreClusters = nbClusters;
         return affectations;
     }
 
     /**
-     * Initialise les centroïdes en choisissant k points aléatoires.
+     * Reporte dans les statistiques les compteurs de la dernière exécution.
      */
-    private PixelData[] initialiserCentroides(PixelData[] donnees) {
-        PixelData[] centroides = new PixelData[nbClusters];
-        boolean[] choisis = new boolean[donnees.length];
-
-        for (int i = 0; i < nbClusters; i++) {
-            int index;
-            do {
-                index = random.nextInt(donnees.length);
-            } while (choisis[index]);
-
-            choisis[index] = true;
-            centroides[i] = donnees[index];
-        }
+    protected void noterIterations(int n) {
+        statistiques.setIterations(nombreIterations);
+        statistiques.ajouterDistances(nombreDistances);
+        statistiques.ajouterPointsVisites((long) n * nombreIterations);
+    }
 
-        return centroides;
+    /**
+     * Choisit les centroïdes initiaux selon la stratégie d'initialisation.
+     */
+    protected double[][] initialiserCentroides(DonneesPixels donnees, MetriqueVectorielle metrique) {
+        int[] indices = initialisation.choisirCentres(donnees, nbClusters, metrique, random);
+        double[][] centres = new double[nbClusters][];
+        for (int c = 0; c < nbClusters; c++) {
+            centres[c] = centreDuPoint(donnees, indices[c]);
+        }
+        return centres;
     }
 
     /**
      * Trouve l'indice du centroïde le plus proche d'un point donné.
      */
-    private int trouverCentroideLePlusProche(PixelData point, PixelData[] centroides,
-                                             MetriqueDistance metrique) {
+    protected int trouverCentroideLePlusProche(DonneesPixels donnees, int point, double[][] centres,
+                                             MetriqueVectorielle metrique) {
+        nombreDistances += centres.length;
+        return plusProche(donnees, point, centres, metrique);
+    }
+
+    private static int plusProche(DonneesPixels donnees, int point, double[][] centres, MetriqueVectorielle metrique) {
+        float[] coordonnees = donnees.getCaracteristiques();
+        int offset = point * donnees.getDimension();
         int plusProche = 0;
-        double distanceMin = metrique.calculerDistance(point, centroides[0]);
+        double distanceMin = metrique.distanceVecteurCentre(coordonnees, offset, centres[0]);
 
-        for (int i = 1; i < centroides.length; i++) {
-            double distance = metrique.calculerDistance(point, centroides[i]);
+        for (int i = 1; i < centres.length; i++) {
+            double distance = metrique.distanceVecteurCentre(coordonnees, offset, centres[i]);
             if (distance < distanceMin) {
                 distanceMin = distance;
                 plusProche = i;
             }
         }
-
         return plusProche;
     }
 
     /**
-     * Met à jour les centroïdes en calculant le centre de chaque cluster.
+     * Calcule une distance point-centroïde en la comptabilisant (voir getNombreDistances).
+     */
+    protected double distance(DonneesPixels donnees, int i, double[] centre, MetriqueVectorielle metrique) {
+        nombreDistances++;
+        return metrique.distanceVecteurCentre(donnees.getCaracteristiques(), i * donnees.getDimension(), centre);
+    }
+
+    /**
+     * Recalcule les centroïdes à partir des affectations, en une seule passe sur les points.
+     */
+    protected double[][] mettreAJourCentroides(DonneesPixels donnees, int[] affectations,
+                                               MetriqueVectorielle metrique) {
+        Accumulateur accumulateur = new Accumulateur(nbClusters, donnees.getDimension());
+        for (int i = 0; i < affectations.length; i++) {
+            accumulateur.ajouter(donnees, i, affectations[i]);
+        }
+        return accumulateur.centres(donnees, metrique);
+    }
+
+    /**
+     * Distance parcourue par chaque centroïde lors d'une mise à jour.
+     */
+    protected double[] deplacements(double[][] anciens, double[][] nouveaux, MetriqueVectorielle metrique) {
+        double[] deplacements = new double[nbClusters];
+        for (int c = 0; c < nbClusters; c++) {
+            nombreDistances++;
+            deplacements[c] = metrique.distanceEntreCentres(anciens[c], nouveaux[c]);
+        }
+        return deplacements;
+    }
+
+    /**
+     * Matrice symétrique des distances entre centroïdes.
+     */
+    protected double[][] distancesEntreCentroides(double[][] centres, MetriqueVectorielle metrique) {
+        double[][] distances = new double[nbClusters][nbClusters];
+        for (int a = 0; a < nbClusters; a++) {
+            for (int b = a + 1; b < nbClusters; b++) {
+                nombreDistances++;
+                distances[a][b] = distances[b][a] = metrique.distanceEntreCentres(centres[a], centres[b]);
+            }
+        }
+        return distances;
+    }
+
+    /**
+     * Centres rangés à la suite dans un tableau flottant (requêtes des distances par blocs).
      */
-    private PixelData[] mettreAJourCentroides(PixelData[] donnees, int[] affectations) {
-        PixelData[] nouveauxCentroides = new PixelData[nbClusters];
+    private static float[] versFlottants(double[][] centres) {
+        int dimension = centres[0].length;
+        float[] resultat = new float[centres.length * dimension];
+        for (int c = 0; c < centres.length; c++) {
+            for (int d = 0; d < dimension; d++) {
+                resultat[c * dimension + d] = (float) centres[c][d];
+            }
+        }
+        return resultat;
+    }
 
-        for (int cluster = 0; cluster < nbClusters; cluster++) {
-            double moyX = 0, moyY = 0;
-            double moyR = 0, moyG = 0, moyB = 0;
-            int count = 0;
+    /**
+     * Centre placé exactement sur le point i (coordonnées converties en double).
+     */
+    private static double[] centreDuPoint(DonneesPixels donnees, int i) {
+        int dimension = donnees.getDimension();
+        double[] centre = new double[dimension];
+        for (int d = 0; d < dimension; d++) {
+            centre[d] = donnees.getCaracteristiques()[i * dimension + d];
+        }
+        return centre;
+    }
 
-            // Calculer les moyennes pour ce cluster
-            for (int i = 0; i < affectations.length; i++) {
-                if (affectations[i] == cluster) {
-                    PixelData pixel = donnees[i];
+    /**
+     * Sommes pondérées par cluster d'un bloc de points (propres à une tâche, fusionnées ensuite).
+     */
+    private final class Accumulateur {
+        final int dimension;
+        final double[] sommes;
+        final long[] poids;
+        long changements;
+        long distances;
 
-                    // Toujours calculer les moyennes de position ET couleur
-                    moyX += pixel.getX();
-                    moyY += pixel.getY();
+        Accumulateur(int k, int dimension) {
+            this.dimension = dimension;
+            sommes = new double[k * dimension];
+            poids = new long[k];
+        }
 
-                    Color c = pixel.getCouleur();
-                    moyR += c.getRed();
-                    moyG += c.getGreen();
-                    moyB += c.getBlue();
+        void ajouter(DonneesPixels donnees, int i, int cluster) {
+            float[] coordonnees = donnees.getCaracteristiques();
+            int p = donnees.getPoids(i);
+            int base = cluster * dimension;
+            int offset = i * dimension;
+            for (int d = 0; d < dimension; d++) {
+                sommes[base + d] += (double) p * coordonnees[offset + d];
+            }
+            poids[cluster] += p;
+        }
+
+        Accumulateur fusionner(Accumulateur autre) {
+            for (int j = 0; j < sommes.length; j++) sommes[j] += autre.sommes[j];
+            for (int c = 0; c < poids.length; c++) poids[c] += autre.poids[c];
+            changements += autre.changements;
+            distances += autre.distances;
+            return this;
+        }
 
-                    count++;
+        /**
+         * Moyennes de chaque cluster ; un cluster vide repart d'un point tiré au hasard.
+         */
+        double[][] centres(DonneesPixels donnees, MetriqueVectorielle metrique) {
+            double[][] centres = new double[poids.length][];
+            for (int c = 0; c < poids.length; c++) {
+                if (poids[c] == 0) {
+                    centres[c] = centreDuPoint(donnees, InitialisationCentroides.tirerPoint(donnees, random));
+                } else {
+                    centres[c] = new double[dimension];
+                    for (int d = 0; d < dimension; d++) {
+                        centres[c][d] = sommes[c * dimension + d] / poids[c];
+                    }
+                    metrique.normaliserCentre(centres[c]);
                 }
             }
+            return centres;
+        }
+    }
+
+    /**
+     * Étape d'affectation sur les points [debut, fin), découpée récursivement.
+     */
+    private final class TacheLloyd extends RecursiveTask<Accumulateur> {
+        private static final long serialVersionUID = 1L;
+
+        private final DonneesPixels donnees;
+        private final MetriqueVectorielle metrique;
+        private final float[] centres; // k centres à la suite
+        private final int[] affectations;
+        private final int debut, fin;
+
+        TacheLloyd(DonneesPixels donnees, MetriqueVectorielle metrique, float[] centres, int[] affectations,
+                   int debut, int fin) {
+            this.donnees = donnees;
+            this.metrique = metrique;
+            this.centres = centres;
+            this.affectations = affectations;
+            this.debut = debut;
+            this.fin = fin;
+        }
+
+        @Override
+        protected Accumulateur compute() {
+            if (fin - debut > TAILLE_BLOC) {
+                int milieu = (debut + fin) >>> 1;
+                TacheLloyd gauche = new TacheLloyd(donnees, metrique, centres, affectations, debut, milieu);
+                gauche.fork();
+                Accumulateur droite = new TacheLloyd(donnees, metrique, centres, affectations, milieu, fin).compute();
+                return gauche.join().fusionner(droite);
+            }
+
+            int dimension = donnees.getDimension();
+            int k = centres.length / dimension;
+            int nombre = fin - debut;
 
-            if (count == 0) {
-                // Cluster vide, prendre un point aléatoire
-                nouveauxCentroides[cluster] = donnees[random.nextInt(donnees.length)];
-            } else {
-                // Créer le centroïde avec les moyennes calculées
-                int x = (int) Math.round(moyX / count);
-                int y = (int) Math.round(moyY / count);
-                int r = clamp((int) Math.round(moyR / count));
-                int g = clamp((int) Math.round(moyG / count));
-                int b = clamp((int) Math.round(moyB / count));
-
-                nouveauxCentroides[cluster] = new PixelData(x, y, new Color(r, g, b), -1);
+            // Centroïde par centroïde : distances à tout le bloc, en gardant le minimum de chaque point
+            float[] distances = new float[nombre];
+            float[] minimum = new float[nombre];
+            int[] plusProche = new int[nombre];
+            metrique.distancesBloc(donnees.getCaracteristiques(), debut, nombre, centres, 0, minimum);
+            for (int c = 1; c < k; c++) {
+                metrique.distancesBloc(donnees.getCaracteristiques(), debut, nombre, centres, c * dimension, distances);
+                for (int j = 0; j < nombre; j++) {
+                    if (distances[j] < minimum[j]) {
+                        minimum[j] = distances[j];
+                        plusProche[j] = c;
+                    }
+                }
             }
+
+            Accumulateur accumulateur = new Accumulateur(k, dimension);
+            for (int i = debut; i < fin; i++) {
+                int cluster = plusProche[i - debut];
+                if (cluster != affectations[i]) {
+                    affectations[i] = cluster;
+                    accumulateur.changements++;
+                }
+                accumulateur.ajouter(donnees, i, cluster);
+            }
+            accumulateur.distances = (long) nombre * k;
+            return accumulateur;
         }
+    }
 
-        return nouveauxCentroides;
+    /**
+     * Retourne le nombre d'itérations de Lloyd effectuées lors de la dernière exécution.
+     */
+    public int getNombreIterations() {
+        return nombreIterations;
     }
 
     /**
-     * S'assure qu'une valeur est dans l'intervalle [0, 255] pour les couleurs.
+     * Retourne le nombre de distances calculées lors de la dernière exécution.
      */
-    private int clamp(int valeur) {
-        return Math.max(0, Math.min(255, valeur));
+    public long getNombreDistances() {
+        return nombreDistances;
     }
-}
\ No newline at end of file
+}
@@ -0,0 +1,134 @@
+package clustering.algorithmes;
+
+import clustering.centroides.InitialisationCentroides;
+import metriques.MetriqueDistance;
+import metriques.MetriqueVectorielle;
+import outils.DonneesPixels;
+
+import java.util.Random;
+
+/**
+ * K-Means accéléré par l'inégalité triangulaire (Elkan, 2003).
+ * Chaque point garde une borne supérieure sur la distance à son centroïde et une borne
+ * inférieure par centroïde (n x K valeurs). Un centroïde c n'est examiné que si
+ * u > l(c) et u > d(a, c)/2, ce qui élimine la plupart des calculs dès les premières itérations.
+ * Plus économe en distances que Hamerly mais plus gourmand en mémoire : à réserver aux K moyens/grands.
+ *
+ * Si la métrique ne respecte pas l'inégalité triangulaire, l'algorithme de Lloyd classique est utilisé.
+ */
+public class KMeansElkan extends KMeans {
+
+    public KMeansElkan(int nbClusters, int maxIterations, InitialisationCentroides initialisation, long graine) {
+        super("K-Means Elkan (K=" + nbClusters + ", init " + initialisation.getNom() + ")",
+                nbClusters, maxIterations, initialisation, new Random(graine));
+    }
+
+    @Override
+    public int[] executer(DonneesPixels donnees, MetriqueDistance metrique) {
+        if (!metrique.respecteInegaliteTriangulaire() || nbClusters < 2) {
+            return super.executer(donnees, metrique);
+        }
+        statistiques = new StatistiquesExecution();
+        int n = donnees.taille();
+        if (n == 0) return new int[0];
+
+        int k = nbClusters;
+        MetriqueVectorielle vectorielle = MetriqueVectorielle.adapter(metrique);
+        vectorielle.preparer(donnees);
+        long chrono = System.nanoTime();
+        double[][] centroides = initialiserCentroides(donnees, vectorielle);
+        chrono = statistiques.terminer(StatistiquesExecution.Phase.INITIALISATION, chrono);
+        nombreIterations = 0;
+        nombreDistances = 0;
+
+        int[] affectations = new int[n];
+        double[] superieure = new double[n];
+        double[] inferieures = new double[n * k]; // l(i, c) rangé en inferieures[i * k + c]
+
+        // Première itération : toutes les distances, qui servent de bornes inférieures exactes
+        nombreIterations++;
+        for (int i = 0; i < n; i++) {
+            int plusProche = 0;
+            double min = Double.POSITIVE_INFINITY;
+            for (int c = 0; c < k; c++) {
+                double d = distance(donnees, i, centroides[c], vectorielle);
+                inferieures[i * k + c] = d;
+                if (d < min) {
+                    min = d;
+                    plusProche = c;
+                }
+            }
+            affectations[i] = plusProche;
+            superieure[i] = min;
+        }
+
+        double[] demiSeparation = new double[k];
+        while (nombreIterations < maxIterations) {
+            // Mise à jour des centroïdes : les bornes suivent leur déplacement
+            double[][] nouveaux = mettreAJourCentroides(donnees, affectations, vectorielle);
+            double[] deplacements = deplacements(centroides, nouveaux, vectorielle);
+            centroides = nouveaux;
+
+            for (int i = 0; i < n; i++) {
+                int base = i * k;
+                for (int c = 0; c < k; c++) {
+                    inferieures[base + c] = Math.max(0, inferieures[base + c] - deplacements[c]);
+                }
+                superieure[i] += deplacements[affectations[i]];
+            }
+
+            nombreIterations++;
+
+            double[][] entreCentroides = distancesEntreCentroides(centroides, vectorielle);
+            for (int c = 0; c < k; c++) {
+                double min = Double.POSITIVE_INFINITY;
+                for (int autre = 0; autre < k; autre++) {
+                    if (autre != c) min = Math.min(min, entreCentroides[c][autre]);
+                }
+                demiSeparation[c] = min / 2;
+            }
+
+            boolean changement = false;
+            for (int i = 0; i < n; i++) {
+                int a = affectations[i];
+                if (superieure[i] <= demiSeparation[a]) continue;
+
+                boolean borneExacte = false;
+                int base = i * k;
+                for (int c = 0; c < k; c++) {
+                    if (c == a
+                            || superieure[i] <= inferieures[base + c]
+                            || superieure[i] <= entreCentroides[a][c] / 2) {
+                        continue;
+                    }
+                    if (!borneExacte) {
+                        superieure[i] = distance(donnees, i, centroides[a], vectorielle);
+                        inferieures[base + a] = superieure[i];
+                        borneExacte = true;
+                        if (superieure[i] <= inferieures[base + c]
+                                || superieure[i] <= entreCentroides[a][c] / 2) {
+                            continue;
+                        }
+                    }
+                    double d = distance(donnees, i, centroides[c], vectorielle);
+                    inferieures[base + c] = d;
+                    if (d < superieure[i]) {
+                        a = c;
+                        superieure[i] = d;
+                    }
+                }
+                if (a != affectations[i]) {
+                    affectations[i] = a;
+                    changement = true;
+                }
+            }
+
+            if (!changement) break;
+        }
+
+        statistiques.terminer(StatistiquesExecution.Phase.ITERATIONS, chrono);
+        noterIterations(n);
+        this.nombreClusters = k;
+        return affectations;
+    }
+}
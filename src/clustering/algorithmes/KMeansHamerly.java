@@ -0,0 +1,134 @@
+package clustering.algorithmes;
+
+import clustering.centroides.InitialisationCentroides;
+import metriques.MetriqueDistance;
+import metriques.MetriqueVectorielle;
+import outils.DonneesPixels;
+
+import java.util.Random;
+
+/**
+ * K-Means accéléré par l'inégalité triangulaire (Hamerly, 2010).
+ * Chaque point garde une borne supérieure u sur la distance à son centroïde
+ * et une seule borne inférieure l sur la distance au deuxième plus proche.
+ * Si u <= max(l, s/2) (s = distance du centroïde à son plus proche voisin),
+ * l'affectation ne peut pas changer et aucune distance n'est calculée.
+ *
+ * Produit les mêmes affectations que KMeans pour une même graine (aux égalités de distance près,
+ * le point gardant alors son centroïde). Si la métrique ne respecte pas l'inégalité
+ * triangulaire, l'algorithme de Lloyd classique est utilisé.
+ */
+public class KMeansHamerly extends KMeans {
+
+    public KMeansHamerly(int nbClusters, int maxIterations, InitialisationCentroides initialisation, long graine) {
+        super("K-Means Hamerly (K=" + nbClusters + ", init " + initialisation.getNom() + ")",
+                nbClusters, maxIterations, initialisation, new Random(graine));
+    }
+
+    @Override
+    public int[] executer(DonneesPixels donnees, MetriqueDistance metrique) {
+        if (!metrique.respecteInegaliteTriangulaire() || nbClusters < 2) {
+            return super.executer(donnees, metrique);
+        }
+        statistiques = new StatistiquesExecution();
+        int n = donnees.taille();
+        if (n == 0) return new int[0];
+
+        MetriqueVectorielle vectorielle = MetriqueVectorielle.adapter(metrique);
+        vectorielle.preparer(donnees);
+        long chrono = System.nanoTime();
+        double[][] centroides = initialiserCentroides(donnees, vectorielle);
+        chrono = statistiques.terminer(StatistiquesExecution.Phase.INITIALISATION, chrono);
+        nombreIterations = 0;
+        nombreDistances = 0;
+
+        int[] affectations = new int[n];
+        double[] superieure = new double[n];
+        double[] inferieure = new double[n];
+
+        // Première itération : toutes les distances, pour initialiser les bornes
+        nombreIterations++;
+        for (int i = 0; i < n; i++) {
+            affecterCompletement(donnees, i, centroides, vectorielle, affectations, superieure, inferieure);
+        }
+
+        double[] demiSeparation = new double[nbClusters];
+        while (nombreIterations < maxIterations) {
+            // Mise à jour des centroïdes : les bornes suivent leur déplacement
+            double[][] nouveaux = mettreAJourCentroides(donnees, affectations, vectorielle);
+            double[] deplacements = deplacements(centroides, nouveaux, vectorielle);
+            centroides = nouveaux;
+
+            int plusGrand = 0;
+            for (int c = 1; c < nbClusters; c++) {
+                if (deplacements[c] > deplacements[plusGrand]) plusGrand = c;
+            }
+            double deuxiemePlusGrand = 0;
+            for (int c = 0; c < nbClusters; c++) {
+                if (c != plusGrand) deuxiemePlusGrand = Math.max(deuxiemePlusGrand, deplacements[c]);
+            }
+            for (int i = 0; i < n; i++) {
+                int a = affectations[i];
+                superieure[i] += deplacements[a];
+                inferieure[i] -= (a == plusGrand) ? deuxiemePlusGrand : deplacements[plusGrand];
+            }
+
+            nombreIterations++;
+
+            // s(j)/2 : en deçà, aucun autre centroïde ne peut être plus proche
+            double[][] entreCentroides = distancesEntreCentroides(centroides, vectorielle);
+            for (int c = 0; c < nbClusters; c++) {
+                double min = Double.POSITIVE_INFINITY;
+                for (int autre = 0; autre < nbClusters; autre++) {
+                    if (autre != c) min = Math.min(min, entreCentroides[c][autre]);
+                }
+                demiSeparation[c] = min / 2;
+            }
+
+            boolean changement = false;
+            for (int i = 0; i < n; i++) {
+                int a = affectations[i];
+                double seuil = Math.max(demiSeparation[a], inferieure[i]);
+                if (superieure[i] <= seuil) continue;
+
+                // Resserrer la borne supérieure avant de tout recalculer
+                superieure[i] = distance(donnees, i, centroides[a], vectorielle);
+                if (superieure[i] <= seuil) continue;
+
+                affecterCompletement(donnees, i, centroides, vectorielle, affectations, superieure, inferieure);
+                if (affectations[i] != a) changement = true;
+            }
+
+            if (!changement) break;
+        }
+
+        statistiques.terminer(StatistiquesExecution.Phase.ITERATIONS, chrono);
+        noterIterations(n);
+        this.nombreClusters = nbClusters;
+        return affectations;
+    }
+
+    /**
+     * Calcule les distances à tous les centroïdes et met à jour l'affectation et les deux bornes du point.
+     */
+    private void affecterCompletement(DonneesPixels donnees, int i, double[][] centroides,
+                                      MetriqueVectorielle metrique, int[] affectations,
+                                      double[] superieure, double[] inferieure) {
+        int plusProche = 0;
+        double premier = Double.POSITIVE_INFINITY;
+        double second = Double.POSITIVE_INFINITY;
+        for (int c = 0; c < nbClusters; c++) {
+            double d = distance(donnees, i, centroides[c], metrique);
+            if (d < premier) {
+                second = premier;
+                premier = d;
+                plusProche = c;
+            } else if (d < second) {
+                second = d;
+            }
+        }
+        affectations[i] = plusProche;
+        superieure[i] = premier;
+        inferieure[i] = second;
+    }
+}
@@ -0,0 +1,307 @@
+package clustering.algorithmes;
+
+import clustering.centroides.InitialisationCentroides;
+import metriques.MetriqueDistance;
+import metriques.MetriqueVectorielle;
+import outils.DonneesPixels;
+import outils.OutilCouleur;
+import outils.SourceTuiles;
+
+import java.io.IOException;
+import java.util.Arrays;
+import java.util.Random;
+
+/**
+ * K-Means par mini-lots (Sculley, "Web-Scale K-Means Clustering", 2010).
+ * À chaque itération, un petit lot de pixels tirés au hasard est affecté aux centroïdes,
+ * puis chaque centroïde se rapproche de ses points avec un pas 1/(effectif vu jusque-là).
+ * Le coût d'une itération ne dépend que de la taille du lot, pas de celle de l'image.
+ *
+ * Avec une SourceTuiles, les lots sont tirés dans des tuiles lues à la demande et l'étiquetage
+ * final parcourt l'image tuile par tuile : la mémoire utilisée reste bornée par la taille d'une tuile.
+ */
+public class KMeansMiniLots extends AlgorithmeClusteringAbstrait {
+
+    /**
+     * Reçoit les étiquettes d'une tuile pendant l'étiquetage en flux.
+     */
+    public interface ConsommateurEtiquettes {
+        void accepter(DonneesPixels tuile, int[] etiquettes) throws IOException;
+
+        /**
+         * Transmet chaque tuile à ce consommateur puis à un second (ex : carte d'étiquettes et image des biomes).
+         */
+        default ConsommateurEtiquettes puis(ConsommateurEtiquettes suivant) {
+            return (tuile, etiquettes) -> {
+                accepter(tuile, etiquettes);
+                suivant.accepter(tuile, etiquettes);
+            };
+        }
+    }
+
+    private interface FournisseurLots {
+        DonneesPixels lot() throws IOException;
+    }
+
+    // Nombre de lots réunis pour choisir les centroïdes initiaux (plusieurs tuiles)
+    private static final int LOTS_INITIALISATION = 4;
+
+    // Nombre de lots tirés dans une même tuile avant d'en lire une autre (amortit le décodage)
+    private static final int LOTS_PAR_TUILE = 8;
+
+    // Nombre de lots consécutifs sans changement des centroïdes (arrondis) pour déclarer la convergence
+    private static final int PATIENCE = 10;
+
+    private final int nbClusters;
+    private final int tailleLot;
+    private final int maxIterations;
+    private final InitialisationCentroides initialisation;
+    private final Random random;
+
+    // Centroïdes en double précision dans l'espace de la métrique : les petits pas ne sont pas perdus
+    private double[][] centres;
+    // Moyennes {x, y, r, g, b} des mêmes clusters, mises à jour avec les mêmes pas (pour getCentroides)
+    private double[][] moyennes;
+    private long[] effectifs;
+    private int nombreIterations;
+
+    public KMeansMiniLots(int nbClusters, int tailleLot, int maxIterations,
+                          InitialisationCentroides initialisation, long graine) {
+        super("K-Means mini-lots (K=" + nbClusters + ", lot=" + tailleLot + ", init " + initialisation.getNom() + ")");
+        this.nbClusters = nbClusters;
+        this.tailleLot = tailleLot;
+        this.maxIterations = maxIterations;
+        this.initialisation = initialisation;
+        this.random = new Random(graine);
+    }
+
+    @Override
+    public boolean supportePoids() {
+        return true;
+    }
+
+    @Override
+    public int[] executer(DonneesPixels donnees, MetriqueDistance metrique) {
+        statistiques = new StatistiquesExecution();
+        int n = donnees.taille();
+        if (n == 0) return new int[0];
+
+        // Tirage proportionnel au poids par recherche dichotomique dans les poids cumulés
+        long[] cumuls = null;
+        if (donnees.estPondere()) {
+            cumuls = new long[n];
+            long total = 0;
+            for (int i = 0; i < n; i++) {
+                total += donnees.getPoids(i);
+                cumuls[i] = total;
+            }
+        }
+        final long[] poidsCumules = cumuls;
+
+        // Les lots recopient les coordonnées déjà calculées une fois pour tout le jeu
+        MetriqueVectorielle vectorielle = MetriqueVectorielle.adapter(metrique);
+        vectorielle.preparer(donnees);
+
+        try {
+            apprendre(() -> {
+                int[] indices = new int[tailleLot];
+                for (int i = 0; i < tailleLot; i++) {
+                    indices[i] = tirer(poidsCumules, n);
+                }
+                DonneesPixels lot = donnees.sousEnsemble(indices);
+                lot.setPoids(null); // le tirage tient déjà compte des poids
+                return lot;
+            }, vectorielle);
+        } catch (IOException e) {
+            throw new IllegalStateException(e); // impossible : aucune lecture
+        }
+
+        long chrono = System.nanoTime();
+        int[] affectations = etiqueter(donnees, centres, vectorielle);
+        statistiques.terminer(StatistiquesExecution.Phase.EXPANSION, chrono);
+        statistiques.ajouterDistances((long) n * nbClusters);
+        statistiques.ajouterPointsVisites(n);
+        return affectations;
+    }
+
+    /**
+     * Apprend les centroïdes à partir de lots tirés dans des tuiles aléatoires de la source.
+     */
+    public DonneesPixels apprendre(SourceTuiles source, MetriqueDistance metrique) throws IOException {
+        statistiques = new StatistiquesExecution();
+        DonneesPixels[] tuileCourante = new DonneesPixels[1];
+        int[] lotsRestants = {0};
+        int[] nbLots = {0};
+        return apprendre(() -> {
+            // Les lots d'initialisation viennent chacun d'une tuile différente
+            boolean initialisation = nbLots[0]++ < LOTS_INITIALISATION;
+            if (lotsRestants[0] == 0 || initialisation) {
+                tuileCourante[0] = source.lireTuile(random.nextInt(source.getNombreTuiles()));
+                lotsRestants[0] = LOTS_PAR_TUILE;
+            }
+            lotsRestants[0]--;
+            DonneesPixels tuile = tuileCourante[0];
+            int[] indices = new int[Math.min(tailleLot, tuile.taille())];
+            for (int i = 0; i < indices.length; i++) {
+                indices[i] = random.nextInt(tuile.taille());
+            }
+            return tuile.sousEnsemble(indices);
+        }, MetriqueVectorielle.adapter(metrique));
+    }
+
+    /**
+     * Parcourt la source tuile par tuile et transmet les étiquettes de chaque tuile au consommateur.
+     * Les centroïdes doivent avoir été appris (apprendre).
+     */
+    public void etiqueter(SourceTuiles source, MetriqueDistance metrique, ConsommateurEtiquettes sortie)
+            throws IOException {
+        if (centres == null) {
+            throw new IllegalStateException("Les centroïdes n'ont pas encore été appris");
+        }
+        for (int t = 0; t < source.getNombreTuiles(); t++) {
+            DonneesPixels tuile = source.lireTuile(t);
+            sortie.accepter(tuile, etiqueter(tuile, metrique));
+        }
+    }
+
+    private DonneesPixels apprendre(FournisseurLots lots, MetriqueVectorielle metrique) throws IOException {
+        // Initialisation sur quelques lots réunis
+        long chrono = System.nanoTime();
+        DonneesPixels[] premiers = new DonneesPixels[LOTS_INITIALISATION];
+        for (int l = 0; l < premiers.length; l++) {
+            premiers[l] = lots.lot();
+        }
+        DonneesPixels echantillon = DonneesPixels.concatener(premiers);
+        metrique.preparer(echantillon);
+        int[] indices = initialisation.choisirCentres(echantillon, nbClusters, metrique, random);
+        centres = new double[nbClusters][metrique.getDimension()];
+        moyennes = new double[nbClusters][5];
+        effectifs = new long[nbClusters];
+        for (int c = 0; c < nbClusters; c++) {
+            int i = indices[c];
+            for (int d = 0; d < centres[c].length; d++) {
+                centres[c][d] = echantillon.getCaracteristiques()[i * centres[c].length + d];
+            }
+            moyennes[c][0] = echantillon.getX(i);
+            moyennes[c][1] = echantillon.getY(i);
+            moyennes[c][2] = echantillon.getRouge(i);
+            moyennes[c][3] = echantillon.getVert(i);
+            moyennes[c][4] = echantillon.getBleu(i);
+        }
+
+        DonneesPixels centroides = getCentroides();
+        chrono = statistiques.terminer(StatistiquesExecution.Phase.INITIALISATION, chrono);
+        int dimension = metrique.getDimension();
+        int stables = 0;
+        nombreIterations = 0;
+        while (nombreIterations < maxIterations && stables < PATIENCE) {
+            nombreIterations++;
+            DonneesPixels lot = lots.lot();
+            metrique.preparer(lot);
+            float[] coordonnees = lot.getCaracteristiques();
+
+            // Affectations calculées avant toute mise à jour (centroïdes figés pendant le lot)
+            int[] affectations = etiqueter(lot, centres, metrique);
+
+            // Descente de gradient avec un pas propre à chaque centroïde
+            for (int i = 0; i < lot.taille(); i++) {
+                int c = affectations[i];
+                int poids = lot.getPoids(i);
+                effectifs[c] += poids;
+                double pas = (double) poids / effectifs[c];
+                double[] centre = centres[c];
+                for (int d = 0; d < dimension; d++) {
+                    centre[d] += pas * (coordonnees[i * dimension + d] - centre[d]);
+                }
+                double[] moyenne = moyennes[c];
+                moyenne[0] += pas * (lot.getX(i) - moyenne[0]);
+                moyenne[1] += pas * (lot.getY(i) - moyenne[1]);
+                moyenne[2] += pas * (lot.getRouge(i) - moyenne[2]);
+                moyenne[3] += pas * (lot.getVert(i) - moyenne[3]);
+                moyenne[4] += pas * (lot.getBleu(i) - moyenne[4]);
+            }
+            for (double[] centre : centres) {
+                metrique.normaliserCentre(centre);
+            }
+
+            DonneesPixels nouveaux = getCentroides();
+            boolean identiques = Arrays.equals(nouveaux.getColonneRGB(), centroides.getColonneRGB())
+                    && Arrays.equals(nouveaux.getColonneX(), centroides.getColonneX())
+                    && Arrays.equals(nouveaux.getColonneY(), centroides.getColonneY());
+            stables = identiques ? stables + 1 : 0;
+            centroides = nouveaux;
+            statistiques.ajouterDistances((long) lot.taille() * nbClusters);
+            statistiques.ajouterPointsVisites(lot.taille());
+        }
+
+        statistiques.terminer(StatistiquesExecution.Phase.ITERATIONS, chrono);
+        statistiques.setIterations(nombreIterations);
+        this.nombreClusters = nbClusters;
+        return centroides;
+    }
+
+    /**
+     * Affecte chaque point au centroïde appris le plus proche.
+     */
+    public int[] etiqueter(DonneesPixels donnees, MetriqueDistance metrique) {
+        MetriqueVectorielle vectorielle = MetriqueVectorielle.adapter(metrique);
+        vectorielle.preparer(donnees);
+        return etiqueter(donnees, centres, vectorielle);
+    }
+
+    private int[] etiqueter(DonneesPixels donnees, double[][] centres, MetriqueVectorielle metrique) {
+        float[] coordonnees = donnees.getCaracteristiques();
+        int dimension = donnees.getDimension();
+        int[] affectations = new int[donnees.taille()];
+        for (int i = 0; i < affectations.length; i++) {
+            int plusProche = 0;
+            double distanceMin = metrique.distanceVecteurCentre(coordonnees, i * dimension, centres[0]);
+            for (int c = 1; c < nbClusters; c++) {
+                double distance = metrique.distanceVecteurCentre(coordonnees, i * dimension, centres[c]);
+                if (distance < distanceMin) {
+                    distanceMin = distance;
+                    plusProche = c;
+                }
+            }
+            affectations[i] = plusProche;
+        }
+        return affectations;
+    }
+
+    /**
+     * Retourne les centroïdes courants, arrondis aux pixels/couleurs entiers.
+     */
+    public DonneesPixels getCentroides() {
+        int[] cx = new int[nbClusters];
+        int[] cy = new int[nbClusters];
+        int[] crgb = new int[nbClusters];
+        int[] cindex = new int[nbClusters];
+        for (int c = 0; c < nbClusters; c++) {
+            cx[c] = (int) Math.round(moyennes[c][0]);
+            cy[c] = (int) Math.round(moyennes[c][1]);
+            crgb[c] = OutilCouleur.arrondirRGB(moyennes[c][2], moyennes[c][3], moyennes[c][4]);
+            cindex[c] = -1;
+        }
+        return new DonneesPixels(cx, cy, crgb, cindex);
+    }
+
+    /**
+     * Retourne le nombre de lots traités lors du dernier apprentissage.
+     */
+    public int getNombreIterations() {
+        return nombreIterations;
+    }
+
+    private int tirer(long[] cumuls, int n) {
+        if (cumuls == null) {
+            return random.nextInt(n);
+        }
+        long cible = (long) (random.nextDouble() * cumuls[n - 1]);
+        int bas = 0, haut = n - 1;
+        while (bas < haut) {
+            int milieu = (bas + haut) >>> 1;
+            if (cumuls[milieu] > cible) haut = milieu; else bas = milieu + 1;
+        }
+        return bas;
+    }
+}
@@ -0,0 +1,414 @@
+package clustering.algorithmes;
+
+import index.FabriqueIndex;
+import index.IndexVoisins;
+import metriques.MetriqueDistance;
+import metriques.MetriqueVectorielle;
+import outils.DonneesPixels;
+import outils.ListeEntiers;
+import outils.ListeFlottants;
+
+import java.util.Arrays;
+
+/**
+ * OPTICS : ordonne les points une seule fois pour un rayon maximal epsMax, puis donne le clustering
+ * DBSCAN de n'importe quel eps <= epsMax en O(n), sans nouvelle recherche de voisins.
+ * Régler eps revient alors à un calcul coûteux (calculerOrdre) suivi d'extractions (extraire).
+ *
+ * Chaque point reçoit sa distance cœur (distance à laquelle son voisinage atteint le poids minPts)
+ * et son atteignabilité dans l'ordre de parcours (distance par laquelle il a été atteint depuis
+ * un point cœur déjà parcouru). On garde aussi, pour chaque point, le point cœur qui l'atteint au plus
+ * près parmi tous ses voisins : il décide des points de bordure.
+ *
+ * L'extraction donne les mêmes points cœurs, clusters et bruit que DBSCAN avec ce eps, numérotés
+ * dans le même ordre (premier point cœur de chaque cluster). Un point de bordure atteint par
+ * plusieurs clusters peut rejoindre un autre de ces clusters que DBSCAN, pour qui ce choix dépend
+ * aussi de l'ordre de parcours.
+ *
+ * Les voisins sont cherchés dans un index (arbre k-d ou de points de vue selon la métrique, voir
+ * FabriqueIndex.pourMetrique), sinon par balayage complet.
+ */
+public class OPTICS extends AlgorithmeClusteringAbstrait {
+
+    private final double epsMax;
+    private final int minPts;
+    private final FabriqueIndex fabriqueIndex;
+
+    // Ordre de parcours et valeurs par point (infini si non défini)
+    private int[] ordre;
+    private double[] atteignabilites;   // par point, dans l'ordre de parcours
+    private double[] distancesCoeur;
+    private double[] atteignabilitesMin; // meilleure atteignabilité depuis n'importe quel point cœur
+    private int[] coeursProches;         // point cœur qui la donne (-1 si aucun)
+
+    // Recherche de voisins pendant le calcul de l'ordre
+    private IndexVoisins index;
+    private final ListeEntiers voisins = new ListeEntiers();
+    private final ListeFlottants distances = new ListeFlottants();
+    private float[] tamponDistances;
+    private float[] tamponSelection = new float[64];
+    private long[] tamponTri = new long[64];
+    private static final int TAILLE_BLOC = 4096;
+
+    public OPTICS(double epsMax, int minPts) {
+        this(epsMax, minPts, null);
+    }
+
+    /**
+     * @param fabriqueIndex Index de voisinage (ex: ArbreKD::new), null pour le choisir selon la métrique
+     */
+    public OPTICS(double epsMax, int minPts, FabriqueIndex fabriqueIndex) {
+        super("OPTICS (eps max=" + epsMax + ", minPts=" + minPts + ")");
+        this.epsMax = epsMax;
+        this.minPts = minPts;
+        this.fabriqueIndex = fabriqueIndex;
+    }
+
+    @Override
+    public boolean supportePoids() {
+        return true;
+    }
+
+    /**
+     * Calcule l'ordre puis extrait le clustering pour eps = epsMax.
+     */
+    @Override
+    public int[] executer(DonneesPixels donnees, MetriqueDistance metrique) {
+        calculerOrdre(donnees, metrique);
+        long chrono = System.nanoTime();
+        int[] clusters = extraire(epsMax);
+        statistiques.terminer(StatistiquesExecution.Phase.EXPANSION, chrono);
+        return clusters;
+    }
+
+    /**
+     * Parcours OPTICS : une recherche de voisins (rayon epsMax) par point.
+     */
+    public void calculerOrdre(DonneesPixels donnees, MetriqueDistance metrique) {
+        statistiques = new StatistiquesExecution();
+        long chrono = System.nanoTime();
+        int n = donnees.taille();
+        ordre = new int[n];
+        atteignabilites = new double[n];
+        distancesCoeur = new double[n];
+        atteignabilitesMin = new double[n];
+        coeursProches = new int[n];
+        Arrays.fill(atteignabilites, Double.POSITIVE_INFINITY);
+        Arrays.fill(atteignabilitesMin, Double.POSITIVE_INFINITY);
+        Arrays.fill(coeursProches, -1);
+
+        if (metrique instanceof MetriqueVectorielle) {
+            MetriqueVectorielle vectorielle = (MetriqueVectorielle) metrique;
+            FabriqueIndex fabrique = fabriqueIndex != null ? fabriqueIndex : FabriqueIndex.pourMetrique(vectorielle);
+            try {
+                index = fabrique.construire(donnees, vectorielle);
+                System.out.println("Index de voisinage: " + index.getNom());
+            } catch (IllegalArgumentException e) {
+                System.out.println(e.getMessage() + " : balayage complet");
+            }
+        }
+
+        chrono = statistiques.terminer(StatistiquesExecution.Phase.INDEX, chrono);
+
+        boolean[] traite = new boolean[n];
+        TasAtteignabilite graines = new TasAtteignabilite(n);
+        int position = 0;
+        int tailleMaxVoisins = 0, tailleMaxGraines = 0;
+
+        for (int depart = 0; depart < n; depart++) {
+            if (traite[depart]) continue;
+            int point = depart;
+            while (true) {
+                traite[point] = true;
+                ordre[position++] = point;
+
+                chercherVoisins(donnees, point, metrique);
+                tailleMaxVoisins = Math.max(tailleMaxVoisins, voisins.taille());
+                distancesCoeur[point] = distanceCoeur(donnees);
+                if (distancesCoeur[point] != Double.POSITIVE_INFINITY) {
+                    mettreAJour(point, traite, graines);
+                    tailleMaxGraines = Math.max(tailleMaxGraines, graines.taille);
+                }
+
+                if (graines.estVide()) break;
+                point = graines.extraireMin();
+            }
+        }
+
+        statistiques.terminer(StatistiquesExecution.Phase.EXPANSION, chrono);
+        statistiques.ajouterRequetes(n);
+        statistiques.ajouterPointsVisites(n);
+        statistiques.noterTailleTampon("voisins", tailleMaxVoisins);
+        statistiques.noterTailleTampon("graines", tailleMaxGraines);
+        this.nombreClusters = 0;
+        index = null;
+        tamponDistances = null;
+    }
+
+    /**
+     * Clustering DBSCAN pour eps <= epsMax, en O(n) à partir de l'ordre calculé.
+     *
+     * @return Affectations (-1 pour le bruit)
+     */
+    public int[] extraire(double eps) {
+        if (ordre == null) {
+            throw new IllegalStateException("calculerOrdre doit être appelé avant extraire");
+        }
+        if (eps > epsMax) {
+            throw new IllegalArgumentException("eps (" + eps + ") dépasse le rayon de l'ordre (" + epsMax + ")");
+        }
+        int n = ordre.length;
+        int[] clusters = new int[n];
+        Arrays.fill(clusters, -1);
+
+        // Points cœurs : un cluster commence à chaque point cœur qui n'est pas atteignable à eps
+        int clusterActuel = -1;
+        int nbClusters = 0;
+        for (int position = 0; position < n; position++) {
+            int point = ordre[position];
+            if (distancesCoeur[point] > eps) continue;
+            if (atteignabilites[point] > eps || clusterActuel < 0) {
+                clusterActuel = nbClusters++;
+            }
+            clusters[point] = clusterActuel;
+        }
+
+        // Points de bordure : cluster du point cœur qui les atteint au plus près
+        for (int i = 0; i < n; i++) {
+            if (clusters[i] < 0 && atteignabilitesMin[i] <= eps) {
+                clusters[i] = clusters[coeursProches[i]];
+            }
+        }
+
+        // Numérotation dans l'ordre du premier point cœur de chaque cluster, comme DBSCAN
+        int[] numeros = new int[nbClusters];
+        Arrays.fill(numeros, -1);
+        int suivant = 0;
+        for (int i = 0; i < n; i++) {
+            if (distancesCoeur[i] <= eps && numeros[clusters[i]] < 0) {
+                numeros[clusters[i]] = suivant++;
+            }
+        }
+        for (int i = 0; i < n; i++) {
+            if (clusters[i] >= 0) clusters[i] = numeros[clusters[i]];
+        }
+
+        this.nombreClusters = nbClusters;
+        return clusters;
+    }
+
+    /**
+     * Remplit voisins et distances avec les points à distance au plus epsMax du point
+     * (mêmes calculs que les recherches de voisins de DBSCAN).
+     */
+    private void chercherVoisins(DonneesPixels donnees, int point, MetriqueDistance metrique) {
+        if (index != null) {
+            index.chercherDansRayon(donnees.getCaracteristiques(), point * donnees.getDimension(), epsMax,
+                    voisins, distances);
+            return;
+        }
+
+        voisins.vider();
+        distances.vider();
+        int n = donnees.taille();
+        statistiques.ajouterDistances(n);
+        if (metrique instanceof MetriqueVectorielle && ((MetriqueVectorielle) metrique).estPrepare(donnees)) {
+            MetriqueVectorielle vectorielle = (MetriqueVectorielle) metrique;
+            float[] coordonnees = donnees.getCaracteristiques();
+            int offset = point * donnees.getDimension();
+            if (tamponDistances == null) tamponDistances = new float[TAILLE_BLOC];
+            for (int debut = 0; debut < n; debut += TAILLE_BLOC) {
+                int nombre = Math.min(TAILLE_BLOC, n - debut);
+                vectorielle.distancesBloc(coordonnees, debut, nombre, coordonnees, offset, tamponDistances);
+                for (int k = 0; k < nombre; k++) {
+                    if (tamponDistances[k] <= epsMax) {
+                        voisins.ajouter(debut + k);
+                        distances.ajouter(tamponDistances[k]);
+                    }
+                }
+            }
+            return;
+        }
+
+        for (int j = 0; j < n; j++) {
+            float distance = (float) metrique.calculerDistance(donnees, point, donnees, j);
+            if (distance <= epsMax) {
+                voisins.ajouter(j);
+                distances.ajouter(distance);
+            }
+        }
+    }
+
+    /**
+     * Plus petite distance à laquelle le poids des voisins atteint minPts (infini s'il ne l'atteint pas).
+     */
+    private double distanceCoeur(DonneesPixels donnees) {
+        int m = voisins.taille();
+        if (poidsVoisins(donnees, voisins) < minPts) {
+            return Double.POSITIVE_INFINITY;
+        }
+        if (!donnees.estPondere()) {
+            // Sans poids : la minPts-ième plus petite distance
+            if (tamponSelection.length < m) tamponSelection = new float[Math.max(m, 2 * tamponSelection.length)];
+            for (int k = 0; k < m; k++) tamponSelection[k] = distances.get(k);
+            return selectionner(tamponSelection, m, minPts - 1);
+        }
+
+        // Avec poids : tri par distance (les bits d'un flottant positif sont dans le même ordre que sa valeur)
+        if (tamponTri.length < m) tamponTri = new long[Math.max(m, 2 * tamponTri.length)];
+        for (int k = 0; k < m; k++) {
+            tamponTri[k] = ((long) Float.floatToIntBits(distances.get(k)) << 32) | k;
+        }
+        Arrays.sort(tamponTri, 0, m);
+        long poids = 0;
+        for (int k = 0; k < m; k++) {
+            int rang = (int) tamponTri[k];
+            poids += donnees.getPoids(voisins.get(rang));
+            if (poids >= minPts) {
+                return distances.get(rang);
+            }
+        }
+        return Double.POSITIVE_INFINITY;
+    }
+
+    /**
+     * Sélection rapide (Hoare) : valeur de rang k parmi les m premières du tableau.
+     */
+    private static float selectionner(float[] valeurs, int m, int k) {
+        int gauche = 0, droite = m - 1;
+        while (gauche < droite) {
+            float pivot = valeurs[(gauche + droite) >>> 1];
+            int i = gauche, j = droite;
+            while (i <= j) {
+                while (valeurs[i] < pivot) i++;
+                while (valeurs[j] > pivot) j--;
+                if (i <= j) {
+                    float t = valeurs[i];
+                    valeurs[i++] = valeurs[j];
+                    valeurs[j--] = t;
+                }
+            }
+            if (k <= j) {
+                droite = j;
+            } else if (k >= i) {
+                gauche = i;
+            } else {
+                break;
+            }
+        }
+        return valeurs[k];
+    }
+
+    /**
+     * Met à jour les atteignabilités des voisins d'un point cœur (graines non traitées et meilleur point cœur).
+     */
+    private void mettreAJour(int coeur, boolean[] traite, TasAtteignabilite graines) {
+        double distanceCoeur = distancesCoeur[coeur];
+        for (int k = 0; k < voisins.taille(); k++) {
+            int voisin = voisins.get(k);
+            double atteignabilite = Math.max(distanceCoeur, distances.get(k));
+            if (atteignabilite < atteignabilitesMin[voisin]) {
+                atteignabilitesMin[voisin] = atteignabilite;
+                coeursProches[voisin] = coeur;
+            }
+            if (!traite[voisin] && atteignabilite < atteignabilites[voisin]) {
+                atteignabilites[voisin] = atteignabilite;
+                graines.placer(voisin, atteignabilite);
+            }
+        }
+    }
+
+    /**
+     * Ordre de parcours (indices des points).
+     */
+    public int[] getOrdre() {
+        return ordre;
+    }
+
+    /**
+     * Atteignabilité de chaque point (infini pour le premier point de chaque composante).
+     * Lue dans l'ordre de getOrdre, elle forme le graphe d'atteignabilité dont les vallées sont les clusters.
+     */
+    public double[] getAtteignabilites() {
+        return atteignabilites;
+    }
+
+    /**
+     * Distance cœur de chaque point (infini si le point n'est cœur pour aucun eps <= epsMax).
+     */
+    public double[] getDistancesCoeur() {
+        return distancesCoeur;
+    }
+
+    // Getters
+    public double getEpsMax() { return epsMax; }
+    public int getMinPts() { return minPts; }
+
+    /**
+     * Tas binaire des graines, indexé par point : la clé d'un point déjà présent peut diminuer.
+     */
+    private static final class TasAtteignabilite {
+        private final int[] points;
+        private final int[] positions; // position de chaque point dans le tas, -1 s'il n'y est pas
+        private final double[] cles;
+        private int taille;
+
+        TasAtteignabilite(int n) {
+            points = new int[n];
+            positions = new int[n];
+            cles = new double[n];
+            Arrays.fill(positions, -1);
+        }
+
+        boolean estVide() {
+            return taille == 0;
+        }
+
+        /**
+         * Insère le point ou diminue sa clé.
+         */
+        void placer(int point, double cle) {
+            int i = positions[point];
+            if (i < 0) {
+                i = taille++;
+            }
+            while (i > 0 && cles[(i - 1) / 2] > cle) {
+                int parent = (i - 1) / 2;
+                deplacer(parent, i);
+                i = parent;
+            }
+            points[i] = point;
+            cles[i] = cle;
+            positions[point] = i;
+        }
+
+        int extraireMin() {
+            int min = points[0];
+            positions[min] = -1;
+            taille--;
+            if (taille > 0) {
+                int dernier = points[taille];
+                double cle = cles[taille];
+                int i = 0;
+                while (true) {
+                    int fils = 2 * i + 1;
+                    if (fils >= taille) break;
+                    if (fils + 1 < taille && cles[fils + 1] < cles[fils]) fils++;
+                    if (cles[fils] >= cle) break;
+                    deplacer(fils, i);
+                    i = fils;
+                }
+                points[i] = dernier;
+                cles[i] = cle;
+                positions[dernier] = i;
+            }
+            return min;
+        }
+
+        private void deplacer(int depuis, int vers) {
+            points[vers] = points[depuis];
+            cles[vers] = cles[depuis];
+            positions[points[vers]] = vers;
+        }
+    }
+}
@@ -0,0 +1,121 @@
+package clustering.algorithmes;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Statistiques d'une exécution d'un algorithme de clustering, remplies par l'algorithme lui-même :
+ * durée de chaque phase (en nanosecondes), nombre d'itérations, de distances calculées,
+ * de requêtes de voisinage et de points visités, et taille maximale des tampons.
+ *
+ * Les compteurs peuvent être incrémentés depuis plusieurs threads (chaque tâche ajoute ses totaux
+ * une fois, pas à chaque distance). Une phase absente d'un algorithme reste à zéro et n'est pas affichée.
+ */
+public final class StatistiquesExecution {
+
+    /**
+     * Phases chronométrées.
+     */
+    public enum Phase {
+        INDEX("Construction de l'index"),
+        INITIALISATION("Initialisation des centres"),
+        ITERATIONS("Itérations"),
+        EXPANSION("Expansion / affectation des clusters");
+
+        private final String libelle;
+
+        Phase(String libelle) {
+            this.libelle = libelle;
+        }
+
+        public String getLibelle() {
+            return libelle;
+        }
+    }
+
+    private final long[] durees = new long[Phase.values().length];
+    private long dureeTotale;
+    private int iterations;
+    private final LongAdder distances = new LongAdder();
+    private final LongAdder requetes = new LongAdder();
+    private final LongAdder pointsVisites = new LongAdder();
+    private final Map<String, Long> taillesTampons = new LinkedHashMap<>();
+
+    /**
+     * Ajoute à une phase le temps écoulé depuis debut (System.nanoTime()) et retourne l'instant présent,
+     * qui sert de début à la phase suivante.
+     */
+    public long terminer(Phase phase, long debut) {
+        long maintenant = System.nanoTime();
+        durees[phase.ordinal()] += maintenant - debut;
+        return maintenant;
+    }
+
+    public void ajouterDuree(Phase phase, long nanos) {
+        durees[phase.ordinal()] += nanos;
+    }
+
+    public void ajouterDistances(long nombre) {
+        distances.add(nombre);
+    }
+
+    public void ajouterRequetes(long nombre) {
+        requetes.add(nombre);
+    }
+
+    public void ajouterPointsVisites(long nombre) {
+        pointsVisites.add(nombre);
+    }
+
+    /**
+     * Retient la plus grande taille observée pour un tampon (liste de voisins, file d'expansion...).
+     */
+    public synchronized void noterTailleTampon(String tampon, long taille) {
+        taillesTampons.merge(tampon, taille, Math::max);
+    }
+
+    public void setIterations(int iterations) {
+        this.iterations = iterations;
+    }
+
+    /**
+     * Durée de bout en bout, mesurée par l'appelant (préparation des données comprise).
+     */
+    public void setDureeTotale(long nanos) {
+        this.dureeTotale = nanos;
+    }
+
+    public long getDuree(Phase phase) { return durees[phase.ordinal()]; }
+    public long getDureeTotale() { return dureeTotale; }
+    public int getIterations() { return iterations; }
+    public long getDistances() { return distances.sum(); }
+    public long getRequetes() { return requetes.sum(); }
+    public long getPointsVisites() { return pointsVisites.sum(); }
+
+    public synchronized Map<String, Long> getTaillesTampons() {
+        return new LinkedHashMap<>(taillesTampons);
+    }
+
+    /**
+     * Résumé lisible (une ligne par valeur renseignée), pour les rapports.
+     */
+    public String formater() {
+        StringBuilder texte = new StringBuilder();
+        texte.append(String.format("Durée totale: %.3f ms\n", dureeTotale / 1e6));
+        for (Phase phase : Phase.values()) {
+            if (durees[phase.ordinal()] > 0) {
+                texte.append(String.format("  - %s: %.3f ms\n", phase.getLibelle(), durees[phase.ordinal()] / 1e6));
+            }
+        }
+        if (iterations > 0) texte.append("Itérations: ").append(iterations).append("\n");
+        if (getDistances() > 0) texte.append("Distances calculées: ").append(getDistances()).append("\n");
+        if (getRequetes() > 0) texte.append("Requêtes de voisinage: ").append(getRequetes()).append("\n");
+        if (getPointsVisites() > 0) texte.append("Points visités: ").append(getPointsVisites()).append("\n");
+        for (Map.Entry<String, Long> tampon : getTaillesTampons().entrySet()) {
+            texte.append("Taille max du tampon « ").append(tampon.getKey()).append(" »: ")
+                    .append(tampon.getValue()).append("\n");
+        }
+        return texte.toString();
+    }
+}
@@ -0,0 +1,38 @@
+package clustering.centroides;
+
+import metriques.MetriqueDistance;
+import outils.DonneesPixels;
+
+import java.util.Random;
+
+/**
+ * Initialisation d'origine : k points tirés au hasard (pondérés par leur poids).
+ */
+public class InitialisationAleatoire implements InitialisationCentroides {
+
+    @Override
+    public int[] choisirCentres(DonneesPixels donnees, int k, MetriqueDistance metrique, Random random) {
+        int n = donnees.taille();
+        int[] indices = new int[k];
+        boolean[] choisis = new boolean[n];
+        int nbChoisis = 0;
+
+        for (int i = 0; i < k; i++) {
+            int index;
+            do {
+                index = InitialisationCentroides.tirerPoint(donnees, random);
+            } while (choisis[index] && nbChoisis < n); // doublons permis si moins de points que de clusters
+
+            if (!choisis[index]) nbChoisis++;
+            choisis[index] = true;
+            indices[i] = index;
+        }
+
+        return indices;
+    }
+
+    @Override
+    public String getNom() {
+        return "aléatoire";
+    }
+}
@@ -0,0 +1,74 @@
+package clustering.centroides;
+
+import metriques.MetriqueDistance;
+import metriques.MetriqueVectorielle;
+import outils.DonneesPixels;
+
+import java.util.Random;
+
+/**
+ * Interface pour les stratégies de choix des centroïdes initiaux de K-Means.
+ */
+public interface InitialisationCentroides {
+
+    /**
+     * Choisit les points qui serviront de centroïdes initiaux.
+     *
+     * @param donnees  Jeu de pixels (éventuellement pondéré)
+     * @param k        Nombre de centroïdes voulus
+     * @param metrique La métrique de distance utilisée par K-Means
+     * @param random   Générateur à utiliser (graine fixée pour des résultats reproductibles)
+     * @return Les indices (dans donnees) des k points choisis
+     */
+    int[] choisirCentres(DonneesPixels donnees, int k, MetriqueDistance metrique, Random random);
+
+    /**
+     * Retourne le nom de la stratégie pour l'affichage.
+     *
+     * @return Le nom de l'initialisation
+     */
+    String getNom();
+
+    /**
+     * Tire un point au hasard, proportionnellement à son poids si les données sont pondérées.
+     */
+    static int tirerPoint(DonneesPixels donnees, Random random) {
+        if (!donnees.estPondere()) {
+            return random.nextInt(donnees.taille());
+        }
+        long cible = (long) (random.nextDouble() * donnees.getPoidsTotal());
+        for (int i = 0; i < donnees.taille(); i++) {
+            cible -= donnees.getPoids(i);
+            if (cible < 0) return i;
+        }
+        return donnees.taille() - 1;
+    }
+
+    /**
+     * Tire un indice proportionnellement aux scores donnés (retourne -1 si tous sont nuls).
+     */
+    static int tirerSelonScores(double[] scores, double total, Random random) {
+        if (total <= 0) return -1;
+        double cible = random.nextDouble() * total;
+        int dernier = -1;
+        for (int i = 0; i < scores.length; i++) {
+            if (scores[i] <= 0) continue;
+            cible -= scores[i];
+            dernier = i;
+            if (cible < 0) return i;
+        }
+        return dernier; // erreurs d'arrondi
+    }
+
+    /**
+     * D(x)² entre les points i et j : carré de la distance euclidienne équivalente quand la métrique
+     * en donne une (la norme euclidienne retourne déjà un carré, qu'il ne faut pas élever de nouveau
+     * au carré), sinon carré de la distance de la métrique.
+     */
+    static double distanceCarree(MetriqueDistance metrique, DonneesPixels donnees, int i, int j) {
+        double d = metrique.calculerDistance(donnees, i, donnees, j);
+        double e = metrique instanceof MetriqueVectorielle ? ((MetriqueVectorielle) metrique).rayonEuclidien(d) : -1;
+        if (e < 0) e = d;
+        return e * e;
+    }
+}
@@ -0,0 +1,136 @@
+package clustering.centroides;
+
+import metriques.MetriqueDistance;
+import outils.DonneesPixels;
+
+import java.util.Arrays;
+import java.util.Random;
+import java.util.stream.IntStream;
+
+/**
+ * Initialisation k-means|| (Bahmani et al., "Scalable K-Means++") :
+ * au lieu de k passes séquentielles comme k-means++, on fait quelques tours où chaque point
+ * est retenu indépendamment (et en parallèle) avec une probabilité l * poids * D(x)² / φ.
+ * Les candidats obtenus (environ l par tour) sont pondérés par le nombre de pixels dont ils
+ * sont le plus proche, puis réduits à k centres par un k-means++ pondéré.
+ *
+ * Le tirage de chaque point dépend uniquement de (graine, tour, indice) :
+ * le résultat est reproductible quel que soit le découpage entre threads.
+ */
+public class InitialisationKMeansParallele implements InitialisationCentroides {
+
+    private final double facteurSurEchantillonnage; // l exprimé en multiple de k
+    private final int nbTours;
+
+    /**
+     * Paramètres recommandés par l'article : l = 2k et 5 tours.
+     */
+    public InitialisationKMeansParallele() {
+        this(2.0, 5);
+    }
+
+    public InitialisationKMeansParallele(double facteurSurEchantillonnage, int nbTours) {
+        this.facteurSurEchantillonnage = facteurSurEchantillonnage;
+        this.nbTours = nbTours;
+    }
+
+    @Override
+    public int[] choisirCentres(DonneesPixels donnees, int k, MetriqueDistance metrique, Random random) {
+        int n = donnees.taille();
+        long graine = random.nextLong();
+        double l = facteurSurEchantillonnage * k;
+
+        double[] distances = new double[n]; // D(x)² au candidat le plus proche
+        int[] plusProche = new int[n];      // rang de ce candidat
+        int[] candidats = {InitialisationCentroides.tirerPoint(donnees, random)};
+        int nbCandidats = 1;
+
+        double phi = affecterAuxNouveaux(donnees, metrique, candidats, 0, 1, distances, plusProche, true);
+
+        // Tours de sur-échantillonnage
+        for (int tour = 0; tour < nbTours && phi > 0; tour++) {
+            final double phiTour = phi;
+            final int t = tour;
+            int[] nouveaux = IntStream.range(0, n).parallel()
+                    .filter(i -> {
+                        double p = l * donnees.getPoids(i) * distances[i] / phiTour;
+                        return aleatoire(graine, t, i) < p;
+                    })
+                    .toArray();
+            if (nouveaux.length == 0) continue;
+
+            candidats = Arrays.copyOf(candidats, nbCandidats + nouveaux.length);
+            System.arraycopy(nouveaux, 0, candidats, nbCandidats, nouveaux.length);
+            phi = affecterAuxNouveaux(donnees, metrique, candidats, nbCandidats, candidats.length,
+                    distances, plusProche, false);
+            nbCandidats = candidats.length;
+        }
+
+        if (nbCandidats <= k) {
+            return completer(donnees, candidats, k, random);
+        }
+
+        // Pondérer chaque candidat par les pixels qu'il représente
+        int[] poidsCandidats = new int[nbCandidats];
+        for (int i = 0; i < n; i++) {
+            poidsCandidats[plusProche[i]] += donnees.getPoids(i);
+        }
+
+        // Réduire les candidats à k centres avec un k-means++ pondéré
+        DonneesPixels sousEnsemble = donnees.sousEnsemble(candidats);
+        sousEnsemble.setPoids(poidsCandidats);
+        int[] choisis = new InitialisationKMeansPlusPlus().choisirCentres(sousEnsemble, k, metrique, random);
+
+        int[] indices = new int[k];
+        for (int c = 0; c < k; c++) {
+            indices[c] = candidats[choisis[c]];
+        }
+        return indices;
+    }
+
+    /**
+     * Met à jour en parallèle la distance de chaque point aux candidats [debut, fin)
+     * et retourne φ = Σ poids * D(x)².
+     */
+    private double affecterAuxNouveaux(DonneesPixels donnees, MetriqueDistance metrique, int[] candidats,
+                                       int debut, int fin, double[] distances, int[] plusProche,
+                                       boolean premier) {
+        return IntStream.range(0, donnees.taille()).parallel().mapToDouble(i -> {
+            for (int c = debut; c < fin; c++) {
+                double d2 = InitialisationCentroides.distanceCarree(metrique, donnees, i, candidats[c]);
+                if ((premier && c == debut) || d2 < distances[i]) {
+                    distances[i] = d2;
+                    plusProche[i] = c;
+                }
+            }
+            return donnees.getPoids(i) * distances[i];
+        }).sum();
+    }
+
+    /**
+     * Cas dégénéré (peu de points distincts) : on complète les candidats par des tirages aléatoires.
+     */
+    private int[] completer(DonneesPixels donnees, int[] candidats, int k, Random random) {
+        int[] indices = Arrays.copyOf(candidats, k);
+        for (int c = candidats.length; c < k; c++) {
+            indices[c] = InitialisationCentroides.tirerPoint(donnees, random);
+        }
+        return indices;
+    }
+
+    /**
+     * Nombre pseudo-aléatoire dans [0, 1) dérivé de (graine, tour, indice) (mélange SplitMix64).
+     */
+    private static double aleatoire(long graine, int tour, int indice) {
+        long z = graine + (tour * 0x9E3779B97F4A7C15L) + indice * 0xBF58476D1CE4E5B9L;
+        z = (z ^ (z >>> 30)) * 0xBF58476D1CE4E5B9L;
+        z = (z ^ (z >>> 27)) * 0x94D049BB133111EBL;
+        z = z ^ (z >>> 31);
+        return (z >>> 11) * 0x1.0p-53;
+    }
+
+    @Override
+    public String getNom() {
+        return "k-means||";
+    }
+}
@@ -0,0 +1,59 @@
+package clustering.centroides;
+
+import metriques.MetriqueDistance;
+import outils.DonneesPixels;
+
+import java.util.Random;
+
+/**
+ * Initialisation k-means++ (Arthur et Vassilvitskii) :
+ * le premier centre est tiré au hasard, chaque centre suivant est tiré avec une probabilité
+ * proportionnelle à poids * D(x)², où D(x) est la distance au centre déjà choisi le plus proche.
+ * Les centres sont donc bien répartis, ce qui réduit le nombre d'itérations de Lloyd.
+ */
+public class InitialisationKMeansPlusPlus implements InitialisationCentroides {
+
+    @Override
+    public int[] choisirCentres(DonneesPixels donnees, int k, MetriqueDistance metrique, Random random) {
+        int n = donnees.taille();
+        int[] indices = new int[k];
+        double[] scores = new double[n]; // poids * D(x)²
+
+        // Premier centre au hasard
+        indices[0] = InitialisationCentroides.tirerPoint(donnees, random);
+        double total = mettreAJourScores(donnees, indices[0], metrique, scores, true);
+
+        for (int c = 1; c < k; c++) {
+            int index = InitialisationCentroides.tirerSelonScores(scores, total, random);
+            if (index < 0) {
+                // Tous les points coïncident avec un centre : on complète au hasard
+                index = InitialisationCentroides.tirerPoint(donnees, random);
+            }
+            indices[c] = index;
+            total = mettreAJourScores(donnees, index, metrique, scores, false);
+        }
+
+        return indices;
+    }
+
+    /**
+     * Met à jour poids * D(x)² avec le nouveau centre et retourne la somme des scores.
+     */
+    static double mettreAJourScores(DonneesPixels donnees, int centre, MetriqueDistance metrique,
+                                    double[] scores, boolean premier) {
+        double total = 0;
+        for (int i = 0; i < donnees.taille(); i++) {
+            double score = donnees.getPoids(i) * InitialisationCentroides.distanceCarree(metrique, donnees, i, centre);
+            if (premier || score < scores[i]) {
+                scores[i] = score;
+            }
+            total += scores[i];
+        }
+        return total;
+    }
+
+    @Override
+    public String getNom() {
+        return "k-means++";
+    }
+}
@@ -0,0 +1,293 @@
+package filtres;
+
+import metriques.MetriqueVectorielle;
+import outils.DonneesPixels;
+import outils.OutilsImage;
+
+import java.awt.image.BufferedImage;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.stream.IntStream;
+
+/**
+ * Enchaînement de filtres (ex : gaussien puis moyenne) appliqué en une seule passe sur l'image.
+ *
+ * Au lieu de produire une image complète par filtre, l'image est parcourue par bandes de lignes, de haut en bas.
+ * Chaque niveau du pipeline (lignes lues, puis sortie de chaque filtre) garde une fenêtre glissante de lignes :
+ * pour produire une nouvelle bande, chaque filtre relit seulement sa propre marge dans la fenêtre du niveau
+ * précédent, et les lignes déjà filtrées d'une bande sont reprises telles quelles par la suivante. Chaque ligne
+ * de l'image est lue une seule fois, et aucune image intermédiaire complète n'est construite. Les bandes font
+ * au moins HAUTEUR_PAR_MARGE fois la plus grande marge des filtres : la marge relue reste petite devant la bande,
+ * quel que soit sigma (flou gaussien récursif compris), et un filtre à très grande marge traite l'image en une fois.
+ * Le parallélisme est celui des filtres eux-mêmes, à l'intérieur de chaque bande.
+ *
+ * Le résultat est identique à l'application des filtres un par un sur l'image entière, bords compris (à un niveau
+ * près avec le flou gaussien récursif, dont la réponse infinie est tronquée à la marge, et de très peu avec le
+ * filtre bilatéral, dont la grille est alignée sur la région filtrée), y compris sur place : une ligne source
+ * est toujours lue avant qu'une ligne de sortie ne l'écrase.
+ *
+ * La chaîne peut aussi se terminer par la conversion des pixels dans l'espace d'une métrique (extraireDonnees) :
+ * les caractéristiques du clustering sont alors calculées bande par bande, sans image filtrée intermédiaire.
+ */
+public class ChaineFiltres extends FiltreFlou {
+
+    // Hauteur minimale des bandes produites
+    private static final int HAUTEUR_BANDE_MIN = 128;
+    // Hauteur des bandes en multiple de la plus grande marge d'un filtre
+    private static final int HAUTEUR_PAR_MARGE = 8;
+
+    private final List<FiltreFlou> etapes;
+    private final int hauteurBande;
+
+    /**
+     * Constructeur
+     * @param etapes Filtres à appliquer, dans l'ordre (au moins un).
+     */
+    public ChaineFiltres(FiltreFlou... etapes) {
+        super(2 * margeTotale(etapes) + 1);
+        this.etapes = new ArrayList<>(Arrays.asList(etapes));
+        int margeMax = 0;
+        for (FiltreFlou etape : etapes) {
+            margeMax = Math.max(margeMax, etape.tailleFiltre / 2);
+        }
+        this.hauteurBande = Math.max(HAUTEUR_BANDE_MIN, HAUTEUR_PAR_MARGE * margeMax);
+    }
+
+    private static int margeTotale(FiltreFlou[] etapes) {
+        if (etapes.length == 0) {
+            throw new IllegalArgumentException("La chaîne doit contenir au moins un filtre");
+        }
+        int marge = 0;
+        for (FiltreFlou etape : etapes) {
+            marge += etape.tailleFiltre / 2;
+        }
+        return marge;
+    }
+
+    /**
+     * Retourne une nouvelle chaîne avec un filtre de plus à la fin.
+     */
+    public ChaineFiltres puis(FiltreFlou etape) {
+        FiltreFlou[] toutes = etapes.toArray(new FiltreFlou[etapes.size() + 1]);
+        toutes[etapes.size()] = etape;
+        return new ChaineFiltres(toutes);
+    }
+
+    @Override
+    public String getNomFiltre() {
+        StringBuilder nom = new StringBuilder();
+        for (FiltreFlou etape : etapes) {
+            if (nom.length() > 0) nom.append(" + ");
+            nom.append(etape.getNomFiltre());
+        }
+        return nom.toString();
+    }
+
+    @Override
+    public BufferedImage appliquerFiltre(BufferedImage source, BufferedImage destination) {
+        int largeur = source.getWidth();
+        int hauteur = source.getHeight();
+        if (destination == null) {
+            destination = OutilsImage.creerImageRGB(new int[largeur * hauteur], largeur, hauteur);
+        } else if (destination.getWidth() != largeur || destination.getHeight() != hauteur) {
+            throw new IllegalArgumentException("L'image de destination doit avoir la taille de la source");
+        }
+        BufferedImage sortie = destination;
+        int[] raster = OutilsImage.rasterRGB(sortie);
+
+        parcourir(largeur, hauteur, (y0, lignes) -> OutilsImage.lireLignesRGB(source, y0, lignes), (y0, bande) -> {
+            if (raster != null) {
+                System.arraycopy(bande, 0, raster, y0 * largeur, bande.length);
+            } else {
+                sortie.setRGB(0, y0, largeur, bande.length / largeur, bande, 0, largeur);
+            }
+        });
+        return sortie;
+    }
+
+    /**
+     * Applique la chaîne et convertit directement chaque bande filtrée en DonneesPixels
+     * (x, y, couleur filtrée, index), caractéristiques dans l'espace de la métrique comprises :
+     * l'image filtrée n'est jamais construite.
+     *
+     * @param metrique Métrique du clustering qui suivra, ou null pour ne pas calculer de caractéristiques
+     * @return Les pixels filtrés de toute l'image, ligne par ligne
+     */
+    public DonneesPixels extraireDonnees(BufferedImage source, MetriqueVectorielle metrique) {
+        int largeur = source.getWidth();
+        int hauteur = source.getHeight();
+        int n = largeur * hauteur;
+        int[] x = new int[n];
+        int[] y = new int[n];
+        int[] index = new int[n];
+        int[] rgb = new int[n];
+        DonneesPixels donnees = new DonneesPixels(x, y, rgb, index);
+        int dimension = metrique == null ? 0 : metrique.getDimension();
+        float[] caracteristiques = metrique == null ? null : new float[n * dimension];
+
+        parcourir(largeur, hauteur, (y0, lignes) -> OutilsImage.lireLignesRGB(source, y0, lignes), (y0, bande) -> {
+            int debut = y0 * largeur;
+            System.arraycopy(bande, 0, rgb, debut, bande.length);
+            IntStream.range(debut, debut + bande.length).parallel().forEach(i -> {
+                x[i] = i % largeur;
+                y[i] = i / largeur;
+                index[i] = i;
+                if (metrique != null) {
+                    metrique.extraire(donnees, i, caracteristiques, i * dimension);
+                }
+            });
+        });
+
+        if (metrique != null) {
+            donnees.setCaracteristiques(caracteristiques, dimension, metrique.getEspace());
+        }
+        return donnees;
+    }
+
+    /**
+     * Fait passer l'image dans la chaîne, bande par bande de haut en bas.
+     *
+     * @param source Lecture des lignes [y0, y0 + lignes[ de l'image, appelée une fois par ligne, dans l'ordre
+     * @param sortie Reçoit chaque bande filtrée (lignes à partir de y0), dans l'ordre
+     */
+    private void parcourir(int largeur, int hauteur, LecteurLignes source, ConsommateurBandes sortie) {
+        int nombreEtapes = etapes.size();
+        // Niveau 0 : lignes lues ; niveau e + 1 : sortie du filtre e
+        Fenetre[] niveaux = new Fenetre[nombreEtapes + 1];
+        for (int i = 0; i <= nombreEtapes; i++) {
+            niveaux[i] = new Fenetre(largeur);
+        }
+        int[] cibles = new int[nombreEtapes + 1];
+
+        for (int y0 = 0; y0 < hauteur; y0 += hauteurBande) {
+            int y1 = Math.min(hauteur, y0 + hauteurBande);
+            // Lignes nécessaires à chaque niveau pour produire [y0, y1[ en sortie
+            cibles[nombreEtapes] = y1;
+            for (int e = nombreEtapes - 1; e >= 0; e--) {
+                cibles[e] = Math.min(hauteur, cibles[e + 1] + marge(e));
+            }
+
+            Fenetre lues = niveaux[0];
+            if (cibles[0] > lues.fin) {
+                lues.ajouter(source.lire(lues.fin, cibles[0] - lues.fin), 0, cibles[0] - lues.fin);
+            }
+
+            for (int e = 0; e < nombreEtapes; e++) {
+                Fenetre entree = niveaux[e];
+                Fenetre filtrees = niveaux[e + 1];
+                int debut = filtrees.fin;
+                int fin = cibles[e + 1];
+                if (fin > debut) {
+                    // Seules les lignes nouvelles sont produites ; les lignes de marge sont relues dans la fenêtre
+                    int m = marge(e);
+                    int ra = Math.max(0, debut - m);
+                    int rb = Math.min(hauteur, fin + m);
+                    int[] region = entree.extraire(ra, rb);
+                    int[] resultat = new int[region.length];
+                    etapes.get(e).filtrer(region, largeur, rb - ra, resultat);
+                    filtrees.ajouter(resultat, (debut - ra) * largeur, fin - debut);
+                }
+                // La prochaine bande ne relira que la marge haute de ce filtre
+                entree.oublierAvant(filtrees.fin - marge(e));
+            }
+
+            Fenetre derniere = niveaux[nombreEtapes];
+            sortie.accepter(y0, derniere.extraire(y0, y1));
+            derniere.oublierAvant(y1);
+        }
+    }
+
+    private int marge(int etape) {
+        return etapes.get(etape).tailleFiltre / 2;
+    }
+
+    @FunctionalInterface
+    private interface LecteurLignes {
+        int[] lire(int y0, int lignes);
+    }
+
+    @FunctionalInterface
+    private interface ConsommateurBandes {
+        void accepter(int y0, int[] bande);
+    }
+
+    /**
+     * Lignes [debut, fin[ d'un niveau du pipeline, sur toute la largeur de l'image.
+     */
+    private static final class Fenetre {
+        private final int largeur;
+        private int[] lignes = new int[0];
+        private int base;  // ligne de l'image stockée en tête de lignes
+        private int debut; // lignes encore utiles : [debut, fin[
+        private int fin;
+
+        Fenetre(int largeur) {
+            this.largeur = largeur;
+        }
+
+        /**
+         * Ajoute nombre lignes (lues dans valeurs à partir de decalage) après la fin de la fenêtre
+         * et libère les lignes oubliées.
+         */
+        void ajouter(int[] valeurs, int decalage, int nombre) {
+            int gardees = (fin - debut) * largeur;
+            int[] nouvelles = new int[gardees + nombre * largeur];
+            System.arraycopy(lignes, (debut - base) * largeur, nouvelles, 0, gardees);
+            System.arraycopy(valeurs, decalage, nouvelles, gardees, nombre * largeur);
+            lignes = nouvelles;
+            base = debut;
+            fin += nombre;
+        }
+
+        int[] extraire(int y0, int y1) {
+            return Arrays.copyOfRange(lignes, (y0 - base) * largeur, (y1 - base) * largeur);
+        }
+
+        void oublierAvant(int y) {
+            debut = Math.min(fin, Math.max(debut, y));
+        }
+    }
+
+    /**
+     * Applique les filtres à la suite, en alternant entre deux tampons de la taille de la région.
+     * Les bords de la région sont traités comme des bords d'image par chaque filtre : seuls les pixels
+     * à plus de marge d'un bord intérieur de la région sont exacts.
+     */
+    @Override
+    protected void filtrer(int[] pixels, int largeur, int hauteur, int[] resultat) {
+        int[] entree = pixels;
+        int[] tampon = etapes.size() > 1 ? new int[pixels.length] : null;
+        for (int e = 0; e < etapes.size(); e++) {
+            // La dernière étape écrit dans resultat ; les précédentes alternent pour y aboutir
+            boolean derniere = e == etapes.size() - 1;
+            int[] sortie = derniere ? resultat : ((etapes.size() - 1 - e) % 2 == 1 ? tampon : resultat);
+            etapes.get(e).filtrer(entree, largeur, hauteur, sortie);
+            entree = sortie;
+        }
+    }
+
+    /**
+     * Matrice équivalente à la chaîne : produit de convolution des matrices des filtres.
+     */
+    @Override
+    protected double[][] calculerCoef() {
+        double[][] matrice = {{1.0}};
+        for (FiltreFlou etape : etapes) {
+            double[][] noyau = etape.calculerCoef();
+            int taille = matrice.length + noyau.length - 1;
+            double[][] produit = new double[taille][taille];
+            for (int i = 0; i < matrice.length; i++) {
+                for (int j = 0; j < matrice.length; j++) {
+                    for (int k = 0; k < noyau.length; k++) {
+                        for (int l = 0; l < noyau.length; l++) {
+                            produit[i + k][j + l] += matrice[i][j] * noyau[k][l];
+                        }
+                    }
+                }
+            }
+            matrice = produit;
+        }
+        return matrice;
+    }
+}
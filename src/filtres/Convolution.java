@@ -0,0 +1,353 @@
+package filtres;
+
+import java.util.Arrays;
+import java.util.stream.IntStream;
+
+/**
+ * Moteur de convolution des filtres : travaille sur des tableaux de pixels 0xRRGGBB (le raster de l'image),
+ * en arithmétique entière à virgule fixe, par bandes de lignes traitées en parallèle.
+ *
+ * Un noyau séparable (w(x, y) = w(x) * w(y), cas du gaussien) est appliqué en deux passes 1D :
+ * k + k multiplications par pixel au lieu de k². Comme dans la version d'origine, les pixels à moins de
+ * k / 2 du bord ne sont pas calculés et restent noirs.
+ *
+ * La moyenne sur un carré utilise des sommes glissantes et le gaussien récursif un filtre IIR :
+ * dans les deux cas, le coût par pixel est indépendant de la taille du filtre.
+ */
+final class Convolution {
+
+    // Poids des passes 1D sur 12 bits (somme = 4096) ; la passe horizontale garde 4 bits de fraction
+    private static final int BITS_POIDS = 12;
+    private static final int BITS_INTERMEDIAIRE = 4;
+    // Poids de la convolution 2D sur 16 bits
+    private static final int BITS_POIDS_2D = 16;
+
+    // Nombre de lignes d'une bande (unité de travail d'un thread)
+    private static final int HAUTEUR_BANDE = 64;
+    // Nombre de colonnes traitées ensemble par la passe verticale du filtre récursif
+    private static final int LARGEUR_BANDE = 32;
+
+    private Convolution() {
+    }
+
+    /**
+     * Convolution séparable : le noyau 2D est le produit de noyau par lui-même.
+     *
+     * @param pixels   Pixels de l'image, ligne par ligne
+     * @param noyau    Coefficients 1D (taille impaire, somme 1)
+     * @param resultat Reçoit les pixels filtrés (tableau distinct de pixels, de même taille)
+     */
+    static void separable(int[] pixels, int largeur, int hauteur, double[] noyau, int[] resultat) {
+        int[] poids = quantifier(noyau, BITS_POIDS);
+        int milieu = noyau.length / 2;
+        effacerBords(resultat, largeur, hauteur, milieu);
+        if (largeur <= 2 * milieu || hauteur <= 2 * milieu) {
+            return;
+        }
+
+        int nombreBandes = (hauteur - 2 * milieu + HAUTEUR_BANDE - 1) / HAUTEUR_BANDE;
+        IntStream.range(0, nombreBandes).parallel().forEach(b -> {
+            int debut = milieu + b * HAUTEUR_BANDE;
+            int fin = Math.min(debut + HAUTEUR_BANDE, hauteur - milieu);
+
+            // Passe horizontale sur les lignes de la bande et son halo vertical. Chaque ligne est d'abord
+            // dépaquetée en canaux entrelacés (r, g, b) : les boucles internes parcourent alors des tableaux
+            // contigus, sans décalage de bits par coefficient, et sont vectorisables par le JIT.
+            int premiere = debut - milieu;
+            int lignes = fin + milieu - premiere;
+            // Valeurs intermédiaires sur 12 + 4 bits au plus : un short suffit et divise la mémoire par deux
+            short[] intermediaire = new short[lignes * largeur * 3];
+            int[] canaux = new int[largeur * 3];
+            int[] somme = new int[largeur * 3];
+            int debutLigne = milieu * 3;
+            int finLigne = (largeur - milieu) * 3;
+            int arrondiH = 1 << (BITS_POIDS - BITS_INTERMEDIAIRE - 1);
+            for (int l = 0; l < lignes; l++) {
+                int ligne = (premiere + l) * largeur;
+                for (int x = 0, o = 0; x < largeur; x++, o += 3) {
+                    int rgb = pixels[ligne + x];
+                    canaux[o] = (rgb >> 16) & 0xFF;
+                    canaux[o + 1] = (rgb >> 8) & 0xFF;
+                    canaux[o + 2] = rgb & 0xFF;
+                }
+                Arrays.fill(somme, 0);
+                for (int k = 0; k < poids.length; k++) {
+                    int w = poids[k];
+                    int decalageK = (k - milieu) * 3;
+                    for (int o = debutLigne; o < finLigne; o++) {
+                        somme[o] += w * canaux[o + decalageK];
+                    }
+                }
+                int sortie = l * largeur * 3;
+                for (int o = debutLigne; o < finLigne; o++) {
+                    intermediaire[sortie + o] = (short) ((somme[o] + arrondiH) >> (BITS_POIDS - BITS_INTERMEDIAIRE));
+                }
+            }
+
+            // Passe verticale, ligne par ligne : on accumule des lignes entières (accès contigus)
+            int decalage = BITS_POIDS + BITS_INTERMEDIAIRE;
+            int arrondiV = 1 << (decalage - 1);
+            for (int y = debut; y < fin; y++) {
+                Arrays.fill(somme, 0);
+                for (int k = 0; k < poids.length; k++) {
+                    int w = poids[k];
+                    int source = (y - milieu + k - premiere) * largeur * 3;
+                    for (int o = debutLigne; o < finLigne; o++) {
+                        somme[o] += w * intermediaire[source + o];
+                    }
+                }
+                int ligne = y * largeur;
+                for (int x = milieu; x < largeur - milieu; x++) {
+                    int o = x * 3;
+                    int r = borner((somme[o] + arrondiV) >> decalage);
+                    int g = borner((somme[o + 1] + arrondiV) >> decalage);
+                    int bl = borner((somme[o + 2] + arrondiV) >> decalage);
+                    resultat[ligne + x] = (r << 16) | (g << 8) | bl;
+                }
+            }
+        });
+    }
+
+    /**
+     * Convolution 2D complète (noyau quelconque), pour les filtres dont le noyau n'est pas séparable.
+     */
+    static void generale(int[] pixels, int largeur, int hauteur, double[][] matrice, int[] resultat) {
+        int taille = matrice.length;
+        int milieu = taille / 2;
+        double[] aplatie = new double[taille * taille];
+        for (int dy = 0; dy < taille; dy++) {
+            System.arraycopy(matrice[dy], 0, aplatie, dy * taille, taille);
+        }
+        int[] poids = quantifier(aplatie, BITS_POIDS_2D);
+        effacerBords(resultat, largeur, hauteur, milieu);
+        int arrondi = 1 << (BITS_POIDS_2D - 1);
+
+        IntStream.range(milieu, Math.max(milieu, hauteur - milieu)).parallel().forEach(y -> {
+            for (int x = milieu; x < largeur - milieu; x++) {
+                int r = 0, g = 0, b = 0;
+                int k = 0;
+                for (int dy = -milieu; dy <= milieu; dy++) {
+                    int p = (y + dy) * largeur + x - milieu;
+                    for (int dx = 0; dx < taille; dx++, k++) {
+                        int rgb = pixels[p + dx];
+                        r += poids[k] * ((rgb >> 16) & 0xFF);
+                        g += poids[k] * ((rgb >> 8) & 0xFF);
+                        b += poids[k] * (rgb & 0xFF);
+                    }
+                }
+                resultat[y * largeur + x] = (borner((r + arrondi) >> BITS_POIDS_2D) << 16)
+                        | (borner((g + arrondi) >> BITS_POIDS_2D) << 8)
+                        | borner((b + arrondi) >> BITS_POIDS_2D);
+            }
+        });
+    }
+
+    /**
+     * Moyenne sur un carré de côté 2 * rayon + 1 par sommes glissantes : chaque ligne est sommée horizontalement
+     * en faisant glisser la fenêtre (une entrée, une sortie par pixel), puis les sommes de lignes sont cumulées
+     * verticalement de la même façon. Au bord, la fenêtre est tronquée à l'image et la moyenne porte sur
+     * les seuls pixels présents : aucun pixel ne reste noir.
+     */
+    static void moyenneGlissante(int[] pixels, int largeur, int hauteur, int rayon, int[] resultat) {
+        int hauteurBande = Math.max(HAUTEUR_BANDE, 4 * rayon);
+        int nombreBandes = (hauteur + hauteurBande - 1) / hauteurBande;
+
+        IntStream.range(0, nombreBandes).parallel().forEach(b -> {
+            int debut = b * hauteurBande;
+            int fin = Math.min(debut + hauteurBande, hauteur);
+            int[] sommeLigne = new int[largeur * 3];
+            int[] sommeColonnes = new int[largeur * 3];
+
+            // Fenêtre verticale du premier pixel de la bande
+            for (int y = Math.max(0, debut - rayon); y <= Math.min(hauteur - 1, debut + rayon); y++) {
+                sommerLigne(pixels, largeur, y, rayon, sommeLigne);
+                for (int o = 0; o < sommeColonnes.length; o++) {
+                    sommeColonnes[o] += sommeLigne[o];
+                }
+            }
+
+            for (int y = debut; y < fin; y++) {
+                int lignesFenetre = Math.min(hauteur - 1, y + rayon) - Math.max(0, y - rayon) + 1;
+                int ligne = y * largeur;
+                for (int x = 0, o = 0; x < largeur; x++, o += 3) {
+                    int colonnesFenetre = Math.min(largeur - 1, x + rayon) - Math.max(0, x - rayon) + 1;
+                    int nombre = lignesFenetre * colonnesFenetre;
+                    int moitie = nombre / 2;
+                    resultat[ligne + x] = ((sommeColonnes[o] + moitie) / nombre << 16)
+                            | ((sommeColonnes[o + 1] + moitie) / nombre << 8)
+                            | (sommeColonnes[o + 2] + moitie) / nombre;
+                }
+
+                // La fenêtre descend d'une ligne : y + rayon + 1 entre, y - rayon sort
+                if (y + 1 < fin) {
+                    if (y + rayon + 1 < hauteur) {
+                        sommerLigne(pixels, largeur, y + rayon + 1, rayon, sommeLigne);
+                        for (int o = 0; o < sommeColonnes.length; o++) {
+                            sommeColonnes[o] += sommeLigne[o];
+                        }
+                    }
+                    if (y - rayon >= 0) {
+                        sommerLigne(pixels, largeur, y - rayon, rayon, sommeLigne);
+                        for (int o = 0; o < sommeColonnes.length; o++) {
+                            sommeColonnes[o] -= sommeLigne[o];
+                        }
+                    }
+                }
+            }
+        });
+    }
+
+    /**
+     * Sommes horizontales glissantes d'une ligne (fenêtre [x - rayon, x + rayon] tronquée à l'image),
+     * canaux entrelacés (r, g, b).
+     */
+    private static void sommerLigne(int[] pixels, int largeur, int y, int rayon, int[] sommes) {
+        int ligne = y * largeur;
+        int r = 0, g = 0, b = 0;
+        for (int x = 0; x < Math.min(rayon, largeur); x++) {
+            int rgb = pixels[ligne + x];
+            r += (rgb >> 16) & 0xFF;
+            g += (rgb >> 8) & 0xFF;
+            b += rgb & 0xFF;
+        }
+        for (int x = 0, o = 0; x < largeur; x++, o += 3) {
+            if (x + rayon < largeur) {
+                int entrant = pixels[ligne + x + rayon];
+                r += (entrant >> 16) & 0xFF;
+                g += (entrant >> 8) & 0xFF;
+                b += entrant & 0xFF;
+            }
+            if (x - rayon - 1 >= 0) {
+                int sortant = pixels[ligne + x - rayon - 1];
+                r -= (sortant >> 16) & 0xFF;
+                g -= (sortant >> 8) & 0xFF;
+                b -= sortant & 0xFF;
+            }
+            sommes[o] = r;
+            sommes[o + 1] = g;
+            sommes[o + 2] = b;
+        }
+    }
+
+    /**
+     * Flou gaussien récursif de Young et van Vliet ("Recursive implementation of the Gaussian filter", 1995) :
+     * un filtre IIR d'ordre 3 appliqué dans les deux sens sur chaque ligne puis sur chaque colonne.
+     * Six multiplications par canal et par passe, quel que soit sigma. Les bords sont prolongés
+     * par la valeur du pixel du bord (aucun pixel noir).
+     *
+     * @param sigma Écart-type, au moins 0.5 (domaine de validité des coefficients)
+     */
+    static void gaussienneRecursive(int[] pixels, int largeur, int hauteur, double sigma, int[] resultat) {
+        double q = sigma >= 2.5
+                ? 0.98711 * sigma - 0.96330
+                : 3.97156 - 4.14554 * Math.sqrt(1 - 0.26891 * sigma);
+        double b0 = 1.57825 + 2.44413 * q + 1.4281 * q * q + 0.422205 * q * q * q;
+        float c1 = (float) ((2.44413 * q + 2.85619 * q * q + 1.26661 * q * q * q) / b0);
+        float c2 = (float) (-(1.4281 * q * q + 1.26661 * q * q * q) / b0);
+        float c3 = (float) (0.422205 * q * q * q / b0);
+        float gain = 1 - (c1 + c2 + c3);
+
+        // Passe horizontale : une ligne par tâche, canaux entrelacés
+        float[] lignes = new float[largeur * hauteur * 3];
+        IntStream.range(0, hauteur).parallel().forEach(y -> {
+            int debut = y * largeur * 3;
+            for (int x = 0; x < largeur; x++) {
+                int rgb = pixels[y * largeur + x];
+                lignes[debut + x * 3] = (rgb >> 16) & 0xFF;
+                lignes[debut + x * 3 + 1] = (rgb >> 8) & 0xFF;
+                lignes[debut + x * 3 + 2] = rgb & 0xFF;
+            }
+            for (int c = 0; c < 3; c++) {
+                recursion(lignes, debut + c, 3, largeur, gain, c1, c2, c3);
+            }
+        });
+
+        // Passe verticale par bandes de colonnes : la bande est copiée en mémoire contiguë (une ligne de la
+        // bande à la suite de l'autre) puis filtrée colonne par colonne
+        int nombreBandes = (largeur + LARGEUR_BANDE - 1) / LARGEUR_BANDE;
+        IntStream.range(0, nombreBandes).parallel().forEach(b -> {
+            int x0 = b * LARGEUR_BANDE;
+            int colonnes = Math.min(LARGEUR_BANDE, largeur - x0) * 3;
+            float[] bande = new float[hauteur * colonnes];
+            for (int y = 0; y < hauteur; y++) {
+                System.arraycopy(lignes, (y * largeur + x0) * 3, bande, y * colonnes, colonnes);
+            }
+            for (int o = 0; o < colonnes; o++) {
+                recursion(bande, o, colonnes, hauteur, gain, c1, c2, c3);
+            }
+            for (int y = 0; y < hauteur; y++) {
+                for (int x = 0; x < colonnes / 3; x++) {
+                    int o = y * colonnes + x * 3;
+                    resultat[y * largeur + x0 + x] = (bornerArrondi(bande[o]) << 16)
+                            | (bornerArrondi(bande[o + 1]) << 8)
+                            | bornerArrondi(bande[o + 2]);
+                }
+            }
+        });
+    }
+
+    /**
+     * Passe causale puis anti-causale sur n valeurs espacées de pas, en place. Les valeurs avant le début
+     * et après la fin sont supposées égales à celles du bord : le filtre est alors en régime établi.
+     */
+    private static void recursion(float[] valeurs, int debut, int pas, int n, float gain,
+                                  float c1, float c2, float c3) {
+        float w1 = valeurs[debut], w2 = w1, w3 = w1;
+        for (int i = 0, o = debut; i < n; i++, o += pas) {
+            float w = gain * valeurs[o] + c1 * w1 + c2 * w2 + c3 * w3;
+            valeurs[o] = w;
+            w3 = w2;
+            w2 = w1;
+            w1 = w;
+        }
+        int fin = debut + (n - 1) * pas;
+        w1 = valeurs[fin];
+        w2 = w1;
+        w3 = w1;
+        for (int i = 0, o = fin; i < n; i++, o -= pas) {
+            float w = gain * valeurs[o] + c1 * w1 + c2 * w2 + c3 * w3;
+            valeurs[o] = w;
+            w3 = w2;
+            w2 = w1;
+            w1 = w;
+        }
+    }
+
+    private static int bornerArrondi(float valeur) {
+        return borner(Math.round(valeur));
+    }
+
+    /**
+     * Met à noir les pixels à moins de marge du bord, que les convolutions ne calculent pas
+     * (le tableau de sortie peut être réutilisé d'une image à l'autre).
+     */
+    private static void effacerBords(int[] resultat, int largeur, int hauteur, int marge) {
+        int lignesHaut = Math.min(marge, hauteur);
+        Arrays.fill(resultat, 0, lignesHaut * largeur, 0);
+        Arrays.fill(resultat, Math.max(lignesHaut, hauteur - marge) * largeur, hauteur * largeur, 0);
+        for (int y = lignesHaut; y < hauteur - marge; y++) {
+            Arrays.fill(resultat, y * largeur, y * largeur + Math.min(marge, largeur), 0);
+            Arrays.fill(resultat, y * largeur + Math.max(0, largeur - marge), (y + 1) * largeur, 0);
+        }
+    }
+
+    /**
+     * Convertit des coefficients réels (somme 1) en entiers sur le nombre de bits donné. L'erreur d'arrondi
+     * est reportée sur le coefficient central pour que la somme vaille exactement 2^bits
+     * (une zone uniforme reste inchangée).
+     */
+    static int[] quantifier(double[] coefficients, int bits) {
+        int[] poids = new int[coefficients.length];
+        int somme = 0;
+        for (int i = 0; i < coefficients.length; i++) {
+            poids[i] = (int) Math.round(coefficients[i] * (1 << bits));
+            somme += poids[i];
+        }
+        poids[coefficients.length / 2] += (1 << bits) - somme;
+        return poids;
+    }
+
+    private static int borner(int valeur) {
+        return valeur < 0 ? 0 : Math.min(valeur, 255);
+    }
+}
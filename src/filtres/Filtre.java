@@ -1,5 +1,9 @@
 package filtres;
 
+import outils.OutilsImage;
+import outils.SourceTuiles;
+
+import java.awt.image.BufferedImage;
 import java.io.IOException;
 
 /**
@@ -7,13 +11,43 @@ import java.io.IOException;
  */
 public interface Filtre {
 
+    /**
+     * Applique le filtre en mémoire, sans passer par un fichier.
+     * @param source      Image à filtrer (non modifiée, sauf si c'est aussi la destination).
+     * @param destination Image de même taille qui reçoit le résultat (réutilisable d'un appel à l'autre,
+     *                    ou source elle-même pour filtrer sur place), ou null pour en créer une (TYPE_INT_RGB).
+     * @return L'image filtrée (destination si elle est fournie).
+     */
+    public BufferedImage appliquerFiltre(BufferedImage source, BufferedImage destination);
+
+    /**
+     * Applique le filtre en mémoire dans une nouvelle image.
+     * @param source Image à filtrer.
+     * @return Nouvelle image filtrée.
+     */
+    public default BufferedImage appliquerFiltre(BufferedImage source) {
+        return appliquerFiltre(source, null);
+    }
+
     /**
      * Applique le filtre à une image source et enregistre le résultat à l'emplacement de destination.
      * @param cheminSource      Chemin du fichier image source.
      * @param cheminDestination Chemin du fichier où l'image filtrée sera enregistrée.
      * @throws IOException En cas d'erreur lors de la lecture ou de l'écriture de l'image.
      */
-    public void appliquerFiltre(String cheminSource, String cheminDestination) throws IOException;
+    public default void appliquerFiltre(String cheminSource, String cheminDestination) throws IOException {
+        BufferedImage image = OutilsImage.convertionCheminEnBufferedImage(cheminSource);
+        OutilsImage.sauverImage(appliquerFiltre(image, image), cheminDestination);
+    }
+
+    /**
+     * Applique le filtre tuile par tuile, sans charger l'image complète, et écrit le résultat
+     * au fur et à mesure (PNM binaire, relisible avec SourceTuiles.ouvrir).
+     * @param source            Image lue par tuiles.
+     * @param cheminDestination Chemin du fichier PNM à écrire.
+     * @throws IOException En cas d'erreur lors de la lecture ou de l'écriture.
+     */
+    public void appliquerFiltre(SourceTuiles source, String cheminDestination) throws IOException;
 
     /**
      * Retourne le nom du filtre.
@@ -0,0 +1,225 @@
+package filtres;
+
+import java.util.Arrays;
+import java.util.stream.IntStream;
+
+import static java.lang.Math.PI;
+import static java.lang.Math.exp;
+
+/**
+ * Filtre bilatéral par grille bilatérale (Chen, Paris et Durand, "Real-time Edge-Aware Image Processing
+ * with the Bilateral Grid", 2007) : lisse les couleurs à l'intérieur des zones homogènes sans étaler
+ * les frontières entre biomes, contrairement aux flous gaussien et moyenne.
+ *
+ * Chaque canal est projeté dans une grille 3D (x, y, valeur du canal) échantillonnée tous les sigmaSpatial pixels
+ * et tous les sigmaCouleur niveaux, la grille est floutée, puis chaque pixel y relit sa valeur par interpolation
+ * trilinéaire. Deux pixels proches mais de couleurs très différentes tombent dans des cases éloignées de la grille
+ * et ne se mélangent pas. Le coût est linéaire en nombre de pixels plus la taille de la grille, d'environ
+ * pixels × 256 / (sigmaSpatial² × sigmaCouleur) cases : avec de petits sigmas, la grille dépasse l'image.
+ * Au-delà de CASES_MAX cases, le filtre refuse l'image (IllegalArgumentException) plutôt que d'épuiser la mémoire.
+ * Chaque canal guide son propre lissage : une frontière visible sur un seul canal est préservée.
+ */
+public class FiltreBilateral extends FiltreFlou {
+
+    // Cases vides autour des données : le flou de la grille (5 coefficients) ne sort jamais du tableau
+    private static final int MARGE = 2;
+    // Flou binomial 1 4 6 4 1 (approximation d'une gaussienne d'une case d'écart-type)
+    private static final float[] FLOU = {1 / 16f, 4 / 16f, 6 / 16f, 4 / 16f, 1 / 16f};
+
+    // Nombre maximal de cases de la grille (2 valeurs par case, grille et tampon de flou : 16 octets par case)
+    private static final long CASES_MAX = 1L << 25;
+
+    private final double sigmaSpatial;
+    private final double sigmaCouleur;
+
+    /**
+     * Constructeur
+     * @param sigmaSpatial Portée du lissage en pixels (au moins 1).
+     * @param sigmaCouleur Écart de couleur (en niveaux de 0 à 255) au-delà duquel deux pixels ne se mélangent plus
+     *                     (au moins 1).
+     */
+    public FiltreBilateral(double sigmaSpatial, double sigmaCouleur) {
+        // La taille (support à 4 sigma) ne sert qu'à la marge des tuiles et à calculerCoef
+        super(2 * (int) Math.ceil(4 * sigmaSpatial) + 1);
+        if (sigmaSpatial < 1 || sigmaCouleur < 1) {
+            throw new IllegalArgumentException("sigmaSpatial et sigmaCouleur doivent être >= 1");
+        }
+        this.sigmaSpatial = sigmaSpatial;
+        this.sigmaCouleur = sigmaCouleur;
+    }
+
+    @Override
+    public String getNomFiltre() {
+        return "Filtre bilatéral";
+    }
+
+    /**
+     * Par tuiles ou dans une ChaineFiltres, la grille est alignée sur la région lue et non sur l'image :
+     * le résultat est très proche de celui sur l'image entière, sans lui être identique.
+     */
+    @Override
+    protected void filtrer(int[] pixels, int largeur, int hauteur, int[] resultat) {
+        int gx = (int) ((largeur - 1) / sigmaSpatial) + 1 + 2 * MARGE;
+        int gy = (int) ((hauteur - 1) / sigmaSpatial) + 1 + 2 * MARGE;
+        int gz = (int) (255 / sigmaCouleur) + 1 + 2 * MARGE;
+        // Le nombre de cases croît comme pixels × 256 / (sigmaSpatial² × sigmaCouleur)
+        long cases = (long) gx * gy * gz;
+        if (cases > CASES_MAX) {
+            throw new IllegalArgumentException("Grille bilatérale trop grande pour une image de " + largeur + "x" + hauteur
+                    + " (" + cases + " cases, maximum " + CASES_MAX + ") : augmentez sigmaSpatial ou sigmaCouleur,"
+                    + " ou filtrez l'image par tuiles");
+        }
+        // Deux valeurs par case : somme des valeurs et nombre de pixels (poids)
+        float[] grille = new float[gx * gy * gz * 2];
+        float[] tampon = new float[grille.length];
+        float inverseSpatial = (float) (1 / sigmaSpatial);
+        float inverseCouleur = (float) (1 / sigmaCouleur);
+
+        // Lignes de pixels de chaque tranche y de la grille (case la plus proche) : les tranches sont
+        // remplies en parallèle sans conflit d'écriture
+        int[] premiereLigne = new int[gy + 1];
+        Arrays.fill(premiereLigne, hauteur);
+        for (int y = hauteur - 1; y >= 0; y--) {
+            premiereLigne[(int) (y * inverseSpatial + 0.5f) + MARGE] = y;
+        }
+        for (int t = gy - 1; t >= 0; t--) {
+            premiereLigne[t] = Math.min(premiereLigne[t], premiereLigne[t + 1]);
+        }
+
+        Arrays.fill(resultat, 0);
+        for (int decalage = 16; decalage >= 0; decalage -= 8) {
+            int canal = decalage;
+            Arrays.fill(grille, 0);
+
+            // 1. Projection : chaque pixel ajoute sa valeur dans la case la plus proche
+            IntStream.range(0, gy).parallel().forEach(t -> {
+                for (int y = premiereLigne[t]; y < premiereLigne[t + 1]; y++) {
+                    for (int x = 0; x < largeur; x++) {
+                        int valeur = (pixels[y * largeur + x] >> canal) & 0xFF;
+                        int cx = (int) (x * inverseSpatial + 0.5f) + MARGE;
+                        int cz = (int) (valeur * inverseCouleur + 0.5f) + MARGE;
+                        int o = ((t * gx + cx) * gz + cz) * 2;
+                        grille[o] += valeur;
+                        grille[o + 1] += 1;
+                    }
+                }
+            });
+
+            // 2. Flou de la grille sur chacun des trois axes
+            float[] floutee = flouterGrille(grille, tampon, gx, gy, gz);
+
+            // 3. Lecture : interpolation trilinéaire de (somme, poids) à la position de chaque pixel
+            IntStream.range(0, hauteur).parallel().forEach(y -> {
+                float fy = y * inverseSpatial + MARGE;
+                int y0 = (int) fy;
+                float ay = fy - y0;
+                for (int x = 0; x < largeur; x++) {
+                    int valeur = (pixels[y * largeur + x] >> canal) & 0xFF;
+                    float fx = x * inverseSpatial + MARGE;
+                    float fz = valeur * inverseCouleur + MARGE;
+                    int x0 = (int) fx;
+                    int z0 = (int) fz;
+                    float ax = fx - x0;
+                    float az = fz - z0;
+
+                    float somme = 0, poids = 0;
+                    for (int dy = 0; dy < 2; dy++) {
+                        float wy = dy == 0 ? 1 - ay : ay;
+                        for (int dx = 0; dx < 2; dx++) {
+                            float wxy = wy * (dx == 0 ? 1 - ax : ax);
+                            int o = (((y0 + dy) * gx + x0 + dx) * gz + z0) * 2;
+                            somme += wxy * ((1 - az) * floutee[o] + az * floutee[o + 2]);
+                            poids += wxy * ((1 - az) * floutee[o + 1] + az * floutee[o + 3]);
+                        }
+                    }
+                    int filtre = poids > 0 ? Math.min(255, Math.round(somme / poids)) : valeur;
+                    resultat[y * largeur + x] |= filtre << canal;
+                }
+            });
+        }
+    }
+
+    /**
+     * Floute la grille (sommes et poids) par trois passes 1D. Les axes z et x restent dans une tranche y
+     * (qui tient en cache) ; l'axe y combine des tranches entières, parcourues de façon contiguë, dans
+     * le tampon. Chaque passe est parallèle sur les tranches.
+     *
+     * @return Le tableau qui contient la grille floutée (tampon)
+     */
+    private static float[] flouterGrille(float[] grille, float[] tampon, int gx, int gy, int gz) {
+        IntStream.range(0, gy).parallel().forEach(t -> {
+            float[] ligne = new float[Math.max(gx, gz) * 2];
+            for (int cx = 0; cx < gx; cx++) {
+                flouterLigne(grille, ((t * gx + cx) * gz) * 2, 2, gz, ligne);
+            }
+            for (int cz = 0; cz < gz; cz++) {
+                flouterLigne(grille, (t * gx * gz + cz) * 2, gz * 2, gx, ligne);
+            }
+        });
+
+        int tailleTranche = gx * gz * 2;
+        int rayon = FLOU.length / 2;
+        IntStream.range(0, gy).parallel().forEach(t -> {
+            int sortie = t * tailleTranche;
+            Arrays.fill(tampon, sortie, sortie + tailleTranche, 0);
+            for (int k = -rayon; k <= rayon; k++) {
+                if (t + k < 0 || t + k >= gy) continue;
+                float w = FLOU[k + rayon];
+                int entree = (t + k) * tailleTranche;
+                for (int o = 0; o < tailleTranche; o++) {
+                    tampon[sortie + o] += w * grille[entree + o];
+                }
+            }
+        });
+        return tampon;
+    }
+
+    /**
+     * Convolue une ligne de n cases (deux valeurs par case, espacées de pas) par le noyau FLOU ;
+     * les cases hors de la grille comptent pour zéro.
+     */
+    private static void flouterLigne(float[] grille, int debut, int pas, int n, float[] ligne) {
+        for (int i = 0; i < n; i++) {
+            ligne[2 * i] = grille[debut + i * pas];
+            ligne[2 * i + 1] = grille[debut + i * pas + 1];
+        }
+        int rayon = FLOU.length / 2;
+        for (int i = 0; i < n; i++) {
+            float somme = 0, poids = 0;
+            for (int k = -rayon; k <= rayon; k++) {
+                int j = i + k;
+                if (j >= 0 && j < n) {
+                    somme += FLOU[k + rayon] * ligne[2 * j];
+                    poids += FLOU[k + rayon] * ligne[2 * j + 1];
+                }
+            }
+            grille[debut + i * pas] = somme;
+            grille[debut + i * pas + 1] = poids;
+        }
+    }
+
+    /**
+     * Matrice gaussienne spatiale équivalente sur une zone de couleur uniforme, tronquée à 4 sigma
+     * (le filtrage ne l'utilise pas).
+     */
+    @Override
+    protected double[][] calculerCoef() {
+        double[][] matrice = new double[tailleFiltre][tailleFiltre];
+        double somme = 0.0;
+        int milieu = tailleFiltre / 2;
+        for (int y = -milieu; y <= milieu; y++) {
+            for (int x = -milieu; x <= milieu; x++) {
+                double coeff = (1.0 / (2 * PI * sigmaSpatial * sigmaSpatial))
+                        * exp(-(x * x + y * y) / (2 * sigmaSpatial * sigmaSpatial));
+                matrice[y + milieu][x + milieu] = coeff;
+                somme += coeff;
+            }
+        }
+        for (int i = 0; i < tailleFiltre; i++) {
+            for (int j = 0; j < tailleFiltre; j++) {
+                matrice[i][j] /= somme;
+            }
+        }
+        return matrice;
+    }
+}
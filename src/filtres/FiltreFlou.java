@@ -1,7 +1,8 @@
 package filtres;
 
-import outils.OutilCouleur;
+import outils.EcritureBandes;
 import outils.OutilsImage;
+import outils.SourceTuiles;
 
 import java.awt.image.BufferedImage;
 import java.io.IOException;
@@ -33,45 +34,90 @@ public abstract class FiltreFlou implements Filtre {
      */
     protected abstract double[][] calculerCoef();
 
+    /**
+     * Noyau 1D dont le produit donne la matrice (matrice[y][x] = noyau[y] * noyau[x]), si elle est séparable :
+     * le filtre est alors appliqué en deux passes 1D, en O(k) par pixel au lieu de O(k²).
+     *
+     * @return Coefficients 1D, ou null si la matrice n'est pas séparable.
+     */
+    protected double[] calculerNoyauSeparable() {
+        return null;
+    }
+
     @Override
-    public void appliquerFiltre(String cheminSource, String cheminDestination) throws IOException {
-        BufferedImage image = OutilsImage.convertionCheminEnBufferedImage(cheminSource);
-        int largeur = image.getWidth();
-        int hauteur = image.getHeight();
+    public BufferedImage appliquerFiltre(BufferedImage source, BufferedImage destination) {
+        int largeur = source.getWidth();
+        int hauteur = source.getHeight();
+        if (destination == null) {
+            destination = OutilsImage.creerImageRGB(new int[largeur * hauteur], largeur, hauteur);
+        } else if (destination.getWidth() != largeur || destination.getHeight() != hauteur) {
+            throw new IllegalArgumentException("L'image de destination doit avoir la taille de la source");
+        }
+
+        // Copie des pixels source : la destination peut être la source (filtrage sur place)
+        int[] pixels = OutilsImage.extrairePixelsRGB(source);
+        int[] raster = OutilsImage.rasterRGB(destination);
+        if (raster != null) {
+            filtrer(pixels, largeur, hauteur, raster); // écriture directe dans le raster
+        } else {
+            int[] resultat = new int[largeur * hauteur];
+            filtrer(pixels, largeur, hauteur, resultat);
+            destination.setRGB(0, 0, largeur, hauteur, resultat, 0, largeur);
+        }
+        return destination;
+    }
 
-        BufferedImage imageRes = new BufferedImage(largeur, hauteur, image.getType());
-        double[][] matrice = calculerCoef(); // calcul qui diffère en fonction du type de filtre flou qu'on applique
-        int milieu = tailleFiltre / 2; // permet de choper le point au milieu du filtre
+    /**
+     * Version par tuiles : chaque tuile est lue avec une marge (halo) de tailleFiltre / 2 pixels,
+     * ce qui donne exactement le même résultat que sur l'image entière, bords compris.
+     */
+    @Override
+    public void appliquerFiltre(SourceTuiles source, String cheminDestination) throws IOException {
+        int largeur = source.getLargeur();
+        int hauteur = source.getHauteur();
+        int taille = source.getTailleTuile();
+        int milieu = tailleFiltre / 2;
 
-        // boucle sur presque tout les pixels,on ne prends pas les coins (car ils ont pas de pixel voisin)
-        // la taille des coins depends de la taille du filtre, par ex : pour 3x3 on commence à (1,1)
-        for (int y = milieu; y < hauteur - milieu; y++) {
-            for (int x = milieu; x < largeur - milieu; x++) {
-                double sommeR = 0, sommeG = 0, sommeB = 0;
+        try (EcritureBandes sortie = EcritureBandes.couleurs(cheminDestination, largeur, hauteur, taille)) {
+            for (int t = 0; t < source.getNombreTuiles(); t++) {
+                int x0 = (t % source.getNombreTuilesX()) * taille;
+                int y0 = (t / source.getNombreTuilesX()) * taille;
+                int largeurTuile = Math.min(taille, largeur - x0);
+                int hauteurTuile = Math.min(taille, hauteur - y0);
 
-                // boucle sur les pixels du filtre (ex : si c'est 3x3 la boucle sera de 9)
-                for (int dy = -milieu; dy <= milieu; dy++) {
-                    for (int dx = -milieu; dx <= milieu; dx++) {
-                        int rgb = image.getRGB(x + dx, y + dy);
-                        int[] tabRGB = OutilCouleur.getTabColor(rgb);
-                        double coeff = matrice[dy + milieu][dx + milieu];
+                // Tuile + halo, limité aux bords de l'image
+                int xr = Math.max(0, x0 - milieu);
+                int yr = Math.max(0, y0 - milieu);
+                int largeurRegion = Math.min(largeur, x0 + largeurTuile + milieu) - xr;
+                int hauteurRegion = Math.min(hauteur, y0 + hauteurTuile + milieu) - yr;
+                int[] region = source.lireRegion(xr, yr, largeurRegion, hauteurRegion);
 
-                        // on applique les coefs
-                        sommeR += tabRGB[0] * coeff;
-                        sommeG += tabRGB[1] * coeff;
-                        sommeB += tabRGB[2] * coeff;
-                    }
+                // Le halo fournit aux pixels de la tuile tous leurs voisins : seuls les bords de l'image
+                // sont traités comme bords, exactement comme sur l'image entière
+                int[] filtree = new int[largeurRegion * hauteurRegion];
+                filtrer(region, largeurRegion, hauteurRegion, filtree);
+                int[] resultat = new int[largeurTuile * hauteurTuile];
+                for (int y = 0; y < hauteurTuile; y++) {
+                    System.arraycopy(filtree, (y0 - yr + y) * largeurRegion + (x0 - xr),
+                            resultat, y * largeurTuile, largeurTuile);
                 }
-
-                int r = (int) sommeR;
-                int g = (int) sommeG;
-                int b = (int) sommeB;
-                int rgbFinal = (r << 16) | (g << 8) | b;
-                imageRes.setRGB(x, y, rgbFinal);
+                sortie.ecrireRegion(x0, y0, largeurTuile, hauteurTuile, resultat);
             }
         }
+    }
 
-        // sauvegarde l'image
-        OutilsImage.sauverImage(imageRes, cheminDestination);
+    /**
+     * Filtre des pixels stockés ligne par ligne (0xRRGGBB) ; par défaut, les pixels à moins de
+     * tailleFiltre / 2 du bord sont noirs.
+     *
+     * @param resultat Reçoit tous les pixels filtrés (tableau distinct de pixels, de même taille).
+     */
+    protected void filtrer(int[] pixels, int largeur, int hauteur, int[] resultat) {
+        double[] noyau = calculerNoyauSeparable();
+        if (noyau != null) {
+            Convolution.separable(pixels, largeur, hauteur, noyau, resultat);
+        } else {
+            Convolution.generale(pixels, largeur, hauteur, calculerCoef(), resultat);
+        }
     }
 }
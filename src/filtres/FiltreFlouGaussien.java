@@ -51,4 +51,22 @@ public class FiltreFlouGaussien extends FiltreFlou {
 
         return matrice;
     }
+
+    /**
+     * Le noyau gaussien 2D est le produit de deux gaussiennes 1D (exp(-(x² + y²)) = exp(-x²) * exp(-y²)).
+     */
+    @Override
+    protected double[] calculerNoyauSeparable() {
+        double[] noyau = new double[tailleFiltre];
+        double somme = 0.0;
+        int milieu = tailleFiltre / 2;
+        for (int x = -milieu; x <= milieu; x++) {
+            noyau[x + milieu] = exp(-(x * x) / (2 * sigma * sigma));
+            somme += noyau[x + milieu];
+        }
+        for (int i = 0; i < tailleFiltre; i++) {
+            noyau[i] /= somme;
+        }
+        return noyau;
+    }
 }
@@ -0,0 +1,70 @@
+package filtres;
+
+import static java.lang.Math.exp;
+
+/**
+ * Flou gaussien récursif (IIR, Young et van Vliet) : même effet qu'un flou gaussien d'écart-type sigma,
+ * mais avec un coût par pixel constant quel que soit sigma. Adapté aux lissages forts (sigma de 10 ou plus)
+ * des captures bruitées, pour lesquels la matrice du flou gaussien classique deviendrait énorme.
+ */
+public class FiltreFlouGaussienRecursif extends FiltreFlou {
+
+    private final double sigma;
+
+    /**
+     * Constructeur
+     * @param sigma Écart-type pour la fonction de Gauss (au moins 0.5).
+     */
+    public FiltreFlouGaussienRecursif(double sigma) {
+        // La taille (support à 4 sigma) ne sert qu'à la marge des tuiles et à calculerCoef
+        super(2 * (int) Math.ceil(4 * sigma) + 1);
+        if (sigma < 0.5) {
+            throw new IllegalArgumentException("Sigma doit être >= 0.5 pour le flou gaussien récursif");
+        }
+        this.sigma = sigma;
+    }
+
+    @Override
+    public String getNomFiltre() {
+        return "Flou Gaussien récursif";
+    }
+
+    /**
+     * Par tuiles, la marge de 4 sigma tronque la réponse du filtre (infinie) : l'écart avec l'image entière
+     * est au plus d'un niveau de couleur. Contrairement au flou gaussien classique, les bords sont filtrés.
+     */
+    @Override
+    protected void filtrer(int[] pixels, int largeur, int hauteur, int[] resultat) {
+        Convolution.gaussienneRecursive(pixels, largeur, hauteur, sigma, resultat);
+    }
+
+    /**
+     * Matrice gaussienne équivalente, tronquée à 4 sigma (le filtrage ne l'utilise pas).
+     */
+    @Override
+    protected double[][] calculerCoef() {
+        double[] noyau = calculerNoyauSeparable();
+        double[][] matrice = new double[tailleFiltre][tailleFiltre];
+        for (int y = 0; y < tailleFiltre; y++) {
+            for (int x = 0; x < tailleFiltre; x++) {
+                matrice[y][x] = noyau[y] * noyau[x];
+            }
+        }
+        return matrice;
+    }
+
+    @Override
+    protected double[] calculerNoyauSeparable() {
+        double[] noyau = new double[tailleFiltre];
+        double somme = 0.0;
+        int milieu = tailleFiltre / 2;
+        for (int x = -milieu; x <= milieu; x++) {
+            noyau[x + milieu] = exp(-(x * x) / (2 * sigma * sigma));
+            somme += noyau[x + milieu];
+        }
+        for (int i = 0; i < tailleFiltre; i++) {
+            noyau[i] /= somme;
+        }
+        return noyau;
+    }
+}
@@ -34,4 +34,14 @@ public class FiltreFlouMoyenne extends FiltreFlou {
 
         return matrice;
     }
+
+    /**
+     * Moyenne par sommes glissantes : le coût par pixel ne dépend pas de la taille du filtre
+     * (utile en 15x15 ou 31x31 pour homogénéiser les grands biomes). Les bords sont moyennés
+     * sur la partie de la fenêtre qui est dans l'image au lieu de rester noirs.
+     */
+    @Override
+    protected void filtrer(int[] pixels, int largeur, int hauteur, int[] resultat) {
+        Convolution.moyenneGlissante(pixels, largeur, hauteur, tailleFiltre / 2, resultat);
+    }
 }
@@ -0,0 +1,233 @@
+package index;
+
+import metriques.MetriqueVectorielle;
+import outils.DonneesPixels;
+import outils.ListeEntiers;
+import outils.ListeFlottants;
+
+/**
+ * Partie commune des arbres binaires de l'index (k-d et à boules), pour les métriques qui sont
+ * une fonction croissante de la distance euclidienne entre coordonnées (MetriqueVectorielle.rayonEuclidien).
+ *
+ * Les points sont découpés récursivement à la médiane de l'axe le plus étendu, jusqu'à des feuilles
+ * d'au plus TAILLE_FEUILLE points. Les coordonnées sont recopiées dans l'ordre de l'arbre : chaque
+ * feuille est un bloc contigu dont les distances sont calculées d'un coup (distancesBloc).
+ * Chaque sous-classe décrit le volume de ses nœuds (boîte ou boule) et la distance minimale d'une
+ * requête à ce volume, qui sert à élaguer.
+ */
+abstract class ArbreAbstrait implements IndexVoisins {
+
+    protected static final int TAILLE_FEUILLE = 32;
+
+    // Les distances des feuilles sont calculées en simple précision : on élague avec une petite marge
+    private static final double MARGE_RELATIVE = 1e-6;
+    private static final double MARGE_ABSOLUE = 1e-6;
+
+    protected final MetriqueVectorielle metrique;
+    protected final int dimension;
+    protected final int[] points;         // indices d'origine, dans l'ordre de l'arbre
+    protected final float[] coordonnees;  // coordonnées dans l'ordre de l'arbre
+
+    // Nœuds : points [debuts[k], fins[k]) ; gauches[k] = -1 pour une feuille
+    protected int[] debuts, fins, gauches, droites;
+    protected int nombreNoeuds;
+
+    // Tampons de requête propres à chaque thread
+    private final ThreadLocal<ContexteRequete> contextes =
+            ThreadLocal.withInitial(() -> new ContexteRequete(TAILLE_FEUILLE));
+
+    protected ArbreAbstrait(DonneesPixels donnees, MetriqueVectorielle metrique) {
+        if (metrique.rayonEuclidien(1) < 0) {
+            throw new IllegalArgumentException(metrique.getNom()
+                    + " n'est pas euclidienne dans son espace : utiliser un index métrique");
+        }
+        this.metrique = metrique;
+        metrique.preparer(donnees);
+
+        int n = donnees.taille();
+        this.dimension = donnees.getDimension();
+        this.points = new int[n];
+        for (int i = 0; i < n; i++) points[i] = i;
+        this.coordonnees = donnees.getCaracteristiques().clone();
+
+        int capacite = 2 * Math.max(1, n / (TAILLE_FEUILLE / 2)) + 1;
+        debuts = new int[capacite];
+        fins = new int[capacite];
+        gauches = new int[capacite];
+        droites = new int[capacite];
+        allouerVolumes(capacite);
+        if (n > 0) {
+            construire(0, n);
+        }
+    }
+
+    /**
+     * Construit le sous-arbre des points [debut, fin) et retourne son numéro de nœud.
+     */
+    private int construire(int debut, int fin) {
+        int noeud = nombreNoeuds++;
+        debuts[noeud] = debut;
+        fins[noeud] = fin;
+        gauches[noeud] = droites[noeud] = -1;
+
+        if (fin - debut > TAILLE_FEUILLE) {
+            int axe = axeLePlusEtendu(debut, fin);
+            int milieu = (debut + fin) >>> 1;
+            selectionner(debut, fin - 1, milieu, axe);
+            gauches[noeud] = construire(debut, milieu);
+            droites[noeud] = construire(milieu, fin);
+        }
+        decrireNoeud(noeud, debut, fin);
+        return noeud;
+    }
+
+    private int axeLePlusEtendu(int debut, int fin) {
+        int meilleur = 0;
+        float etendueMax = -1;
+        for (int d = 0; d < dimension; d++) {
+            float min = Float.MAX_VALUE, max = -Float.MAX_VALUE;
+            for (int p = debut; p < fin; p++) {
+                float v = coordonnees[p * dimension + d];
+                if (v < min) min = v;
+                if (v > max) max = v;
+            }
+            if (max - min > etendueMax) {
+                etendueMax = max - min;
+                meilleur = d;
+            }
+        }
+        return meilleur;
+    }
+
+    /**
+     * Sélection rapide (Hoare) : place en position k l'élément de rang k selon l'axe,
+     * les plus petits avant et les plus grands après.
+     */
+    private void selectionner(int gauche, int droite, int k, int axe) {
+        while (gauche < droite) {
+            float pivot = coordonnees[((gauche + droite) >>> 1) * dimension + axe];
+            int i = gauche, j = droite;
+            while (i <= j) {
+                while (coordonnees[i * dimension + axe] < pivot) i++;
+                while (coordonnees[j * dimension + axe] > pivot) j--;
+                if (i <= j) {
+                    echanger(i++, j--);
+                }
+            }
+            if (k <= j) {
+                droite = j;
+            } else if (k >= i) {
+                gauche = i;
+            } else {
+                return;
+            }
+        }
+    }
+
+    private void echanger(int a, int b) {
+        int t = points[a];
+        points[a] = points[b];
+        points[b] = t;
+        for (int d = 0; d < dimension; d++) {
+            float v = coordonnees[a * dimension + d];
+            coordonnees[a * dimension + d] = coordonnees[b * dimension + d];
+            coordonnees[b * dimension + d] = v;
+        }
+    }
+
+    /**
+     * Réserve le stockage des volumes pour le nombre de nœuds donné.
+     */
+    protected abstract void allouerVolumes(int capacite);
+
+    /**
+     * Calcule le volume (boîte, boule...) du nœud contenant les points [debut, fin).
+     */
+    protected abstract void decrireNoeud(int noeud, int debut, int fin);
+
+    /**
+     * Minorant de la distance euclidienne entre la requête et tout point du nœud.
+     */
+    protected abstract double distanceMinimale(int noeud, float[] requete, int offset);
+
+    @Override
+    public void chercherDansRayon(float[] requete, int offset, double rayon, ListeEntiers resultat,
+                                  ListeFlottants distances) {
+        resultat.vider();
+        if (distances != null) distances.vider();
+        if (nombreNoeuds == 0) return;
+        double rayonEuclidien = metrique.rayonEuclidien(rayon);
+        if (rayonEuclidien < 0) return;
+        double limite = rayonEuclidien * (1 + MARGE_RELATIVE) + MARGE_ABSOLUE;
+
+        ContexteRequete contexte = contextes.get();
+        float[] tampon = contexte.tampon;
+        int[] pile = contexte.pile;
+        int sommet = 0;
+        pile[sommet++] = 0;
+
+        while (sommet > 0) {
+            int noeud = pile[--sommet];
+            if (distanceMinimale(noeud, requete, offset) > limite) continue;
+
+            if (gauches[noeud] < 0) {
+                int debut = debuts[noeud];
+                int nombre = fins[noeud] - debut;
+                metrique.distancesBloc(coordonnees, debut, nombre, requete, offset, tampon);
+                for (int k = 0; k < nombre; k++) {
+                    if (tampon[k] <= rayon) {
+                        resultat.ajouter(points[debut + k]);
+                        if (distances != null) distances.ajouter(tampon[k]);
+                    }
+                }
+            } else {
+                pile[sommet++] = gauches[noeud];
+                pile[sommet++] = droites[noeud];
+            }
+        }
+    }
+
+    @Override
+    public int chercherPlusProches(float[] requete, int offset, int k, int[] indices, double[] distances) {
+        if (nombreNoeuds == 0 || k <= 0) return 0;
+        ContexteRequete contexte = contextes.get();
+        contexte.preparerTas(k);
+        float[] tampon = contexte.tampon;
+        int[] pile = contexte.pile;
+        int sommet = 0;
+        pile[sommet++] = 0;
+
+        while (sommet > 0) {
+            int noeud = pile[--sommet];
+            if (contexte.tailleTas == k) {
+                double limite = metrique.rayonEuclidien(contexte.tasDistances[0]) * (1 + MARGE_RELATIVE) + MARGE_ABSOLUE;
+                if (distanceMinimale(noeud, requete, offset) > limite) continue;
+            }
+
+            if (gauches[noeud] < 0) {
+                int debut = debuts[noeud];
+                int nombre = fins[noeud] - debut;
+                metrique.distancesBloc(coordonnees, debut, nombre, requete, offset, tampon);
+                for (int j = 0; j < nombre; j++) {
+                    contexte.proposer(points[debut + j], tampon[j], k);
+                }
+            } else {
+                // Le fils le plus proche est empilé en dernier pour être visité en premier
+                int gauche = gauches[noeud], droite = droites[noeud];
+                if (distanceMinimale(gauche, requete, offset) <= distanceMinimale(droite, requete, offset)) {
+                    pile[sommet++] = droite;
+                    pile[sommet++] = gauche;
+                } else {
+                    pile[sommet++] = gauche;
+                    pile[sommet++] = droite;
+                }
+            }
+        }
+        return contexte.vider(indices, distances);
+    }
+
+    @Override
+    public int taille() {
+        return points.length;
+    }
+}
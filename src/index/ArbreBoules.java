@@ -0,0 +1,64 @@
+package index;
+
+import metriques.MetriqueVectorielle;
+import outils.DonneesPixels;
+
+/**
+ * Arbre à boules (ball tree) : chaque nœud garde le centre de ses points et le rayon qui les contient tous.
+ * Les boules suivent mieux que les boîtes les nuages allongés ou en diagonale (ex: dégradés de couleur).
+ */
+public class ArbreBoules extends ArbreAbstrait {
+
+    private double[] centres; // par nœud : dimension coordonnées
+    private double[] rayons;
+
+    public ArbreBoules(DonneesPixels donnees, MetriqueVectorielle metrique) {
+        super(donnees, metrique);
+    }
+
+    @Override
+    protected void allouerVolumes(int capacite) {
+        centres = new double[capacite * dimension];
+        rayons = new double[capacite];
+    }
+
+    @Override
+    protected void decrireNoeud(int noeud, int debut, int fin) {
+        int base = noeud * dimension;
+        for (int p = debut; p < fin; p++) {
+            for (int d = 0; d < dimension; d++) {
+                centres[base + d] += coordonnees[p * dimension + d];
+            }
+        }
+        for (int d = 0; d < dimension; d++) {
+            centres[base + d] /= (fin - debut);
+        }
+
+        double rayonCarre = 0;
+        for (int p = debut; p < fin; p++) {
+            double somme = 0;
+            for (int d = 0; d < dimension; d++) {
+                double ecart = coordonnees[p * dimension + d] - centres[base + d];
+                somme += ecart * ecart;
+            }
+            rayonCarre = Math.max(rayonCarre, somme);
+        }
+        rayons[noeud] = Math.sqrt(rayonCarre);
+    }
+
+    @Override
+    protected double distanceMinimale(int noeud, float[] requete, int offset) {
+        int base = noeud * dimension;
+        double somme = 0;
+        for (int d = 0; d < dimension; d++) {
+            double ecart = requete[offset + d] - centres[base + d];
+            somme += ecart * ecart;
+        }
+        return Math.max(0, Math.sqrt(somme) - rayons[noeud]);
+    }
+
+    @Override
+    public String getNom() {
+        return "Arbre à boules";
+    }
+}
@@ -0,0 +1,60 @@
+package index;
+
+import metriques.MetriqueVectorielle;
+import outils.DonneesPixels;
+
+/**
+ * Arbre k-d : chaque nœud garde la boîte englobante de ses points (min et max par coordonnée).
+ * Efficace en petite dimension (positions, RGB, Lab), quelle que soit la densité des données,
+ * contrairement à une grille dont la taille des cellules dépend de eps.
+ */
+public class ArbreKD extends ArbreAbstrait {
+
+    private float[] bornes; // par nœud : dimension minimums puis dimension maximums
+
+    public ArbreKD(DonneesPixels donnees, MetriqueVectorielle metrique) {
+        super(donnees, metrique);
+    }
+
+    @Override
+    protected void allouerVolumes(int capacite) {
+        bornes = new float[capacite * 2 * dimension];
+    }
+
+    @Override
+    protected void decrireNoeud(int noeud, int debut, int fin) {
+        int base = noeud * 2 * dimension;
+        for (int d = 0; d < dimension; d++) {
+            float min = Float.MAX_VALUE, max = -Float.MAX_VALUE;
+            for (int p = debut; p < fin; p++) {
+                float v = coordonnees[p * dimension + d];
+                if (v < min) min = v;
+                if (v > max) max = v;
+            }
+            bornes[base + d] = min;
+            bornes[base + dimension + d] = max;
+        }
+    }
+
+    @Override
+    protected double distanceMinimale(int noeud, float[] requete, int offset) {
+        int base = noeud * 2 * dimension;
+        double somme = 0;
+        for (int d = 0; d < dimension; d++) {
+            double v = requete[offset + d];
+            double ecart = 0;
+            if (v < bornes[base + d]) {
+                ecart = bornes[base + d] - v;
+            } else if (v > bornes[base + dimension + d]) {
+                ecart = v - bornes[base + dimension + d];
+            }
+            somme += ecart * ecart;
+        }
+        return Math.sqrt(somme);
+    }
+
+    @Override
+    public String getNom() {
+        return "Arbre k-d";
+    }
+}
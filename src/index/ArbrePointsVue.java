@@ -0,0 +1,325 @@
+package index;
+
+import metriques.MetriqueVectorielle;
+import outils.DonneesPixels;
+import outils.ListeEntiers;
+import outils.ListeFlottants;
+
+/**
+ * Arbre de points de vue (vantage-point tree) : index métrique qui n'utilise que l'inégalité triangulaire,
+ * pour les distances qui ne sont pas euclidiennes dans leur espace (normes de couleur perceptuelles).
+ *
+ * Chaque nœud choisit un point de vue v et sépare ses points à la médiane de leur distance à v.
+ * Chaque fils garde l'intervalle [min, max] des distances de ses points à v : par l'inégalité
+ * triangulaire, un point x du fils vérifie d(q, x) >= max(min − d(q, v), d(q, v) − max), ce qui élague.
+ * Comme pour les arbres k-d, les feuilles sont des blocs contigus (distancesBloc) et le résultat est exact.
+ *
+ * La distance d'élagage est :
+ * - la métrique elle-même si elle vérifie l'inégalité triangulaire (CIELAB, positions...) ;
+ * - sinon la distance euclidienne entre coordonnées, avec un rayon majoré par la métrique
+ *   (rayonEuclidien, ou facteurEuclidien point par point, maximum gardé pour chaque nœud :
+ *   cas de CIE94, non symétrique, et de Redmean).
+ */
+public class ArbrePointsVue implements IndexVoisins {
+
+    private static final int TAILLE_FEUILLE = 32;
+
+    // Les distances des feuilles sont calculées en simple précision : on élague avec une petite marge
+    private static final double MARGE_RELATIVE = 1e-6;
+    private static final double MARGE_ABSOLUE = 1e-6;
+
+    // Distance d'élagage
+    private static final int METRIQUE = 0;   // la métrique (inégalité triangulaire)
+    private static final int EUCLIDIENNE = 1; // euclidienne, rayon donné par rayonEuclidien
+    private static final int FACTEURS = 2;    // euclidienne, rayon donné par facteurEuclidien
+
+    private final MetriqueVectorielle metrique;
+    private final int elagage;
+    private final int dimension;
+    private final int[] points;         // indices d'origine, dans l'ordre de l'arbre
+    private final float[] coordonnees;  // coordonnées dans l'ordre de l'arbre
+
+    // Nœuds : points [debuts[k], fins[k]) ; gauches[k] = -1 pour une feuille
+    private int[] debuts, fins, gauches, droites;
+    private float[] vues;                      // coordonnées du point de vue de chaque nœud interne
+    private double[] distancesMin, distancesMax; // distances des points d'un nœud au point de vue de son parent
+    private double[] facteurs;                 // facteur euclidien maximal des points d'un nœud (FACTEURS)
+    private int nombreNoeuds;
+
+    // Distances au point de vue pendant la construction (ordre de l'arbre)
+    private double[] distancesConstruction;
+
+    // Tampons de requête propres à chaque thread
+    private final ThreadLocal<ContexteRequete> contextes =
+            ThreadLocal.withInitial(() -> new ContexteRequete(TAILLE_FEUILLE));
+
+    public ArbrePointsVue(DonneesPixels donnees, MetriqueVectorielle metrique) {
+        this.metrique = metrique;
+        metrique.preparer(donnees);
+
+        int n = donnees.taille();
+        this.dimension = donnees.getDimension();
+        this.points = new int[n];
+        for (int i = 0; i < n; i++) points[i] = i;
+        this.coordonnees = donnees.getCaracteristiques().clone();
+
+        if (metrique.respecteInegaliteTriangulaire()) {
+            elagage = METRIQUE;
+        } else if (metrique.rayonEuclidien(1) >= 0) {
+            elagage = EUCLIDIENNE;
+        } else if (n == 0 || metrique.facteurEuclidien(coordonnees, 0) >= 0) {
+            elagage = FACTEURS;
+        } else {
+            throw new IllegalArgumentException(metrique.getNom()
+                    + " ne vérifie pas l'inégalité triangulaire et n'a pas de majorant euclidien");
+        }
+
+        int capacite = 2 * Math.max(1, n / (TAILLE_FEUILLE / 2)) + 1;
+        debuts = new int[capacite];
+        fins = new int[capacite];
+        gauches = new int[capacite];
+        droites = new int[capacite];
+        vues = new float[capacite * dimension];
+        distancesMin = new double[capacite];
+        distancesMax = new double[capacite];
+        if (elagage == FACTEURS) {
+            facteurs = new double[capacite];
+        }
+        if (n > 0) {
+            distancesConstruction = new double[n];
+            construire(0, n);
+            distancesConstruction = null;
+        }
+    }
+
+    /**
+     * Construit le sous-arbre des points [debut, fin) et retourne son numéro de nœud.
+     */
+    private int construire(int debut, int fin) {
+        int noeud = nombreNoeuds++;
+        debuts[noeud] = debut;
+        fins[noeud] = fin;
+        gauches[noeud] = droites[noeud] = -1;
+
+        if (elagage == FACTEURS) {
+            double facteurMax = 0;
+            for (int p = debut; p < fin; p++) {
+                double facteur = metrique.facteurEuclidien(coordonnees, p * dimension);
+                if (facteur < 0) {
+                    throw new IllegalArgumentException(metrique.getNom() + " n'a pas de majorant euclidien");
+                }
+                facteurMax = Math.max(facteurMax, facteur);
+            }
+            facteurs[noeud] = facteurMax;
+        }
+
+        if (fin - debut > TAILLE_FEUILLE) {
+            // Point de vue : le point le plus éloigné du premier (les points extrêmes séparent mieux)
+            mesurer(debut, fin, debut * dimension);
+            int vue = debut;
+            for (int p = debut + 1; p < fin; p++) {
+                if (distancesConstruction[p] > distancesConstruction[vue]) vue = p;
+            }
+            echanger(debut, vue);
+            System.arraycopy(coordonnees, debut * dimension, vues, noeud * dimension, dimension);
+
+            // Le point de vue reste dans le fils intérieur (distance nulle)
+            mesurer(debut, fin, debut * dimension);
+            int milieu = (debut + 1 + fin) >>> 1;
+            selectionner(debut + 1, fin - 1, milieu);
+
+            double maxInterieur = 0;
+            for (int p = debut + 1; p < milieu; p++) maxInterieur = Math.max(maxInterieur, distancesConstruction[p]);
+            double minExterieur = Double.MAX_VALUE, maxExterieur = 0;
+            for (int p = milieu; p < fin; p++) {
+                minExterieur = Math.min(minExterieur, distancesConstruction[p]);
+                maxExterieur = Math.max(maxExterieur, distancesConstruction[p]);
+            }
+
+            int gauche = construire(debut, milieu);
+            distancesMin[gauche] = 0;
+            distancesMax[gauche] = maxInterieur;
+            int droite = construire(milieu, fin);
+            distancesMin[droite] = minExterieur;
+            distancesMax[droite] = maxExterieur;
+            gauches[noeud] = gauche;
+            droites[noeud] = droite;
+        }
+        return noeud;
+    }
+
+    /**
+     * Distances d'élagage des points [debut, fin) à un point de vue donné par ses coordonnées.
+     */
+    private void mesurer(int debut, int fin, int offsetVue) {
+        float[] vue = new float[dimension];
+        System.arraycopy(coordonnees, offsetVue, vue, 0, dimension);
+        for (int p = debut; p < fin; p++) {
+            distancesConstruction[p] = distanceElagage(coordonnees, p * dimension, vue, 0);
+        }
+    }
+
+    /**
+     * Sélection rapide (Hoare) sur les distances au point de vue : place en position k l'élément de rang k.
+     */
+    private void selectionner(int gauche, int droite, int k) {
+        while (gauche < droite) {
+            double pivot = distancesConstruction[(gauche + droite) >>> 1];
+            int i = gauche, j = droite;
+            while (i <= j) {
+                while (distancesConstruction[i] < pivot) i++;
+                while (distancesConstruction[j] > pivot) j--;
+                if (i <= j) {
+                    echanger(i++, j--);
+                }
+            }
+            if (k <= j) {
+                droite = j;
+            } else if (k >= i) {
+                gauche = i;
+            } else {
+                return;
+            }
+        }
+    }
+
+    private void echanger(int a, int b) {
+        int t = points[a];
+        points[a] = points[b];
+        points[b] = t;
+        double d = distancesConstruction[a];
+        distancesConstruction[a] = distancesConstruction[b];
+        distancesConstruction[b] = d;
+        for (int k = 0; k < dimension; k++) {
+            float v = coordonnees[a * dimension + k];
+            coordonnees[a * dimension + k] = coordonnees[b * dimension + k];
+            coordonnees[b * dimension + k] = v;
+        }
+    }
+
+    /**
+     * Distance d'élagage (vraie distance) entre deux vecteurs de coordonnées.
+     */
+    private double distanceElagage(float[] a, int offsetA, float[] b, int offsetB) {
+        if (elagage == METRIQUE) {
+            return metrique.distanceVecteurs(a, offsetA, b, offsetB);
+        }
+        double somme = 0;
+        for (int k = 0; k < dimension; k++) {
+            double ecart = a[offsetA + k] - b[offsetB + k];
+            somme += ecart * ecart;
+        }
+        return Math.sqrt(somme);
+    }
+
+    /**
+     * Rayon, en distance d'élagage, qui contient tous les points du nœud à distance au plus rayon de la requête.
+     */
+    private double rayonElagage(int noeud, double rayon) {
+        double r;
+        if (elagage == METRIQUE) {
+            r = rayon;
+        } else if (elagage == EUCLIDIENNE) {
+            r = metrique.rayonEuclidien(rayon);
+        } else {
+            r = facteurs[noeud] * rayon;
+        }
+        return r * (1 + MARGE_RELATIVE) + MARGE_ABSOLUE;
+    }
+
+    /**
+     * Empile les deux fils d'un nœud interne avec leur minorant de distance d'élagage à la requête,
+     * le plus proche en dernier pour être visité en premier.
+     */
+    private int empilerFils(int noeud, float[] requete, int offset, ContexteRequete contexte, int sommet) {
+        double distanceVue = distanceElagage(vues, noeud * dimension, requete, offset);
+        int gauche = gauches[noeud], droite = droites[noeud];
+        double borneGauche = Math.max(0, Math.max(distancesMin[gauche] - distanceVue, distanceVue - distancesMax[gauche]));
+        double borneDroite = Math.max(0, Math.max(distancesMin[droite] - distanceVue, distanceVue - distancesMax[droite]));
+        if (borneGauche <= borneDroite) {
+            contexte.pile[sommet] = droite;
+            contexte.bornes[sommet++] = borneDroite;
+            contexte.pile[sommet] = gauche;
+            contexte.bornes[sommet++] = borneGauche;
+        } else {
+            contexte.pile[sommet] = gauche;
+            contexte.bornes[sommet++] = borneGauche;
+            contexte.pile[sommet] = droite;
+            contexte.bornes[sommet++] = borneDroite;
+        }
+        return sommet;
+    }
+
+    @Override
+    public void chercherDansRayon(float[] requete, int offset, double rayon, ListeEntiers resultat,
+                                  ListeFlottants distances) {
+        resultat.vider();
+        if (distances != null) distances.vider();
+        if (nombreNoeuds == 0 || rayon < 0) return;
+
+        ContexteRequete contexte = contextes.get();
+        float[] tampon = contexte.tampon;
+        int sommet = 0;
+        contexte.pile[sommet] = 0;
+        contexte.bornes[sommet++] = 0;
+
+        while (sommet > 0) {
+            int noeud = contexte.pile[--sommet];
+            if (contexte.bornes[sommet] > rayonElagage(noeud, rayon)) continue;
+
+            if (gauches[noeud] < 0) {
+                int debut = debuts[noeud];
+                int nombre = fins[noeud] - debut;
+                metrique.distancesBloc(coordonnees, debut, nombre, requete, offset, tampon);
+                for (int k = 0; k < nombre; k++) {
+                    if (tampon[k] <= rayon) {
+                        resultat.ajouter(points[debut + k]);
+                        if (distances != null) distances.ajouter(tampon[k]);
+                    }
+                }
+            } else {
+                sommet = empilerFils(noeud, requete, offset, contexte, sommet);
+            }
+        }
+    }
+
+    @Override
+    public int chercherPlusProches(float[] requete, int offset, int k, int[] indices, double[] distances) {
+        if (nombreNoeuds == 0 || k <= 0) return 0;
+        ContexteRequete contexte = contextes.get();
+        contexte.preparerTas(k);
+        float[] tampon = contexte.tampon;
+        int sommet = 0;
+        contexte.pile[sommet] = 0;
+        contexte.bornes[sommet++] = 0;
+
+        while (sommet > 0) {
+            int noeud = contexte.pile[--sommet];
+            if (contexte.tailleTas == k && contexte.bornes[sommet] > rayonElagage(noeud, contexte.tasDistances[0])) {
+                continue;
+            }
+
+            if (gauches[noeud] < 0) {
+                int debut = debuts[noeud];
+                int nombre = fins[noeud] - debut;
+                metrique.distancesBloc(coordonnees, debut, nombre, requete, offset, tampon);
+                for (int j = 0; j < nombre; j++) {
+                    contexte.proposer(points[debut + j], tampon[j], k);
+                }
+            } else {
+                sommet = empilerFils(noeud, requete, offset, contexte, sommet);
+            }
+        }
+        return contexte.vider(indices, distances);
+    }
+
+    @Override
+    public int taille() {
+        return points.length;
+    }
+
+    @Override
+    public String getNom() {
+        return "Arbre de points de vue";
+    }
+}
@@ -0,0 +1,78 @@
+package index;
+
+/**
+ * Tampons d'une requête, propres à chaque thread : distances d'une feuille, pile de nœuds
+ * (avec un minorant de distance par nœud empilé, si l'arbre en calcule) et tas des k meilleurs (max en tête).
+ */
+final class ContexteRequete {
+
+    final float[] tampon;
+    final int[] pile = new int[256];
+    final double[] bornes = new double[256];
+    int[] tasIndices = new int[16];
+    double[] tasDistances = new double[16];
+    int tailleTas;
+
+    ContexteRequete(int tailleFeuille) {
+        this.tampon = new float[tailleFeuille];
+    }
+
+    void preparerTas(int k) {
+        if (tasIndices.length < k) {
+            tasIndices = new int[k];
+            tasDistances = new double[k];
+        }
+        tailleTas = 0;
+    }
+
+    void proposer(int indice, double distance, int k) {
+        if (tailleTas < k) {
+            int i = tailleTas++;
+            while (i > 0 && tasDistances[(i - 1) / 2] < distance) {
+                tasIndices[i] = tasIndices[(i - 1) / 2];
+                tasDistances[i] = tasDistances[(i - 1) / 2];
+                i = (i - 1) / 2;
+            }
+            tasIndices[i] = indice;
+            tasDistances[i] = distance;
+        } else if (distance < tasDistances[0]) {
+            descendre(indice, distance);
+        }
+    }
+
+    /**
+     * Remplace la tête du tas (le plus lointain) puis rétablit l'ordre.
+     */
+    private void descendre(int indice, double distance) {
+        int i = 0;
+        while (true) {
+            int fils = 2 * i + 1;
+            if (fils >= tailleTas) break;
+            if (fils + 1 < tailleTas && tasDistances[fils + 1] > tasDistances[fils]) fils++;
+            if (tasDistances[fils] <= distance) break;
+            tasIndices[i] = tasIndices[fils];
+            tasDistances[i] = tasDistances[fils];
+            i = fils;
+        }
+        tasIndices[i] = indice;
+        tasDistances[i] = distance;
+    }
+
+    /**
+     * Vide le tas dans les tableaux de sortie, du plus proche au plus lointain.
+     */
+    int vider(int[] indices, double[] distances) {
+        int nombre = tailleTas;
+        for (int p = nombre - 1; p >= 0; p--) {
+            indices[p] = tasIndices[0];
+            distances[p] = tasDistances[0];
+            tailleTas--;
+            if (tailleTas > 0) {
+                int dernierIndice = tasIndices[tailleTas];
+                double derniereDistance = tasDistances[tailleTas];
+                descendre(dernierIndice, derniereDistance);
+            }
+        }
+        return nombre;
+    }
+}
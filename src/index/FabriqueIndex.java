@@ -0,0 +1,25 @@
+package index;
+
+import metriques.MetriqueVectorielle;
+import outils.DonneesPixels;
+
+/**
+ * Construit un index de voisinage pour un jeu de pixels et une métrique
+ * (ex: ArbreKD::new), pour que les algorithmes puissent en changer.
+ */
+@FunctionalInterface
+public interface FabriqueIndex {
+
+    /**
+     * @throws IllegalArgumentException si la métrique ne convient pas à cet index
+     */
+    IndexVoisins construire(DonneesPixels donnees, MetriqueVectorielle metrique);
+
+    /**
+     * Index adapté à la métrique : arbre k-d si elle est euclidienne dans son espace,
+     * arbre de points de vue sinon.
+     */
+    static FabriqueIndex pourMetrique(MetriqueVectorielle metrique) {
+        return metrique.rayonEuclidien(1) >= 0 ? ArbreKD::new : ArbrePointsVue::new;
+    }
+}
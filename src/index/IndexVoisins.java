@@ -0,0 +1,50 @@
+package index;
+
+import outils.ListeEntiers;
+import outils.ListeFlottants;
+
+/**
+ * Index de voisinage construit sur les coordonnées d'un jeu de pixels (positions ou caractéristiques
+ * couleur précalculées, voir MetriqueVectorielle). Les requêtes portent sur un vecteur de coordonnées
+ * (en général celles d'un point du jeu : donnees.getCaracteristiques(), i * dimension) et les résultats
+ * sont des indices de points du jeu indexé. Les distances sont celles de la métrique.
+ *
+ * Les requêtes peuvent être faites depuis plusieurs threads à la fois.
+ */
+public interface IndexVoisins {
+
+    /**
+     * Remplit resultat (vidé au préalable) avec les points à distance au plus rayon de la requête,
+     * dans un ordre quelconque.
+     */
+    default void chercherDansRayon(float[] requete, int offset, double rayon, ListeEntiers resultat) {
+        chercherDansRayon(requete, offset, rayon, resultat, null);
+    }
+
+    /**
+     * Même recherche, qui donne aussi la distance de chaque point trouvé (distances.get(k) pour resultat.get(k)),
+     * telle que calculée par la métrique (distancesBloc, le point indexé étant le premier opérande).
+     *
+     * @param distances Vidée au préalable, ou null si les distances ne sont pas utiles
+     */
+    void chercherDansRayon(float[] requete, int offset, double rayon, ListeEntiers resultat, ListeFlottants distances);
+
+    /**
+     * Cherche les k points les plus proches de la requête (un point du jeu est son propre plus proche voisin).
+     *
+     * @param indices   Reçoit les indices des voisins, du plus proche au plus lointain
+     * @param distances Reçoit les distances correspondantes
+     * @return Nombre de voisins trouvés (k, ou moins si le jeu est plus petit)
+     */
+    int chercherPlusProches(float[] requete, int offset, int k, int[] indices, double[] distances);
+
+    /**
+     * Nombre de points indexés.
+     */
+    int taille();
+
+    /**
+     * Retourne le nom de l'index.
+     */
+    String getNom();
+}
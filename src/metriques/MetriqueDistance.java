@@ -1,5 +1,6 @@
 package metriques;
 
+import outils.DonneesPixels;
 import outils.PixelData;
 
 /**
@@ -15,10 +16,35 @@ public interface MetriqueDistance {
      */
     double calculerDistance(PixelData pixel1, PixelData pixel2);
 
+    /**
+     * Calcule la distance entre le pixel i de a et le pixel j de b, sans créer d'objet.
+     * Par défaut passe par la vue PixelData, les métriques du projet la redéfinissent.
+     *
+     * @param a Premier jeu de pixels
+     * @param i Indice dans a
+     * @param b Second jeu de pixels (peut être a)
+     * @param j Indice dans b
+     * @return La distance entre les deux pixels
+     */
+    default double calculerDistance(DonneesPixels a, int i, DonneesPixels b, int j) {
+        return calculerDistance(a.getPixel(i), b.getPixel(j));
+    }
+
+    /**
+     * Indique si la distance vérifie l'inégalité triangulaire (d(a,c) <= d(a,b) + d(b,c)).
+     * Les algorithmes qui élaguent des calculs grâce à des bornes (K-Means de Hamerly/Elkan...)
+     * en ont besoin ; par prudence une métrique inconnue est supposée ne pas la vérifier.
+     *
+     * @return true si l'inégalité triangulaire est garantie
+     */
+    default boolean respecteInegaliteTriangulaire() {
+        return false;
+    }
+
     /**
      * Retourne le nom de la métrique pour l'affichage.
      *
      * @return Le nom de la métrique
      */
     String getNom();
-}
\ No newline at end of file
+}
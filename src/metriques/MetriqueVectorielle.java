@@ -0,0 +1,113 @@
+package metriques;
+
+import outils.DonneesPixels;
+
+import java.util.stream.IntStream;
+
+/**
+ * Métrique qui travaille sur des coordonnées précalculées plutôt que sur les pixels bruts.
+ * Chaque pixel est converti une seule fois dans l'espace natif de la métrique (RGB, Lab, position...)
+ * et rangé dans les caractéristiques de DonneesPixels : les distances ne refont plus la conversion.
+ * Les centres (centroïdes de K-Means, de Davies-Bouldin...) sont des moyennes dans ce même espace.
+ */
+public interface MetriqueVectorielle extends MetriqueDistance {
+
+    /**
+     * Identifiant de l'espace des coordonnées (deux métriques de même espace partagent les caractéristiques).
+     */
+    String getEspace();
+
+    /**
+     * Nombre de coordonnées par pixel.
+     */
+    int getDimension();
+
+    /**
+     * Écrit les coordonnées du pixel i dans sortie[offset..offset+dimension-1].
+     */
+    void extraire(DonneesPixels donnees, int i, float[] sortie, int offset);
+
+    /**
+     * Distance entre deux vecteurs de coordonnées.
+     */
+    double distanceVecteurs(float[] a, int offsetA, float[] b, int offsetB);
+
+    /**
+     * Distance entre un vecteur de coordonnées et un centre (moyenne de vecteurs, en double).
+     */
+    double distanceVecteurCentre(float[] a, int offsetA, double[] centre);
+
+    /**
+     * Distance entre deux centres.
+     */
+    double distanceEntreCentres(double[] centre1, double[] centre2);
+
+    /**
+     * Distances des points [debut, debut+nombre) d'un tableau de coordonnées à un même vecteur requête :
+     * sortie[k] = distanceVecteurs(coordonnees, (debut+k)*dimension, requete, offsetRequete).
+     * Les métriques usuelles le calculent avec les noyaux par blocs de NoyauxDistances (SIMD si disponible),
+     * en simple précision.
+     */
+    default void distancesBloc(float[] coordonnees, int debut, int nombre,
+                               float[] requete, int offsetRequete, float[] sortie) {
+        int dimension = getDimension();
+        for (int k = 0; k < nombre; k++) {
+            sortie[k] = (float) distanceVecteurs(coordonnees, (debut + k) * dimension, requete, offsetRequete);
+        }
+    }
+
+    /**
+     * Si la distance est une fonction croissante de la distance euclidienne entre coordonnées
+     * (cas des arbres de l'index de voisinage), retourne le rayon euclidien équivalent à une distance ;
+     * sinon -1.
+     */
+    default double rayonEuclidien(double distance) {
+        return -1;
+    }
+
+    /**
+     * Pour une distance qui n'est ni une vraie distance ni une fonction de la distance euclidienne
+     * (ex: CIE94), facteur f tel que ‖a − b‖ <= f · distance(a, b) pour toute requête b
+     * (a premier opérande, ‖·‖ distance euclidienne entre coordonnées) ; -1 si aucun n'est connu.
+     * Un index métrique peut alors élaguer avec la distance euclidienne (voir index.ArbrePointsVue).
+     */
+    default double facteurEuclidien(float[] a, int offset) {
+        return -1;
+    }
+
+    /**
+     * Rend cohérent un centre obtenu par moyenne (ex: recalcul d'une coordonnée dérivée des autres).
+     */
+    default void normaliserCentre(double[] centre) {
+    }
+
+    /**
+     * Indique si les caractéristiques du jeu sont déjà exprimées dans l'espace de la métrique.
+     */
+    default boolean estPrepare(DonneesPixels donnees) {
+        return getEspace().equals(donnees.getEspaceCaracteristiques());
+    }
+
+    /**
+     * Calcule (en parallèle) les coordonnées de tous les pixels si elles ne sont pas déjà présentes.
+     */
+    default void preparer(DonneesPixels donnees) {
+        if (estPrepare(donnees)) return;
+        int dimension = getDimension();
+        float[] caracteristiques = new float[donnees.taille() * dimension];
+        IntStream.range(0, donnees.taille()).parallel()
+                .forEach(i -> extraire(donnees, i, caracteristiques, i * dimension));
+        donnees.setCaracteristiques(caracteristiques, dimension, getEspace());
+    }
+
+    /**
+     * Retourne la métrique elle-même si elle est vectorielle, sinon une adaptation générique
+     * sur les coordonnées {x, y, rouge, vert, bleu} (les centres y sont arrondis au pixel le plus proche).
+     */
+    static MetriqueVectorielle adapter(MetriqueDistance metrique) {
+        if (metrique instanceof MetriqueVectorielle) {
+            return (MetriqueVectorielle) metrique;
+        }
+        return new MetriqueVectorielleGenerique(metrique);
+    }
+}
@@ -0,0 +1,81 @@
+package metriques;
+
+import outils.DonneesPixels;
+import outils.OutilCouleur;
+import outils.PixelData;
+
+import java.awt.Color;
+
+/**
+ * Adaptation d'une métrique quelconque à MetriqueVectorielle, sur les coordonnées {x, y, r, g, b}.
+ * Les distances repassent par la métrique d'origine (les centres sont arrondis au pixel le plus proche).
+ */
+class MetriqueVectorielleGenerique implements MetriqueVectorielle {
+
+    private final MetriqueDistance metrique;
+
+    MetriqueVectorielleGenerique(MetriqueDistance metrique) {
+        this.metrique = metrique;
+    }
+
+    @Override
+    public String getEspace() {
+        return "XYRGB";
+    }
+
+    @Override
+    public int getDimension() {
+        return 5;
+    }
+
+    @Override
+    public void extraire(DonneesPixels donnees, int i, float[] sortie, int offset) {
+        sortie[offset] = donnees.getX(i);
+        sortie[offset + 1] = donnees.getY(i);
+        sortie[offset + 2] = donnees.getRouge(i);
+        sortie[offset + 3] = donnees.getVert(i);
+        sortie[offset + 4] = donnees.getBleu(i);
+    }
+
+    @Override
+    public double distanceVecteurs(float[] a, int offsetA, float[] b, int offsetB) {
+        return metrique.calculerDistance(pixel(a[offsetA], a[offsetA + 1], a[offsetA + 2], a[offsetA + 3], a[offsetA + 4]),
+                pixel(b[offsetB], b[offsetB + 1], b[offsetB + 2], b[offsetB + 3], b[offsetB + 4]));
+    }
+
+    @Override
+    public double distanceVecteurCentre(float[] a, int offsetA, double[] centre) {
+        return metrique.calculerDistance(pixel(a[offsetA], a[offsetA + 1], a[offsetA + 2], a[offsetA + 3], a[offsetA + 4]),
+                pixel(centre[0], centre[1], centre[2], centre[3], centre[4]));
+    }
+
+    @Override
+    public double distanceEntreCentres(double[] centre1, double[] centre2) {
+        return metrique.calculerDistance(pixel(centre1[0], centre1[1], centre1[2], centre1[3], centre1[4]),
+                pixel(centre2[0], centre2[1], centre2[2], centre2[3], centre2[4]));
+    }
+
+    private static PixelData pixel(double x, double y, double r, double g, double b) {
+        return new PixelData((int) Math.round(x), (int) Math.round(y), new Color(OutilCouleur.arrondirRGB(r, g, b)), -1);
+    }
+
+    @Override
+    public double calculerDistance(PixelData pixel1, PixelData pixel2) {
+        return metrique.calculerDistance(pixel1, pixel2);
+    }
+
+    @Override
+    public double calculerDistance(DonneesPixels a, int i, DonneesPixels b, int j) {
+        return metrique.calculerDistance(a, i, b, j);
+    }
+
+    @Override
+    public boolean respecteInegaliteTriangulaire() {
+        return metrique.respecteInegaliteTriangulaire();
+    }
+
+    @Override
+    public String getNom() {
+        return metrique.getNom();
+    }
+}
@@ -0,0 +1,54 @@
+package metriques;
+
+/**
+ * Noyaux de calcul de distances par blocs : distances de n points consécutifs d'un tableau
+ * de coordonnées (rangées à la suite, dimension valeurs par point) à un même vecteur requête.
+ * C'est la boucle interne de l'affectation K-Means, des requêtes de voisinage DBSCAN et de la silhouette.
+ *
+ * Une implémentation SIMD (Java Vector API, module jdk.incubator.vector) est utilisée si elle a été
+ * compilée (dossier src-simd) et que la JVM est lancée avec --add-modules jdk.incubator.vector ;
+ * sinon les boucles scalaires prennent le relais. -Dmetriques.simd=false force la version scalaire.
+ *
+ * Dans tous les noyaux, le point du bloc est le premier opérande et la requête le second
+ * (seul CIE94, asymétrique, y est sensible).
+ */
+public interface NoyauxDistances {
+
+    /**
+     * Noyaux retenus au démarrage.
+     */
+    NoyauxDistances INSTANCE = charger();
+
+    /**
+     * Distance euclidienne (ou son carré si racine = false) en dimension quelconque.
+     */
+    void euclidienne(float[] coordonnees, int dimension, int debut, int nombre,
+                     float[] requete, int offsetRequete, float[] sortie, boolean racine);
+
+    /**
+     * Distance redmean sur des coordonnées R, G, B.
+     */
+    void redmean(float[] coordonnees, int debut, int nombre, float[] requete, int offsetRequete, float[] sortie);
+
+    /**
+     * Distance CIE94 sur des coordonnées L, a, b, C.
+     */
+    void cie94(float[] coordonnees, int debut, int nombre, float[] requete, int offsetRequete, float[] sortie);
+
+    /**
+     * Nom de l'implémentation (pour l'affichage).
+     */
+    String getNom();
+
+    private static NoyauxDistances charger() {
+        if (!"false".equals(System.getProperty("metriques.simd"))) {
+            try {
+                return (NoyauxDistances) Class.forName("metriques.NoyauxVectoriels")
+                        .getDeclaredConstructor().newInstance();
+            } catch (ReflectiveOperationException | LinkageError e) {
+                // Classe absente ou module jdk.incubator.vector non chargé : version scalaire
+            }
+        }
+        return new NoyauxScalaires();
+    }
+}
@@ -0,0 +1,80 @@
+package metriques;
+
+/**
+ * Version scalaire des noyaux de distances (toujours disponible).
+ * Les boucles sont simples et sans appel virtuel, le JIT peut les dérouler.
+ * Les méthodes statiques écrivent à partir de sortie[offsetSortie] : elles servent aussi
+ * à traiter la fin des blocs dans la version vectorielle.
+ */
+final class NoyauxScalaires implements NoyauxDistances {
+
+    @Override
+    public void euclidienne(float[] coordonnees, int dimension, int debut, int nombre,
+                            float[] requete, int offsetRequete, float[] sortie, boolean racine) {
+        euclidienne(coordonnees, dimension, debut, nombre, requete, offsetRequete, sortie, 0, racine);
+    }
+
+    @Override
+    public void redmean(float[] coordonnees, int debut, int nombre, float[] requete, int offsetRequete, float[] sortie) {
+        redmean(coordonnees, debut, nombre, requete, offsetRequete, sortie, 0);
+    }
+
+    @Override
+    public void cie94(float[] coordonnees, int debut, int nombre, float[] requete, int offsetRequete, float[] sortie) {
+        cie94(coordonnees, debut, nombre, requete, offsetRequete, sortie, 0);
+    }
+
+    @Override
+    public String getNom() {
+        return "scalaire";
+    }
+
+    static void euclidienne(float[] coordonnees, int dimension, int debut, int nombre,
+                            float[] requete, int offsetRequete, float[] sortie, int offsetSortie, boolean racine) {
+        for (int k = 0; k < nombre; k++) {
+            int base = (debut + k) * dimension;
+            float somme = 0;
+            for (int d = 0; d < dimension; d++) {
+                float ecart = coordonnees[base + d] - requete[offsetRequete + d];
+                somme += ecart * ecart;
+            }
+            sortie[offsetSortie + k] = racine ? (float) Math.sqrt(somme) : somme;
+        }
+    }
+
+    static void redmean(float[] coordonnees, int debut, int nombre,
+                        float[] requete, int offsetRequete, float[] sortie, int offsetSortie) {
+        float r2 = requete[offsetRequete], g2 = requete[offsetRequete + 1], b2 = requete[offsetRequete + 2];
+        for (int k = 0; k < nombre; k++) {
+            int base = (debut + k) * 3;
+            float r1 = coordonnees[base];
+            float deltaR = r1 - r2;
+            float deltaG = coordonnees[base + 1] - g2;
+            float deltaB = coordonnees[base + 2] - b2;
+            float rBar = (r1 + r2) * 0.5f;
+            float poidsR = 2 + rBar / 256f;
+            float poidsB = 2 + (255 - rBar) / 256f;
+            sortie[offsetSortie + k] = (float) Math.sqrt(
+                    poidsR * deltaR * deltaR + 4 * deltaG * deltaG + poidsB * deltaB * deltaB);
+        }
+    }
+
+    static void cie94(float[] coordonnees, int debut, int nombre,
+                      float[] requete, int offsetRequete, float[] sortie, int offsetSortie) {
+        float L2 = requete[offsetRequete], a2 = requete[offsetRequete + 1];
+        float b2 = requete[offsetRequete + 2], C2 = requete[offsetRequete + 3];
+        for (int k = 0; k < nombre; k++) {
+            int base = (debut + k) * 4;
+            float C1 = coordonnees[base + 3];
+            float deltaL = coordonnees[base] - L2;
+            float deltaA = coordonnees[base + 1] - a2;
+            float deltaB = coordonnees[base + 2] - b2;
+            float deltaC = C1 - C2;
+            float deltaH2 = Math.max(0, deltaA * deltaA + deltaB * deltaB - deltaC * deltaC);
+            float SC = 1 + 0.045f * C1;
+            float SH = 1 + 0.015f * C1;
+            float terme2 = deltaC / SC;
+            sortie[offsetSortie + k] = (float) Math.sqrt(deltaL * deltaL + terme2 * terme2 + deltaH2 / (SH * SH));
+        }
+    }
+}
@@ -1,14 +1,16 @@
 package metriques.couleur;
 
-import metriques.MetriqueDistance;
+import metriques.MetriqueVectorielle;
+import outils.DonneesPixels;
 import outils.PixelData;
 import normeCouleurs.NormeCouleurs;
 
 /**
  * Adaptateur qui permet d'utiliser les normes de couleurs existantes
  * comme métriques pour les PixelData.
+ * Les coordonnées vectorielles sont celles de l'espace de la norme (RGB, Lab...).
  */
-public class MetriqueCouleur implements MetriqueDistance {
+public class MetriqueCouleur implements MetriqueVectorielle {
     private final NormeCouleurs normeCouleur;
 
     public MetriqueCouleur(NormeCouleurs normeCouleur) {
@@ -20,8 +22,75 @@ public class MetriqueCouleur implements MetriqueDistance {
         return normeCouleur.distanceCouleur(pixel1.getCouleur(), pixel2.getCouleur());
     }
 
+    @Override
+    public double calculerDistance(DonneesPixels a, int i, DonneesPixels b, int j) {
+        // Coordonnées précalculées si disponibles, sinon conversion à la volée
+        if (estPrepare(a) && estPrepare(b)) {
+            int dimension = normeCouleur.getDimension();
+            return normeCouleur.distanceVecteurs(a.getCaracteristiques(), i * dimension,
+                    b.getCaracteristiques(), j * dimension);
+        }
+        return normeCouleur.distanceRGB(a.getRGB(i), b.getRGB(j));
+    }
+
+    @Override
+    public String getEspace() {
+        return normeCouleur.getEspace();
+    }
+
+    @Override
+    public int getDimension() {
+        return normeCouleur.getDimension();
+    }
+
+    @Override
+    public void extraire(DonneesPixels donnees, int i, float[] sortie, int offset) {
+        normeCouleur.versEspace(donnees.getRGB(i), sortie, offset);
+    }
+
+    @Override
+    public double distanceVecteurs(float[] a, int offsetA, float[] b, int offsetB) {
+        return normeCouleur.distanceVecteurs(a, offsetA, b, offsetB);
+    }
+
+    @Override
+    public void distancesBloc(float[] coordonnees, int debut, int nombre,
+                              float[] requete, int offsetRequete, float[] sortie) {
+        normeCouleur.distancesBloc(coordonnees, debut, nombre, requete, offsetRequete, sortie);
+    }
+
+    @Override
+    public double distanceVecteurCentre(float[] a, int offsetA, double[] centre) {
+        return normeCouleur.distanceVecteurCentre(a, offsetA, centre);
+    }
+
+    @Override
+    public double distanceEntreCentres(double[] centre1, double[] centre2) {
+        return normeCouleur.distanceEntreCentres(centre1, centre2);
+    }
+
+    @Override
+    public double rayonEuclidien(double distance) {
+        return normeCouleur.rayonEuclidien(distance);
+    }
+
+    @Override
+    public double facteurEuclidien(float[] a, int offset) {
+        return normeCouleur.facteurEuclidien(a, offset);
+    }
+
+    @Override
+    public void normaliserCentre(double[] centre) {
+        normeCouleur.normaliserCentre(centre);
+    }
+
+    @Override
+    public boolean respecteInegaliteTriangulaire() {
+        return normeCouleur.respecteInegaliteTriangulaire();
+    }
+
     @Override
     public String getNom() {
         return normeCouleur.getNom() + " - RGB";
     }
-}
\ No newline at end of file
+}
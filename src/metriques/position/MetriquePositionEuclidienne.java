@@ -1,12 +1,14 @@
 package metriques.position;
 
-import metriques.MetriqueDistance;
+import metriques.MetriqueVectorielle;
+import metriques.NoyauxDistances;
+import outils.DonneesPixels;
 import outils.PixelData;
 
 /**
  * Métrique de distance euclidienne pour les positions de pixels.
  */
-public class MetriquePositionEuclidienne implements MetriqueDistance {
+public class MetriquePositionEuclidienne implements MetriqueVectorielle {
 
     @Override
     public double calculerDistance(PixelData pixel1, PixelData pixel2) {
@@ -15,8 +17,68 @@ public class MetriquePositionEuclidienne implements MetriqueDistance {
         return Math.sqrt(dx * dx + dy * dy);
     }
 
+    @Override
+    public double calculerDistance(DonneesPixels a, int i, DonneesPixels b, int j) {
+        double dx = a.getX(i) - b.getX(j);
+        double dy = a.getY(i) - b.getY(j);
+        return Math.sqrt(dx * dx + dy * dy);
+    }
+
+    @Override
+    public String getEspace() {
+        return "XY";
+    }
+
+    @Override
+    public int getDimension() {
+        return 2;
+    }
+
+    @Override
+    public void extraire(DonneesPixels donnees, int i, float[] sortie, int offset) {
+        sortie[offset] = donnees.getX(i);
+        sortie[offset + 1] = donnees.getY(i);
+    }
+
+    @Override
+    public double distanceVecteurs(float[] a, int offsetA, float[] b, int offsetB) {
+        double dx = a[offsetA] - b[offsetB];
+        double dy = a[offsetA + 1] - b[offsetB + 1];
+        return Math.sqrt(dx * dx + dy * dy);
+    }
+
+    @Override
+    public void distancesBloc(float[] coordonnees, int debut, int nombre,
+                              float[] requete, int offsetRequete, float[] sortie) {
+        NoyauxDistances.INSTANCE.euclidienne(coordonnees, 2, debut, nombre, requete, offsetRequete, sortie, true);
+    }
+
+    @Override
+    public double distanceVecteurCentre(float[] a, int offsetA, double[] centre) {
+        double dx = a[offsetA] - centre[0];
+        double dy = a[offsetA + 1] - centre[1];
+        return Math.sqrt(dx * dx + dy * dy);
+    }
+
+    @Override
+    public double distanceEntreCentres(double[] centre1, double[] centre2) {
+        double dx = centre1[0] - centre2[0];
+        double dy = centre1[1] - centre2[1];
+        return Math.sqrt(dx * dx + dy * dy);
+    }
+
+    @Override
+    public double rayonEuclidien(double distance) {
+        return distance;
+    }
+
+    @Override
+    public boolean respecteInegaliteTriangulaire() {
+        return true;
+    }
+
     @Override
     public String getNom() {
         return "Distance Euclidienne - Position";
     }
-}
\ No newline at end of file
+}
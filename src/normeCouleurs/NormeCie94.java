@@ -1,5 +1,6 @@
 package normeCouleurs;
 
+import metriques.NoyauxDistances;
 import outils.OutilCouleur;
 
 import java.awt.*;
@@ -10,6 +11,9 @@ import java.awt.*;
  */
 public class NormeCie94 implements NormeCouleurs {
 
+    // Tampon de conversion par thread (les deux couleurs à la suite)
+    private static final ThreadLocal<float[]> TAMPON_LAB = ThreadLocal.withInitial(() -> new float[6]);
+
     /**
      * Calcule la distance entre deux couleurs selon la norme CIE94.
      * Formule: ΔE*94 = √((ΔL/1)² + (ΔC/SC)² + (ΔH/SH)²)
@@ -20,25 +24,96 @@ public class NormeCie94 implements NormeCouleurs {
      */
     @Override
     public double distanceCouleur(Color c1, Color c2) {
-        // Conversion RGB vers LAB
-        int[] lab1 = OutilCouleur.rgb2lab(c1.getRed(), c1.getGreen(), c1.getBlue());
-        int[] lab2 = OutilCouleur.rgb2lab(c2.getRed(), c2.getGreen(), c2.getBlue());
+        return distanceRGB(c1.getRGB(), c2.getRGB());
+    }
+
+    @Override
+    public double distanceRGB(int rgb1, int rgb2) {
+        // Conversion RGB vers LAB (sans allocation)
+        float[] lab = TAMPON_LAB.get();
+        OutilCouleur.rgb2lab(rgb1, lab, 0);
+        OutilCouleur.rgb2lab(rgb2, lab, 3);
+
+        return distanceLab(lab[0], lab[1], lab[2], lab[3], lab[4], lab[5]);
+    }
+
+    /**
+     * Coordonnées L, a, b et chroma C = √(a² + b²) : le chroma n'est calculé qu'une fois par couleur.
+     */
+    @Override
+    public String getEspace() {
+        return "LabC";
+    }
+
+    @Override
+    public int getDimension() {
+        return 4;
+    }
+
+    @Override
+    public void versEspace(int rgb, float[] sortie, int offset) {
+        OutilCouleur.rgb2lab(rgb, sortie, offset);
+        float a = sortie[offset + 1];
+        float b = sortie[offset + 2];
+        sortie[offset + 3] = (float) Math.sqrt(a * a + b * b);
+    }
+
+    @Override
+    public double distanceVecteurs(float[] a, int offsetA, float[] b, int offsetB) {
+        return distanceLabC(a[offsetA], a[offsetA + 1], a[offsetA + 2], a[offsetA + 3],
+                b[offsetB], b[offsetB + 1], b[offsetB + 2], b[offsetB + 3]);
+    }
+
+    @Override
+    public void distancesBloc(float[] coordonnees, int debut, int nombre,
+                              float[] requete, int offsetRequete, float[] sortie) {
+        NoyauxDistances.INSTANCE.cie94(coordonnees, debut, nombre, requete, offsetRequete, sortie);
+    }
+
+    @Override
+    public double distanceVecteurCentre(float[] a, int offsetA, double[] centre) {
+        return distanceLabC(a[offsetA], a[offsetA + 1], a[offsetA + 2], a[offsetA + 3],
+                centre[0], centre[1], centre[2], centre[3]);
+    }
+
+    @Override
+    public double distanceEntreCentres(double[] centre1, double[] centre2) {
+        return distanceLabC(centre1[0], centre1[1], centre1[2], centre1[3],
+                centre2[0], centre2[1], centre2[2], centre2[3]);
+    }
+
+    /**
+     * La moyenne des chromas n'est pas le chroma de la moyenne : on le recalcule depuis a et b.
+     */
+    @Override
+    public void normaliserCentre(double[] centre) {
+        centre[3] = Math.sqrt(centre[1] * centre[1] + centre[2] * centre[2]);
+    }
 
-        // Extraction des composantes L*a*b*
-        double L1 = lab1[0];
-        double a1 = lab1[1];
-        double b1 = lab1[2];
+    /**
+     * Avec ΔH² = Δa² + Δb² − ΔC², la distance euclidienne entre coordonnées (L, a, b, C) vérifie
+     * ‖Δ‖² = ΔL² + 2ΔC² + ΔH², et SC >= SH >= 1 : ‖Δ‖ <= √2 · SC · ΔE*94, où SC ne dépend que
+     * du chroma du premier opérande.
+     */
+    @Override
+    public double facteurEuclidien(float[] a, int offset) {
+        return Math.sqrt(2) * (1 + 0.045 * a[offset + 3]);
+    }
 
-        double L2 = lab2[0];
-        double a2 = lab2[1];
-        double b2 = lab2[2];
+    /**
+     * Calcule la distance CIE94 entre deux couleurs déjà converties en L*a*b*.
+     */
+    public double distanceLab(double L1, double a1, double b1, double L2, double a2, double b2) {
+        return distanceLabC(L1, a1, b1, Math.sqrt(a1 * a1 + b1 * b1), L2, a2, b2, Math.sqrt(a2 * a2 + b2 * b2));
+    }
 
+    /**
+     * Distance CIE94 avec les chromas C1 et C2 déjà calculés.
+     */
+    private static double distanceLabC(double L1, double a1, double b1, double C1,
+                                       double L2, double a2, double b2, double C2) {
         // Calcul des différences
         double deltaL = L1 - L2;
-
-        // Calcul des chromas
-        double C1 = Math.sqrt(a1 * a1 + b1 * b1);
-        double C2 = Math.sqrt(a2 * a2 + b2 * b2);
         double deltaC = C1 - C2;
 
         // Calcul de deltaH
@@ -1,5 +1,6 @@
 package normeCouleurs;
 
+import metriques.NoyauxDistances;
 import outils.OutilCouleur;
 
 import java.awt.*;
@@ -10,6 +11,9 @@ import java.awt.*;
  */
 public class NormeCielab implements NormeCouleurs {
 
+    // Tampon de conversion par thread (les deux couleurs à la suite)
+    private static final ThreadLocal<float[]> TAMPON_LAB = ThreadLocal.withInitial(() -> new float[6]);
+
     /**
      * Calcule la distance entre deux couleurs dans l'espace CIELAB.
      * formule donné : ΔE*ab = √((L*2-L*1)² + (a*2-a*1)² + (b*2-b*1)²)
@@ -20,21 +24,81 @@ public class NormeCielab implements NormeCouleurs {
      */
     @Override
     public double distanceCouleur(Color c1, Color c2) {
-        // Conversion RGB vers LAB pour la première couleur
-        int[] lab1 = OutilCouleur.rgb2lab(c1.getRed(), c1.getGreen(), c1.getBlue());
+        return distanceRGB(c1.getRGB(), c2.getRGB());
+    }
 
-        // Conversion RGB vers LAB pour la deuxième couleur
-        int[] lab2 = OutilCouleur.rgb2lab(c2.getRed(), c2.getGreen(), c2.getBlue());
+    @Override
+    public double distanceRGB(int rgb1, int rgb2) {
+        // Conversion RGB vers LAB des deux couleurs (sans allocation)
+        float[] lab = TAMPON_LAB.get();
+        OutilCouleur.rgb2lab(rgb1, lab, 0);
+        OutilCouleur.rgb2lab(rgb2, lab, 3);
+        return distanceLab(lab);
+    }
 
+    /**
+     * Distance entre les deux couleurs Lab rangées à la suite dans le tampon.
+     */
+    private static double distanceLab(float[] lab) {
         // Calcul des différences
-        int deltaL = lab1[0] - lab2[0];
-        int deltaA = lab1[1] - lab2[1];
-        int deltaB = lab1[2] - lab2[2];
+        float deltaL = lab[0] - lab[3];
+        float deltaA = lab[1] - lab[4];
+        float deltaB = lab[2] - lab[5];
 
         // Distance euclidienne dans l'espace LAB
         return Math.sqrt(deltaL * deltaL + deltaA * deltaA + deltaB * deltaB);
     }
 
+    @Override
+    public String getEspace() {
+        return "Lab";
+    }
+
+    @Override
+    public void versEspace(int rgb, float[] sortie, int offset) {
+        OutilCouleur.rgb2lab(rgb, sortie, offset);
+    }
+
+    @Override
+    public double distanceVecteurs(float[] a, int offsetA, float[] b, int offsetB) {
+        float deltaL = a[offsetA] - b[offsetB];
+        float deltaA = a[offsetA + 1] - b[offsetB + 1];
+        float deltaB = a[offsetA + 2] - b[offsetB + 2];
+        return Math.sqrt(deltaL * deltaL + deltaA * deltaA + deltaB * deltaB);
+    }
+
+    @Override
+    public void distancesBloc(float[] coordonnees, int debut, int nombre,
+                              float[] requete, int offsetRequete, float[] sortie) {
+        NoyauxDistances.INSTANCE.euclidienne(coordonnees, 3, debut, nombre, requete, offsetRequete, sortie, true);
+    }
+
+    @Override
+    public double distanceVecteurCentre(float[] a, int offsetA, double[] centre) {
+        double deltaL = a[offsetA] - centre[0];
+        double deltaA = a[offsetA + 1] - centre[1];
+        double deltaB = a[offsetA + 2] - centre[2];
+        return Math.sqrt(deltaL * deltaL + deltaA * deltaA + deltaB * deltaB);
+    }
+
+    @Override
+    public double distanceEntreCentres(double[] centre1, double[] centre2) {
+        double deltaL = centre1[0] - centre2[0];
+        double deltaA = centre1[1] - centre2[1];
+        double deltaB = centre1[2] - centre2[2];
+        return Math.sqrt(deltaL * deltaL + deltaA * deltaA + deltaB * deltaB);
+    }
+
+    @Override
+    public double rayonEuclidien(double distance) {
+        return distance;
+    }
+
+    @Override
+    public boolean respecteInegaliteTriangulaire() {
+        return true; // distance euclidienne dans l'espace Lab
+    }
+
     @Override
     public String getNom() {
         return "CIELAB";
@@ -1,5 +1,7 @@
 package normeCouleurs;
 
+import outils.OutilCouleur;
+
 import java.awt.*;
 
 public interface NormeCouleurs {
@@ -12,6 +14,113 @@ public interface NormeCouleurs {
      */
     double distanceCouleur(Color c1, Color c2);
 
+    /**
+     * Calcule la distance entre deux couleurs compactées (0xRRGGBB) sans créer d'objet Color.
+     *
+     * @param rgb1 Première couleur
+     * @param rgb2 Deuxième couleur
+     * @return une valeur représentant la distance entre les deux couleurs
+     */
+    default double distanceRGB(int rgb1, int rgb2) {
+        return distanceCouleur(new Color(rgb1), new Color(rgb2));
+    }
+
+    /**
+     * Nom de l'espace dans lequel la norme calcule ses distances (voir MetriqueVectorielle).
+     * Par défaut les coordonnées sont les composantes R, G, B.
+     *
+     * @return Identifiant de l'espace
+     */
+    default String getEspace() {
+        return "RGB";
+    }
+
+    /**
+     * Nombre de coordonnées d'une couleur dans l'espace de la norme.
+     */
+    default int getDimension() {
+        return 3;
+    }
+
+    /**
+     * Convertit une couleur (0xRRGGBB) dans l'espace de la norme, une seule fois par pixel.
+     *
+     * @param rgb    Couleur à convertir
+     * @param sortie Tampon de sortie
+     * @param offset Position d'écriture dans le tampon
+     */
+    default void versEspace(int rgb, float[] sortie, int offset) {
+        sortie[offset] = (rgb >> 16) & 0xFF;
+        sortie[offset + 1] = (rgb >> 8) & 0xFF;
+        sortie[offset + 2] = rgb & 0xFF;
+    }
+
+    /**
+     * Distance entre deux couleurs déjà converties (versEspace).
+     */
+    default double distanceVecteurs(float[] a, int offsetA, float[] b, int offsetB) {
+        return distanceRGB(OutilCouleur.arrondirRGB(a[offsetA], a[offsetA + 1], a[offsetA + 2]),
+                OutilCouleur.arrondirRGB(b[offsetB], b[offsetB + 1], b[offsetB + 2]));
+    }
+
+    /**
+     * Distances de n couleurs converties consécutives à une même couleur requête (voir MetriqueVectorielle).
+     */
+    default void distancesBloc(float[] coordonnees, int debut, int nombre,
+                               float[] requete, int offsetRequete, float[] sortie) {
+        int dimension = getDimension();
+        for (int k = 0; k < nombre; k++) {
+            sortie[k] = (float) distanceVecteurs(coordonnees, (debut + k) * dimension, requete, offsetRequete);
+        }
+    }
+
+    /**
+     * Distance entre une couleur convertie et un centre (moyenne de couleurs converties).
+     * Par défaut le centre est arrondi à la couleur entière la plus proche.
+     */
+    default double distanceVecteurCentre(float[] a, int offsetA, double[] centre) {
+        return distanceRGB(OutilCouleur.arrondirRGB(a[offsetA], a[offsetA + 1], a[offsetA + 2]),
+                OutilCouleur.arrondirRGB(centre[0], centre[1], centre[2]));
+    }
+
+    /**
+     * Distance entre deux centres.
+     */
+    default double distanceEntreCentres(double[] centre1, double[] centre2) {
+        return distanceRGB(OutilCouleur.arrondirRGB(centre1[0], centre1[1], centre1[2]),
+                OutilCouleur.arrondirRGB(centre2[0], centre2[1], centre2[2]));
+    }
+
+    /**
+     * Rayon euclidien (dans l'espace de la norme) équivalent à une distance,
+     * ou -1 si la norme n'est pas une fonction de la distance euclidienne (voir MetriqueVectorielle).
+     */
+    default double rayonEuclidien(double distance) {
+        return -1;
+    }
+
+    /**
+     * Facteur f tel que ‖a − b‖ <= f · distance(a, b) pour toute couleur b (coordonnées dans l'espace
+     * de la norme), ou -1 si aucun n'est connu (voir MetriqueVectorielle).
+     */
+    default double facteurEuclidien(float[] a, int offset) {
+        return -1;
+    }
+
+    /**
+     * Rend cohérent un centre obtenu par moyenne de coordonnées (rien à faire par défaut).
+     */
+    default void normaliserCentre(double[] centre) {
+    }
+
+    /**
+     * Indique si la norme est une vraie distance au sens de l'inégalité triangulaire.
+     *
+     * @return true si d(c1,c3) <= d(c1,c2) + d(c2,c3) pour toutes couleurs
+     */
+    default boolean respecteInegaliteTriangulaire() {
+        return false;
+    }
 
     /**
      * Retourne le nom de la norme.
@@ -1,5 +1,7 @@
 package normeCouleurs;
 
+import metriques.NoyauxDistances;
+
 import java.awt.*;
 
 /**
@@ -19,12 +21,55 @@ public class NormeEuclidienne implements NormeCouleurs {
      */
     @Override
     public double distanceCouleur(Color c1, Color c2) {
-        int dR = c1.getRed() - c2.getRed();
-        int dG = c1.getGreen() - c2.getGreen();
-        int dB = c1.getBlue() - c2.getBlue();
+        return distanceRGB(c1.getRGB(), c2.getRGB());
+    }
+
+    @Override
+    public double distanceRGB(int rgb1, int rgb2) {
+        int dR = ((rgb1 >> 16) & 0xFF) - ((rgb2 >> 16) & 0xFF);
+        int dG = ((rgb1 >> 8) & 0xFF) - ((rgb2 >> 8) & 0xFF);
+        int dB = (rgb1 & 0xFF) - (rgb2 & 0xFF);
+        return dR * dR + dG * dG + dB * dB;
+    }
+
+    @Override
+    public double distanceVecteurs(float[] a, int offsetA, float[] b, int offsetB) {
+        float dR = a[offsetA] - b[offsetB];
+        float dG = a[offsetA + 1] - b[offsetB + 1];
+        float dB = a[offsetA + 2] - b[offsetB + 2];
+        return dR * dR + dG * dG + dB * dB;
+    }
+
+    @Override
+    public void distancesBloc(float[] coordonnees, int debut, int nombre,
+                              float[] requete, int offsetRequete, float[] sortie) {
+        NoyauxDistances.INSTANCE.euclidienne(coordonnees, 3, debut, nombre, requete, offsetRequete, sortie, false);
+    }
+
+    @Override
+    public double distanceVecteurCentre(float[] a, int offsetA, double[] centre) {
+        double dR = a[offsetA] - centre[0];
+        double dG = a[offsetA + 1] - centre[1];
+        double dB = a[offsetA + 2] - centre[2];
+        return dR * dR + dG * dG + dB * dB;
+    }
+
+    @Override
+    public double distanceEntreCentres(double[] centre1, double[] centre2) {
+        double dR = centre1[0] - centre2[0];
+        double dG = centre1[1] - centre2[1];
+        double dB = centre1[2] - centre2[2];
         return dR * dR + dG * dG + dB * dB;
     }
 
+    /**
+     * La distance est le carré de la distance euclidienne.
+     */
+    @Override
+    public double rayonEuclidien(double distance) {
+        return distance < 0 ? -1 : Math.sqrt(distance);
+    }
+
     @Override
     public String getNom() {
         return "Euclidienne";
@@ -1,5 +1,7 @@
 package normeCouleurs;
 
+import metriques.NoyauxDistances;
+
 import java.awt.*;
 
 /**
@@ -9,6 +11,8 @@ import java.awt.*;
  */
 public class NormeRedmean implements NormeCouleurs {
 
+    private static final double FACTEUR_EUCLIDIEN = Math.sqrt(0.5);
+
     /**
      * Calcule la distance entre deux couleurs selon la méthode "redmean".
      * Formule: ΔC = √((2 + r̄/256)ΔR² + 4ΔG² + (2 + (255-r̄)/256)ΔB²)
@@ -20,13 +24,18 @@ public class NormeRedmean implements NormeCouleurs {
      */
     @Override
     public double distanceCouleur(Color c1, Color c2) {
-        int r1 = c1.getRed();
-        int g1 = c1.getGreen();
-        int b1 = c1.getBlue();
+        return distanceRGB(c1.getRGB(), c2.getRGB());
+    }
+
+    @Override
+    public double distanceRGB(int rgb1, int rgb2) {
+        int r1 = (rgb1 >> 16) & 0xFF;
+        int g1 = (rgb1 >> 8) & 0xFF;
+        int b1 = rgb1 & 0xFF;
 
-        int r2 = c2.getRed();
-        int g2 = c2.getGreen();
-        int b2 = c2.getBlue();
+        int r2 = (rgb2 >> 16) & 0xFF;
+        int g2 = (rgb2 >> 8) & 0xFF;
+        int b2 = rgb2 & 0xFF;
 
         // Calcul de la moyenne des rouges
         double rBar = (r1 + r2) / 2.0;
@@ -44,6 +53,49 @@ public class NormeRedmean implements NormeCouleurs {
         return Math.sqrt(weightR * deltaR * deltaR + 4 * deltaG * deltaG + weightB * deltaB * deltaB);
     }
 
+    @Override
+    public double distanceVecteurs(float[] a, int offsetA, float[] b, int offsetB) {
+        return redmean(a[offsetA], a[offsetA + 1], a[offsetA + 2], b[offsetB], b[offsetB + 1], b[offsetB + 2]);
+    }
+
+    @Override
+    public void distancesBloc(float[] coordonnees, int debut, int nombre,
+                              float[] requete, int offsetRequete, float[] sortie) {
+        NoyauxDistances.INSTANCE.redmean(coordonnees, debut, nombre, requete, offsetRequete, sortie);
+    }
+
+    @Override
+    public double distanceVecteurCentre(float[] a, int offsetA, double[] centre) {
+        return redmean(a[offsetA], a[offsetA + 1], a[offsetA + 2], centre[0], centre[1], centre[2]);
+    }
+
+    @Override
+    public double distanceEntreCentres(double[] centre1, double[] centre2) {
+        return redmean(centre1[0], centre1[1], centre1[2], centre2[0], centre2[1], centre2[2]);
+    }
+
+    /**
+     * Les poids de ΔR² et ΔB² valent au moins 2 (r̄ entre 0 et 255), celui de ΔG² vaut 4 :
+     * ΔC² >= 2 · (ΔR² + ΔG² + ΔB²).
+     */
+    @Override
+    public double facteurEuclidien(float[] a, int offset) {
+        return FACTEUR_EUCLIDIEN;
+    }
+
+    /**
+     * Formule redmean sur des composantes réelles.
+     */
+    private static double redmean(double r1, double g1, double b1, double r2, double g2, double b2) {
+        double rBar = (r1 + r2) / 2.0;
+        double deltaR = r1 - r2;
+        double deltaG = g1 - g2;
+        double deltaB = b1 - b2;
+        double weightR = 2 + (rBar / 256.0);
+        double weightB = 2 + ((255 - rBar) / 256.0);
+        return Math.sqrt(weightR * deltaR * deltaR + 4 * deltaG * deltaG + weightB * deltaB * deltaB);
+    }
+
     @Override
     public String getNom() {
         return "Redmean";
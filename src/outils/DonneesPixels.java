@@ -0,0 +1,224 @@
+package outils;
+
+import java.awt.Color;
+import java.awt.image.BufferedImage;
+
+/**
+ * Jeu de pixels stocké "en colonnes" (un tableau primitif par attribut).
+ * Remplace les tableaux de PixelData dans les algorithmes : aucun objet n'est créé par pixel,
+ * ce qui évite des millions d'allocations (et le ramasse-miettes) sur les grandes images.
+ * PixelData reste disponible comme simple vue de compatibilité (voir getPixel).
+ */
+public class DonneesPixels {
+
+    private final int[] x;
+    private final int[] y;
+    private final int[] rgb;   // couleur compactée 0xRRGGBB
+    private final int[] index; // Index dans l'image originale
+
+    // Colonnes de caractéristiques optionnelles (dimension valeurs par pixel, à la suite)
+    private float[] caracteristiques;
+    private int dimension;
+    private String espaceCaracteristiques; // espace de ces valeurs (ex: "Lab"), null si inconnu
+
+    // Poids optionnel de chaque point (ex: nombre de pixels d'une couleur unique), null = 1 partout
+    private int[] poids;
+
+    public DonneesPixels(int[] x, int[] y, int[] rgb, int[] index) {
+        if (x.length != y.length || x.length != rgb.length || x.length != index.length) {
+            throw new IllegalArgumentException("Les colonnes doivent avoir la même taille");
+        }
+        this.x = x;
+        this.y = y;
+        this.rgb = rgb;
+        this.index = index;
+    }
+
+    /**
+     * Extrait tous les pixels d'une image, ligne par ligne.
+     */
+    public static DonneesPixels depuisImage(BufferedImage image) {
+        int largeur = image.getWidth();
+        int hauteur = image.getHeight();
+        int n = largeur * hauteur;
+
+        int[] x = new int[n];
+        int[] y = new int[n];
+        int[] index = new int[n];
+        int[] rgb = image.getRGB(0, 0, largeur, hauteur, null, 0, largeur); // lecture en bloc
+
+        int i = 0;
+        for (int py = 0; py < hauteur; py++) {
+            for (int px = 0; px < largeur; px++) {
+                x[i] = px;
+                y[i] = py;
+                rgb[i] &= 0xFFFFFF; // on retire l'alpha
+                index[i] = i;
+                i++;
+            }
+        }
+        return new DonneesPixels(x, y, rgb, index);
+    }
+
+    /**
+     * Construit le jeu de données à partir d'un tableau de PixelData (compatibilité).
+     */
+    public static DonneesPixels depuisPixels(PixelData[] pixels) {
+        int n = pixels.length;
+        int[] x = new int[n];
+        int[] y = new int[n];
+        int[] rgb = new int[n];
+        int[] index = new int[n];
+
+        for (int i = 0; i < n; i++) {
+            x[i] = pixels[i].getX();
+            y[i] = pixels[i].getY();
+            rgb[i] = pixels[i].getCouleur().getRGB() & 0xFFFFFF;
+            index[i] = pixels[i].getIndex();
+        }
+        return new DonneesPixels(x, y, rgb, index);
+    }
+
+    /**
+     * Retourne un nouveau jeu contenant uniquement les pixels demandés (dans l'ordre donné).
+     * Les caractéristiques et poids éventuels sont recopiés.
+     */
+    public DonneesPixels sousEnsemble(int[] indices) {
+        int n = indices.length;
+        int[] sx = new int[n];
+        int[] sy = new int[n];
+        int[] srgb = new int[n];
+        int[] sindex = new int[n];
+
+        for (int i = 0; i < n; i++) {
+            int j = indices[i];
+            sx[i] = x[j];
+            sy[i] = y[j];
+            srgb[i] = rgb[j];
+            sindex[i] = index[j];
+        }
+
+        DonneesPixels sous = new DonneesPixels(sx, sy, srgb, sindex);
+        if (caracteristiques != null) {
+            float[] sc = new float[n * dimension];
+            for (int i = 0; i < n; i++) {
+                System.arraycopy(caracteristiques, indices[i] * dimension, sc, i * dimension, dimension);
+            }
+            sous.setCaracteristiques(sc, dimension, espaceCaracteristiques);
+        }
+        if (poids != null) {
+            int[] sp = new int[n];
+            for (int i = 0; i < n; i++) {
+                sp[i] = poids[indices[i]];
+            }
+            sous.setPoids(sp);
+        }
+        return sous;
+    }
+
+    /**
+     * Met bout à bout plusieurs jeux de pixels (colonnes de base uniquement :
+     * caractéristiques et poids ne sont pas recopiés).
+     */
+    public static DonneesPixels concatener(DonneesPixels... jeux) {
+        int n = 0;
+        for (DonneesPixels jeu : jeux) n += jeu.taille();
+        int[] x = new int[n];
+        int[] y = new int[n];
+        int[] rgb = new int[n];
+        int[] index = new int[n];
+
+        int debut = 0;
+        for (DonneesPixels jeu : jeux) {
+            int m = jeu.taille();
+            System.arraycopy(jeu.x, 0, x, debut, m);
+            System.arraycopy(jeu.y, 0, y, debut, m);
+            System.arraycopy(jeu.rgb, 0, rgb, debut, m);
+            System.arraycopy(jeu.index, 0, index, debut, m);
+            debut += m;
+        }
+        return new DonneesPixels(x, y, rgb, index);
+    }
+
+    public int taille() { return x.length; }
+
+    // Getters par pixel
+    public int getX(int i) { return x[i]; }
+    public int getY(int i) { return y[i]; }
+    public int getRGB(int i) { return rgb[i]; }
+    public int getRouge(int i) { return (rgb[i] >> 16) & 0xFF; }
+    public int getVert(int i) { return (rgb[i] >> 8) & 0xFF; }
+    public int getBleu(int i) { return rgb[i] & 0xFF; }
+    public int getIndex(int i) { return index[i]; }
+
+    // Accès direct aux colonnes pour les boucles critiques (ne pas modifier)
+    public int[] getColonneX() { return x; }
+    public int[] getColonneY() { return y; }
+    public int[] getColonneRGB() { return rgb; }
+    public int[] getColonneIndex() { return index; }
+
+    /**
+     * Attache des caractéristiques flottantes (dimension valeurs consécutives par pixel).
+     */
+    public void setCaracteristiques(float[] caracteristiques, int dimension) {
+        setCaracteristiques(caracteristiques, dimension, null);
+    }
+
+    /**
+     * Attache des caractéristiques calculées dans un espace identifié (voir MetriqueVectorielle) :
+     * une métrique ne les réutilise que si elles sont exprimées dans son propre espace.
+     */
+    public void setCaracteristiques(float[] caracteristiques, int dimension, String espace) {
+        if (caracteristiques.length != taille() * dimension) {
+            throw new IllegalArgumentException("Taille des caractéristiques incohérente");
+        }
+        this.caracteristiques = caracteristiques;
+        this.dimension = dimension;
+        this.espaceCaracteristiques = espace;
+    }
+
+    public float[] getCaracteristiques() { return caracteristiques; }
+    public int getDimension() { return dimension; }
+    public String getEspaceCaracteristiques() { return espaceCaracteristiques; }
+
+    /**
+     * Attache un poids entier à chaque point (null pour revenir à un poids de 1).
+     */
+    public void setPoids(int[] poids) {
+        if (poids != null && poids.length != taille()) {
+            throw new IllegalArgumentException("Taille des poids incohérente");
+        }
+        this.poids = poids;
+    }
+
+    public boolean estPondere() { return poids != null; }
+    public int getPoids(int i) { return poids == null ? 1 : poids[i]; }
+
+    /**
+     * Somme des poids (= nombre de pixels représentés).
+     */
+    public long getPoidsTotal() {
+        if (poids == null) return taille();
+        long total = 0;
+        for (int p : poids) total += p;
+        return total;
+    }
+
+    /**
+     * Vue de compatibilité : crée un PixelData pour le pixel i.
+     */
+    public PixelData getPixel(int i) {
+        return new PixelData(x[i], y[i], new Color(rgb[i]), index[i]);
+    }
+
+    /**
+     * Vue de compatibilité : matérialise tous les pixels (coûteux, à éviter dans les algorithmes).
+     */
+    public PixelData[] versPixels() {
+        PixelData[] pixels = new PixelData[taille()];
+        for (int i = 0; i < pixels.length; i++) {
+            pixels[i] = getPixel(i);
+        }
+        return pixels;
+    }
+}
@@ -0,0 +1,148 @@
+package outils;
+
+import java.io.BufferedOutputStream;
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+
+/**
+ * Écriture incrémentale d'une image sur disque, bande de lignes par bande de lignes, au format PNM binaire
+ * (P6 pour les couleurs, P5 pour les niveaux de gris ou une carte d'étiquettes).
+ * Contrairement à ImageIO, l'image complète n'est jamais en mémoire : seule la bande courante l'est.
+ *
+ * Les tuiles doivent arriver bande par bande (ordre de SourceTuiles) ; dans une bande, l'ordre est libre.
+ * Les pixels jamais écrits valent 0.
+ */
+public final class EcritureBandes implements AutoCloseable {
+
+    private final OutputStream flux;
+    private final int largeur;
+    private final int hauteur;
+    private final int hauteurBande;
+    private final int octetsParPixel;
+    private final boolean couleur;
+    private final int valeurMax;
+
+    private final byte[] bande;
+    private int bandeCourante;
+
+    private EcritureBandes(String chemin, String format, int largeur, int hauteur, int hauteurBande,
+                           int valeurMax, int octetsParPixel) throws IOException {
+        if (largeur <= 0 || hauteur <= 0 || hauteurBande <= 0) {
+            throw new IllegalArgumentException("Dimensions invalides : " + largeur + "x" + hauteur);
+        }
+        this.largeur = largeur;
+        this.hauteur = hauteur;
+        this.hauteurBande = Math.min(hauteurBande, hauteur);
+        this.octetsParPixel = octetsParPixel;
+        this.couleur = format.equals("P6");
+        this.valeurMax = valeurMax;
+        this.bande = new byte[Math.multiplyExact(largeur * octetsParPixel, this.hauteurBande)];
+
+        File fichier = new File(chemin);
+        File dossierParent = fichier.getParentFile();
+        if (dossierParent != null && !dossierParent.exists()) {
+            dossierParent.mkdirs();
+        }
+        this.flux = new BufferedOutputStream(new FileOutputStream(fichier), 1 << 16);
+        String entete = format + "\n" + largeur + " " + hauteur + "\n" + valeurMax + "\n";
+        flux.write(entete.getBytes(StandardCharsets.US_ASCII));
+    }
+
+    /**
+     * Image couleur (P6, 8 bits par canal) : les valeurs écrites sont des couleurs 0xRRGGBB.
+     */
+    public static EcritureBandes couleurs(String chemin, int largeur, int hauteur, int hauteurBande)
+            throws IOException {
+        return new EcritureBandes(chemin, "P6", largeur, hauteur, hauteurBande, 255, 3);
+    }
+
+    /**
+     * Image en niveaux (P5) : les valeurs écrites sont des entiers de 0 à valeurMax
+     * (sur 16 bits au-delà de 255), par exemple des numéros de clusters.
+     */
+    public static EcritureBandes niveaux(String chemin, int largeur, int hauteur, int hauteurBande, int valeurMax)
+            throws IOException {
+        if (valeurMax < 1 || valeurMax > 65535) {
+            throw new IllegalArgumentException("valeurMax doit être entre 1 et 65535 : " + valeurMax);
+        }
+        return new EcritureBandes(chemin, "P5", largeur, hauteur, hauteurBande, valeurMax, valeurMax > 255 ? 2 : 1);
+    }
+
+    public int getLargeur() { return largeur; }
+
+    public int getHauteur() { return hauteur; }
+
+    /**
+     * Écrit une région rectangulaire (valeurs ligne par ligne). La région doit tenir dans une seule bande ;
+     * les bandes précédentes, terminées, sont alors vidées sur le disque.
+     */
+    public void ecrireRegion(int x0, int y0, int largeurRegion, int hauteurRegion, int[] valeurs) throws IOException {
+        if (x0 < 0 || y0 < 0 || x0 + largeurRegion > largeur || y0 + hauteurRegion > hauteur) {
+            throw new IllegalArgumentException("Région hors de l'image : (" + x0 + ", " + y0 + ") "
+                    + largeurRegion + "x" + hauteurRegion);
+        }
+        int numeroBande = y0 / hauteurBande;
+        if ((y0 + hauteurRegion - 1) / hauteurBande != numeroBande) {
+            throw new IllegalArgumentException("La région chevauche deux bandes de " + hauteurBande + " lignes");
+        }
+        if (numeroBande < bandeCourante) {
+            throw new IllegalStateException("La bande " + numeroBande + " a déjà été écrite");
+        }
+        while (bandeCourante < numeroBande) {
+            viderBande();
+        }
+
+        int debutBande = bandeCourante * hauteurBande;
+        for (int ligne = 0; ligne < hauteurRegion; ligne++) {
+            int decalage = ((y0 + ligne - debutBande) * largeur + x0) * octetsParPixel;
+            int source = ligne * largeurRegion;
+            for (int colonne = 0; colonne < largeurRegion; colonne++, decalage += octetsParPixel) {
+                int valeur = valeurs[source + colonne];
+                if (couleur) {
+                    bande[decalage] = (byte) (valeur >> 16);
+                    bande[decalage + 1] = (byte) (valeur >> 8);
+                    bande[decalage + 2] = (byte) valeur;
+                } else {
+                    if (valeur < 0 || valeur > valeurMax) {
+                        throw new IllegalArgumentException("Valeur hors de [0, " + valeurMax + "] : " + valeur);
+                    }
+                    if (octetsParPixel == 2) {
+                        bande[decalage] = (byte) (valeur >> 8); // PNM 16 bits : poids fort d'abord
+                        bande[decalage + 1] = (byte) valeur;
+                    } else {
+                        bande[decalage] = (byte) valeur;
+                    }
+                }
+            }
+        }
+    }
+
+    /**
+     * Écrit la bande courante (tronquée à la hauteur de l'image) et passe à la suivante.
+     */
+    private void viderBande() throws IOException {
+        int lignes = Math.min(hauteurBande, hauteur - bandeCourante * hauteurBande);
+        flux.write(bande, 0, lignes * largeur * octetsParPixel);
+        Arrays.fill(bande, (byte) 0);
+        bandeCourante++;
+    }
+
+    /**
+     * Vide les bandes restantes (pixels non écrits à 0) et ferme le fichier.
+     */
+    @Override
+    public void close() throws IOException {
+        try {
+            int nombreBandes = (hauteur + hauteurBande - 1) / hauteurBande;
+            while (bandeCourante < nombreBandes) {
+                viderBande();
+            }
+        } finally {
+            flux.close();
+        }
+    }
+}
@@ -0,0 +1,48 @@
+package outils;
+
+import java.util.Arrays;
+
+/**
+ * Liste d'entiers primitifs extensible et réutilisable (aucun Integer alloué).
+ * Sert de tampon de voisins (DBSCAN, index de voisinage) et de file d'attente : on la vide
+ * entre deux utilisations au lieu d'en recréer une.
+ */
+public final class ListeEntiers {
+
+    private int[] valeurs;
+    private int taille;
+
+    public ListeEntiers() {
+        this(64);
+    }
+
+    public ListeEntiers(int capaciteInitiale) {
+        valeurs = new int[Math.max(1, capaciteInitiale)];
+    }
+
+    public void ajouter(int valeur) {
+        if (taille == valeurs.length) {
+            valeurs = Arrays.copyOf(valeurs, taille * 2);
+        }
+        valeurs[taille++] = valeur;
+    }
+
+    public int get(int i) {
+        return valeurs[i];
+    }
+
+    public int taille() {
+        return taille;
+    }
+
+    public void vider() {
+        taille = 0;
+    }
+
+    /**
+     * Copie des valeurs (pour conserver le contenu avant de réutiliser la liste).
+     */
+    public int[] versTableau() {
+        return Arrays.copyOf(valeurs, taille);
+    }
+}
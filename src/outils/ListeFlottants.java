@@ -0,0 +1,47 @@
+package outils;
+
+import java.util.Arrays;
+
+/**
+ * Liste de flottants primitifs extensible et réutilisable, pendant de ListeEntiers
+ * (ex: distances des voisins renvoyés par un index).
+ */
+public final class ListeFlottants {
+
+    private float[] valeurs;
+    private int taille;
+
+    public ListeFlottants() {
+        this(64);
+    }
+
+    public ListeFlottants(int capaciteInitiale) {
+        valeurs = new float[Math.max(1, capaciteInitiale)];
+    }
+
+    public void ajouter(float valeur) {
+        if (taille == valeurs.length) {
+            valeurs = Arrays.copyOf(valeurs, taille * 2);
+        }
+        valeurs[taille++] = valeur;
+    }
+
+    public float get(int i) {
+        return valeurs[i];
+    }
+
+    public int taille() {
+        return taille;
+    }
+
+    public void vider() {
+        taille = 0;
+    }
+
+    /**
+     * Copie des valeurs (pour conserver le contenu avant de réutiliser la liste).
+     */
+    public float[] versTableau() {
+        return Arrays.copyOf(valeurs, taille);
+    }
+}
@@ -8,6 +8,19 @@ import java.awt.*;
  */
 public class OutilCouleur {
 
+    // Constantes de la conversion Lab (mêmes valeurs que dans rgb2lab)
+    private static final float EPS_LAB = 216.f / 24389.f;
+    private static final float K_LAB = 24389.f / 27.f;
+    private static final float XR = 0.964221f; // reference white D50
+    private static final float ZR = 0.825211f;
+
+    // Table de linéarisation sRGB par canal : évite les Math.pow à chaque conversion
+    private static final float[] GAMMA = calculerTableGamma();
+
+    // Table complète RGB -> Lab (optionnelle, construite à la demande)
+    private static volatile TableLab tableLab;
+    private static volatile String cheminTableLab = System.getProperty("outils.tableLab");
+
 
     /**
      * Convertit une couleur RGB vers l'espace colorimétrique CIELAB.
@@ -86,6 +99,123 @@ public class OutilCouleur {
     }
 
 
+    /**
+     * Convertit une couleur compactée (0xRRGGBB) en L*a*b* sans allocation.
+     * Écrit L, a, b dans lab[offset..offset+2], avec la même convention que rgb2lab
+     * (L* ramené sur 0-255) mais sans arrondi.
+     * Si la table complète est activée (voir activerTableLab), c'est une simple lecture.
+     *
+     * @param rgb    Couleur au format 0xRRGGBB (l'alpha est ignoré)
+     * @param lab    Tampon de sortie fourni par l'appelant
+     * @param offset Position d'écriture dans le tampon
+     */
+    public static void rgb2lab(int rgb, float[] lab, int offset) {
+        TableLab table = obtenirTableLab();
+        if (table != null) {
+            table.lire(rgb & 0xFFFFFF, lab, offset);
+        } else {
+            rgb2labCalcul(rgb, lab, offset);
+        }
+    }
+
+    /**
+     * Conversion RGB -> Lab par le calcul : table gamma par canal + racine cubique rapide.
+     * Sert à remplir la table complète et de repli quand elle n'est pas activée.
+     */
+    static void rgb2labCalcul(int rgb, float[] lab, int offset) {
+        float r = GAMMA[(rgb >> 16) & 0xFF];
+        float g = GAMMA[(rgb >> 8) & 0xFF];
+        float b = GAMMA[rgb & 0xFF];
+
+        float X = 0.436052025f * r + 0.385081593f * g + 0.143087414f * b;
+        float Y = 0.222491598f * r + 0.71688606f * g + 0.060621486f * b;
+        float Z = 0.013929122f * r + 0.097097002f * g + 0.71418547f * b;
+
+        float fx = fonctionLab(X / XR);
+        float fy = fonctionLab(Y);
+        float fz = fonctionLab(Z / ZR);
+
+        lab[offset] = 2.55f * ((116 * fy) - 16);
+        lab[offset + 1] = 500 * (fx - fy);
+        lab[offset + 2] = 200 * (fy - fz);
+    }
+
+    /**
+     * Fonction f(t) de la conversion XYZ -> Lab.
+     */
+    private static float fonctionLab(float t) {
+        return t > EPS_LAB ? racineCubique(t) : (K_LAB * t + 16.f) / 116.f;
+    }
+
+    /**
+     * Racine cubique rapide pour t > 0 : estimation par les bits du float
+     * puis trois itérations de Newton (précision proche du float).
+     */
+    static float racineCubique(float t) {
+        float y = Float.intBitsToFloat(Float.floatToRawIntBits(t) / 3 + 709921077);
+        y = (2f * y + t / (y * y)) / 3f;
+        y = (2f * y + t / (y * y)) / 3f;
+        y = (2f * y + t / (y * y)) / 3f;
+        return y;
+    }
+
+    /**
+     * Calcule la linéarisation sRGB des 256 valeurs possibles d'un canal.
+     */
+    private static float[] calculerTableGamma() {
+        float[] table = new float[256];
+        for (int i = 0; i < 256; i++) {
+            float c = i / 255.f;
+            table[i] = c <= 0.04045 ? c / 12 : (float) Math.pow((c + 0.055) / 1.055, 2.4);
+        }
+        return table;
+    }
+
+    /**
+     * Active la table complète RGB -> Lab (16,7 millions d'entrées, environ 96 Mo hors tas).
+     * La table est construite au premier usage. Si un chemin est donné, elle est stockée
+     * dans ce fichier et simplement projetée en mémoire (mmap) par les exécutions suivantes.
+     * Équivaut à lancer la JVM avec -Doutils.tableLab=chemin (ou "memoire" pour ne pas persister).
+     *
+     * @param chemin Fichier de cache, ou null pour une table uniquement en mémoire
+     */
+    public static synchronized void activerTableLab(String chemin) {
+        cheminTableLab = chemin == null ? "memoire" : chemin;
+        tableLab = null;
+    }
+
+    /**
+     * Retourne la table complète si elle est activée (en la construisant au besoin), sinon null.
+     */
+    private static TableLab obtenirTableLab() {
+        TableLab table = tableLab;
+        if (table != null || cheminTableLab == null) {
+            return table;
+        }
+        synchronized (OutilCouleur.class) {
+            if (tableLab == null && cheminTableLab != null) {
+                try {
+                    tableLab = TableLab.charger("memoire".equals(cheminTableLab) ? null : cheminTableLab);
+                } catch (java.io.IOException e) {
+                    // On reste sur le calcul direct si le fichier est inutilisable
+                    System.err.println("Table Lab indisponible (" + e.getMessage() + "), calcul direct utilisé");
+                    cheminTableLab = null;
+                }
+            }
+            return tableLab;
+        }
+    }
+
+    /**
+     * Arrondit une couleur à composantes réelles à la couleur compactée (0xRRGGBB) la plus proche.
+     */
+    public static int arrondirRGB(double r, double g, double b) {
+        int ri = Math.max(0, Math.min(255, (int) Math.round(r)));
+        int gi = Math.max(0, Math.min(255, (int) Math.round(g)));
+        int bi = Math.max(0, Math.min(255, (int) Math.round(b)));
+        return (ri << 16) | (gi << 8) | bi;
+    }
+
     /**
      * Extrait les composantes RGB d'un entier représentant une couleur.
      * L'entier est au format ARGB où les bits sont répartis comme suit :
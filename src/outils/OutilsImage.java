@@ -3,6 +3,11 @@ package outils;
 import javax.imageio.ImageIO;
 import java.awt.*;
 import java.awt.image.BufferedImage;
+import java.awt.image.DataBufferByte;
+import java.awt.image.DataBufferInt;
+import java.awt.image.DirectColorModel;
+import java.awt.image.Raster;
+import java.awt.image.WritableRaster;
 import java.io.File;
 import java.io.IOException;
 
@@ -47,6 +52,100 @@ public class OutilsImage {
         return source;
     }
 
+    /**
+     * Couleurs (0xRRGGBB) de tous les pixels, ligne par ligne, lues directement dans le raster
+     * pour les types courants (entiers RGB ou ARGB, octets BGR des JPEG) au lieu de getRGB.
+     * @param image Image source.
+     * @return Nouveau tableau de largeur * hauteur couleurs.
+     */
+    public static int[] extrairePixelsRGB(BufferedImage image) {
+        return lireLignesRGB(image, 0, image.getHeight());
+    }
+
+    /**
+     * Couleurs (0xRRGGBB) d'une bande de lignes [y0, y0 + lignes[ sur toute la largeur, lues directement
+     * dans le raster quand c'est possible (voir extrairePixelsRGB).
+     * @param image  Image source.
+     * @param y0     Première ligne.
+     * @param lignes Nombre de lignes.
+     * @return Nouveau tableau de largeur * lignes couleurs.
+     */
+    public static int[] lireLignesRGB(BufferedImage image, int y0, int lignes) {
+        int largeur = image.getWidth();
+        int hauteur = image.getHeight();
+        int[] pixels = new int[largeur * lignes];
+        int debut = y0 * largeur;
+
+        // En lecture, l'alpha d'une image ARGB est simplement ignoré
+        int[] donneesInt = rasterRGB(image);
+        if (donneesInt == null) {
+            donneesInt = rasterEntiers(image, BufferedImage.TYPE_INT_ARGB);
+        }
+        if (donneesInt != null) {
+            for (int i = 0; i < pixels.length; i++) {
+                pixels[i] = donneesInt[debut + i] & 0xFFFFFF;
+            }
+            return pixels;
+        }
+        Raster raster = image.getRaster();
+        boolean compact = raster.getParent() == null && raster.getMinX() == 0 && raster.getMinY() == 0;
+        if (compact && image.getType() == BufferedImage.TYPE_3BYTE_BGR
+                && raster.getDataBuffer() instanceof DataBufferByte) {
+            byte[] donnees = ((DataBufferByte) raster.getDataBuffer()).getData();
+            if (donnees.length == largeur * hauteur * 3) {
+                for (int i = 0, o = debut * 3; i < pixels.length; i++, o += 3) {
+                    pixels[i] = ((donnees[o + 2] & 0xFF) << 16) | ((donnees[o + 1] & 0xFF) << 8) | (donnees[o] & 0xFF);
+                }
+                return pixels;
+            }
+        }
+
+        image.getRGB(0, y0, largeur, lignes, pixels, 0, largeur);
+        for (int i = 0; i < pixels.length; i++) {
+            pixels[i] &= 0xFFFFFF;
+        }
+        return pixels;
+    }
+
+    /**
+     * Tableau des pixels d'une image TYPE_INT_RGB (raster non découpé), pour lire ou écrire directement
+     * dans l'image ; null pour les autres types.
+     * @param image Image à accéder.
+     * @return Le tableau du raster (largeur * hauteur entiers, ligne par ligne), ou null.
+     */
+    public static int[] rasterRGB(BufferedImage image) {
+        return rasterEntiers(image, BufferedImage.TYPE_INT_RGB);
+    }
+
+    /**
+     * Tableau des pixels d'une image du type entier donné (raster non découpé), ou null.
+     */
+    private static int[] rasterEntiers(BufferedImage image, int type) {
+        Raster raster = image.getRaster();
+        boolean compact = raster.getParent() == null && raster.getMinX() == 0 && raster.getMinY() == 0;
+        if (compact && image.getType() == type && raster.getDataBuffer() instanceof DataBufferInt) {
+            int[] donnees = ((DataBufferInt) raster.getDataBuffer()).getData();
+            if (donnees.length == image.getWidth() * image.getHeight()) {
+                return donnees;
+            }
+        }
+        return null;
+    }
+
+    /**
+     * Crée une image RGB dont le raster est directement le tableau donné (aucune copie).
+     * @param pixels  Couleurs 0xRRGGBB, ligne par ligne.
+     * @param largeur Largeur de l'image.
+     * @param hauteur Hauteur de l'image.
+     * @return Image de type TYPE_INT_RGB partageant le tableau.
+     */
+    public static BufferedImage creerImageRGB(int[] pixels, int largeur, int hauteur) {
+        DirectColorModel modele = new DirectColorModel(24, 0xFF0000, 0x00FF00, 0x0000FF);
+        WritableRaster raster = Raster.createPackedRaster(new DataBufferInt(pixels, pixels.length), largeur, hauteur,
+                largeur, modele.getMasks(), null);
+        return new BufferedImage(modele, raster, false, null);
+    }
+
     // Pour chaque pixel de l'image
     public static int[][] extraireDonneesPixels(BufferedImage image) {
         int width = image.getWidth();
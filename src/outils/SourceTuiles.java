@@ -0,0 +1,85 @@
+package outils;
+
+import java.io.FileInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+
+/**
+ * Image découpée en tuiles carrées, lues à la demande.
+ * Permet de traiter des images plus grandes que le tas Java : seule la tuile courante est en mémoire.
+ * Les tuiles de la dernière ligne/colonne peuvent être plus petites.
+ */
+public interface SourceTuiles extends AutoCloseable {
+
+    /**
+     * Ouvre un fichier image en lecture par tuiles : accès direct aux lignes pour un PNM binaire
+     * (P5/P6, par exemple un résultat intermédiaire écrit par EcritureBandes) ; les autres formats (JPEG, PNG...)
+     * sont d'abord transcodés une fois en PNM temporaire (voir SourceTuilesFichier).
+     */
+    static SourceTuiles ouvrir(String chemin, int tailleTuile) throws IOException {
+        byte[] signature = new byte[2];
+        int lus;
+        try (InputStream entree = new FileInputStream(chemin)) {
+            lus = entree.readNBytes(signature, 0, 2);
+        }
+        if (lus == 2 && signature[0] == 'P' && (signature[1] == '5' || signature[1] == '6')) {
+            return new SourceTuilesPNM(chemin, tailleTuile);
+        }
+        return new SourceTuilesFichier(chemin, tailleTuile);
+    }
+
+    int getLargeur();
+
+    int getHauteur();
+
+    int getTailleTuile();
+
+    /**
+     * Lit les couleurs (0xRRGGBB) d'une région rectangulaire, ligne par ligne.
+     */
+    int[] lireRegion(int x, int y, int largeur, int hauteur) throws IOException;
+
+    default int getNombreTuilesX() {
+        return (getLargeur() + getTailleTuile() - 1) / getTailleTuile();
+    }
+
+    default int getNombreTuilesY() {
+        return (getHauteur() + getTailleTuile() - 1) / getTailleTuile();
+    }
+
+    default int getNombreTuiles() {
+        return getNombreTuilesX() * getNombreTuilesY();
+    }
+
+    /**
+     * Lit la tuile de rang donné (ordre ligne par ligne) sous forme de DonneesPixels.
+     * Les coordonnées et les index sont ceux de l'image complète.
+     */
+    default DonneesPixels lireTuile(int numero) throws IOException {
+        int taille = getTailleTuile();
+        int x0 = (numero % getNombreTuilesX()) * taille;
+        int y0 = (numero / getNombreTuilesX()) * taille;
+        int largeur = Math.min(taille, getLargeur() - x0);
+        int hauteur = Math.min(taille, getHauteur() - y0);
+
+        int[] rgb = lireRegion(x0, y0, largeur, hauteur);
+        int n = largeur * hauteur;
+        int[] x = new int[n];
+        int[] y = new int[n];
+        int[] index = new int[n];
+        int i = 0;
+        for (int py = y0; py < y0 + hauteur; py++) {
+            for (int px = x0; px < x0 + largeur; px++) {
+                x[i] = px;
+                y[i] = py;
+                index[i] = py * getLargeur() + px;
+                i++;
+            }
+        }
+        return new DonneesPixels(x, y, rgb, index);
+    }
+
+    @Override
+    default void close() throws IOException {
+    }
+}
@@ -0,0 +1,121 @@
+package outils;
+
+import javax.imageio.ImageIO;
+import javax.imageio.ImageReadParam;
+import javax.imageio.ImageReader;
+import javax.imageio.stream.ImageInputStream;
+import java.awt.Rectangle;
+import java.awt.image.BufferedImage;
+import java.io.File;
+import java.io.IOException;
+import java.util.Iterator;
+
+/**
+ * Source de tuiles sur un fichier image lu par ImageIO (JPEG, PNG...), sans jamais charger l'image complète.
+ *
+ * Ces formats ne se décodent que séquentiellement : lire une région (ImageReadParam.setSourceRegion) oblige
+ * le lecteur à décoder toutes les lignes au-dessus d'elle, et un parcours par tuiles coûterait un temps
+ * quadratique en nombre de bandes. L'image est donc transcodée une fois, à l'ouverture, en PNM binaire
+ * temporaire (EcritureBandes, 3 octets par pixel sur disque) ; les tuiles sont ensuite lues en accès direct
+ * par SourceTuilesPNM, quelle que soit leur position (tirages aléatoires de KMeansMiniLots compris).
+ *
+ * Le transcodage décode l'image par grandes bandes, aussi hautes que le permet une fraction du tas :
+ * une image qui tient dans ce budget n'est décodée qu'une fois ; au-delà, la bande n°i redécode les lignes
+ * des i bandes précédentes, soit environ (nombre de bandes + 1) / 2 décodages complets au total.
+ */
+public class SourceTuilesFichier implements SourceTuiles {
+
+    // Hauteur des bandes écrites dans le fichier temporaire (les bandes décodées en sont des multiples)
+    private static final int HAUTEUR_ECRITURE = 64;
+    // Fraction du tas réservée à une bande décodée (image ImageIO + copie en entiers, environ 7 octets par pixel)
+    private static final int FRACTION_TAS = 32;
+
+    private final File temporaire;
+    private final SourceTuilesPNM source;
+
+    public SourceTuilesFichier(String chemin, int tailleTuile) throws IOException {
+        this.temporaire = File.createTempFile("tuiles", ".ppm");
+        temporaire.deleteOnExit();
+        try {
+            transcoder(chemin, temporaire.getPath());
+            this.source = new SourceTuilesPNM(temporaire.getPath(), tailleTuile);
+        } catch (IOException | RuntimeException e) {
+            temporaire.delete();
+            throw e;
+        }
+    }
+
+    /**
+     * Décode l'image par bandes de lignes et l'écrit au format PNM (P6).
+     */
+    private static void transcoder(String chemin, String destination) throws IOException {
+        ImageInputStream flux = ImageIO.createImageInputStream(new File(chemin));
+        if (flux == null) {
+            throw new IOException("Impossible d'ouvrir l'image : " + chemin);
+        }
+        Iterator<ImageReader> lecteurs = ImageIO.getImageReaders(flux);
+        if (!lecteurs.hasNext()) {
+            flux.close();
+            throw new IOException("Format d'image non supporté : " + chemin);
+        }
+        ImageReader lecteur = lecteurs.next();
+        try {
+            lecteur.setInput(flux, false, true); // métadonnées ignorées
+            int largeur = lecteur.getWidth(0);
+            int hauteur = lecteur.getHeight(0);
+
+            long budget = Runtime.getRuntime().maxMemory() / FRACTION_TAS / 4;
+            int lignesParDecodage = (int) Math.min(hauteur, Math.max(1, budget / largeur));
+            lignesParDecodage = Math.max(HAUTEUR_ECRITURE, lignesParDecodage / HAUTEUR_ECRITURE * HAUTEUR_ECRITURE);
+
+            int[] lignes = new int[largeur * HAUTEUR_ECRITURE];
+            try (EcritureBandes sortie = EcritureBandes.couleurs(destination, largeur, hauteur, HAUTEUR_ECRITURE)) {
+                for (int y = 0; y < hauteur; y += lignesParDecodage) {
+                    int hauteurBande = Math.min(lignesParDecodage, hauteur - y);
+                    BufferedImage bande;
+                    if (hauteurBande == hauteur) {
+                        bande = lecteur.read(0);
+                    } else {
+                        ImageReadParam parametres = lecteur.getDefaultReadParam();
+                        parametres.setSourceRegion(new Rectangle(0, y, largeur, hauteurBande));
+                        bande = lecteur.read(0, parametres);
+                    }
+                    for (int dy = 0; dy < hauteurBande; dy += HAUTEUR_ECRITURE) {
+                        int n = Math.min(HAUTEUR_ECRITURE, hauteurBande - dy);
+                        bande.getRGB(0, dy, largeur, n, lignes, 0, largeur);
+                        sortie.ecrireRegion(0, y + dy, largeur, n, lignes);
+                    }
+                }
+            }
+        } finally {
+            lecteur.dispose();
+            flux.close();
+        }
+    }
+
+    @Override
+    public int getLargeur() { return source.getLargeur(); }
+
+    @Override
+    public int getHauteur() { return source.getHauteur(); }
+
+    @Override
+    public int getTailleTuile() { return source.getTailleTuile(); }
+
+    @Override
+    public int[] lireRegion(int x, int y, int largeurRegion, int hauteurRegion) throws IOException {
+        return source.lireRegion(x, y, largeurRegion, hauteurRegion);
+    }
+
+    /**
+     * Ferme la source et supprime le fichier temporaire.
+     */
+    @Override
+    public void close() throws IOException {
+        try {
+            source.close();
+        } finally {
+            temporaire.delete();
+        }
+    }
+}
@@ -0,0 +1,35 @@
+package outils;
+
+import java.awt.image.BufferedImage;
+
+/**
+ * Source de tuiles sur une image déjà chargée en mémoire.
+ */
+public class SourceTuilesImage implements SourceTuiles {
+
+    private final BufferedImage image;
+    private final int tailleTuile;
+
+    public SourceTuilesImage(BufferedImage image, int tailleTuile) {
+        this.image = image;
+        this.tailleTuile = tailleTuile;
+    }
+
+    @Override
+    public int getLargeur() { return image.getWidth(); }
+
+    @Override
+    public int getHauteur() { return image.getHeight(); }
+
+    @Override
+    public int getTailleTuile() { return tailleTuile; }
+
+    @Override
+    public int[] lireRegion(int x, int y, int largeur, int hauteur) {
+        int[] rgb = image.getRGB(x, y, largeur, hauteur, null, 0, largeur);
+        for (int i = 0; i < rgb.length; i++) {
+            rgb[i] &= 0xFFFFFF;
+        }
+        return rgb;
+    }
+}
@@ -0,0 +1,112 @@
+package outils;
+
+import java.io.IOException;
+import java.io.RandomAccessFile;
+
+/**
+ * Source de tuiles sur une image PNM binaire (P6 couleur ou P5 niveaux de gris), par exemple celles produites
+ * par EcritureBandes. Les pixels étant stockés sans compression, chaque ligne d'une région est lue directement
+ * à son décalage dans le fichier : l'accès à une tuile ne dépend pas de sa position, contrairement au JPEG.
+ */
+public class SourceTuilesPNM implements SourceTuiles {
+
+    private final RandomAccessFile fichier;
+    private final int largeur;
+    private final int hauteur;
+    private final int tailleTuile;
+    private final boolean couleur;
+    private final int valeurMax;
+    private final int octetsParPixel;
+    private final long debutPixels;
+
+    public SourceTuilesPNM(String chemin, int tailleTuile) throws IOException {
+        this.fichier = new RandomAccessFile(chemin, "r");
+        try {
+            String format = lireJeton();
+            if (!format.equals("P5") && !format.equals("P6")) {
+                throw new IOException("Format PNM non supporté (" + format + ") : " + chemin);
+            }
+            this.couleur = format.equals("P6");
+            this.largeur = Integer.parseInt(lireJeton());
+            this.hauteur = Integer.parseInt(lireJeton());
+            this.valeurMax = Integer.parseInt(lireJeton());
+            // Un seul blanc sépare l'en-tête des pixels (déjà consommé par lireJeton)
+            this.debutPixels = fichier.getFilePointer();
+        } catch (IOException | NumberFormatException e) {
+            fichier.close();
+            throw e instanceof IOException ? (IOException) e : new IOException("En-tête PNM invalide : " + chemin, e);
+        }
+        this.octetsParPixel = (couleur ? 3 : 1) * (valeurMax > 255 ? 2 : 1);
+        this.tailleTuile = tailleTuile;
+    }
+
+    /**
+     * Lit un jeton de l'en-tête (les commentaires # sont ignorés) et consomme le blanc qui le suit.
+     */
+    private String lireJeton() throws IOException {
+        StringBuilder jeton = new StringBuilder();
+        int c;
+        while ((c = fichier.read()) != -1) {
+            if (c == '#') {
+                while ((c = fichier.read()) != -1 && c != '\n') {
+                    // commentaire
+                }
+            } else if (Character.isWhitespace(c)) {
+                if (jeton.length() > 0) {
+                    return jeton.toString();
+                }
+            } else {
+                jeton.append((char) c);
+            }
+        }
+        throw new IOException("En-tête PNM incomplet");
+    }
+
+    @Override
+    public int getLargeur() { return largeur; }
+
+    @Override
+    public int getHauteur() { return hauteur; }
+
+    @Override
+    public int getTailleTuile() { return tailleTuile; }
+
+    @Override
+    public synchronized int[] lireRegion(int x, int y, int largeurRegion, int hauteurRegion) throws IOException {
+        int[] rgb = new int[largeurRegion * hauteurRegion];
+        byte[] ligne = new byte[largeurRegion * octetsParPixel];
+        int octetsParCanal = valeurMax > 255 ? 2 : 1;
+        int i = 0;
+        for (int py = y; py < y + hauteurRegion; py++) {
+            fichier.seek(debutPixels + ((long) py * largeur + x) * octetsParPixel);
+            fichier.readFully(ligne);
+            for (int o = 0; o < ligne.length; o += octetsParPixel) {
+                if (couleur) {
+                    int r = canal(ligne, o, octetsParCanal);
+                    int g = canal(ligne, o + octetsParCanal, octetsParCanal);
+                    int b = canal(ligne, o + 2 * octetsParCanal, octetsParCanal);
+                    rgb[i++] = (r << 16) | (g << 8) | b;
+                } else {
+                    int gris = canal(ligne, o, octetsParCanal);
+                    rgb[i++] = (gris << 16) | (gris << 8) | gris;
+                }
+            }
+        }
+        return rgb;
+    }
+
+    /**
+     * Valeur d'un canal ramenée sur 8 bits.
+     */
+    private int canal(byte[] ligne, int o, int octetsParCanal) {
+        int valeur = octetsParCanal == 2
+                ? ((ligne[o] & 0xFF) << 8) | (ligne[o + 1] & 0xFF)
+                : ligne[o] & 0xFF;
+        return valeurMax == 255 ? valeur : valeur * 255 / valeurMax;
+    }
+
+    @Override
+    public void close() throws IOException {
+        fichier.close();
+    }
+}
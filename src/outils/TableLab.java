@@ -0,0 +1,128 @@
+package outils;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.MappedByteBuffer;
+import java.nio.ShortBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.*;
+import java.util.stream.IntStream;
+
+/**
+ * Table précalculée RGB -> Lab couvrant les 2^24 couleurs.
+ * Chaque couleur occupe 3 shorts (L, a, b en virgule fixe, pas de 1/128),
+ * soit environ 96 Mo stockés hors du tas Java.
+ * La table peut être persistée dans un fichier projeté en mémoire (mmap) :
+ * les exécutions suivantes la chargent sans aucun calcul.
+ */
+final class TableLab {
+
+    private static final int NB_COULEURS = 1 << 24;
+    private static final int MAGIQUE = 0x4C414231; // "LAB1"
+    private static final int ENTETE = 16;          // octets réservés avant les valeurs
+    private static final float ECHELLE = 128f;     // virgule fixe : valeur * 128
+    private static final long TAILLE_FICHIER = ENTETE + 3L * 2 * NB_COULEURS;
+
+    private final ShortBuffer valeurs;
+
+    private TableLab(ShortBuffer valeurs) {
+        this.valeurs = valeurs;
+    }
+
+    /**
+     * Lit les composantes Lab d'une couleur 0xRRGGBB dans le tampon de l'appelant.
+     */
+    void lire(int rgb, float[] lab, int offset) {
+        int base = rgb * 3;
+        lab[offset] = valeurs.get(base) / ECHELLE;
+        lab[offset + 1] = valeurs.get(base + 1) / ECHELLE;
+        lab[offset + 2] = valeurs.get(base + 2) / ECHELLE;
+    }
+
+    /**
+     * Charge la table depuis le fichier de cache, ou la construit (et l'écrit) s'il est absent ou invalide.
+     *
+     * @param chemin Fichier de cache, ou null pour une table uniquement en mémoire
+     */
+    static TableLab charger(String chemin) throws IOException {
+        if (chemin == null) {
+            ByteBuffer tampon = ByteBuffer.allocateDirect(3 * 2 * NB_COULEURS).order(ByteOrder.nativeOrder());
+            remplir(tampon.asShortBuffer());
+            return new TableLab(tampon.asShortBuffer());
+        }
+
+        Path fichier = Paths.get(chemin);
+        if (!estValide(fichier)) {
+            construireFichier(fichier);
+        }
+
+        try (FileChannel canal = FileChannel.open(fichier, StandardOpenOption.READ)) {
+            MappedByteBuffer mmap = canal.map(FileChannel.MapMode.READ_ONLY, 0, TAILLE_FICHIER);
+            mmap.order(ByteOrder.LITTLE_ENDIAN);
+            mmap.position(ENTETE);
+            return new TableLab(mmap.slice().order(ByteOrder.LITTLE_ENDIAN).asShortBuffer());
+        }
+    }
+
+    /**
+     * Vérifie la taille et l'en-tête du fichier de cache.
+     */
+    private static boolean estValide(Path fichier) throws IOException {
+        if (!Files.isRegularFile(fichier) || Files.size(fichier) != TAILLE_FICHIER) {
+            return false;
+        }
+        try (FileChannel canal = FileChannel.open(fichier, StandardOpenOption.READ)) {
+            ByteBuffer entete = ByteBuffer.allocate(ENTETE).order(ByteOrder.LITTLE_ENDIAN);
+            canal.read(entete, 0);
+            return entete.getInt(0) == MAGIQUE;
+        }
+    }
+
+    /**
+     * Construit la table dans un fichier temporaire puis le renomme,
+     * pour qu'une autre JVM ne lise jamais un fichier à moitié écrit.
+     */
+    private static void construireFichier(Path fichier) throws IOException {
+        Path dossier = fichier.toAbsolutePath().getParent();
+        if (dossier != null) {
+            Files.createDirectories(dossier);
+        }
+        Path temporaire = Paths.get(fichier + ".tmp");
+
+        try (FileChannel canal = FileChannel.open(temporaire, StandardOpenOption.CREATE,
+                StandardOpenOption.READ, StandardOpenOption.WRITE, StandardOpenOption.TRUNCATE_EXISTING)) {
+            MappedByteBuffer mmap = canal.map(FileChannel.MapMode.READ_WRITE, 0, TAILLE_FICHIER);
+            mmap.order(ByteOrder.LITTLE_ENDIAN);
+            mmap.position(ENTETE);
+            remplir(mmap.slice().order(ByteOrder.LITTLE_ENDIAN).asShortBuffer());
+            mmap.putInt(0, MAGIQUE); // en-tête écrit en dernier
+            mmap.force();
+        }
+
+        try {
+            Files.move(temporaire, fichier, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        } catch (AtomicMoveNotSupportedException e) {
+            Files.move(temporaire, fichier, StandardCopyOption.REPLACE_EXISTING);
+        }
+    }
+
+    /**
+     * Remplit la table en parallèle (une tranche par valeur de rouge).
+     */
+    private static void remplir(ShortBuffer sortie) {
+        IntStream.range(0, 256).parallel().forEach(r -> {
+            float[] lab = new float[3];
+            for (int g = 0; g < 256; g++) {
+                for (int b = 0; b < 256; b++) {
+                    int rgb = (r << 16) | (g << 8) | b;
+                    OutilCouleur.rgb2labCalcul(rgb, lab, 0);
+                    int base = rgb * 3;
+                    sortie.put(base, (short) Math.round(lab[0] * ECHELLE));
+                    sortie.put(base + 1, (short) Math.round(lab[1] * ECHELLE));
+                    sortie.put(base + 2, (short) Math.round(lab[2] * ECHELLE));
+                }
+            }
+        });
+    }
+}
@@ -1,8 +1,9 @@
 package validation;
 
 import clustering.ClusteringManager.ResultatClustering;
-import outils.PixelData;
+import outils.DonneesPixels;
 import metriques.MetriqueDistance;
+import metriques.MetriqueVectorielle;
 
 import java.awt.image.BufferedImage;
 
@@ -23,14 +24,15 @@ public class DaviesBouldinIndex {
         int K = resultat.nombreClusters;
         if (K <= 1) return 0.0; // Pas de sens pour 0 ou 1 cluster
 
+        // Les centroïdes sont des moyennes dans l'espace de la métrique (Lab pour CIELAB...)
+        MetriqueVectorielle vectorielle = MetriqueVectorielle.adapter(metrique);
+        vectorielle.preparer(resultat.donnees);
+
         // Calculer les centroïdes de chaque cluster
-        PixelData[] centroides = calculerCentroides(resultat);
+        double[][] centroides = calculerCentroides(resultat, vectorielle);
 
         // Calculer les dispersions intra-cluster (Si)
-        double[] dispersions = new double[K];
-        for (int i = 0; i < K; i++) {
-            dispersions[i] = calculerDispersionIntraCluster(resultat, i, centroides[i], metrique);
-        }
+        double[] dispersions = calculerDispersionsIntraCluster(resultat, centroides, vectorielle);
 
         // Calculer l'indice DB
         double sommeDB = 0.0;
@@ -42,7 +44,7 @@ public class DaviesBouldinIndex {
             for (int j = 0; j < K; j++) {
                 if (i != j) {
                     // Distance entre les centroïdes i et j
-                    double distanceCentroides = metrique.calculerDistance(centroides[i], centroides[j]);
+                    double distanceCentroides = vectorielle.distanceEntreCentres(centroides[i], centroides[j]);
 
                     if (distanceCentroides > 0) {
                         double ratio = (dispersions[i] + dispersions[j]) / distanceCentroides;
@@ -60,67 +62,69 @@ public class DaviesBouldinIndex {
     }
 
     /**
-     * Calcule les centroïdes de chaque cluster.
-     * Pour les pixels, on calcule la position et couleur moyennes.
+     * Calcule les centroïdes de chaque cluster en un seul parcours des coordonnées.
      */
-    private PixelData[] calculerCentroides(ResultatClustering resultat) {
+    private double[][] calculerCentroides(ResultatClustering resultat, MetriqueVectorielle metrique) {
         int K = resultat.nombreClusters;
-        PixelData[] centroides = new PixelData[K];
+        DonneesPixels donnees = resultat.donnees;
+        float[] coordonnees = donnees.getCaracteristiques();
+        int dimension = donnees.getDimension();
 
-        for (int cluster = 0; cluster < K; cluster++) {
-            PixelData[] pixelsCluster = resultat.getPixelsCluster(cluster);
+        double[][] centroides = new double[K][dimension];
+        int[] effectifs = new int[K];
 
-            if (pixelsCluster.length == 0) {
-                // Cluster vide, utiliser un pixel par défaut
-                centroides[cluster] = new PixelData(0, 0, java.awt.Color.BLACK, -1);
-                continue;
-            }
-
-            // Calculer les moyennes
-            double moyX = 0, moyY = 0;
-            double moyR = 0, moyG = 0, moyB = 0;
+        for (int i = 0; i < resultat.affectations.length; i++) {
+            int cluster = resultat.affectations[i];
+            if (cluster < 0) continue; // Ignorer le bruit
 
-            for (PixelData pixel : pixelsCluster) {
-                moyX += pixel.getX();
-                moyY += pixel.getY();
-                moyR += pixel.getCouleur().getRed();
-                moyG += pixel.getCouleur().getGreen();
-                moyB += pixel.getCouleur().getBlue();
+            for (int d = 0; d < dimension; d++) {
+                centroides[cluster][d] += coordonnees[i * dimension + d];
             }
+            effectifs[cluster]++;
+        }
 
-            int n = pixelsCluster.length;
-            int x = (int) Math.round(moyX / n);
-            int y = (int) Math.round(moyY / n);
-            int r = (int) Math.round(moyR / n);
-            int g = (int) Math.round(moyG / n);
-            int b = (int) Math.round(moyB / n);
+        for (int cluster = 0; cluster < K; cluster++) {
+            int n = effectifs[cluster];
+            if (n == 0) continue; // Cluster vide, centre à l'origine par défaut
 
-            centroides[cluster] = new PixelData(x, y, new java.awt.Color(r, g, b), -1);
+            for (int d = 0; d < dimension; d++) {
+                centroides[cluster][d] /= n;
+            }
+            metrique.normaliserCentre(centroides[cluster]);
         }
 
         return centroides;
     }
 
     /**
-     * Calcule la dispersion moyenne d'un cluster autour de son centroïde (Si).
+     * Calcule la dispersion moyenne de chaque cluster autour de son centroïde (Si).
      * Formule: Si = (1/|Ci|) * Σ ||x - μi||²
      */
-    private double calculerDispersionIntraCluster(ResultatClustering resultat,
-                                                  int cluster,
-                                                  PixelData centroide,
-                                                  MetriqueDistance metrique) {
-        PixelData[] pixelsCluster = resultat.getPixelsCluster(cluster);
-
-        if (pixelsCluster.length == 0) return 0.0;
-
-        double sommeDistances = 0.0;
-
-        for (PixelData pixel : pixelsCluster) {
-            double distance = metrique.calculerDistance(pixel, centroide);
-            sommeDistances += distance * distance; // Distance au carré
+    private double[] calculerDispersionsIntraCluster(ResultatClustering resultat,
+                                                     double[][] centroides,
+                                                     MetriqueVectorielle metrique) {
+        int K = resultat.nombreClusters;
+        float[] coordonnees = resultat.donnees.getCaracteristiques();
+        int dimension = resultat.donnees.getDimension();
+        double[] sommeDistances = new double[K];
+        int[] effectifs = new int[K];
+
+        for (int i = 0; i < resultat.affectations.length; i++) {
+            int cluster = resultat.affectations[i];
+            if (cluster < 0) continue;
+
+            double distance = metrique.distanceVecteurCentre(coordonnees, i * dimension, centroides[cluster]);
+            sommeDistances[cluster] += distance * distance; // Distance au carré
+            effectifs[cluster]++;
         }
 
-        return Math.sqrt(sommeDistances / pixelsCluster.length);
+        double[] dispersions = new double[K];
+        for (int cluster = 0; cluster < K; cluster++) {
+            if (effectifs[cluster] > 0) {
+                dispersions[cluster] = Math.sqrt(sommeDistances[cluster] / effectifs[cluster]);
+            }
+        }
+        return dispersions;
     }
 
     /**
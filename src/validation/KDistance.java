@@ -0,0 +1,82 @@
+package validation;
+
+import index.FabriqueIndex;
+import index.IndexVoisins;
+import metriques.MetriqueVectorielle;
+import outils.DonneesPixels;
+
+import java.util.Arrays;
+import java.util.stream.IntStream;
+
+/**
+ * Courbe des k-distances, pour choisir eps avant de lancer DBSCAN.
+ * La k-distance d'un point est la distance à laquelle son voisinage atteint un poids k
+ * (lui-même compris, comme pour le critère de point cœur de DBSCAN avec minPts = k).
+ * Triée par ordre décroissant, la courbe présente un coude : les points à gauche du coude
+ * sont du bruit pour eps = k-distance du coude.
+ */
+public class KDistance {
+
+    private final FabriqueIndex fabriqueIndex;
+
+    /**
+     * @param fabriqueIndex Index utilisé pour les k plus proches voisins (ex: ArbreKD::new)
+     */
+    public KDistance(FabriqueIndex fabriqueIndex) {
+        this.fabriqueIndex = fabriqueIndex;
+    }
+
+    /**
+     * Calcule les k-distances de tous les points (en parallèle), triées par ordre décroissant.
+     */
+    public double[] calculer(DonneesPixels donnees, MetriqueVectorielle metrique, int k) {
+        IndexVoisins index = fabriqueIndex.construire(donnees, metrique);
+        float[] coordonnees = donnees.getCaracteristiques();
+        int dimension = donnees.getDimension();
+
+        double[] kDistances = IntStream.range(0, donnees.taille()).parallel().mapToDouble(i -> {
+            int[] voisins = new int[k];
+            double[] distances = new double[k];
+            int nombre = index.chercherPlusProches(coordonnees, i * dimension, k, voisins, distances);
+            // Avec des poids, le poids k peut être atteint avant le k-ième voisin
+            long poids = 0;
+            for (int v = 0; v < nombre; v++) {
+                poids += donnees.getPoids(voisins[v]);
+                if (poids >= k) return distances[v];
+            }
+            return nombre > 0 ? distances[nombre - 1] : 0;
+        }).toArray();
+
+        Arrays.sort(kDistances);
+        for (int a = 0, b = kDistances.length - 1; a < b; a++, b--) {
+            double t = kDistances[a];
+            kDistances[a] = kDistances[b];
+            kDistances[b] = t;
+        }
+        return kDistances;
+    }
+
+    /**
+     * Suggère eps au coude de la courbe : le point le plus éloigné de la droite qui joint ses extrémités.
+     */
+    public static double suggererEps(double[] kDistances) {
+        int n = kDistances.length;
+        if (n == 0) return 0;
+        if (n < 3) return kDistances[n - 1];
+
+        double x1 = 0, y1 = kDistances[0];
+        double x2 = n - 1, y2 = kDistances[n - 1];
+        double longueur = Math.hypot(x2 - x1, y2 - y1);
+
+        int coude = 0;
+        double ecartMax = -1;
+        for (int i = 0; i < n; i++) {
+            double ecart = Math.abs((y2 - y1) * i - (x2 - x1) * kDistances[i] + x2 * y1 - y2 * x1) / longueur;
+            if (ecart > ecartMax) {
+                ecartMax = ecart;
+                coude = i;
+            }
+        }
+        return kDistances[coude];
+    }
+}
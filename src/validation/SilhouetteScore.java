@@ -1,8 +1,9 @@
 package validation;
 
 import clustering.ClusteringManager.ResultatClustering;
-import outils.PixelData;
+import outils.DonneesPixels;
 import metriques.MetriqueDistance;
+import metriques.MetriqueVectorielle;
 import java.util.*;
 
 /**
@@ -20,6 +21,11 @@ public class SilhouetteScore {
     public double calculer(ResultatClustering resultat, MetriqueDistance metrique) {
         if (resultat.nombreClusters <= 1) return 0.0;
 
+        // Coordonnées précalculées dans l'espace de la métrique (une conversion par pixel)
+        if (metrique instanceof MetriqueVectorielle) {
+            ((MetriqueVectorielle) metrique).preparer(resultat.donnees);
+        }
+
         // 1. Prendre un échantillon de 500 points max
         List<Integer> indices = new ArrayList<>();
         for (int i = 0; i < resultat.affectations.length; i++) {
@@ -33,22 +39,47 @@ public class SilhouetteScore {
         int nbPoints = Math.min(500, indices.size());
         List<Integer> echantillon = indices.subList(0, nbPoints);
 
-        // 2. Calculer le score sur l'échantillon
+        // 2. Points de référence communs à tout l'échantillon (max 200, bruit ignoré)
+        DonneesPixels donnees = resultat.donnees;
+        int step = Math.max(1, donnees.taille() / 200);
+        List<Integer> listeReferences = new ArrayList<>();
+        for (int i = 0; i < donnees.taille(); i += step) {
+            if (resultat.affectations[i] >= 0) {
+                listeReferences.add(i);
+            }
+        }
+        int[] references = listeReferences.stream().mapToInt(Integer::intValue).toArray();
+
+        // Avec une métrique vectorielle, les références sont regroupées (coordonnées contiguës)
+        // et chaque point de l'échantillon est comparé à toutes d'un coup (le point y est le second opérande)
+        MetriqueVectorielle vectorielle = metrique instanceof MetriqueVectorielle
+                ? (MetriqueVectorielle) metrique : null;
+        DonneesPixels jeuReferences = vectorielle != null ? donnees.sousEnsemble(references) : null;
+        float[] distances = new float[references.length];
+
+        // 3. Calculer le score sur l'échantillon
         double somme = 0.0;
         for (int idx : echantillon) {
-            somme += calculerPourUnPoint(idx, resultat, metrique);
+            if (vectorielle != null) {
+                vectorielle.distancesBloc(jeuReferences.getCaracteristiques(), 0, references.length,
+                        donnees.getCaracteristiques(), idx * donnees.getDimension(), distances);
+            } else {
+                for (int r = 0; r < references.length; r++) {
+                    distances[r] = (float) metrique.calculerDistance(donnees, idx, donnees, references[r]);
+                }
+            }
+            somme += calculerPourUnPoint(idx, resultat, references, distances);
         }
 
         return somme / nbPoints;
     }
 
     /**
-     * Calcule le score de silhouette pour un seul point.
+     * Calcule le score de silhouette pour un seul point, connaissant ses distances aux références.
      */
     private double calculerPourUnPoint(int index, ResultatClustering resultat,
-                                       MetriqueDistance metrique) {
+                                       int[] references, float[] distances) {
         int monCluster = resultat.affectations[index];
-        PixelData monPoint = resultat.pixels[index];
 
         // Compter les distances
         double distanceIntra = 0.0;  // Distance moyenne dans mon cluster
@@ -57,16 +88,12 @@ public class SilhouetteScore {
         Map<Integer, Double> distancesAutresClusters = new HashMap<>();
         Map<Integer, Integer> compteursClusters = new HashMap<>();
 
-        // Parcourir un échantillon des autres points (max 200)
-        int step = Math.max(1, resultat.pixels.length / 200);
-
-        for (int i = 0; i < resultat.pixels.length; i += step) {
+        for (int r = 0; r < references.length; r++) {
+            int i = references[r];
             if (i == index) continue;
 
             int sonCluster = resultat.affectations[i];
-            if (sonCluster < 0) continue; // Ignorer le bruit
-
-            double distance = metrique.calculerDistance(monPoint, resultat.pixels[i]);
+            double distance = distances[r];
 
             if (sonCluster == monCluster) {
                 // Même cluster
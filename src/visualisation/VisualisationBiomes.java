@@ -1,7 +1,10 @@
 package visualisation;
 
+import clustering.ClusteringManager;
 import clustering.ClusteringManager.ResultatClustering;
-import outils.PixelData;
+import clustering.algorithmes.KMeansMiniLots;
+import outils.DonneesPixels;
+import outils.EcritureBandes;
 import outils.OutilsImage;
 import visualisation.BiomeEtiquetage;
 import validation.DaviesBouldinIndex;
@@ -47,16 +50,39 @@ public class VisualisationBiomes {
         }
 
         // Remplacer chaque pixel par la couleur moyenne de son cluster
-        for (PixelData pixel : resultat.pixels) {
-            int cluster = resultat.affectations[pixel.getIndex()];
+        DonneesPixels donnees = resultat.donnees;
+        for (int i = 0; i < donnees.taille(); i++) {
+            int cluster = resultat.affectations[i];
             if (cluster >= 0) { // Ignorer les points de bruit (-1)
-                imageBiomes.setRGB(pixel.getX(), pixel.getY(), couleursMoyennes[cluster].getRGB());
+                imageBiomes.setRGB(donnees.getX(i), donnees.getY(i), couleursMoyennes[cluster].getRGB());
             }
         }
 
         return imageBiomes;
     }
 
+    /**
+     * Équivalent de creerImageBiomes pour l'étiquetage par tuiles : chaque tuile reçue est écrite
+     * directement dans l'image de sortie, avec la couleur moyenne du centroïde de chaque pixel.
+     *
+     * @param centroides Les centroïdes appris (KMeansMiniLots.apprendre)
+     * @param image L'image de sortie, écrite bande par bande
+     * @return Le consommateur à passer à l'étiquetage
+     */
+    public KMeansMiniLots.ConsommateurEtiquettes ecrireImageBiomes(DonneesPixels centroides, EcritureBandes image) {
+        int[] couleurs = new int[centroides.taille()];
+        for (int c = 0; c < couleurs.length; c++) {
+            couleurs[c] = centroides.getRGB(c);
+        }
+        return (tuile, etiquettes) -> {
+            int[] pixels = new int[etiquettes.length];
+            for (int i = 0; i < pixels.length; i++) {
+                pixels[i] = etiquettes[i] >= 0 ? couleurs[etiquettes[i]] : 0;
+            }
+            ClusteringManager.ecrireTuile(image, tuile, pixels);
+        };
+    }
+
     /**
      * Crée un fond clair en augmentant les canaux RGB de 75%.
      *
@@ -106,10 +132,12 @@ public class VisualisationBiomes {
         BufferedImage imageBiome = creerFondClair(imageOriginale);
 
         // Remplacer les pixels du biome par les vraies couleurs
-        for (PixelData pixel : resultat.pixels) {
-            if (resultat.affectations[pixel.getIndex()] == clusterBiome) {
-                imageBiome.setRGB(pixel.getX(), pixel.getY(),
-                        imageOriginale.getRGB(pixel.getX(), pixel.getY()));
+        DonneesPixels donnees = resultat.donnees;
+        for (int i = 0; i < donnees.taille(); i++) {
+            if (resultat.affectations[i] == clusterBiome) {
+                int x = donnees.getX(i);
+                int y = donnees.getY(i);
+                imageBiome.setRGB(x, y, imageOriginale.getRGB(x, y));
             }
         }
 
@@ -181,6 +209,10 @@ public class VisualisationBiomes {
         rapport.append("Temps d'exécution: ").append(resultat.dureeMs).append(" ms\n");
         rapport.append("Nombre de biomes détectés: ").append(resultat.nombreClusters).append("\n\n");
 
+        // Statistiques d'exécution (phases, distances, requêtes de voisinage...)
+        rapport.append("=== STATISTIQUES D'EXÉCUTION ===\n");
+        rapport.append(resultat.statistiques.formater()).append("\n");
+
         // AJOUT DES INDICES DE VALIDATION
         rapport.append("=== INDICES DE VALIDATION ===\n");
 
@@ -218,8 +250,8 @@ public class VisualisationBiomes {
         rapport.append("=== DÉTAIL DES BIOMES ===\n");
         for (int i = 0; i < resultat.nombreClusters; i++) {
             Color couleur = resultat.getCouleurMoyenneCluster(i);
-            int nbPixels = resultat.getPixelsCluster(i).length;
-            double pourcentage = (nbPixels * 100.0) / resultat.pixels.length;
+            int nbPixels = resultat.getTailleCluster(i);
+            double pourcentage = (nbPixels * 100.0) / resultat.donnees.taille();
 
             rapport.append(String.format("\nBiome %d: %s\n", i, etiquettes[i]));
             rapport.append(String.format("  - Couleur moyenne: RGB(%d, %d, %d)\n",
@@ -256,20 +288,22 @@ public class VisualisationBiomes {
      * Calcule la dispersion d'un biome (écart-type des distances au centroïde).
      */
     private double calculerDispersionBiome(ResultatClustering resultat, int biome) {
-        PixelData[] pixels = resultat.getPixelsCluster(biome);
-        if (pixels.length == 0) return 0.0;
-
         Color couleurMoyenne = resultat.getCouleurMoyenneCluster(biome);
+        DonneesPixels donnees = resultat.donnees;
         double sommeCarres = 0.0;
+        int nbPixels = 0;
+
+        for (int i = 0; i < donnees.taille(); i++) {
+            if (resultat.affectations[i] != biome) continue;
 
-        for (PixelData pixel : pixels) {
-            Color c = pixel.getCouleur();
-            double dr = c.getRed() - couleurMoyenne.getRed();
-            double dg = c.getGreen() - couleurMoyenne.getGreen();
-            double db = c.getBlue() - couleurMoyenne.getBlue();
+            double dr = donnees.getRouge(i) - couleurMoyenne.getRed();
+            double dg = donnees.getVert(i) - couleurMoyenne.getGreen();
+            double db = donnees.getBleu(i) - couleurMoyenne.getBlue();
             sommeCarres += dr*dr + dg*dg + db*db;
+            nbPixels++;
         }
 
-        return Math.sqrt(sommeCarres / pixels.length);
+        if (nbPixels == 0) return 0.0;
+        return Math.sqrt(sommeCarres / nbPixels);
     }
 }
\ No newline at end of file
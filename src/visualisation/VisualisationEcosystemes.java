@@ -1,7 +1,7 @@
 package visualisation;
 
 import clustering.ClusteringManager.ResultatClustering;
-import outils.PixelData;
+import outils.DonneesPixels;
 import outils.OutilsImage;
 import validation.SilhouetteScore;
 import metriques.position.MetriquePositionEuclidienne;
@@ -48,7 +48,7 @@ public class VisualisationEcosystemes {
      * @return L'image avec les écosystèmes colorés
      */
     public BufferedImage creerImageEcosystemes(int largeur, int hauteur,
-                                               PixelData[] pixelsBiome,
+                                               DonneesPixels pixelsBiome,
                                                ResultatClustering resultatEcosystemes) {
         // Créer une image avec fond blanc
         BufferedImage image = new BufferedImage(largeur, hauteur, BufferedImage.TYPE_INT_RGB);
@@ -61,13 +61,12 @@ public class VisualisationEcosystemes {
         Color[] couleursEcosystemes = assignerCouleursEcosystemes(resultatEcosystemes.nombreClusters);
 
         // Colorier chaque pixel selon son écosystème
-        for (int i = 0; i < pixelsBiome.length; i++) {
-            PixelData pixel = pixelsBiome[i];
+        for (int i = 0; i < pixelsBiome.taille(); i++) {
             int ecosysteme = resultatEcosystemes.affectations[i];
 
             if (ecosysteme >= 0) { // Ignorer les points de bruit
                 Color couleur = couleursEcosystemes[ecosysteme];
-                image.setRGB(pixel.getX(), pixel.getY(), couleur.getRGB());
+                image.setRGB(pixelsBiome.getX(i), pixelsBiome.getY(i), couleur.getRGB());
             }
         }
 
@@ -78,7 +77,7 @@ public class VisualisationEcosystemes {
      * Crée une image montrant les écosystèmes sur fond clair.
      */
     public BufferedImage creerImageEcosystemesSurFondClair(BufferedImage fondClair,
-                                                           PixelData[] pixelsBiome,
+                                                           DonneesPixels pixelsBiome,
                                                            ResultatClustering resultatEcosystemes) {
         // Copier le fond clair
         BufferedImage image = new BufferedImage(fondClair.getWidth(),
@@ -92,13 +91,12 @@ public class VisualisationEcosystemes {
         Color[] couleursEcosystemes = assignerCouleursEcosystemes(resultatEcosystemes.nombreClusters);
 
         // Colorier chaque pixel selon son écosystème
-        for (int i = 0; i < pixelsBiome.length; i++) {
-            PixelData pixel = pixelsBiome[i];
+        for (int i = 0; i < pixelsBiome.taille(); i++) {
             int ecosysteme = resultatEcosystemes.affectations[i];
 
             if (ecosysteme >= 0) { // Ignorer les points de bruit
                 Color couleur = couleursEcosystemes[ecosysteme];
-                image.setRGB(pixel.getX(), pixel.getY(), couleur.getRGB());
+                image.setRGB(pixelsBiome.getX(i), pixelsBiome.getY(i), couleur.getRGB());
             }
         }
 
@@ -145,7 +143,7 @@ public class VisualisationEcosystemes {
      * Sauvegarde les écosystèmes d'un biome.
      */
     public void sauvegarderEcosystemesBiome(BufferedImage imageOriginale,
-                                            PixelData[] pixelsBiome,
+                                            DonneesPixels pixelsBiome,
                                             ResultatClustering resultatEcosystemes,
                                             String dossierSortie,
                                             String nomBiome,
@@ -181,7 +179,7 @@ public class VisualisationEcosystemes {
      * Crée un rapport textuel sur les écosystèmes détectés avec indices de validation.
      */
     private void creerRapportEcosystemes(ResultatClustering resultat,
-                                         PixelData[] pixelsBiome,
+                                         DonneesPixels pixelsBiome,
                                          String nomBiome,
                                          String cheminFichier) throws IOException {
         StringBuilder rapport = new StringBuilder();
@@ -192,6 +190,10 @@ public class VisualisationEcosystemes {
         rapport.append("Temps d'exécution: ").append(resultat.dureeMs).append(" ms\n");
         rapport.append("Nombre d'écosystèmes détectés: ").append(resultat.nombreClusters).append("\n\n");
 
+        // Statistiques d'exécution (phases, distances, requêtes de voisinage...)
+        rapport.append("=== STATISTIQUES D'EXÉCUTION ===\n");
+        rapport.append(resultat.statistiques.formater()).append("\n");
+
         // AJOUT DES INDICES DE VALIDATION
         rapport.append("=== INDICES DE VALIDATION ===\n");
 
@@ -238,18 +240,19 @@ public class VisualisationEcosystemes {
             for (int j = 0; j < resultat.affectations.length; j++) {
                 if (resultat.affectations[j] == i) {
                     nbPixels++;
-                    PixelData pixel = pixelsBiome[j];
-                    sumX += pixel.getX();
-                    sumY += pixel.getY();
-                    minX = Math.min(minX, pixel.getX());
-                    maxX = Math.max(maxX, pixel.getX());
-                    minY = Math.min(minY, pixel.getY());
-                    maxY = Math.max(maxY, pixel.getY());
+                    int x = pixelsBiome.getX(j);
+                    int y = pixelsBiome.getY(j);
+                    sumX += x;
+                    sumY += y;
+                    minX = Math.min(minX, x);
+                    maxX = Math.max(maxX, x);
+                    minY = Math.min(minY, y);
+                    maxY = Math.max(maxY, y);
                 }
             }
 
             if (nbPixels > 0) {
-                double pourcentage = (nbPixels * 100.0) / pixelsBiome.length;
+                double pourcentage = (nbPixels * 100.0) / pixelsBiome.taille();
                 double centreX = sumX / nbPixels;
                 double centreY = sumY / nbPixels;
 